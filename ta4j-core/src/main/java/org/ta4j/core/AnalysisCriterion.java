@@ -56,12 +56,15 @@ public interface AnalysisCriterion {
      */
     default Strategy chooseBest(TimeSeriesManager manager, List<Strategy> strategies) {
 
+        // All the strategies are run in a single loop over the bars
+        List<TradingRecord> tradingRecords = manager.run(strategies);
+
         Strategy bestStrategy = strategies.get(0);
-        double bestCriterionValue = calculate(manager.getTimeSeries(), manager.run(bestStrategy));
+        double bestCriterionValue = calculate(manager.getTimeSeries(), tradingRecords.get(0));
 
         for (int i = 1; i < strategies.size(); i++) {
             Strategy currentStrategy = strategies.get(i);
-            double currentCriterionValue = calculate(manager.getTimeSeries(), manager.run(currentStrategy));
+            double currentCriterionValue = calculate(manager.getTimeSeries(), tradingRecords.get(i));
 
             if (betterThan(currentCriterionValue, bestCriterionValue)) {
                 bestStrategy = currentStrategy;
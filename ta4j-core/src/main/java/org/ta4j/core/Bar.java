@@ -25,6 +25,7 @@ package org.ta4j.core;
 
 import java.io.Serializable;
 import java.time.Duration;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -85,6 +86,48 @@ public interface Bar extends Serializable {
      */
     ZonedDateTime getEndTime();
 
+    /**
+     * @return the time zone of the bar
+     */
+    default ZoneId getZone() {
+        return getEndTime().getZone();
+    }
+
+    /**
+     * @return the begin timestamp of the bar period (milliseconds from the epoch, rounded down)
+     */
+    default long getBeginEpochMilli() {
+        return getBeginTime().toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return the end timestamp of the bar period (milliseconds from the epoch, rounded down)
+     */
+    default long getEndEpochMilli() {
+        return getEndTime().toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return the nanoseconds of the end timestamp within its millisecond (0 for bars ending on whole milliseconds)
+     */
+    default int getEndNanoOfMilli() {
+        return getEndTime().getNano() % 1000000;
+    }
+
+    /**
+     * @param bar another bar
+     * @return true if the end time of this bar is after the end time of the other bar, false otherwise
+     */
+    default boolean endsAfter(Bar bar) {
+        long endEpochMilli = getEndEpochMilli();
+        long otherEndEpochMilli = bar.getEndEpochMilli();
+        if (endEpochMilli != otherEndEpochMilli) {
+            return endEpochMilli > otherEndEpochMilli;
+        }
+        // Same millisecond: comparing the nanoseconds
+        return getEndTime().isAfter(bar.getEndTime());
+    }
+
     /**
      * @param timestamp a timestamp
      * @return true if the provided timestamp is between the begin time and the end time of the current period, false otherwise
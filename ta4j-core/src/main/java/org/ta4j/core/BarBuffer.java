@@ -0,0 +1,226 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Bar list of a {@link BaseTimeSeries}, written by one thread and read by many threads without locking.
+ * <p></p>
+ * The bars are kept in an array published through an immutable {@link Snapshot snapshot} (the array, the position
+ * and the number of its bars): the writer fills the free slots of the array and then publishes a new snapshot
+ * (volatile write), so that a reader sees all the bars of the snapshot it reads. The array slots of a published
+ * snapshot are never reused: when the array is full, the bars are copied into a new array.<br>
+ * Removing the first bars (maximum bar count) only moves the position of the bars in the array, and appending many
+ * bars at once copies them (and publishes them) once.
+ */
+final class BarBuffer extends AbstractList<Bar> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 4287546618263510938L;
+
+    /** The initial capacity of the array */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The published snapshot */
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor of an empty buffer.
+     */
+    BarBuffer() {
+        this(0);
+    }
+
+    /**
+     * Constructor of an empty buffer whose first bars have already been removed.
+     * @param removedCount the number of bars already removed
+     */
+    BarBuffer(int removedCount) {
+        if (removedCount < 0) {
+            throw new IllegalArgumentException("Removed bars count must be positive");
+        }
+        snapshot = new Snapshot(new Bar[INITIAL_CAPACITY], 0, 0, removedCount);
+    }
+
+    /**
+     * @return the current snapshot of the bars
+     */
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public Bar get(int index) {
+        return snapshot.get(index);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.size;
+    }
+
+    @Override
+    public void add(int index, Bar bar) {
+        Snapshot current = snapshot;
+        if (index != current.size) {
+            // Not an append: rebuilding the array
+            Bar[] bars = new Bar[Math.max(INITIAL_CAPACITY, (current.size + 1) * 2)];
+            System.arraycopy(current.bars, current.head, bars, 0, index);
+            bars[index] = bar;
+            System.arraycopy(current.bars, current.head + index, bars, index + 1, current.size - index);
+            publish(new Snapshot(bars, 0, current.size + 1, current.removedCount));
+            return;
+        }
+        Bar[] bars = current.bars;
+        int head = current.head;
+        if (head + current.size == bars.length) {
+            // Array full: copying the bars in a new array (twice larger if more than half of the array is used)
+            Bar[] newBars = new Bar[current.size * 2 > bars.length ? bars.length * 2 : bars.length];
+            System.arraycopy(bars, head, newBars, 0, current.size);
+            bars = newBars;
+            head = 0;
+        }
+        bars[head + current.size] = bar;
+        publish(new Snapshot(bars, head, current.size + 1, current.removedCount));
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Bar> addedBars) {
+        Snapshot current = snapshot;
+        if (index != current.size) {
+            return super.addAll(index, addedBars);
+        }
+        Object[] added = addedBars.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        Bar[] bars = current.bars;
+        int head = current.head;
+        int size = current.size + added.length;
+        if (head + size > bars.length) {
+            // Not enough free slots: copying the bars in a new array, sized once for all the new bars
+            Bar[] newBars = new Bar[size * 2 > bars.length ? Math.max(bars.length * 2, size) : bars.length];
+            System.arraycopy(bars, head, newBars, 0, current.size);
+            bars = newBars;
+            head = 0;
+        }
+        System.arraycopy(added, 0, bars, head + current.size, added.length);
+        publish(new Snapshot(bars, head, size, current.removedCount));
+        return true;
+    }
+
+    @Override
+    public Bar set(int index, Bar bar) {
+        Snapshot current = snapshot;
+        Bar previousBar = current.get(index);
+        current.bars[current.head + index] = bar;
+        publish(new Snapshot(current.bars, current.head, current.size, current.removedCount));
+        return previousBar;
+    }
+
+    @Override
+    public Bar remove(int index) {
+        Bar bar = get(index);
+        removeRange(index, index + 1);
+        return bar;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Snapshot current = snapshot;
+        if (fromIndex == 0) {
+            // First bars: moving the position of the bars
+            publish(new Snapshot(current.bars, current.head + toIndex, current.size - toIndex,
+                    current.removedCount + toIndex));
+            return;
+        }
+        Bar[] bars = new Bar[Math.max(current.bars.length, INITIAL_CAPACITY)];
+        System.arraycopy(current.bars, current.head, bars, 0, fromIndex);
+        System.arraycopy(current.bars, current.head + toIndex, bars, fromIndex, current.size - toIndex);
+        publish(new Snapshot(bars, 0, current.size - (toIndex - fromIndex), current.removedCount));
+    }
+
+    /**
+     * @param newSnapshot the new snapshot to be published
+     */
+    private void publish(Snapshot newSnapshot) {
+        snapshot = newSnapshot;
+        modCount++;
+    }
+
+    /**
+     * Immutable view of the bars of the buffer at a given time.
+     */
+    static final class Snapshot extends AbstractList<Bar> implements RandomAccess, Serializable {
+
+        private static final long serialVersionUID = -2735268435071934263L;
+
+        /** The array of the bars */
+        private final Bar[] bars;
+
+        /** The position of the first bar in the array */
+        private final int head;
+
+        /** The number of bars */
+        private final int size;
+
+        /** The number of bars removed from the beginning of the buffer */
+        private final int removedCount;
+
+        private Snapshot(Bar[] bars, int head, int size, int removedCount) {
+            this.bars = bars;
+            this.head = head;
+            this.size = size;
+            this.removedCount = removedCount;
+        }
+
+        @Override
+        public Bar get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            return bars[head + index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the number of bars removed from the beginning of the buffer
+         */
+        int getRemovedCount() {
+            return removedCount;
+        }
+
+        @Override
+        public Object[] toArray() {
+            return Arrays.copyOfRange(bars, head, head + size, Object[].class);
+        }
+    }
+}
@@ -22,23 +22,36 @@
  */
 package org.ta4j.core;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
 /**
  * Base implementation of a {@link Bar}.
  * <p></p>
+ * The times of the bar are kept as primitives (milliseconds from the epoch and a time zone, usually shared by all the
+ * bars of a series), so that the time comparisons are integer comparisons. The {@link ZonedDateTime begin and end
+ * times} are only built when requested.
  */
 public class BaseBar implements Bar {
 
 	private static final long serialVersionUID = 8038383777467488147L;
 	/** Time period (e.g. 1 day, 15 min, etc.) of the bar */
     private Duration timePeriod;
-    /** End time of the bar */
-    private ZonedDateTime endTime;
-    /** Begin time of the bar */
-    private ZonedDateTime beginTime;
+    /** End time of the bar (milliseconds from the epoch) */
+    private long endEpochMilli;
+    /** End time of the bar (nanoseconds within the millisecond) */
+    private int endNanoOfMilli;
+    /** Time zone of the bar */
+    private ZoneId zone;
+    /** End time of the bar (built when requested) */
+    private transient ZonedDateTime endTime;
+    /** Begin time of the bar (built when requested) */
+    private transient ZonedDateTime beginTime;
     /** Open price of the period */
     private Decimal openPrice = null;
     /** Close price of the period */
@@ -61,9 +74,20 @@ public class BaseBar implements Bar {
      */
     public BaseBar(Duration timePeriod, ZonedDateTime endTime) {
         checkTimeArguments(timePeriod, endTime);
+        setTimes(timePeriod, endTime);
+    }
+
+    /**
+     * Constructor.
+     * @param timePeriod the time period
+     * @param endEpochMilli the end time of the bar period (milliseconds from the epoch)
+     * @param zone the time zone of the bar
+     */
+    public BaseBar(Duration timePeriod, long endEpochMilli, ZoneId zone) {
+        checkTimeArguments(timePeriod, zone);
         this.timePeriod = timePeriod;
-        this.endTime = endTime;
-        this.beginTime = endTime.minus(timePeriod);
+        this.endEpochMilli = endEpochMilli;
+        this.zone = zone;
     }
 
     /**
@@ -140,15 +164,44 @@ public class BaseBar implements Bar {
      */
     public BaseBar(Duration timePeriod, ZonedDateTime endTime, Decimal openPrice, Decimal highPrice, Decimal lowPrice, Decimal closePrice, Decimal volume, Decimal amount) {
         checkTimeArguments(timePeriod, endTime);
-        this.timePeriod = timePeriod;
-        this.endTime = endTime;
-        this.beginTime = endTime.minus(timePeriod);
-        this.openPrice = openPrice;
-        this.maxPrice = highPrice;
-        this.minPrice = lowPrice;
-        this.closePrice = closePrice;
-        this.volume = volume;
-        this.amount = amount;
+        setTimes(timePeriod, endTime);
+        setValues(openPrice, highPrice, lowPrice, closePrice, volume, amount);
+    }
+
+    /**
+     * Constructor.
+     * @param timePeriod the time period
+     * @param endTime the end time of the bar period
+     * @param openPrice the open price of the bar period
+     * @param highPrice the highest price of the bar period
+     * @param lowPrice the lowest price of the bar period
+     * @param closePrice the close price of the bar period
+     * @param volume the volume of the bar period
+     * @param amount the amount of the bar period
+     * @param trades the number of trades of the bar period
+     */
+    public BaseBar(Duration timePeriod, ZonedDateTime endTime, Decimal openPrice, Decimal highPrice, Decimal lowPrice, Decimal closePrice, Decimal volume, Decimal amount, int trades) {
+        this(timePeriod, endTime, openPrice, highPrice, lowPrice, closePrice, volume, amount);
+        this.trades = trades;
+    }
+
+    /**
+     * Constructor.
+     * @param timePeriod the time period
+     * @param endEpochMilli the end time of the bar period (milliseconds from the epoch)
+     * @param zone the time zone of the bar
+     * @param openPrice the open price of the bar period
+     * @param highPrice the highest price of the bar period
+     * @param lowPrice the lowest price of the bar period
+     * @param closePrice the close price of the bar period
+     * @param volume the volume of the bar period
+     * @param amount the amount of the bar period
+     * @param trades the number of trades of the bar period
+     */
+    public BaseBar(Duration timePeriod, long endEpochMilli, ZoneId zone, Decimal openPrice, Decimal highPrice, Decimal lowPrice, Decimal closePrice, Decimal volume, Decimal amount, int trades) {
+        this(timePeriod, endEpochMilli, zone);
+        setValues(openPrice, highPrice, lowPrice, closePrice, volume, amount);
+        this.trades = trades;
     }
 
     /**
@@ -211,6 +264,9 @@ public class BaseBar implements Bar {
      * @return the begin timestamp of the bar period
      */
     public ZonedDateTime getBeginTime() {
+        if (beginTime == null) {
+            beginTime = getEndTime().minus(timePeriod);
+        }
         return beginTime;
     }
 
@@ -218,9 +274,46 @@ public class BaseBar implements Bar {
      * @return the end timestamp of the bar period
      */
     public ZonedDateTime getEndTime() {
+        if (endTime == null) {
+            Instant endInstant = Instant.ofEpochSecond(Math.floorDiv(endEpochMilli, 1000),
+                    Math.floorMod(endEpochMilli, 1000) * 1000000L + endNanoOfMilli);
+            endTime = ZonedDateTime.ofInstant(endInstant, zone);
+        }
         return endTime;
     }
 
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public long getBeginEpochMilli() {
+        // Duration.toMillis() rounds down: one more millisecond when the remaining nanoseconds cross a millisecond
+        long beginEpochMilli = endEpochMilli - timePeriod.toMillis();
+        return timePeriod.getNano() % 1000000 > endNanoOfMilli ? beginEpochMilli - 1 : beginEpochMilli;
+    }
+
+    @Override
+    public long getEndEpochMilli() {
+        return endEpochMilli;
+    }
+
+    @Override
+    public int getEndNanoOfMilli() {
+        return endNanoOfMilli;
+    }
+
+    @Override
+    public boolean endsAfter(Bar bar) {
+        if (bar instanceof BaseBar) {
+            BaseBar baseBar = (BaseBar) bar;
+            return endEpochMilli > baseBar.endEpochMilli
+                    || (endEpochMilli == baseBar.endEpochMilli && endNanoOfMilli > baseBar.endNanoOfMilli);
+        }
+        return Bar.super.endsAfter(bar);
+    }
+
     /**
      * Adds a trade at the end of bar period.
      * @param tradeVolume the traded volume
@@ -250,7 +343,36 @@ public class BaseBar implements Bar {
     @Override
     public String toString() {
         return String.format("{end time: %1s, close price: %2$f, open price: %3$f, min price: %4$f, max price: %5$f, volume: %6$f}",
-                endTime.withZoneSameInstant(ZoneId.systemDefault()), closePrice.doubleValue(), openPrice.doubleValue(), minPrice.doubleValue(), maxPrice.doubleValue(), volume.doubleValue());
+                getEndTime().withZoneSameInstant(ZoneId.systemDefault()), closePrice.doubleValue(), openPrice.doubleValue(), minPrice.doubleValue(), maxPrice.doubleValue(), volume.doubleValue());
+    }
+
+    /**
+     * @param timePeriod the time period
+     * @param endTime the end time of the bar period
+     */
+    private void setTimes(Duration timePeriod, ZonedDateTime endTime) {
+        this.timePeriod = timePeriod;
+        this.endEpochMilli = endTime.toEpochSecond() * 1000 + endTime.getNano() / 1000000;
+        this.endNanoOfMilli = endTime.getNano() % 1000000;
+        this.zone = endTime.getZone();
+        this.endTime = endTime;
+    }
+
+    /**
+     * @param openPrice the open price of the bar period
+     * @param highPrice the highest price of the bar period
+     * @param lowPrice the lowest price of the bar period
+     * @param closePrice the close price of the bar period
+     * @param volume the volume of the bar period
+     * @param amount the amount of the bar period
+     */
+    private void setValues(Decimal openPrice, Decimal highPrice, Decimal lowPrice, Decimal closePrice, Decimal volume, Decimal amount) {
+        this.openPrice = openPrice;
+        this.maxPrice = highPrice;
+        this.minPrice = lowPrice;
+        this.closePrice = closePrice;
+        this.volume = volume;
+        this.amount = amount;
     }
 
     /**
@@ -266,4 +388,50 @@ public class BaseBar implements Bar {
             throw new IllegalArgumentException("End time cannot be null");
         }
     }
+
+    /**
+     * @param timePeriod the time period
+     * @param zone the time zone of the bar
+     * @throws IllegalArgumentException if one of the arguments is null
+     */
+    private void checkTimeArguments(Duration timePeriod, ZoneId zone) {
+        if (timePeriod == null) {
+            throw new IllegalArgumentException("Time period cannot be null");
+        }
+        if (zone == null) {
+            throw new IllegalArgumentException("Time zone cannot be null");
+        }
+    }
+
+    /**
+     * Reads a bar, also from the serialized form of the previous versions (end and begin times as
+     * {@link ZonedDateTime zoned date times}).
+     * @param in the object input stream
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        timePeriod = (Duration) fields.get("timePeriod", null);
+        if (fields.getObjectStreamClass().getField("endTime") != null) {
+            // Previous serialized form
+            ZonedDateTime serializedEndTime = (ZonedDateTime) fields.get("endTime", null);
+            if (serializedEndTime == null) {
+                throw new InvalidObjectException("Bar without end time");
+            }
+            setTimes(timePeriod, serializedEndTime);
+        } else {
+            endEpochMilli = fields.get("endEpochMilli", 0L);
+            endNanoOfMilli = fields.get("endNanoOfMilli", 0);
+            zone = (ZoneId) fields.get("zone", null);
+            if (zone == null) {
+                throw new InvalidObjectException("Bar without time zone");
+            }
+        }
+        openPrice = (Decimal) fields.get("openPrice", null);
+        closePrice = (Decimal) fields.get("closePrice", null);
+        maxPrice = (Decimal) fields.get("maxPrice", null);
+        minPrice = (Decimal) fields.get("minPrice", null);
+        amount = (Decimal) fields.get("amount", Decimal.ZERO);
+        volume = (Decimal) fields.get("volume", Decimal.ZERO);
+        trades = fields.get("trades", 0);
+    }
 }
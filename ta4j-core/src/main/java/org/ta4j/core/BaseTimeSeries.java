@@ -25,14 +25,18 @@ package org.ta4j.core;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 
 /**
  * Base implementation of a {@link TimeSeries}.
  * <p></p>
+ * A series built without a list of bars ({@link #BaseTimeSeries()}, {@link #BaseTimeSeries(String)}) can be read by
+ * many threads (e.g. to compute indicators) while one thread adds the bars: its bars are kept in a buffer which
+ * publishes them safely, and its indexes are updated after the bars are published.
  */
 public class BaseTimeSeries implements TimeSeries {
 
@@ -44,15 +48,17 @@ public class BaseTimeSeries implements TimeSeries {
     /** Name of the series */
     private final String name;
     /** Begin index of the time series */
-    private int seriesBeginIndex = -1;
+    private volatile int seriesBeginIndex = -1;
     /** End index of the time series */
-    private int seriesEndIndex = -1;
+    private volatile int seriesEndIndex = -1;
     /** List of bars */
     private final List<Bar> bars;
     /** Maximum number of bars for the time series */
-    private int maximumBarCount = Integer.MAX_VALUE;
+    private volatile int maximumBarCount = Integer.MAX_VALUE;
     /** Number of removed bars */
-    private int removedBarsCount = 0;
+    private volatile int removedBarsCount = 0;
+    /** Version of the last bar (number of replacements and updates of the last bar) */
+    private volatile long lastBarVersion = 0;
     /** True if the current series is constrained (i.e. its indexes cannot change), false otherwise */
     private boolean constrained = false;
 
@@ -68,7 +74,25 @@ public class BaseTimeSeries implements TimeSeries {
      * @param name the name of the series
      */
     public BaseTimeSeries(String name) {
-        this(name, new ArrayList<Bar>());
+        this(name, new BarBuffer());
+    }
+
+    /**
+     * Constructor of a series whose first bars have already been removed (e.g. a series restored from a live series
+     * with a maximum bar count).
+     * <p>
+     * The first added bar gets the <tt>removedBarsCount</tt> index, so that the indexes of the original series (and of
+     * its indicators and trading records) are kept.
+     * @param name the name of the series
+     * @param removedBarsCount the number of bars already removed from the series
+     */
+    public BaseTimeSeries(String name, int removedBarsCount) {
+        this(name, new BarBuffer(removedBarsCount));
+        if (removedBarsCount > 0) {
+            this.removedBarsCount = removedBarsCount;
+            this.seriesBeginIndex = 0;
+            this.seriesEndIndex = removedBarsCount - 1;
+        }
     }
 
     /**
@@ -176,6 +200,21 @@ public class BaseTimeSeries implements TimeSeries {
 
     @Override
     public Bar getBar(int i) {
+        if (bars instanceof BarBuffer) {
+            // Bars and removed bars count of the same time (bars may be added by another thread)
+            BarBuffer.Snapshot snapshot = ((BarBuffer) bars).snapshot();
+            return getBar(i, snapshot, snapshot.getRemovedCount());
+        }
+        return getBar(i, bars, removedBarsCount);
+    }
+
+    /**
+     * @param i an index
+     * @param bars the bars of the series
+     * @param removedBarsCount the number of bars removed from the series
+     * @return the bar at the i-th position
+     */
+    private Bar getBar(int i, List<Bar> bars, int removedBarsCount) {
         int innerIndex = i - removedBarsCount;
         if (innerIndex < 0) {
             if (i < 0) {
@@ -237,6 +276,10 @@ public class BaseTimeSeries implements TimeSeries {
 
     @Override
     public int getRemovedBarsCount() {
+        if (bars instanceof BarBuffer) {
+            // Removed bars count of the last published bars
+            return ((BarBuffer) bars).snapshot().getRemovedCount();
+        }
         return removedBarsCount;
     }
 
@@ -248,8 +291,7 @@ public class BaseTimeSeries implements TimeSeries {
 
         if (!bars.isEmpty()) {
             final int lastBarIndex = bars.size() - 1;
-            ZonedDateTime seriesEndTime = bars.get(lastBarIndex).getEndTime();
-            if (!bar.getEndTime().isAfter(seriesEndTime)) {
+            if (!bar.endsAfter(bars.get(lastBarIndex))) {
                 throw new IllegalArgumentException("Cannot add a bar with end time <= to series end time");
             }
         }
@@ -263,6 +305,70 @@ public class BaseTimeSeries implements TimeSeries {
         removeExceedingBars();
     }
 
+    @Override
+    public void addBars(Collection<? extends Bar> newBars) {
+        if (newBars == null) {
+            throw new IllegalArgumentException("Cannot add null bars");
+        }
+        final Bar[] added = newBars.toArray(new Bar[0]);
+        if (added.length == 0) {
+            return;
+        }
+        // Validating all the bars before adding any of them
+        Bar previousBar = bars.isEmpty() ? null : bars.get(bars.size() - 1);
+        for (Bar bar : added) {
+            if (bar == null) {
+                throw new IllegalArgumentException("Cannot add null bar");
+            }
+            if (previousBar != null && !bar.endsAfter(previousBar)) {
+                throw new IllegalArgumentException("Cannot add a bar with end time <= to the previous bar end time");
+            }
+            previousBar = bar;
+        }
+
+        bars.addAll(Arrays.asList(added));
+        if (seriesBeginIndex == -1) {
+            // Begin index set to 0 only if if wasn't initialized
+            seriesBeginIndex = 0;
+        }
+        seriesEndIndex += added.length;
+        removeExceedingBars();
+    }
+
+    @Override
+    public void addBar(Bar bar, boolean replace) {
+        if (!replace) {
+            addBar(bar);
+            return;
+        }
+        if (bar == null) {
+            throw new IllegalArgumentException("Cannot add null bar");
+        }
+        if (constrained || bars.isEmpty()) {
+            throw new IllegalStateException("Cannot replace the last bar of an empty or constrained time series");
+        }
+        final int lastBarIndex = bars.size() - 1;
+        if (lastBarIndex > 0 && !bar.endsAfter(bars.get(lastBarIndex - 1))) {
+            throw new IllegalArgumentException("Cannot replace the last bar by a bar with end time <= to the previous bar end time");
+        }
+        bars.set(lastBarIndex, bar);
+        lastBarVersion++;
+    }
+
+    @Override
+    public void addTrade(Decimal tradeVolume, Decimal tradePrice) {
+        if (constrained || bars.isEmpty()) {
+            throw new IllegalStateException("Cannot add a trade to an empty or constrained time series");
+        }
+        bars.get(bars.size() - 1).addTrade(tradeVolume, tradePrice);
+        lastBarVersion++;
+    }
+
+    @Override
+    public long getLastBarVersion() {
+        return lastBarVersion;
+    }
+
     /**
      * Removes the N first bars which exceed the maximum bar count.
      */
@@ -271,9 +377,7 @@ public class BaseTimeSeries implements TimeSeries {
         if (barCount > maximumBarCount) {
             // Removing old bars
             int nbBarsToRemove = barCount - maximumBarCount;
-            for (int i = 0; i < nbBarsToRemove; i++) {
-                bars.remove(0);
-            }
+            bars.subList(0, nbBarsToRemove).clear();
             // Updating removed bars count
             removedBarsCount += nbBarsToRemove;
         }
@@ -24,6 +24,7 @@ package org.ta4j.core;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Base implementation of a {@link TradingRecord}.
@@ -57,6 +58,9 @@ public class BaseTradingRecord implements TradingRecord {
     /** The current non-closed trade (there's always one) */
     private Trade currentTrade;
 
+    /** The listeners of the recorded orders (copied on write: a listener may remove itself when notified) */
+    private transient List<TradingRecordListener> listeners;
+
     /**
      * Constructor.
      */
@@ -170,6 +174,30 @@ public class BaseTradingRecord implements TradingRecord {
         return null;
     }
 
+    /**
+     * Adds a listener which will be notified of the next recorded orders.
+     * @param listener the listener to be added
+     */
+    public void addListener(TradingRecordListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener should not be null");
+        }
+        if (listeners == null) {
+            listeners = new CopyOnWriteArrayList<TradingRecordListener>();
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * @param listener the listener to be removed
+     */
+    public void removeListener(TradingRecordListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
     /**
      * Records an order and the corresponding trade (if closed).
      * @param order the order to be recorded
@@ -198,9 +226,22 @@ public class BaseTradingRecord implements TradingRecord {
         }
 
         // Storing the trade if closed
+        Trade closedTrade = null;
         if (currentTrade.isClosed()) {
+            closedTrade = currentTrade;
             trades.add(currentTrade);
             currentTrade = new Trade(startingType);
         }
+
+        // Notifying the listeners
+        if (listeners != null) {
+            for (TradingRecordListener listener : listeners) {
+                if (isEntry) {
+                    listener.onEntry(this, order);
+                } else {
+                    listener.onExit(this, closedTrade);
+                }
+            }
+        }
     }
 }
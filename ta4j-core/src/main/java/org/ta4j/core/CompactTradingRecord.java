@@ -0,0 +1,288 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact implementation of a {@link TradingRecord}.
+ * <p></p>
+ * Designed for runs creating a lot of trading records (e.g. optimizations):
+ * <ul>
+ *     <li>the orders are stored in primitive columns (index, price, amount, type) instead of lists of objects
+ *     <li>the last order, entry, exit, BUY and SELL orders are kept in fields
+ *     <li>the {@link Trade trades} are only built when {@link #getTrades()} is called
+ * </ul>
+ * Prices and amounts are stored as doubles (i.e. with a possible loss of precision for {@link Decimal decimals}
+ * which cannot be exactly represented by a double).
+ */
+public class CompactTradingRecord implements TradingRecord {
+
+    private static final long serialVersionUID = 2930596406219373163L;
+
+    /** Initial capacity of the order columns */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** The indexes of the recorded orders */
+    private int[] indexes = new int[INITIAL_CAPACITY];
+
+    /** The prices of the recorded orders */
+    private double[] prices = new double[INITIAL_CAPACITY];
+
+    /** The amounts of the recorded orders */
+    private double[] amounts = new double[INITIAL_CAPACITY];
+
+    /** The types of the recorded orders (true for BUY, false for SELL) */
+    private boolean[] buys = new boolean[INITIAL_CAPACITY];
+
+    /** The number of recorded orders (entries and exits alternate) */
+    private int orderCount = 0;
+
+    /** The entry type (BUY or SELL) in the trading session */
+    private final Order.OrderType startingType;
+
+    /** The current non-closed trade (there's always one) */
+    private Trade currentTrade;
+
+    /** The last closed trade */
+    private Trade lastTrade;
+
+    /** The last recorded order */
+    private Order lastOrder;
+
+    /** The last recorded entry order */
+    private Order lastEntry;
+
+    /** The last recorded exit order */
+    private Order lastExit;
+
+    /** The last recorded BUY order */
+    private Order lastBuyOrder;
+
+    /** The last recorded SELL order */
+    private Order lastSellOrder;
+
+    /** The recorded trades, built on demand */
+    private transient List<Trade> trades;
+
+    /**
+     * Constructor.
+     */
+    public CompactTradingRecord() {
+        this(Order.OrderType.BUY);
+    }
+
+    /**
+     * Constructor.
+     * @param entryOrderType the {@link Order.OrderType order type} of entries in the trading session
+     */
+    public CompactTradingRecord(Order.OrderType entryOrderType) {
+        if (entryOrderType == null) {
+            throw new IllegalArgumentException("Starting type must not be null");
+        }
+        this.startingType = entryOrderType;
+        currentTrade = new Trade(entryOrderType);
+    }
+
+    /**
+     * Constructor.
+     * @param orders the orders to be recorded (cannot be empty)
+     */
+    public CompactTradingRecord(Order... orders) {
+        this(orders[0].getType());
+        for (Order o : orders) {
+            boolean newOrderWillBeAnEntry = currentTrade.isNew();
+            if (newOrderWillBeAnEntry && o.getType() != startingType) {
+                // Special case for entry/exit types reversal
+                currentTrade = new Trade(o.getType());
+            }
+            Order newOrder = currentTrade.operate(o.getIndex(), o.getPrice(), o.getAmount());
+            recordOrder(newOrder, newOrderWillBeAnEntry);
+        }
+    }
+
+    @Override
+    public Trade getCurrentTrade() {
+        return currentTrade;
+    }
+
+    @Override
+    public void operate(int index, Decimal price, Decimal amount) {
+        if (currentTrade.isClosed()) {
+            // Current trade closed, should not occur
+            throw new IllegalStateException("Current trade should not be closed");
+        }
+        boolean newOrderWillBeAnEntry = currentTrade.isNew();
+        Order newOrder = currentTrade.operate(index, price, amount);
+        recordOrder(newOrder, newOrderWillBeAnEntry);
+    }
+
+    @Override
+    public boolean enter(int index, Decimal price, Decimal amount) {
+        if (currentTrade.isNew()) {
+            operate(index, price, amount);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean exit(int index, Decimal price, Decimal amount) {
+        if (currentTrade.isOpened()) {
+            operate(index, price, amount);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Builds the trades which have not been built yet.
+     * @return the recorded trades
+     */
+    @Override
+    public List<Trade> getTrades() {
+        if (trades == null) {
+            trades = new ArrayList<Trade>(getTradeCount());
+        }
+        for (int i = trades.size() * 2; i + 1 < orderCount; i += 2) {
+            trades.add(new Trade(getOrder(i), getOrder(i + 1)));
+        }
+        return trades;
+    }
+
+    @Override
+    public int getTradeCount() {
+        return orderCount / 2;
+    }
+
+    @Override
+    public Trade getLastTrade() {
+        return lastTrade;
+    }
+
+    @Override
+    public Order getLastOrder() {
+        return lastOrder;
+    }
+
+    @Override
+    public Order getLastOrder(Order.OrderType orderType) {
+        if (Order.OrderType.BUY.equals(orderType)) {
+            return lastBuyOrder;
+        } else if (Order.OrderType.SELL.equals(orderType)) {
+            return lastSellOrder;
+        }
+        return null;
+    }
+
+    @Override
+    public Order getLastEntry() {
+        return lastEntry;
+    }
+
+    @Override
+    public Order getLastExit() {
+        return lastExit;
+    }
+
+    /**
+     * @return the number of recorded orders
+     */
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @param i the position of the order in the record
+     * @return the i-th recorded order
+     */
+    public Order getOrder(int i) {
+        if (i < 0 || i >= orderCount) {
+            throw new IndexOutOfBoundsException("Order: " + i + ", Order count: " + orderCount);
+        }
+        Order.OrderType type = buys[i] ? Order.OrderType.BUY : Order.OrderType.SELL;
+        return new Order(indexes[i], type, toDecimal(prices[i]), toDecimal(amounts[i]));
+    }
+
+    /**
+     * Records an order and the corresponding trade (if closed).
+     * @param order the order to be recorded
+     * @param isEntry true if the order is an entry, false otherwise (exit)
+     */
+    private void recordOrder(Order order, boolean isEntry) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order should not be null");
+        }
+
+        // Storing the new order in the columns
+        if (orderCount == indexes.length) {
+            int capacity = orderCount * 2;
+            indexes = Arrays.copyOf(indexes, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            buys = Arrays.copyOf(buys, capacity);
+        }
+        indexes[orderCount] = order.getIndex();
+        prices[orderCount] = toDouble(order.getPrice());
+        amounts[orderCount] = toDouble(order.getAmount());
+        buys[orderCount] = order.isBuy();
+        orderCount++;
+
+        // Updating the last orders
+        lastOrder = order;
+        if (isEntry) {
+            lastEntry = order;
+        } else {
+            lastExit = order;
+        }
+        if (order.isBuy()) {
+            lastBuyOrder = order;
+        } else {
+            lastSellOrder = order;
+        }
+
+        // Closing the trade
+        if (currentTrade.isClosed()) {
+            lastTrade = currentTrade;
+            currentTrade = new Trade(startingType);
+        }
+    }
+
+    /**
+     * @param value a decimal value (may be null or NaN)
+     * @return the double value (NaN for null and NaN)
+     */
+    private static double toDouble(Decimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * @param value a double value
+     * @return the decimal value (Decimal.NaN for NaN)
+     */
+    private static Decimal toDecimal(double value) {
+        return Double.isNaN(value) ? Decimal.NaN : Decimal.valueOf(value);
+    }
+}
@@ -23,6 +23,8 @@
 package org.ta4j.core;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Indicator over a {@link TimeSeries time series}.
@@ -44,6 +46,15 @@ public interface Indicator<T> extends Serializable {
 	 */
 	TimeSeries getTimeSeries();
 
+	/**
+	 * Returns the input indicators, i.e. the indicators whose values are used to calculate the values of this one
+	 * (see {@link org.ta4j.core.indicators.IndicatorGraph}).
+	 * @return the input indicators (empty by default)
+	 */
+	default List<Indicator<?>> getInputs() {
+		return Collections.emptyList();
+	}
+
 	/**
 	 * Returns all values from an {@link Indicator} as a Array of Doubles. The
 	 * returned doubles could have a minor loss of precise, if {@link Indicator}
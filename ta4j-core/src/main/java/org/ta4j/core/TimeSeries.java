@@ -24,6 +24,7 @@ package org.ta4j.core;
 
 import java.io.Serializable;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -142,6 +143,67 @@ public interface TimeSeries extends Serializable {
      */
     void addBar(Bar bar);
 
+    /**
+     * Adds bars at the end of the series (e.g. to catch up after a disconnection).
+     * <p>
+     * Same as adding the bars one by one, but the bars are all validated (in time order, after the end of the
+     * series) before any of them is added, and the exceeding bars are removed once.
+     * The {@link org.ta4j.core.indicators.CachedIndicator cached indicators} can then be updated on the new bars in
+     * one sweep (see {@link org.ta4j.core.indicators.CachedIndicator#update(int, int)}).
+     * <p>
+     * The default implementation adds the bars one by one.
+     * @param bars the bars to be added (in time order)
+     * @see #addBar(Bar)
+     */
+    default void addBars(Collection<? extends Bar> bars) {
+        for (Bar bar : bars) {
+            addBar(bar);
+        }
+    }
+
+    /**
+     * Adds a bar at the end of the series, or replaces the last bar.
+     * <p>
+     * The replacement is meant for the bar being formed (e.g. in live trading, on each new trade): the indexes do
+     * not change, and the {@link org.ta4j.core.indicators.CachedIndicator cached indicators} calculate again their
+     * values at the last index only.
+     * <p>
+     * The default implementation only adds bars: replacing the last bar is not supported.
+     * @param bar the bar to be added, or the new last bar
+     * @param replace true to replace the last bar, false to add the bar
+     * @throws UnsupportedOperationException if the replacement is not supported
+     * @see #addBar(Bar)
+     */
+    default void addBar(Bar bar, boolean replace) {
+        if (replace) {
+            throw new UnsupportedOperationException("Replacing the last bar is not supported by " + getClass().getName());
+        }
+        addBar(bar);
+    }
+
+    /**
+     * Adds a trade to the last bar (see {@link Bar#addTrade(Decimal, Decimal)}).
+     * <p>
+     * As for a {@link #addBar(Bar, boolean) replacement}, the cached indicators calculate again their values at the
+     * last index only.
+     * <p>
+     * Not supported by the default implementation (the cached values of the last bar would not be calculated again).
+     * @param tradeVolume the traded volume
+     * @param tradePrice the price
+     * @throws UnsupportedOperationException if the update of the last bar is not supported
+     */
+    default void addTrade(Decimal tradeVolume, Decimal tradePrice) {
+        throw new UnsupportedOperationException("Updating the last bar is not supported by " + getClass().getName());
+    }
+
+    /**
+     * @return the version of the last bar, incremented each time the last bar is replaced or updated (by
+     * {@link #addBar(Bar, boolean)} or {@link #addTrade(Decimal, Decimal)}), always 0 for the default implementation
+     */
+    default long getLastBarVersion() {
+        return 0;
+    }
+
     /**
      * Returns a new TimeSeries implementation that is a subset of this TimeSeries implementation.
      * It holds a copy of all {@link Bar bars} between <tt>startIndex</tt> (inclusive) and <tt>endIndex</tt> (exclusive)
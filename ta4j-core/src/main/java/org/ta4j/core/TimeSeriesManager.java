@@ -22,6 +22,12 @@
  */
 package org.ta4j.core;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.ta4j.core.Order.OrderType;
@@ -139,12 +145,27 @@ public class TimeSeriesManager {
      * @return the trading record coming from the run
      */
     public TradingRecord run(Strategy strategy, OrderType orderType, Decimal amount, int startIndex, int finishIndex) {
+        return run(strategy, new BaseTradingRecord(orderType), amount, startIndex, finishIndex);
+    }
+
+    /**
+     * Runs the provided strategy over the managed series (from startIndex to finishIndex), recording
+     * the orders in the provided trading record.
+     * <p>
+     * Allows to use another {@link TradingRecord} implementation (e.g. a {@link CompactTradingRecord}).
+     * @param strategy the trading strategy
+     * @param tradingRecord the trading record to operate (its entry type is used to open the trades)
+     * @param amount the amount used to open/close the trades
+     * @param startIndex the start index for the run (included)
+     * @param finishIndex the finish index for the run (included)
+     * @return the trading record coming from the run
+     */
+    public TradingRecord run(Strategy strategy, TradingRecord tradingRecord, Decimal amount, int startIndex, int finishIndex) {
 
         int runBeginIndex = Math.max(startIndex, timeSeries.getBeginIndex());
         int runEndIndex = Math.min(finishIndex, timeSeries.getEndIndex());
 
-        log.trace("Running strategy (indexes: {} -> {}): {} (starting with {})", runBeginIndex, runEndIndex, strategy, orderType);
-        TradingRecord tradingRecord = new BaseTradingRecord(orderType);
+        log.trace("Running strategy (indexes: {} -> {}): {}", runBeginIndex, runEndIndex, strategy);
         for (int i = runBeginIndex; i <= runEndIndex; i++) {
             // For each bar between both indexes...
             if (strategy.shouldOperate(i, tradingRecord)) {
@@ -168,4 +189,164 @@ public class TimeSeriesManager {
         return tradingRecord;
     }
 
+    /**
+     * Runs the provided strategies over the managed series, in a single loop over the bars.
+     * <p>
+     * Opens the trades with {@link OrderType} BUY orders.
+     * @param strategies the trading strategies
+     * @return the trading records coming from the run (one per strategy, in the same order)
+     * @see #run(List, List, Decimal, int, int)
+     */
+    public List<TradingRecord> run(List<Strategy> strategies) {
+        return run(strategies, OrderType.BUY, Decimal.NaN, timeSeries.getBeginIndex(), timeSeries.getEndIndex());
+    }
+
+    /**
+     * Runs the provided strategies over the managed series (from startIndex to finishIndex), in a single loop over the bars.
+     * @param strategies the trading strategies
+     * @param orderType the {@link OrderType} used to open the trades
+     * @param amount the amount used to open/close the trades
+     * @param startIndex the start index for the run (included)
+     * @param finishIndex the finish index for the run (included)
+     * @return the trading records coming from the run (one per strategy, in the same order)
+     * @see #run(List, List, Decimal, int, int)
+     */
+    public List<TradingRecord> run(List<Strategy> strategies, OrderType orderType, Decimal amount, int startIndex, int finishIndex) {
+        List<TradingRecord> tradingRecords = new ArrayList<>(strategies.size());
+        for (int i = 0; i < strategies.size(); i++) {
+            tradingRecords.add(new BaseTradingRecord(orderType));
+        }
+        return run(strategies, tradingRecords, amount, startIndex, finishIndex);
+    }
+
+    /**
+     * Runs the provided strategies over the managed series (from startIndex to finishIndex), recording
+     * the orders of each strategy in the trading record at the same position.
+     * <p>
+     * The bars are iterated only once: for each bar all the strategies are evaluated, so the values
+     * of the indicators shared between the strategies are computed once and are still hot when read
+     * by the next strategies. The resulting trading records are the same as the ones of
+     * {@link #run(Strategy, TradingRecord, Decimal, int, int) separate runs}.
+     * @param strategies the trading strategies
+     * @param tradingRecords the trading records to operate (one per strategy)
+     * @param amount the amount used to open/close the trades
+     * @param startIndex the start index for the run (included)
+     * @param finishIndex the finish index for the run (included)
+     * @return the trading records coming from the run
+     */
+    public List<TradingRecord> run(List<Strategy> strategies, List<TradingRecord> tradingRecords, Decimal amount, int startIndex, int finishIndex) {
+        if (strategies.size() != tradingRecords.size()) {
+            throw new IllegalArgumentException("Strategies and trading records must have the same size");
+        }
+        final int strategyCount = strategies.size();
+        Strategy[] strategyArray = strategies.toArray(new Strategy[strategyCount]);
+        TradingRecord[] recordArray = tradingRecords.toArray(new TradingRecord[strategyCount]);
+
+        int runBeginIndex = Math.max(startIndex, timeSeries.getBeginIndex());
+        int runEndIndex = Math.min(finishIndex, timeSeries.getEndIndex());
+
+        log.trace("Running {} strategies (indexes: {} -> {})", strategyCount, runBeginIndex, runEndIndex);
+        for (int i = runBeginIndex; i <= runEndIndex; i++) {
+            // For each bar between both indexes...
+            Decimal closePrice = null;
+            for (int s = 0; s < strategyCount; s++) {
+                // For each strategy...
+                if (strategyArray[s].shouldOperate(i, recordArray[s])) {
+                    if (closePrice == null) {
+                        closePrice = timeSeries.getBar(i).getClosePrice();
+                    }
+                    recordArray[s].operate(i, closePrice, amount);
+                }
+            }
+        }
+
+        // If some last trades are still opened, we search out of the run end index.
+        boolean[] opened = new boolean[strategyCount];
+        int openedCount = 0;
+        for (int s = 0; s < strategyCount; s++) {
+            if (!recordArray[s].isClosed()) {
+                opened[s] = true;
+                openedCount++;
+            }
+        }
+        int seriesMaxSize = Math.max(timeSeries.getEndIndex() + 1, timeSeries.getBarData().size());
+        for (int i = runEndIndex + 1; i < seriesMaxSize && openedCount > 0; i++) {
+            // For each bar after the end index of this run...
+            // --> Trying to close the last trades
+            for (int s = 0; s < strategyCount; s++) {
+                if (opened[s] && strategyArray[s].shouldOperate(i, recordArray[s])) {
+                    recordArray[s].operate(i, timeSeries.getBar(i).getClosePrice(), amount);
+                    opened[s] = false;
+                    openedCount--;
+                }
+            }
+        }
+        return tradingRecords;
+    }
+
+    /**
+     * Runs the provided strategies over the managed series, splitting them in partitions run in parallel.
+     * <p>
+     * Opens the trades with {@link OrderType} BUY orders.
+     * @param strategies the trading strategies
+     * @param executorService the executor service running the partitions
+     * @param partitionCount the number of partitions
+     * @return the trading records coming from the run (one per strategy, in the same order)
+     * @see #run(List, OrderType, Decimal, int, int, ExecutorService, int)
+     */
+    public List<TradingRecord> run(List<Strategy> strategies, ExecutorService executorService, int partitionCount) {
+        return run(strategies, OrderType.BUY, Decimal.NaN, timeSeries.getBeginIndex(), timeSeries.getEndIndex(),
+                executorService, partitionCount);
+    }
+
+    /**
+     * Runs the provided strategies over the managed series (from startIndex to finishIndex), splitting them
+     * in partitions run in parallel.
+     * <p>
+     * The strategies are split in contiguous partitions of (almost) the same size. Each partition is
+     * {@link #run(List, List, Decimal, int, int) run in a single loop over the bars} by a task of the
+     * executor service.<br>
+     * Indicators are not thread-safe: strategies of different partitions must not share indicator
+     * instances (strategies of a same partition can, and should, share them). The time series must
+     * not be modified during the run.
+     * @param strategies the trading strategies
+     * @param orderType the {@link OrderType} used to open the trades
+     * @param amount the amount used to open/close the trades
+     * @param startIndex the start index for the run (included)
+     * @param finishIndex the finish index for the run (included)
+     * @param executorService the executor service running the partitions
+     * @param partitionCount the number of partitions
+     * @return the trading records coming from the run (one per strategy, in the same order)
+     */
+    public List<TradingRecord> run(List<Strategy> strategies, OrderType orderType, Decimal amount, int startIndex, int finishIndex,
+            ExecutorService executorService, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be strictly positive");
+        }
+        final int strategyCount = strategies.size();
+        final int partitionSize = Math.max(1, (strategyCount + partitionCount - 1) / partitionCount);
+
+        List<Future<List<TradingRecord>>> futures = new ArrayList<>(partitionCount);
+        for (int from = 0; from < strategyCount; from += partitionSize) {
+            final List<Strategy> partition = strategies.subList(from, Math.min(from + partitionSize, strategyCount));
+            futures.add(executorService.submit(() -> run(partition, orderType, amount, startIndex, finishIndex)));
+        }
+
+        List<TradingRecord> tradingRecords = new ArrayList<>(strategyCount);
+        try {
+            for (Future<List<TradingRecord>> future : futures) {
+                tradingRecords.addAll(future.get());
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running the strategies", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IllegalStateException("Unable to run the strategies", ee.getCause());
+        }
+        return tradingRecords;
+    }
+
 }
@@ -80,6 +80,13 @@ public class Trade implements Serializable {
         this.exit = exit;
     }
 
+    /**
+     * @return the starting {@link OrderType order type} of the trade (i.e. type of the entry order)
+     */
+    public OrderType getStartingType() {
+        return startingType;
+    }
+
     /**
      * @return the entry {@link Order order} of the trade
      */
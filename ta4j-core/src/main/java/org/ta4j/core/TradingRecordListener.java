@@ -0,0 +1,48 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core;
+
+/**
+ * A listener of the {@link Order orders} recorded by a {@link TradingRecord trading record}.
+ * <p></p>
+ * Allows to follow a trading session as it goes (e.g. to keep live statistics up to date)
+ * instead of walking the whole trading record after each bar.
+ */
+public interface TradingRecordListener {
+
+    /**
+     * Called when an entry order has been recorded.
+     * @param tradingRecord the trading record
+     * @param entry the entry order
+     */
+    default void onEntry(TradingRecord tradingRecord, Order entry) {
+    }
+
+    /**
+     * Called when an exit order has been recorded (i.e. when a trade has been closed).
+     * @param tradingRecord the trading record
+     * @param trade the closed trade
+     */
+    default void onExit(TradingRecord tradingRecord, Trade trade) {
+    }
+}
@@ -0,0 +1,204 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import java.util.Arrays;
+
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+
+/**
+ * The cash flow, backed by primitive values.
+ * <p></p>
+ * Follows the same money cash flow as {@link CashFlow} but stores one {@code double} per bar
+ * instead of one {@link Decimal} object. Decimal values are only built when requested through
+ * {@link #getValue(int)}; bulk computations (drawdowns, charts, etc.) should use {@link #getDoubleValue(int)}.
+ */
+public class DoubleCashFlow implements Indicator<Decimal> {
+
+    /** The time series */
+    private final TimeSeries timeSeries;
+
+    /** The cash flow values */
+    private double[] values;
+
+    /** The number of cash flow values */
+    private int size;
+
+    /**
+     * Constructor.
+     * @param timeSeries the time series
+     * @param trade a single trade
+     */
+    public DoubleCashFlow(TimeSeries timeSeries, Trade trade) {
+        this.timeSeries = timeSeries;
+        init();
+        calculate(trade);
+        fillToTheEnd();
+    }
+
+    /**
+     * Constructor.
+     * @param timeSeries the time series
+     * @param tradingRecord the trading record
+     */
+    public DoubleCashFlow(TimeSeries timeSeries, TradingRecord tradingRecord) {
+        this.timeSeries = timeSeries;
+        init();
+        calculate(tradingRecord);
+        fillToTheEnd();
+    }
+
+    /**
+     * @param index the bar index
+     * @return the cash flow value at the index-th position
+     */
+    @Override
+    public Decimal getValue(int index) {
+        return Decimal.valueOf(getDoubleValue(index));
+    }
+
+    /**
+     * @param index the bar index
+     * @return the cash flow value at the index-th position, as a double
+     */
+    public double getDoubleValue(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return values[index];
+    }
+
+    @Override
+    public TimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * @return the size of the time series
+     */
+    public int getSize() {
+        return timeSeries.getBarCount();
+    }
+
+    /**
+     * Calculates the maximum drawdown of the cash flow between two indexes.
+     * @param beginIndex the begin index (inclusive)
+     * @param endIndex the end index (inclusive)
+     * @return the maximum drawdown, as a ratio of the running peak
+     */
+    public double getMaximumDrawdown(int beginIndex, int endIndex) {
+        double maximumDrawdown = 0;
+        double maxPeak = 0;
+        for (int i = beginIndex; i <= endIndex; i++) {
+            double value = getDoubleValue(i);
+            if (value > maxPeak) {
+                maxPeak = value;
+            }
+            double drawdown = (maxPeak - value) / maxPeak;
+            if (drawdown > maximumDrawdown) {
+                maximumDrawdown = drawdown;
+            }
+        }
+        return maximumDrawdown;
+    }
+
+    /**
+     * Initializes the values buffer with the starting value (1).
+     */
+    private void init() {
+        values = new double[Math.max(timeSeries.getEndIndex() + 1, 1)];
+        values[0] = 1;
+        size = 1;
+    }
+
+    /**
+     * Calculates the cash flow for a single trade.
+     * @param trade a single trade
+     */
+    private void calculate(Trade trade) {
+        final int entryIndex = trade.getEntry().getIndex();
+        int begin = entryIndex + 1;
+        if (begin > size) {
+            fill(begin);
+        }
+        int end = trade.getExit().getIndex();
+        double entryPrice = timeSeries.getBar(entryIndex).getClosePrice().doubleValue();
+        double entryValue = values[entryIndex];
+        for (int i = Math.max(begin, 1); i <= end; i++) {
+            double price = timeSeries.getBar(i).getClosePrice().doubleValue();
+            double ratio = trade.getEntry().isBuy() ? price / entryPrice : entryPrice / price;
+            append(entryValue * ratio);
+        }
+    }
+
+    /**
+     * Calculates the cash flow for a trading record.
+     * @param tradingRecord the trading record
+     */
+    private void calculate(TradingRecord tradingRecord) {
+        for (Trade trade : tradingRecord.getTrades()) {
+            // For each trade...
+            calculate(trade);
+        }
+    }
+
+    /**
+     * Fills with last value till the end of the series.
+     */
+    private void fillToTheEnd() {
+        if (timeSeries.getEndIndex() >= size) {
+            fill(timeSeries.getEndIndex() + 1);
+        }
+    }
+
+    /**
+     * Repeats the last value until the values buffer reaches the provided size.
+     * @param newSize the new number of values
+     */
+    private void fill(int newSize) {
+        ensureCapacity(newSize);
+        Arrays.fill(values, size, newSize, values[size - 1]);
+        size = newSize;
+    }
+
+    /**
+     * @param value the value to be appended to the cash flow
+     */
+    private void append(double value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    /**
+     * @param capacity the minimum capacity of the values buffer
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+}
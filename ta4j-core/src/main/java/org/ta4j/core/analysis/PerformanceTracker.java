@@ -0,0 +1,205 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.TradingRecordListener;
+import org.ta4j.core.analysis.criteria.AverageProfitCriterion;
+import org.ta4j.core.analysis.criteria.AverageProfitableTradesCriterion;
+import org.ta4j.core.analysis.criteria.MaximumDrawdownCriterion;
+import org.ta4j.core.analysis.criteria.NumberOfBarsCriterion;
+import org.ta4j.core.analysis.criteria.NumberOfTradesCriterion;
+import org.ta4j.core.analysis.criteria.TotalProfitCriterion;
+
+/**
+ * Incremental performance tracker.
+ * <p></p>
+ * Keeps the values of the main analysis criteria up to date as trades are closed, without
+ * walking the whole {@link TradingRecord trading record} again:
+ * <ul>
+ *     <li>the {@link NumberOfTradesCriterion number of trades}
+ *     <li>the {@link AverageProfitableTradesCriterion ratio of profitable trades}
+ *     <li>the {@link TotalProfitCriterion total profit}
+ *     <li>the {@link NumberOfBarsCriterion number of bars} in trades
+ *     <li>the {@link AverageProfitCriterion average profit}
+ *     <li>the {@link MaximumDrawdownCriterion maximum drawdown} (through a {@link StreamingCashFlow streaming cash flow})
+ * </ul>
+ * Register it on a {@link org.ta4j.core.BaseTradingRecord#addListener(TradingRecordListener) trading record}
+ * or feed it with {@link #addTrade(Trade)}. Each closed trade costs O(1), plus one step per bar of the
+ * trade for the drawdown.
+ */
+public class PerformanceTracker implements TradingRecordListener {
+
+    /** The time series */
+    private final TimeSeries timeSeries;
+
+    /** The cash flow of the closed trades */
+    private final StreamingCashFlow cashFlow;
+
+    /** The number of closed trades */
+    private int tradeCount = 0;
+
+    /** The number of profitable trades */
+    private int profitableTradeCount = 0;
+
+    /** The number of bars in trades */
+    private int barCount = 0;
+
+    /** The total profit */
+    private double totalProfit = 1d;
+
+    /**
+     * Constructor.
+     * @param timeSeries the time series
+     */
+    public PerformanceTracker(TimeSeries timeSeries) {
+        this.timeSeries = timeSeries;
+        this.cashFlow = new StreamingCashFlow(timeSeries);
+    }
+
+    /**
+     * Constructor.
+     * <p>
+     * Catches up with the trades already recorded in the trading record.
+     * @param timeSeries the time series
+     * @param tradingRecord the trading record
+     */
+    public PerformanceTracker(TimeSeries timeSeries, TradingRecord tradingRecord) {
+        this(timeSeries);
+        for (Trade trade : tradingRecord.getTrades()) {
+            addTrade(trade);
+        }
+    }
+
+    @Override
+    public void onExit(TradingRecord tradingRecord, Trade trade) {
+        addTrade(trade);
+    }
+
+    /**
+     * Updates the statistics with a closed trade.
+     * @param trade a closed trade
+     */
+    public void addTrade(Trade trade) {
+        if (trade == null || !trade.isClosed()) {
+            throw new IllegalArgumentException("Trade must be closed");
+        }
+        final int entryIndex = trade.getEntry().getIndex();
+        final int exitIndex = trade.getExit().getIndex();
+        tradeCount++;
+        barCount += exitIndex - entryIndex + 1;
+        totalProfit *= calculateProfit(trade);
+
+        Decimal entryClosePrice = timeSeries.getBar(entryIndex).getClosePrice();
+        Decimal exitClosePrice = timeSeries.getBar(exitIndex).getClosePrice();
+        Decimal closePriceRatio = trade.getEntry().isBuy() ?
+                exitClosePrice.dividedBy(entryClosePrice) : entryClosePrice.dividedBy(exitClosePrice);
+        if (closePriceRatio.isGreaterThan(Decimal.ONE)) {
+            profitableTradeCount++;
+        }
+
+        cashFlow.addTrade(trade);
+    }
+
+    /**
+     * @return the number of closed trades
+     * @see NumberOfTradesCriterion
+     */
+    public int getTradeCount() {
+        return tradeCount;
+    }
+
+    /**
+     * @return the number of profitable trades
+     */
+    public int getProfitableTradeCount() {
+        return profitableTradeCount;
+    }
+
+    /**
+     * @return the ratio of profitable trades (NaN if no trade)
+     * @see AverageProfitableTradesCriterion
+     */
+    public double getAverageProfitableTrades() {
+        return ((double) profitableTradeCount) / tradeCount;
+    }
+
+    /**
+     * @return the total profit
+     * @see TotalProfitCriterion
+     */
+    public double getTotalProfit() {
+        return totalProfit;
+    }
+
+    /**
+     * @return the number of bars in trades
+     * @see NumberOfBarsCriterion
+     */
+    public int getNumberOfBars() {
+        return barCount;
+    }
+
+    /**
+     * @return the average profit per bar
+     * @see AverageProfitCriterion
+     */
+    public double getAverageProfit() {
+        if (barCount == 0) {
+            return 1;
+        }
+        return Math.pow(totalProfit, 1d / barCount);
+    }
+
+    /**
+     * @return the maximum drawdown
+     * @see MaximumDrawdownCriterion
+     */
+    public double getMaximumDrawdown() {
+        return cashFlow.getMaximumDrawdown();
+    }
+
+    /**
+     * @return the cash flow of the closed trades
+     */
+    public StreamingCashFlow getCashFlow() {
+        return cashFlow;
+    }
+
+    /**
+     * Calculates the profit of a trade, as the {@link TotalProfitCriterion} does.
+     * @param trade a closed trade
+     * @return the profit of the trade
+     */
+    private double calculateProfit(Trade trade) {
+        Decimal exitPrice = trade.getExit().getPrice().isNaN() ?
+                timeSeries.getBar(trade.getExit().getIndex()).getClosePrice() : trade.getExit().getPrice();
+        Decimal entryPrice = trade.getEntry().getPrice().isNaN() ?
+                timeSeries.getBar(trade.getEntry().getIndex()).getClosePrice() : trade.getEntry().getPrice();
+        Decimal profit = trade.getEntry().isBuy() ? exitPrice.dividedBy(entryPrice) : entryPrice.dividedBy(exitPrice);
+        return profit.doubleValue();
+    }
+}
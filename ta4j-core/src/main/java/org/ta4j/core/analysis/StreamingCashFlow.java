@@ -0,0 +1,181 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+
+/**
+ * Streaming cash flow.
+ * <p></p>
+ * Follows the same money cash flow as {@link CashFlow}, but bar after bar and without storing it.
+ * Only the current equity, the running peak and the drawdown statistics are kept, so the memory
+ * used does not depend on the length of the series.<br>
+ * Trades have to be added in chronological order (e.g. as they close).
+ */
+public class StreamingCashFlow {
+
+    /** The time series */
+    private final TimeSeries timeSeries;
+
+    /** The last bar index covered by the cash flow */
+    private int lastIndex = 0;
+
+    /** The current equity */
+    private double equity = 1;
+
+    /** The running peak of the equity */
+    private double peak = 1;
+
+    /** The current drawdown */
+    private double drawdown = 0;
+
+    /** The maximum drawdown */
+    private double maximumDrawdown = 0;
+
+    /** The sum of the squared percentage drawdowns (for the Ulcer index) */
+    private double squaredDrawdownSum = 0;
+
+    /**
+     * Constructor.
+     * @param timeSeries the time series
+     */
+    public StreamingCashFlow(TimeSeries timeSeries) {
+        this.timeSeries = timeSeries;
+    }
+
+    /**
+     * Constructor.
+     * <p>
+     * Adds all the trades of the trading record and follows the cash flow till the end of the series.
+     * @param timeSeries the time series
+     * @param tradingRecord the trading record
+     */
+    public StreamingCashFlow(TimeSeries timeSeries, TradingRecord tradingRecord) {
+        this(timeSeries);
+        for (Trade trade : tradingRecord.getTrades()) {
+            addTrade(trade);
+        }
+        advanceTo(timeSeries.getEndIndex());
+    }
+
+    /**
+     * Follows the cash flow through a closed trade.
+     * @param trade a closed trade (with an entry index not before the exit of the previous trade)
+     */
+    public void addTrade(Trade trade) {
+        if (trade == null || !trade.isClosed()) {
+            throw new IllegalArgumentException("Trade must be closed");
+        }
+        final int entryIndex = trade.getEntry().getIndex();
+        advanceTo(entryIndex);
+        final double entryValue = equity;
+        final double entryPrice = timeSeries.getBar(entryIndex).getClosePrice().doubleValue();
+        final int end = trade.getExit().getIndex();
+        for (int i = Math.max(entryIndex, lastIndex) + 1; i <= end; i++) {
+            double price = timeSeries.getBar(i).getClosePrice().doubleValue();
+            double ratio = trade.getEntry().isBuy() ? price / entryPrice : entryPrice / price;
+            update(entryValue * ratio);
+        }
+        lastIndex = Math.max(lastIndex, end);
+    }
+
+    /**
+     * Follows the cash flow (without any open trade) till the provided index.
+     * @param index the bar index to advance to
+     */
+    public void advanceTo(int index) {
+        if (index > lastIndex) {
+            // No trade between the last index and the provided one: equity and drawdown are flat
+            double percentageDrawdown = drawdown * 100;
+            squaredDrawdownSum += (index - lastIndex) * percentageDrawdown * percentageDrawdown;
+            lastIndex = index;
+        }
+    }
+
+    /**
+     * @return the time series
+     */
+    public TimeSeries getTimeSeries() {
+        return timeSeries;
+    }
+
+    /**
+     * @return the last bar index covered by the cash flow
+     */
+    public int getLastIndex() {
+        return lastIndex;
+    }
+
+    /**
+     * @return the cash flow value at the last index
+     */
+    public double getEquity() {
+        return equity;
+    }
+
+    /**
+     * @return the highest cash flow value so far
+     */
+    public double getPeak() {
+        return peak;
+    }
+
+    /**
+     * @return the drawdown at the last index, as a ratio of the running peak
+     */
+    public double getDrawdown() {
+        return drawdown;
+    }
+
+    /**
+     * @return the maximum drawdown so far, as a ratio of the running peak
+     */
+    public double getMaximumDrawdown() {
+        return maximumDrawdown;
+    }
+
+    /**
+     * @return the Ulcer index (quadratic mean of the percentage drawdowns) of the cash flow so far
+     * @see org.ta4j.core.indicators.UlcerIndexIndicator
+     */
+    public double getUlcerIndex() {
+        return Math.sqrt(squaredDrawdownSum / (lastIndex + 1));
+    }
+
+    /**
+     * @param value the next cash flow value
+     */
+    private void update(double value) {
+        equity = value;
+        if (value > peak) {
+            peak = value;
+        }
+        drawdown = (peak - value) / peak;
+        if (drawdown > maximumDrawdown) {
+            maximumDrawdown = drawdown;
+        }
+        squaredDrawdownSum += drawdown * drawdown * 10000;
+    }
+}
@@ -22,11 +22,10 @@
  */
 package org.ta4j.core.analysis.criteria;
 
-import org.ta4j.core.Decimal;
 import org.ta4j.core.TimeSeries;
 import org.ta4j.core.Trade;
 import org.ta4j.core.TradingRecord;
-import org.ta4j.core.analysis.CashFlow;
+import org.ta4j.core.analysis.DoubleCashFlow;
 
 /**
  * Maximum drawdown criterion.
@@ -37,17 +36,15 @@ public class MaximumDrawdownCriterion extends AbstractAnalysisCriterion {
 
     @Override
     public double calculate(TimeSeries series, TradingRecord tradingRecord) {
-        CashFlow cashFlow = new CashFlow(series, tradingRecord);
-        Decimal maximumDrawdown = calculateMaximumDrawdown(series, cashFlow);
-        return maximumDrawdown.doubleValue();
+        DoubleCashFlow cashFlow = new DoubleCashFlow(series, tradingRecord);
+        return calculateMaximumDrawdown(series, cashFlow);
     }
 
     @Override
     public double calculate(TimeSeries series, Trade trade) {
         if (trade != null && trade.getEntry() != null && trade.getExit() != null) {
-            CashFlow cashFlow = new CashFlow(series, trade);
-            Decimal maximumDrawdown = calculateMaximumDrawdown(series, cashFlow);
-            return maximumDrawdown.doubleValue();
+            DoubleCashFlow cashFlow = new DoubleCashFlow(series, trade);
+            return calculateMaximumDrawdown(series, cashFlow);
         }
         return 0;
     }
@@ -63,23 +60,10 @@ public class MaximumDrawdownCriterion extends AbstractAnalysisCriterion {
      * @param cashFlow the cash flow
      * @return the maximum drawdown from a cash flow over a series
      */
-    private Decimal calculateMaximumDrawdown(TimeSeries series, CashFlow cashFlow) {
-        Decimal maximumDrawdown = Decimal.ZERO;
-        Decimal maxPeak = Decimal.ZERO;
-        if (!series.isEmpty()) {
-        	// The series is not empty
-	        for (int i = series.getBeginIndex(); i <= series.getEndIndex(); i++) {
-	            Decimal value = cashFlow.getValue(i);
-	            if (value.isGreaterThan(maxPeak)) {
-	                maxPeak = value;
-	            }
-	
-	            Decimal drawdown = maxPeak.minus(value).dividedBy(maxPeak);
-	            if (drawdown.isGreaterThan(maximumDrawdown)) {
-	                maximumDrawdown = drawdown;
-	            }
-	        }
+    private double calculateMaximumDrawdown(TimeSeries series, DoubleCashFlow cashFlow) {
+        if (series.isEmpty()) {
+            return 0;
         }
-        return maximumDrawdown;
+        return cashFlow.getMaximumDrawdown(series.getBeginIndex(), series.getEndIndex());
     }
 }
@@ -0,0 +1,152 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import java.time.Duration;
+
+/**
+ * Sampling of the trades into bars.
+ * <p></p>
+ * Decides when a bar built by a {@link TradeBarAggregator trade aggregator} is complete:
+ * <ul>
+ *     <li>time sampling: the bar covers a fixed time period
+ *     <li>other samplings (tick, volume, amount, range): the bar is complete as soon as its trades reach a threshold.
+ *     The bars of these information-driven samplings have variable durations (from their first to their last trade).
+ * </ul>
+ */
+public abstract class BarSampling {
+
+    /** The time period of the bars (null if the sampling is not time-based) */
+    private final Duration timePeriod;
+
+    /**
+     * Constructor.
+     * @param timePeriod the time period of the bars (null if the sampling is not time-based)
+     */
+    protected BarSampling(Duration timePeriod) {
+        if (timePeriod != null && (timePeriod.isNegative() || timePeriod.isZero())) {
+            throw new IllegalArgumentException("Time period must be positive");
+        }
+        this.timePeriod = timePeriod;
+    }
+
+    /**
+     * @param timePeriod the time period of the bars
+     * @return a sampling of the trades in bars of a fixed time period
+     */
+    public static BarSampling time(Duration timePeriod) {
+        if (timePeriod == null) {
+            throw new IllegalArgumentException("Time period cannot be null");
+        }
+        return new BarSampling(timePeriod) {
+            @Override
+            public boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice) {
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param tradeCount the number of trades of a bar
+     * @return a sampling of the trades in bars of a fixed number of trades
+     */
+    public static BarSampling ticks(final int tradeCount) {
+        checkThreshold(tradeCount);
+        return new BarSampling(null) {
+            @Override
+            public boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice) {
+                return trades >= tradeCount;
+            }
+        };
+    }
+
+    /**
+     * @param volumeThreshold the minimum volume of a bar
+     * @return a sampling of the trades in bars of (at least) a volume
+     */
+    public static BarSampling volume(final double volumeThreshold) {
+        checkThreshold(volumeThreshold);
+        return new BarSampling(null) {
+            @Override
+            public boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice) {
+                return volume >= volumeThreshold;
+            }
+        };
+    }
+
+    /**
+     * @param amountThreshold the minimum traded amount (volume * price) of a bar
+     * @return a sampling of the trades in bars of (at least) a traded amount
+     */
+    public static BarSampling amount(final double amountThreshold) {
+        checkThreshold(amountThreshold);
+        return new BarSampling(null) {
+            @Override
+            public boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice) {
+                return amount >= amountThreshold;
+            }
+        };
+    }
+
+    /**
+     * @param priceRange the minimum difference between the max and the min prices of a bar
+     * @return a sampling of the trades in bars of (at least) a price range
+     */
+    public static BarSampling range(final double priceRange) {
+        checkThreshold(priceRange);
+        return new BarSampling(null) {
+            @Override
+            public boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice) {
+                return maxPrice - minPrice >= priceRange;
+            }
+        };
+    }
+
+    /**
+     * @return the time period of the bars, null if the sampling is not time-based
+     */
+    public Duration getTimePeriod() {
+        return timePeriod;
+    }
+
+    /**
+     * Checks if a bar is complete (not called for time-based samplings).
+     * @param trades the number of trades of the bar
+     * @param volume the volume of the bar
+     * @param amount the traded amount of the bar
+     * @param maxPrice the max price of the bar
+     * @param minPrice the min price of the bar
+     * @return true if the bar is complete, false otherwise
+     */
+    public abstract boolean isComplete(int trades, double volume, double amount, double maxPrice, double minPrice);
+
+    /**
+     * @param threshold a threshold
+     * @throws IllegalArgumentException if the threshold is not positive
+     */
+    private static void checkThreshold(double threshold) {
+        if (!(threshold > 0)) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+    }
+}
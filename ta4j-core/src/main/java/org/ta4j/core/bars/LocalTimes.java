@@ -0,0 +1,172 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Converter of epoch times (milliseconds from the epoch) to local times of a time zone, and calendar periods of the
+ * local times.
+ * <p></p>
+ * The local times are kept as milliseconds from the local epoch (1970-01-01T00:00 local time), so that the calendar
+ * periods (days, ISO weeks, months, years) are computed with integer arithmetic, instead of building
+ * {@link java.time.ZonedDateTime} objects. The offset of the time zone is cached until its next transition
+ * (e.g. daylight saving time change).
+ */
+public final class LocalTimes {
+
+    /** The milliseconds of a day */
+    private static final long DAY_MILLIS = 86400000L;
+
+    /** The time zone */
+    private final ZoneId zone;
+
+    /** The rules of the time zone */
+    private final ZoneRules rules;
+
+    /** The last used offset of the time zone (immutable, replaced as a whole) */
+    private OffsetWindow offsetWindow = new OffsetWindow(0, 0, 0);
+
+    /**
+     * Constructor.
+     * @param zone the time zone
+     */
+    public LocalTimes(ZoneId zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("Time zone cannot be null");
+        }
+        this.zone = zone;
+        this.rules = zone.getRules();
+    }
+
+    /**
+     * @return the time zone
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @param epochMilli a time (milliseconds from the epoch)
+     * @return the local time (milliseconds from the local epoch)
+     */
+    public long toLocalEpochMilli(long epochMilli) {
+        OffsetWindow window = offsetWindow;
+        if (epochMilli < window.from || epochMilli >= window.until) {
+            window = offsetWindow(epochMilli);
+            offsetWindow = window;
+        }
+        return epochMilli + window.offsetMillis;
+    }
+
+    /**
+     * @param localEpochMilli a local time (milliseconds from the local epoch)
+     * @return the day of the local time (days from the local epoch)
+     */
+    public static long epochDay(long localEpochMilli) {
+        return Math.floorDiv(localEpochMilli, DAY_MILLIS);
+    }
+
+    /**
+     * @param localEpochMilli a local time (milliseconds from the local epoch)
+     * @return the ISO week (beginning on Monday) of the local time (weeks from the week of the local epoch)
+     */
+    public static long epochWeek(long localEpochMilli) {
+        // The local epoch is a Thursday
+        return Math.floorDiv(epochDay(localEpochMilli) + 3, 7);
+    }
+
+    /**
+     * @param localEpochMilli a local time (milliseconds from the local epoch)
+     * @return the month of the local time (months from the month of the local epoch)
+     */
+    public static long epochMonth(long localEpochMilli) {
+        long[] yearMonth = yearMonth(epochDay(localEpochMilli));
+        return (yearMonth[0] - 1970) * 12 + yearMonth[1] - 1;
+    }
+
+    /**
+     * @param localEpochMilli a local time (milliseconds from the local epoch)
+     * @return the year of the local time
+     */
+    public static long year(long localEpochMilli) {
+        return yearMonth(epochDay(localEpochMilli))[0];
+    }
+
+    /**
+     * @param epochDay a day (days from the epoch)
+     * @return the year and the month (1 to 12) of the day (proleptic Gregorian calendar)
+     */
+    private static long[] yearMonth(long epochDay) {
+        // Years beginning on March 1st (the leap day is the last day of the year)
+        long days = epochDay + 719468;
+        long era = Math.floorDiv(days, 146097);
+        long dayOfEra = days - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return new long[] { year, month };
+    }
+
+    /**
+     * @param epochMilli a time (milliseconds from the epoch)
+     * @return the offset of the time zone at the time, and the times between which it is valid
+     */
+    private OffsetWindow offsetWindow(long epochMilli) {
+        Instant instant = Instant.ofEpochMilli(epochMilli);
+        long offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+        if (rules.isFixedOffset()) {
+            return new OffsetWindow(Long.MIN_VALUE, Long.MAX_VALUE, offsetMillis);
+        }
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        return new OffsetWindow(previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli(),
+                next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli(), offsetMillis);
+    }
+
+    /**
+     * An offset of the time zone and the times (milliseconds from the epoch) between which it is valid.
+     */
+    private static final class OffsetWindow {
+
+        /** The first time of the offset (inclusive) */
+        private final long from;
+
+        /** The last time of the offset (exclusive) */
+        private final long until;
+
+        /** The offset (milliseconds) */
+        private final long offsetMillis;
+
+        private OffsetWindow(long from, long until, long offsetMillis) {
+            this.from = from;
+            this.until = until;
+            this.offsetMillis = offsetMillis;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Resampler of a time series into a higher timeframe (e.g. 4 hours, daily, weekly bars from hourly bars).
+ * <p></p>
+ * The higher timeframe periods are aligned on the local time of the bars (e.g. midnight for daily bars,
+ * Monday midnight for weekly bars). A base bar belongs to the period containing its end time (the periods
+ * exclude their start and include their end).<br>
+ * The resampler is updated incrementally, as base bars are added to the base series: the completed higher
+ * timeframe bars are added to the {@link #getResampledSeries() resampled series}, while the partially formed
+ * current bar is available through {@link #getCurrentBar()}. For each base bar index, the resampler also keeps
+ * the index of the last higher timeframe bar completed at that time, so that the higher timeframe indicators can
+ * be read by base bar index without look-ahead (see
+ * {@link org.ta4j.core.indicators.helpers.HigherTimeframeIndicator}).
+ */
+public class TimeSeriesResampler {
+
+    /** The milliseconds from the epoch (a Thursday) to the first Monday */
+    private static final long FIRST_MONDAY = Duration.ofDays(4).toMillis();
+
+    /** The base series */
+    private final TimeSeries baseSeries;
+
+    /** The time period of the resampled bars */
+    private final Duration timePeriod;
+
+    /** The time period of the resampled bars (milliseconds) */
+    private final long periodMillis;
+
+    /** The origin of the periods (local epoch milliseconds) */
+    private final long periodOrigin;
+
+    /** The resampled series (completed bars only) */
+    private final TimeSeries resampledSeries;
+
+    /**
+     * The index of the last completed resampled bar for each processed base bar (from the first processed index, the
+     * bars removed from the base series being dropped)
+     */
+    private int[] completedIndexes = new int[1024];
+
+    /** The first processed base bar index (of the kept completed indexes) */
+    private int firstProcessedIndex = -1;
+
+    /** The last processed base bar index */
+    private int lastProcessedIndex = -1;
+
+    /** The end of the current period (local epoch milliseconds) */
+    private long currentPeriodEnd;
+
+    /** The time zone of the current bar */
+    private ZoneId currentZone;
+
+    /** The local times of the base bars */
+    private LocalTimes localTimes;
+
+    /** The number of base bars in the current bar (0 if there is no current bar) */
+    private int currentBarCount = 0;
+
+    /** The values of the current bar */
+    private Decimal openPrice, maxPrice, minPrice, closePrice, volume, amount;
+
+    /** The number of trades of the current bar */
+    private int trades;
+
+    /**
+     * Constructor.
+     * @param baseSeries the base series
+     * @param timePeriod the time period of the resampled bars (e.g. 4 hours, 1 day, 7 days)
+     */
+    public TimeSeriesResampler(TimeSeries baseSeries, Duration timePeriod) {
+        if (timePeriod == null || timePeriod.isNegative() || timePeriod.isZero()) {
+            throw new IllegalArgumentException("Time period must be positive");
+        }
+        this.baseSeries = baseSeries;
+        this.timePeriod = timePeriod;
+        this.periodMillis = timePeriod.toMillis();
+        // Weeks begin on Monday
+        this.periodOrigin = periodMillis % Duration.ofDays(7).toMillis() == 0 ? FIRST_MONDAY : 0;
+        this.resampledSeries = new BaseTimeSeries(baseSeries.getName() + " (" + timePeriod + ")");
+        update();
+    }
+
+    /**
+     * Processes the base bars added since the last update.
+     */
+    public void update() {
+        int endIndex = baseSeries.getEndIndex();
+        // Bars already removed from the base series (maximum bar count) are skipped
+        int index = Math.max(lastProcessedIndex + 1, Math.max(baseSeries.getBeginIndex(), baseSeries.getRemovedBarsCount()));
+        for (; index <= endIndex; index++) {
+            process(index, baseSeries.getBar(index));
+        }
+    }
+
+    /**
+     * @return the base series
+     */
+    public TimeSeries getBaseSeries() {
+        return baseSeries;
+    }
+
+    /**
+     * @return the resampled series (completed bars only)
+     */
+    public TimeSeries getResampledSeries() {
+        return resampledSeries;
+    }
+
+    /**
+     * @return the time period of the resampled bars
+     */
+    public Duration getTimePeriod() {
+        return timePeriod;
+    }
+
+    /**
+     * @return the partially formed current resampled bar, null if there is none
+     */
+    public Bar getCurrentBar() {
+        return currentBarCount == 0 ? null : buildCurrentBar();
+    }
+
+    /**
+     * Returns the index of the last resampled bar completed at a base bar (updating the resampler if needed).
+     * @param baseIndex a base bar index
+     * @return the index of the last resampled bar completed at the base bar, -1 if there is none
+     */
+    public int getResampledIndex(int baseIndex) {
+        if (baseIndex > lastProcessedIndex) {
+            update();
+        }
+        if (firstProcessedIndex < 0 || baseIndex < firstProcessedIndex || baseIndex > lastProcessedIndex) {
+            throw new IndexOutOfBoundsException("Base bar index not processed: " + baseIndex);
+        }
+        return completedIndexes[baseIndex - firstProcessedIndex];
+    }
+
+    /**
+     * @return the number of base bar indexes for which the completed index can be kept without growing
+     */
+    int getCompletedIndexCapacity() {
+        return completedIndexes.length;
+    }
+
+    /**
+     * Processes a base bar.
+     * @param index the index of the base bar
+     * @param bar the base bar
+     */
+    private void process(int index, Bar bar) {
+        ZoneId zone = bar.getZone();
+        if (localTimes == null || !localTimes.getZone().equals(zone)) {
+            localTimes = new LocalTimes(zone);
+        }
+        long localEndTime = localTimes.toLocalEpochMilli(bar.getEndEpochMilli());
+        if (currentBarCount > 0 && localEndTime > currentPeriodEnd) {
+            completeCurrentBar();
+        }
+        if (currentBarCount == 0) {
+            currentPeriodEnd = periodEnd(localEndTime);
+            currentZone = zone;
+            openPrice = bar.getOpenPrice();
+            maxPrice = bar.getMaxPrice();
+            minPrice = bar.getMinPrice();
+            volume = bar.getVolume();
+            amount = bar.getAmount();
+            trades = bar.getTrades();
+        } else {
+            maxPrice = maxPrice.max(bar.getMaxPrice());
+            minPrice = minPrice.min(bar.getMinPrice());
+            volume = volume.plus(bar.getVolume());
+            amount = amount.plus(bar.getAmount());
+            trades += bar.getTrades();
+        }
+        closePrice = bar.getClosePrice();
+        currentBarCount++;
+        if (localEndTime == currentPeriodEnd) {
+            // Last possible base bar of the period
+            completeCurrentBar();
+        }
+
+        if (firstProcessedIndex < 0) {
+            firstProcessedIndex = index;
+            lastProcessedIndex = index - 1;
+        }
+        int position = index - firstProcessedIndex;
+        if (position >= completedIndexes.length) {
+            // Dropping the indexes of the base bars removed from the base series (maximum bar count)
+            int removedCount = Math.min(baseSeries.getRemovedBarsCount(), lastProcessedIndex + 1) - firstProcessedIndex;
+            if (removedCount > 0) {
+                System.arraycopy(completedIndexes, removedCount, completedIndexes, 0, position - removedCount);
+                firstProcessedIndex += removedCount;
+                position -= removedCount;
+            }
+        }
+        if (position >= completedIndexes.length) {
+            completedIndexes = Arrays.copyOf(completedIndexes, Math.max(position + 1, completedIndexes.length * 2));
+        }
+        // Skipped base bars (if any) share the last completed index
+        Arrays.fill(completedIndexes, lastProcessedIndex + 1 - firstProcessedIndex, position + 1, resampledSeries.getEndIndex());
+        lastProcessedIndex = index;
+    }
+
+    /**
+     * Adds the current bar to the resampled series.
+     */
+    private void completeCurrentBar() {
+        resampledSeries.addBar(buildCurrentBar());
+        currentBarCount = 0;
+    }
+
+    /**
+     * @return a new bar from the values of the current bar
+     */
+    private Bar buildCurrentBar() {
+        LocalDateTime localEnd = LocalDateTime.ofInstant(Instant.ofEpochMilli(currentPeriodEnd), ZoneOffset.UTC);
+        return new BaseBar(timePeriod, localEnd.atZone(currentZone), openPrice, maxPrice, minPrice, closePrice,
+                volume, amount, trades);
+    }
+
+    /**
+     * @param localTime a local time (epoch milliseconds)
+     * @return the end of the period containing the local time (local epoch milliseconds)
+     */
+    private long periodEnd(long localTime) {
+        long periods = Math.floorDiv(localTime - periodOrigin - 1, periodMillis) + 1;
+        return periods * periodMillis + periodOrigin;
+    }
+}
@@ -0,0 +1,228 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Streaming aggregator of trades into bars.
+ * <p></p>
+ * Trades are added one by one, in chronological order, and accumulated in primitive values
+ * (same semantics as {@link Bar#addTrade(Decimal, Decimal)}). A bar is returned as soon as a trade
+ * does not belong to it anymore, according to the {@link BarSampling sampling}:
+ * <ul>
+ *     <li>time sampling: the first bar begins at the time of the first trade, the next ones follow
+ *     each other without gap (periods without trades are skipped)
+ *     <li>threshold samplings: the bar ends at its last trade, once the threshold is reached. The trades
+ *     with the same time as the last one still belong to it, so that the end times of the bars are
+ *     strictly increasing.
+ * </ul>
+ * The memory used does not depend on the number of trades.<br>
+ * The completed bars can also be added to a {@link TimeSeries time series}, which is then usable with all
+ * the indicators whatever the sampling (the indicators do not depend on the duration of the bars).
+ */
+public class TradeBarAggregator {
+
+    /** The sampling of the trades */
+    private final BarSampling sampling;
+
+    /** The time period of the bars (milliseconds, 0 if the sampling is not time-based) */
+    private final long timePeriod;
+
+    /** The time zone of the bars */
+    private final ZoneId zoneId;
+
+    /** The time series receiving the completed bars (may be null) */
+    private final TimeSeries series;
+
+    /** The number of trades of the current bar (0 if there is no current bar) */
+    private int trades = 0;
+
+    /** The time of the first trade of the current (threshold-based) bar (epoch milliseconds) */
+    private long beginTime;
+
+    /** The end time of the current (time-based) bar (epoch milliseconds, exclusive) */
+    private long endTime;
+
+    /** The time of the last trade (epoch milliseconds) */
+    private long lastTradeTime = Long.MIN_VALUE;
+
+    /** The open price of the current bar */
+    private double openPrice;
+
+    /** The max price of the current bar */
+    private double maxPrice;
+
+    /** The min price of the current bar */
+    private double minPrice;
+
+    /** The close price of the current bar */
+    private double closePrice;
+
+    /** The volume of the current bar */
+    private double volume;
+
+    /** The traded amount of the current bar */
+    private double amount;
+
+    /** True if the current (threshold-based) bar has reached its threshold */
+    private boolean complete;
+
+    /**
+     * Constructor.
+     * @param sampling the sampling of the trades
+     * @param zoneId the time zone of the bars
+     */
+    public TradeBarAggregator(BarSampling sampling, ZoneId zoneId) {
+        this(sampling, zoneId, null);
+    }
+
+    /**
+     * Constructor.
+     * @param sampling the sampling of the trades
+     * @param zoneId the time zone of the bars
+     * @param series the time series receiving the completed bars
+     */
+    public TradeBarAggregator(BarSampling sampling, ZoneId zoneId, TimeSeries series) {
+        this.sampling = sampling;
+        this.timePeriod = sampling.getTimePeriod() == null ? 0 : sampling.getTimePeriod().toMillis();
+        this.zoneId = zoneId;
+        this.series = series;
+    }
+
+    /**
+     * Adds a trade.
+     * @param time the time of the trade (epoch milliseconds)
+     * @param tradeVolume the traded volume
+     * @param tradePrice the price
+     * @return the bar completed by the trade (i.e. the previous bar, also added to the time series if any), null if
+     *         the trade belongs to the current bar
+     * @throws IllegalArgumentException if the trade is older than the previous one
+     */
+    public Bar addTrade(long time, double tradeVolume, double tradePrice) {
+        if (time < lastTradeTime) {
+            throw new IllegalArgumentException("Trades must be added in chronological order");
+        }
+        Bar completedBar = null;
+        if (trades > 0 && !belongsToCurrentBar(time)) {
+            completedBar = buildBar();
+            trades = 0;
+        }
+        if (trades == 0) {
+            startBar(time, tradePrice);
+        }
+        closePrice = tradePrice;
+        maxPrice = Math.max(maxPrice, tradePrice);
+        minPrice = Math.min(minPrice, tradePrice);
+        volume += tradeVolume;
+        amount += tradeVolume * tradePrice;
+        trades++;
+        lastTradeTime = time;
+        if (timePeriod == 0 && !complete) {
+            complete = sampling.isComplete(trades, volume, amount, maxPrice, minPrice);
+        }
+        return completedBar;
+    }
+
+    /**
+     * Completes the current bar (e.g. at the end of the trades).
+     * @return the current bar (also added to the time series if any), null if there is no trade since the last
+     *         completed bar
+     */
+    public Bar flush() {
+        if (trades == 0) {
+            return null;
+        }
+        Bar bar = buildBar();
+        trades = 0;
+        return bar;
+    }
+
+    /**
+     * @return the number of trades of the current (not completed) bar
+     */
+    public int getPendingTrades() {
+        return trades;
+    }
+
+    /**
+     * Starts a new bar.
+     * @param time the time of the first trade of the bar
+     * @param tradePrice the price of the first trade of the bar
+     */
+    private void startBar(long time, double tradePrice) {
+        if (timePeriod == 0) {
+            beginTime = time;
+        } else if (lastTradeTime == Long.MIN_VALUE) {
+            endTime = time + timePeriod;
+        } else if (time >= endTime) {
+            // Skipping the periods without trades
+            endTime += ((time - endTime) / timePeriod + 1) * timePeriod;
+        }
+        openPrice = tradePrice;
+        maxPrice = tradePrice;
+        minPrice = tradePrice;
+        volume = 0;
+        amount = 0;
+        complete = false;
+    }
+
+    /**
+     * @param time the time of a trade
+     * @return true if the trade belongs to the current bar, false otherwise
+     */
+    private boolean belongsToCurrentBar(long time) {
+        if (timePeriod > 0) {
+            return time < endTime;
+        }
+        return !complete || time == lastTradeTime;
+    }
+
+    /**
+     * @return a new bar from the current values (added to the time series if any)
+     */
+    private Bar buildBar() {
+        Bar bar = createBar();
+        if (series != null) {
+            series.addBar(bar);
+        }
+        return bar;
+    }
+
+    /**
+     * @return a new bar from the current values
+     */
+    private Bar createBar() {
+        long barEndTime = timePeriod > 0 ? endTime : lastTradeTime;
+        Duration barPeriod = Duration.ofMillis(timePeriod > 0 ? timePeriod : lastTradeTime - beginTime);
+        return new BaseBar(barPeriod, barEndTime, zoneId,
+                Decimal.valueOf(openPrice), Decimal.valueOf(maxPrice), Decimal.valueOf(minPrice),
+                Decimal.valueOf(closePrice), Decimal.valueOf(volume), Decimal.valueOf(amount), trades);
+    }
+}
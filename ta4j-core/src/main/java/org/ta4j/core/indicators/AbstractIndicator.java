@@ -27,9 +27,17 @@ import org.slf4j.LoggerFactory;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.TimeSeries;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Abstract {@link Indicator indicator}.
  * <p></p>
+ * The {@link #getInputs() input indicators} are the indicators held by the fields of the indicator (directly, in
+ * arrays or in collections). Subclasses may override {@link #getInputs()} to declare them explicitly.
  */
 public abstract class AbstractIndicator<T> implements Indicator<T> {
 
@@ -38,6 +46,9 @@ public abstract class AbstractIndicator<T> implements Indicator<T> {
 
     private TimeSeries series;
 
+    /** The input indicators (found on first use) */
+    private transient volatile List<Indicator<?>> inputs;
+
     /**
      * Constructor.
      * @param series the related time series
@@ -51,8 +62,67 @@ public abstract class AbstractIndicator<T> implements Indicator<T> {
         return series;
     }
 
+    @Override
+    public List<Indicator<?>> getInputs() {
+        List<Indicator<?>> foundInputs = inputs;
+        if (foundInputs == null) {
+            foundInputs = Collections.unmodifiableList(findInputs());
+            inputs = foundInputs;
+        }
+        return foundInputs;
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName();
     }
+
+    /**
+     * @return the indicators held by the fields of the indicator (without duplicates)
+     */
+    private List<Indicator<?>> findInputs() {
+        List<Indicator<?>> foundInputs = new ArrayList<>();
+        for (Class<?> type = getClass(); type != AbstractIndicator.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                // The enclosing instance of an inner class is not an input
+                if (Modifier.isStatic(field.getModifiers()) || field.getName().startsWith("this$")) {
+                    continue;
+                }
+                field.setAccessible(true);
+                Object value;
+                try {
+                    value = field.get(this);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Cannot read field " + field.getName() + " of " + this, e);
+                }
+                if (value instanceof Object[]) {
+                    for (Object element : (Object[]) value) {
+                        addInput(foundInputs, element);
+                    }
+                } else if (value instanceof Iterable) {
+                    for (Object element : (Iterable<?>) value) {
+                        addInput(foundInputs, element);
+                    }
+                } else {
+                    addInput(foundInputs, value);
+                }
+            }
+        }
+        return foundInputs;
+    }
+
+    /**
+     * @param foundInputs the inputs already found
+     * @param value the value of a field (or an element of a field)
+     */
+    private void addInput(List<Indicator<?>> foundInputs, Object value) {
+        if (value instanceof Indicator && value != this) {
+            for (Indicator<?> input : foundInputs) {
+                if (input == value) {
+                    return;
+                }
+            }
+            foundInputs.add((Indicator<?>) value);
+        }
+    }
 }
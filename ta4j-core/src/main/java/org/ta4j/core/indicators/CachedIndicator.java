@@ -22,28 +22,66 @@
  */
 package org.ta4j.core.indicators;
 
+import org.ta4j.core.Bar;
+import org.ta4j.core.Decimal;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.TimeSeries;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * Cached {@link Indicator indicator}.
  * <p></p>
  * Caches the constructor of the indicator. Avoid to calculate the same index of the indicator twice.
+ * <p></p>
+ * The values can be read by many threads while bars are added to the time series (by one thread), without locking:
+ * the cache is replaced as a whole (compare-and-set) when it grows (or drops the old results), and its results are
+ * published one by one. Two threads asking for the same uncached value may both calculate it (then the value must
+ * not depend on the calculation order, or {@link #calculate(int)} must be synchronized).
+ * <p></p>
+ * The last bar of the series may be replaced or updated (see {@link TimeSeries#addBar(Bar, boolean)}): the result
+ * calculated on the last bar keeps the {@link TimeSeries#getLastBarVersion() version} of the bar, and is calculated
+ * again when the version changes. The other results are kept, so that the values of a chain of indicators at the
+ * last index are updated without calculating again the previous ones (the {@link #getVariables(int) internal
+ * variables} of the indicator, if any, are restored to the ones of the previous bar).
  */
 public abstract class CachedIndicator<T> extends AbstractIndicator<T> {
 
-    /** List of cached results */
-    private final List<T> results = new ArrayList<T>();
+    /** Updater of the highest result index */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<CachedIndicator> HIGHEST_RESULT_INDEX =
+            AtomicIntegerFieldUpdater.newUpdater(CachedIndicator.class, "highestResultIndex");
+
+    /** Updater of the cached results */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<CachedIndicator, Results> RESULTS =
+            AtomicReferenceFieldUpdater.newUpdater(CachedIndicator.class, Results.class, "results");
+
+    /** The minimal capacity of the cache */
+    private static final int MIN_CAPACITY = 16;
+
+    /** The cached results (replaced as a whole when it grows or drops the old results) */
+    private volatile Results<T> results = new Results<>(0, 0);
 
     /**
      * Should always be the index of the last result in the results list.
      * I.E. the last calculated result.
      */
-    protected int highestResultIndex = -1;
+    protected volatile int highestResultIndex = -1;
+
+    /** The result calculated on the last bar of the series (null if none) */
+    private volatile LastBarResult lastBarResult;
+
+    /** The internal variables after the calculation of the last calculated bar (null if none) */
+    private volatile CalculatedVariables latestVariables;
+
+    /** The internal variables after the calculation of the bar before the last calculated one (null if none) */
+    private volatile CalculatedVariables previousVariables;
 
     /**
      * Constructor.
@@ -76,39 +114,42 @@ public abstract class CachedIndicator<T> extends AbstractIndicator<T> {
         final int removedBarsCount = series.getRemovedBarsCount();
         final int maximumResultCount = series.getMaximumBarCount();
 
-        T result;
         if (index < removedBarsCount) {
             // Result already removed from cache
             log.trace("{}: result from bar {} already removed from cache, use {}-th instead",
                     getClass().getSimpleName(), index, removedBarsCount);
-            increaseLengthTo(removedBarsCount, maximumResultCount);
-            highestResultIndex = removedBarsCount;
-            result = results.get(0);
-            if (result == null) {
-                // It should be "result = calculate(removedBarsCount);".
-                // We use "result = calculate(0);" as a workaround
-                // to fix issue #120 (https://github.com/mdeverdelhan/ta4j/issues/120).
-                result = calculate(0);
-                results.set(0, result);
-            }
-        } else {
-            increaseLengthTo(index, maximumResultCount);
-            if (index > highestResultIndex) {
-                // Result not calculated yet
-                highestResultIndex = index;
-                result = calculate(index);
-                results.set(results.size()-1, result);
-            } else {
-                // Result covered by current cache
-                int resultInnerIndex = results.size() - 1 - (highestResultIndex - index);
-                result = results.get(resultInnerIndex);
-                if (result == null) {
-                    result = calculate(index);
-                    results.set(resultInnerIndex, result);
-                }
-            }
+            // It should be "calculate(removedBarsCount)".
+            // We use "calculate(0)" as a workaround
+            // to fix issue #120 (https://github.com/mdeverdelhan/ta4j/issues/120).
+            return getValue(removedBarsCount, 0, maximumResultCount);
+        }
+        return getValue(index, index, maximumResultCount);
+    }
+
+    /**
+     * Calculates and caches the values between two indexes, in one sequential sweep (e.g. after bars have been added
+     * by {@link TimeSeries#addBars(java.util.Collection)}).
+     * <p></p>
+     * The cache is sized once for the whole range, then the values are calculated in index order: a recursive
+     * indicator calculates each value from the cached previous one (no deep recursion). The removed bars are skipped.
+     * @param beginIndex the first bar index
+     * @param endIndex the last bar index (inclusive)
+     */
+    public void update(int beginIndex, int endIndex) {
+        TimeSeries series = getTimeSeries();
+        if (series == null) {
+            // No cache
+            return;
+        }
+        final int maximumResultCount = series.getMaximumBarCount();
+        final int firstIndex = Math.max(beginIndex, series.getRemovedBarsCount());
+        if (firstIndex > endIndex) {
+            return;
+        }
+        cacheOf(endIndex, maximumResultCount);
+        for (int index = firstIndex; index <= endIndex; index++) {
+            getValue(index, index, maximumResultCount);
         }
-        return result;
     }
 
     /**
@@ -118,40 +159,278 @@ public abstract class CachedIndicator<T> extends AbstractIndicator<T> {
     protected abstract T calculate(int index);
 
     /**
-     * Increases the size of cached results buffer.
-     * @param index the index to increase length to
-     * @param maxLength the maximum length of the results buffer
+     * Returns the internal variables of the indicator after the calculation of an index, if any (e.g. the trend of a
+     * recursive indicator, which is not part of its values). See {@link IndicatorState}.
+     * <p></p>
+     * An indicator keeping variables must return them: they are also restored when the last bar is calculated again
+     * (after a replacement or an update of the last bar), so that the calculation goes on from the variables of the
+     * previous bar.
+     * @param index the index of the last calculated value
+     * @return the variables (empty by default)
+     */
+    protected List<Decimal> getVariables(int index) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Restores the internal variables of the indicator (see {@link #getVariables(int)}).
+     * @param index the index of the last restored value
+     * @param variables the variables
+     */
+    protected void setVariables(int index, List<Decimal> variables) {
+    }
+
+    /**
+     * Caches a value calculated elsewhere (e.g. restored from an {@link IndicatorState indicator state}), as if it
+     * had been calculated at the index.
+     * @param index the bar index (of a remaining bar)
+     * @param value the value
+     */
+    void restoreValue(int index, T value) {
+        TimeSeries series = getTimeSeries();
+        final long lastBarVersion = series.getLastBarVersion();
+        final int endIndex = series.getEndIndex();
+        Results<T> cache = cacheOf(index, series.getMaximumBarCount());
+        if (cache != null) {
+            cache.set(index, value);
+        }
+        updateHighestResultIndex(index);
+        updateLastBarResult(index, endIndex, lastBarVersion);
+    }
+
+    /**
+     * Returns a cached result, or calculates and caches it.
+     * @param index the index of the result in the cache
+     * @param calculatedIndex the index to calculate if the result is not cached
+     * @param maximumResultCount the maximum number of cached results
+     * @return the result
+     */
+    private T getValue(int index, int calculatedIndex, int maximumResultCount) {
+        T result = results.get(index);
+        LastBarResult lastBar = lastBarResult;
+        if (result != null && lastBar != null && lastBar.index == index
+                && lastBar.version != getTimeSeries().getLastBarVersion()) {
+            // Result calculated before a replacement (or an update) of the last bar
+            result = null;
+        }
+        if (result == null) {
+            TimeSeries series = getTimeSeries();
+            final long lastBarVersion = series.getLastBarVersion();
+            final int endIndex = series.getEndIndex();
+            final boolean lastBars = index == calculatedIndex && index >= endIndex - 1;
+            if (lastBars) {
+                rollBackVariables(index);
+            }
+            result = calculate(calculatedIndex);
+            if (lastBars) {
+                keepVariables(index);
+            }
+            Results<T> cache = cacheOf(index, maximumResultCount);
+            if (cache != null) {
+                cache.set(index, result);
+            }
+            updateHighestResultIndex(index);
+            updateLastBarResult(index, endIndex, lastBarVersion);
+        }
+        return result;
+    }
+
+    /**
+     * Keeps the internal variables of the indicator after the calculation of one of the last two bars, so that the
+     * last bar can be calculated again from the variables of the previous one.
+     * @param index the index of the calculated result
+     */
+    private void keepVariables(int index) {
+        List<Decimal> variables = getVariables(index);
+        if (variables.isEmpty()) {
+            return;
+        }
+        CalculatedVariables latest = latestVariables;
+        if (latest == null || latest.index != index) {
+            previousVariables = latest;
+        }
+        latestVariables = new CalculatedVariables(index, variables);
+    }
+
+    /**
+     * Restores the internal variables of the indicator after the calculation of the previous bar, if the variables
+     * have already gone past it (i.e. when the last bar is calculated again after a replacement or an update):
+     * otherwise the calculation would go on from the variables of the previous calculation of the bar.
+     * @param index the index of the result to be calculated
      */
-    private void increaseLengthTo(int index, int maxLength) {
-        if (highestResultIndex > -1) {
-            int newResultsCount = Math.min(index-highestResultIndex, maxLength);
-            if (newResultsCount == maxLength) {
-                results.clear();
-                results.addAll(Collections.nCopies(maxLength, null));
-            } else if (newResultsCount > 0) {
-                results.addAll(Collections.nCopies(newResultsCount, null));
-                removeExceedingResults(maxLength);
+    private void rollBackVariables(int index) {
+        CalculatedVariables latest = latestVariables;
+        if (latest == null || latest.index < index) {
+            return;
+        }
+        CalculatedVariables previous = previousVariables;
+        if (previous != null && previous.index == index - 1) {
+            setVariables(previous.index, previous.variables);
+            latestVariables = previous;
+            previousVariables = null;
+        }
+    }
+
+    /**
+     * Keeps track of the result calculated on the last bar of the series (the only bar which can be replaced).
+     * @param index the index of the calculated result
+     * @param endIndex the end index of the series before the calculation
+     * @param lastBarVersion the version of the last bar before the calculation
+     */
+    private void updateLastBarResult(int index, int endIndex, long lastBarVersion) {
+        LastBarResult lastBar = lastBarResult;
+        if (index < endIndex) {
+            if (lastBar != null && lastBar.index == index) {
+                // Calculated again on a bar which is not the last one anymore
+                lastBarResult = null;
+            }
+            return;
+        }
+        if (lastBar != null && lastBar.index != index && lastBar.version != lastBarVersion) {
+            // The previous last bar may have been replaced after its result was calculated
+            Results<T> cache = results;
+            if (cache.contains(lastBar.index)) {
+                cache.set(lastBar.index, null);
+            }
+        }
+        lastBarResult = new LastBarResult(index, lastBarVersion);
+    }
+
+    /**
+     * Returns the cache including an index, replacing the current cache by a larger (or shifted) one if needed.
+     * @param index the index of a result
+     * @param maximumResultCount the maximum number of cached results
+     * @return the cache including the index, null if the index is before the cached results
+     */
+    private Results<T> cacheOf(int index, int maximumResultCount) {
+        Results<T> cache = results;
+        while (!cache.contains(index)) {
+            if (index < cache.firstIndex) {
+                // Result older than the cached ones
+                return null;
+            }
+            Results<T> newCache = cache.copyTo(index, maximumResultCount);
+            if (RESULTS.compareAndSet(this, cache, newCache)) {
+                // The results set in the previous cache after the copy are lost (they will be calculated again)
+                return newCache;
             }
-        } else {
-            // First use of cache
-            assert results.isEmpty() : "Cache results list should be empty";
-            results.addAll(Collections.nCopies(Math.min(index+1, maxLength), null));
+            cache = results;
         }
+        return cache;
     }
 
     /**
-     * Removes the N first results which exceed the maximum bar count.
-     * (i.e. keeps only the last maximumResultCount results)
-     * @param maximumResultCount the number of results to keep
+     * @param index the index of the last calculated result
      */
-    private void removeExceedingResults(int maximumResultCount) {
-        int resultCount = results.size();
-        if (resultCount > maximumResultCount) {
-            // Removing old results
-            final int nbResultsToRemove = resultCount - maximumResultCount;
-            for (int i = 0; i < nbResultsToRemove; i++) {
-                results.remove(0);
+    @SuppressWarnings("unchecked")
+    private void updateHighestResultIndex(int index) {
+        int highestIndex;
+        while (index > (highestIndex = highestResultIndex)) {
+            if (HIGHEST_RESULT_INDEX.compareAndSet(this, highestIndex, index)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The internal variables of the indicator after the calculation of an index.
+     */
+    private static final class CalculatedVariables implements Serializable {
+
+        private static final long serialVersionUID = 2380741927526318741L;
+
+        private final int index;
+
+        private final List<Decimal> variables;
+
+        private CalculatedVariables(int index, List<Decimal> variables) {
+            this.index = index;
+            this.variables = variables;
+        }
+    }
+
+    /**
+     * A result index and the version of the last bar when it was calculated.
+     */
+    private static final class LastBarResult implements Serializable {
+
+        private static final long serialVersionUID = -4316940279380523794L;
+
+        private final int index;
+
+        private final long version;
+
+        private LastBarResult(int index, long version) {
+            this.index = index;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Cached results of consecutive indexes.
+     * @param <T> the type of the results
+     */
+    private static final class Results<T> implements Serializable {
+
+        private static final long serialVersionUID = 6139826457193840318L;
+
+        /** The index of the first result */
+        private final int firstIndex;
+
+        /** The results (null if not calculated) */
+        private final AtomicReferenceArray<T> values;
+
+        /**
+         * @param firstIndex the index of the first result
+         * @param capacity the number of results
+         */
+        private Results(int firstIndex, int capacity) {
+            this.firstIndex = firstIndex;
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * @param index an index
+         * @return true if the index is in the cache, false otherwise
+         */
+        private boolean contains(int index) {
+            return index >= firstIndex && index - firstIndex < values.length();
+        }
+
+        /**
+         * @param index an index
+         * @return the cached result, null if not calculated or not in the cache
+         */
+        private T get(int index) {
+            return contains(index) ? values.get(index - firstIndex) : null;
+        }
+
+        /**
+         * @param index an index in the cache
+         * @param result the result to be cached
+         */
+        private void set(int index, T result) {
+            values.set(index - firstIndex, result);
+        }
+
+        /**
+         * @param index an index after the cache
+         * @param maximumResultCount the maximum number of cached results
+         * @return a new cache including the index and the last results of this cache
+         */
+        private Results<T> copyTo(int index, int maximumResultCount) {
+            // The first index keeps at most the maximum result count before the new index
+            int newFirstIndex = (int) Math.max(firstIndex, (long) index + 1 - maximumResultCount);
+            int length = index - newFirstIndex + 1;
+            // Doubling the capacity, up to twice the maximum result count (the cache is shifted when full)
+            long capacity = Math.max(MIN_CAPACITY, values.length() * 2L);
+            capacity = Math.min(capacity, 2L * maximumResultCount);
+            capacity = Math.min(Math.max(capacity, length), Integer.MAX_VALUE - 8);
+            Results<T> copy = new Results<>(newFirstIndex, (int) capacity);
+            for (int i = Math.max(firstIndex, newFirstIndex), end = firstIndex + values.length(); i < end; i++) {
+                copy.values.lazySet(i - newFirstIndex, values.get(i - firstIndex));
             }
+            return copy;
         }
     }
 }
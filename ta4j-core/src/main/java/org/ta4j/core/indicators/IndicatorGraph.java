@@ -0,0 +1,284 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators;
+
+import org.ta4j.core.Indicator;
+import org.ta4j.core.TimeSeries;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dependency graph of indicators.
+ * <p></p>
+ * The graph holds the indicators reachable from root indicators (e.g. the indicators used by the rules of a
+ * strategy) through their {@link Indicator#getInputs() inputs}, sorted in topological order (the inputs before the
+ * indicators using them). Instead of pulling the values recursively from the roots, {@link #update(int)} pushes
+ * the values of a new bar through the graph, in topological order:
+ * <ul>
+ *     <li>the depth of the calls does not depend on the depth of the graph (no deep recursion)
+ *     <li>the indicators of the same {@link #getLevels() level} do not depend on each other, and can be evaluated
+ *     in parallel ({@link #update(int, Executor)})
+ *     <li>only the cached indicators of the time series of the graph are evaluated: the other indicators (not
+ *     cached, or on another time series) and the indicators which are not used by the roots (dead branches) are
+ *     skipped
+ * </ul>
+ */
+public class IndicatorGraph {
+
+    /** The time series of the graph */
+    private final TimeSeries series;
+
+    /** The root indicators */
+    private final List<Indicator<?>> roots;
+
+    /** The indicators, in topological order */
+    private final List<Indicator<?>> indicators;
+
+    /** The indicators using each indicator */
+    private final Map<Indicator<?>, List<Indicator<?>>> dependents = new IdentityHashMap<>();
+
+    /** The level of each indicator (0 if it has no input, 1 + the highest level of its inputs otherwise) */
+    private final Map<Indicator<?>, Integer> levels = new IdentityHashMap<>();
+
+    /** The evaluated indicators, by level */
+    private final List<List<Indicator<?>>> evaluatedLevels;
+
+    /**
+     * Constructor.
+     * @param roots the root indicators (on the same time series)
+     */
+    public IndicatorGraph(Indicator<?>... roots) {
+        this(Arrays.asList(roots));
+    }
+
+    /**
+     * Constructor.
+     * @param roots the root indicators (on the same time series)
+     * @throws IllegalArgumentException if there is no root, or if the inputs of an indicator depend on it (cycle)
+     */
+    public IndicatorGraph(Collection<? extends Indicator<?>> roots) {
+        if (roots.isEmpty()) {
+            throw new IllegalArgumentException("Indicator graph must have at least one root");
+        }
+        this.roots = Collections.unmodifiableList(new ArrayList<>(roots));
+        this.series = this.roots.get(0).getTimeSeries();
+        this.indicators = Collections.unmodifiableList(sort(this.roots));
+
+        int levelCount = 0;
+        for (Indicator<?> indicator : indicators) {
+            dependents.put(indicator, new ArrayList<>());
+            int level = 0;
+            for (Indicator<?> input : indicator.getInputs()) {
+                dependents.get(input).add(indicator);
+                level = Math.max(level, levels.get(input) + 1);
+            }
+            levels.put(indicator, level);
+            levelCount = Math.max(levelCount, level + 1);
+        }
+        List<List<Indicator<?>>> evaluated = new ArrayList<>();
+        for (int i = 0; i < levelCount; i++) {
+            evaluated.add(new ArrayList<>());
+        }
+        for (Indicator<?> indicator : indicators) {
+            if (isEvaluated(indicator)) {
+                evaluated.get(levels.get(indicator)).add(indicator);
+            }
+        }
+        evaluated.removeIf(List::isEmpty);
+        this.evaluatedLevels = evaluated;
+    }
+
+    /**
+     * @return the time series of the graph (the one of the first root)
+     */
+    public TimeSeries getTimeSeries() {
+        return series;
+    }
+
+    /**
+     * @return the root indicators
+     */
+    public List<Indicator<?>> getRoots() {
+        return roots;
+    }
+
+    /**
+     * @return the indicators of the graph, in topological order (the inputs before the indicators using them)
+     */
+    public List<Indicator<?>> getIndicators() {
+        return indicators;
+    }
+
+    /**
+     * @param indicator an indicator of the graph
+     * @return the indicators of the graph using it
+     */
+    public List<Indicator<?>> getDependents(Indicator<?> indicator) {
+        return Collections.unmodifiableList(dependents.getOrDefault(indicator, Collections.emptyList()));
+    }
+
+    /**
+     * @param indicator an indicator of the graph
+     * @return the level of the indicator (0 if it has no input, 1 + the highest level of its inputs otherwise), -1
+     *         if the indicator is not in the graph
+     */
+    public int getLevel(Indicator<?> indicator) {
+        Integer level = levels.get(indicator);
+        return level == null ? -1 : level;
+    }
+
+    /**
+     * @return the evaluated indicators (the cached indicators of the time series of the graph), by level (the
+     *         indicators of a level do not depend on each other)
+     */
+    public List<List<Indicator<?>>> getLevels() {
+        List<List<Indicator<?>>> result = new ArrayList<>();
+        for (List<Indicator<?>> level : evaluatedLevels) {
+            result.add(Collections.unmodifiableList(level));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Evaluates the indicators at an index (e.g. the index of a new bar), in topological order.
+     * @param index the bar index
+     */
+    public void update(int index) {
+        for (List<Indicator<?>> level : evaluatedLevels) {
+            for (Indicator<?> indicator : level) {
+                indicator.getValue(index);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the indicators between two indexes (e.g. to catch up with a time series after
+     * {@link TimeSeries#addBars(java.util.Collection)}), in topological order: each indicator is evaluated on the
+     * whole range in one sweep (see {@link CachedIndicator#update(int, int)}), once its inputs are.
+     * @param beginIndex the first bar index
+     * @param endIndex the last bar index (inclusive)
+     */
+    public void update(int beginIndex, int endIndex) {
+        for (List<Indicator<?>> level : evaluatedLevels) {
+            for (Indicator<?> indicator : level) {
+                ((CachedIndicator<?>) indicator).update(beginIndex, endIndex);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the indicators at an index, level by level: the indicators of a level are evaluated in parallel by
+     * an executor, once the previous level is evaluated.
+     * @param index the bar index
+     * @param executor the executor evaluating the indicators
+     * @throws InterruptedException if interrupted while waiting for the evaluation of a level
+     */
+    public void update(int index, Executor executor) throws InterruptedException {
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        for (List<Indicator<?>> level : evaluatedLevels) {
+            if (level.size() == 1) {
+                level.get(0).getValue(index);
+                continue;
+            }
+            final CountDownLatch latch = new CountDownLatch(level.size());
+            for (final Indicator<?> indicator : level) {
+                executor.execute(() -> {
+                    try {
+                        indicator.getValue(index);
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+            latch.await();
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+    }
+
+    /**
+     * @param indicator an indicator of the graph
+     * @return true if the indicator is evaluated by the updates (cached, and on the time series of the graph)
+     */
+    private boolean isEvaluated(Indicator<?> indicator) {
+        return indicator instanceof CachedIndicator && indicator.getTimeSeries() == series;
+    }
+
+    /**
+     * Sorts the indicators reachable from roots in topological order (iterative depth-first search).
+     * @param roots the root indicators
+     * @return the indicators, the inputs before the indicators using them
+     * @throws IllegalArgumentException if the inputs of an indicator depend on it
+     */
+    private static List<Indicator<?>> sort(List<Indicator<?>> roots) {
+        List<Indicator<?>> sorted = new ArrayList<>();
+        // True once sorted, false while its inputs are being sorted
+        Map<Indicator<?>, Boolean> visited = new IdentityHashMap<>();
+        Deque<Indicator<?>> stack = new ArrayDeque<>();
+        Deque<Integer> nextInputs = new ArrayDeque<>();
+        for (Indicator<?> root : roots) {
+            if (visited.containsKey(root)) {
+                continue;
+            }
+            visited.put(root, Boolean.FALSE);
+            stack.push(root);
+            nextInputs.push(0);
+            while (!stack.isEmpty()) {
+                Indicator<?> indicator = stack.peek();
+                List<Indicator<?>> inputs = indicator.getInputs();
+                int next = nextInputs.pop();
+                if (next < inputs.size()) {
+                    nextInputs.push(next + 1);
+                    Indicator<?> input = inputs.get(next);
+                    Boolean sortedInput = visited.get(input);
+                    if (sortedInput == null) {
+                        visited.put(input, Boolean.FALSE);
+                        stack.push(input);
+                        nextInputs.push(0);
+                    } else if (!sortedInput) {
+                        throw new IllegalArgumentException("Cycle in the inputs of " + input);
+                    }
+                } else {
+                    stack.pop();
+                    visited.put(indicator, Boolean.TRUE);
+                    sorted.add(indicator);
+                }
+            }
+        }
+        return sorted;
+    }
+}
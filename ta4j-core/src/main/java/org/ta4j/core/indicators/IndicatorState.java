@@ -0,0 +1,164 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators;
+
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * State of a cached indicator at the last bar of its time series, to be restored on another time series (e.g. after
+ * a restart of a live bot) instead of calculating the indicator from the first bar.
+ * <p></p>
+ * A recursive indicator (e.g. {@link EMAIndicator}, {@link MMAIndicator} used by {@link RSIIndicator},
+ * {@link KAMAIndicator}, {@link ParabolicSarIndicator}) calculates its value from its previous value: its state is its
+ * values on the last bars (the last one at least), and its internal variables if any (e.g. the trend of the parabolic
+ * SAR, see {@link CachedIndicator#getVariables(int)}). The bars are identified by the end time of the last bar, so that
+ * the state can be restored on a series having other indexes (e.g. a bounded series of the last bars).
+ */
+public final class IndicatorState implements Serializable {
+
+    private static final long serialVersionUID = 3957206383165102479L;
+
+    /** The end time of the last bar (milliseconds from the epoch) */
+    private final long endEpochMilli;
+
+    /** The values of the indicator on the last bars (the value of the last bar at the end) */
+    private final List<Decimal> values;
+
+    /** The internal variables of the indicator */
+    private final List<Decimal> variables;
+
+    /**
+     * Constructor.
+     * @param endEpochMilli the end time of the last bar (milliseconds from the epoch)
+     * @param values the values of the indicator on the last bars (the value of the last bar at the end)
+     * @param variables the internal variables of the indicator
+     */
+    public IndicatorState(long endEpochMilli, List<Decimal> values, List<Decimal> variables) {
+        if (values == null || values.isEmpty() || variables == null) {
+            throw new IllegalArgumentException("State must have values and variables");
+        }
+        this.endEpochMilli = endEpochMilli;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+        this.variables = Collections.unmodifiableList(new ArrayList<>(variables));
+    }
+
+    /**
+     * Captures the state of an indicator at the last bar of its time series.
+     * @param indicator a cached indicator (with a non-empty time series)
+     * @param depth the number of last values to be kept (at least 1)
+     * @return the state of the indicator
+     */
+    public static IndicatorState of(CachedIndicator<Decimal> indicator, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        TimeSeries series = indicator.getTimeSeries();
+        if (series == null || series.isEmpty()) {
+            throw new IllegalArgumentException("Indicator state of an empty series");
+        }
+        final int endIndex = series.getEndIndex();
+        final int firstIndex = Math.max(endIndex - depth + 1, Math.max(series.getBeginIndex(),
+                series.getRemovedBarsCount()));
+        List<Decimal> values = new ArrayList<>(endIndex - firstIndex + 1);
+        // In index order: the variables are the ones of the last calculated value
+        for (int index = firstIndex; index <= endIndex; index++) {
+            values.add(indicator.getValue(index));
+        }
+        return new IndicatorState(series.getBar(endIndex).getEndEpochMilli(), values,
+                indicator.getVariables(endIndex));
+    }
+
+    /**
+     * Restores the state on an indicator: its values on the last bars of the state are cached (the values after them
+     * are calculated from them), and its variables are set.
+     * @param indicator a cached indicator, built as the one of the state (on another series)
+     * @return the index of the last bar of the state in the series of the indicator, -1 if the series does not
+     *         include this bar (then the state is not restored)
+     */
+    public int restore(CachedIndicator<Decimal> indicator) {
+        TimeSeries series = indicator.getTimeSeries();
+        final int lastIndex = indexOf(series, endEpochMilli);
+        if (lastIndex < 0) {
+            return -1;
+        }
+        final int firstRemainingIndex = Math.max(series.getBeginIndex(), series.getRemovedBarsCount());
+        for (int i = 0; i < values.size(); i++) {
+            int index = lastIndex - values.size() + 1 + i;
+            if (index >= firstRemainingIndex) {
+                indicator.restoreValue(index, values.get(i));
+            }
+        }
+        indicator.setVariables(lastIndex, variables);
+        return lastIndex;
+    }
+
+    /**
+     * @param series a time series (may be null)
+     * @param endEpochMilli the end time of a bar (milliseconds from the epoch)
+     * @return the index of the remaining bar of the series with the end time, -1 if none
+     */
+    public static int indexOf(TimeSeries series, long endEpochMilli) {
+        if (series == null || series.isEmpty()) {
+            return -1;
+        }
+        final int firstIndex = Math.max(series.getBeginIndex(), series.getRemovedBarsCount());
+        // The last bars first
+        for (int index = series.getEndIndex(); index >= firstIndex; index--) {
+            long barEndTime = series.getBar(index).getEndEpochMilli();
+            if (barEndTime == endEpochMilli) {
+                return index;
+            }
+            if (barEndTime < endEpochMilli) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the end time of the last bar (milliseconds from the epoch)
+     */
+    public long getEndEpochMilli() {
+        return endEpochMilli;
+    }
+
+    /**
+     * @return the values of the indicator on the last bars (the value of the last bar at the end)
+     */
+    public List<Decimal> getValues() {
+        return values;
+    }
+
+    /**
+     * @return the internal variables of the indicator
+     */
+    public List<Decimal> getVariables() {
+        return variables;
+    }
+}
@@ -29,6 +29,9 @@ import org.ta4j.core.indicators.helpers.LowestValueIndicator;
 import org.ta4j.core.indicators.helpers.MaxPriceIndicator;
 import org.ta4j.core.indicators.helpers.MinPriceIndicator;
 
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Parabolic SAR indicator.
  * team172011(Simon-Justus Wimmer), 18.09.2017
@@ -89,7 +92,7 @@ public class ParabolicSarIndicator extends RecursiveCachedIndicator<Decimal> {
     }
 
     @Override
-    protected Decimal calculate(int index) {
+    protected synchronized Decimal calculate(int index) {
         Decimal sar = Decimal.NaN;
         if (index == series.getBeginIndex()) {
             return sar; // no trend detection possible for the first value
@@ -154,6 +157,29 @@ public class ParabolicSarIndicator extends RecursiveCachedIndicator<Decimal> {
 
     }
 
+    /**
+     * @param index the index of the last calculated value
+     * @return the trend (1 for an up trend, 0 for a down trend), the number of bars since the start of the trend, the
+     * acceleration factor, the current extreme point and the extreme point of the trend
+     */
+    @Override
+    protected synchronized List<Decimal> getVariables(int index) {
+        return Arrays.asList(currentTrend ? Decimal.ONE : Decimal.ZERO, Decimal.valueOf(index - startTrendIndex),
+                accelerationFactor, currentExtremePoint, minMaxExtremePoint);
+    }
+
+    @Override
+    protected synchronized void setVariables(int index, List<Decimal> variables) {
+        if (variables.size() != 5) {
+            throw new IllegalArgumentException("Parabolic SAR variables expected");
+        }
+        currentTrend = !variables.get(0).isZero();
+        startTrendIndex = index - variables.get(1).intValue();
+        accelerationFactor = variables.get(2);
+        currentExtremePoint = variables.get(3);
+        minMaxExtremePoint = variables.get(4);
+    }
+
     /**
      * Increments the acceleration factor.
      */
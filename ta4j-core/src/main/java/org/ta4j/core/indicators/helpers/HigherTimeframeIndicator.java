@@ -0,0 +1,63 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators.helpers;
+
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.bars.TimeSeriesResampler;
+import org.ta4j.core.indicators.AbstractIndicator;
+
+/**
+ * Higher timeframe indicator.
+ * <p></p>
+ * Reads an indicator of a {@link TimeSeriesResampler#getResampledSeries() resampled series} (e.g. a daily SMA)
+ * by index of the base series (e.g. hourly bars): the value at a base index is the value of the indicator
+ * at the last higher timeframe bar completed at that base bar (no look-ahead), NaN if there is none yet.<br>
+ * The resampler is updated as new base bars are read, and no value is re-aggregated per base bar.
+ */
+public class HigherTimeframeIndicator extends AbstractIndicator<Decimal> {
+
+    private final TimeSeriesResampler resampler;
+
+    private final Indicator<Decimal> indicator;
+
+    /**
+     * Constructor.
+     * @param resampler the resampler of the base series
+     * @param indicator an indicator of the resampled series
+     */
+    public HigherTimeframeIndicator(TimeSeriesResampler resampler, Indicator<Decimal> indicator) {
+        super(resampler.getBaseSeries());
+        if (indicator.getTimeSeries() != resampler.getResampledSeries()) {
+            throw new IllegalArgumentException("The indicator must be built on the resampled series");
+        }
+        this.resampler = resampler;
+        this.indicator = indicator;
+    }
+
+    @Override
+    public Decimal getValue(int index) {
+        int resampledIndex = resampler.getResampledIndex(index);
+        return resampledIndex < 0 ? Decimal.NaN : indicator.getValue(resampledIndex);
+    }
+}
@@ -22,13 +22,13 @@
  */
 package org.ta4j.core.indicators.pivotpoints;
 
-import java.time.temporal.IsoFields;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.ta4j.core.Bar;
 import org.ta4j.core.Decimal;
 import org.ta4j.core.TimeSeries;
+import org.ta4j.core.bars.LocalTimes;
 import org.ta4j.core.indicators.RecursiveCachedIndicator;
 
 /**
@@ -40,6 +40,9 @@ public class PivotPointIndicator extends RecursiveCachedIndicator<Decimal> {
 
     private final TimeLevel timeLevel ;
 
+    /** The local times of the bars (periods computed from the epoch times) */
+    private LocalTimes localTimes;
+
     /**
      * Constructor.
      * <p>
@@ -101,7 +104,8 @@ public class PivotPointIndicator extends RecursiveCachedIndicator<Decimal> {
 		final Bar currentBar = getTimeSeries().getBar(index);
 
         // step back while bar-1 in same period (day, week, etc):
-		while(index-1 >= getTimeSeries().getBeginIndex() && getPeriod(getTimeSeries().getBar(index-1)) == getPeriod(currentBar)){
+		final long currentPeriod = getPeriod(currentBar);
+		while(index-1 >= getTimeSeries().getBeginIndex() && getPeriod(getTimeSeries().getBar(index-1)) == currentPeriod){
 			index--;
 		}
 
@@ -115,34 +119,25 @@ public class PivotPointIndicator extends RecursiveCachedIndicator<Decimal> {
 	}
 
 	private long getPreviousPeriod(Bar bar, int indexOfPreviousBar) {
-		switch (timeLevel) {
-            case DAY: // return previous day
-                int prevCalendarDay =  bar.getEndTime().minusDays(1).getDayOfYear();
-                // skip weekend and holidays:
-                while (getTimeSeries().getBar(indexOfPreviousBar).getEndTime().getDayOfYear() != prevCalendarDay && indexOfPreviousBar > 0) {
-                    prevCalendarDay--;
-                }
-                return prevCalendarDay;
-            case WEEK: // return previous week
-                return bar.getEndTime().minusWeeks(1).get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
-            case MONTH: // return previous month
-                return bar.getEndTime().minusMonths(1).getMonthValue();
-            default: // return previous year
-                return bar.getEndTime().minusYears(1).getYear();
-		}
+        long previousPeriod = getPeriod(bar) - 1;
+        if (timeLevel == TimeLevel.DAY && indexOfPreviousBar > 0) {
+            // skip weekend and holidays:
+            previousPeriod = Math.min(previousPeriod, getPeriod(getTimeSeries().getBar(indexOfPreviousBar)));
+        }
+        return previousPeriod;
 	}
 
+    /**
+     * @param bar a bar
+     * @return the period of the end time of the bar (day, week, month or year from the local epoch)
+     */
 	private long getPeriod(Bar bar) {
-        switch (timeLevel) {
-            case DAY: // return previous day
-                return bar.getEndTime().getDayOfYear();
-            case WEEK: // return previous week
-                return bar.getEndTime().get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
-            case MONTH: // return previous month
-                return bar.getEndTime().getMonthValue();
-            default: // return previous year
-                return bar.getEndTime().getYear();
+        LocalTimes times = localTimes;
+        if (times == null || !times.getZone().equals(bar.getZone())) {
+            times = new LocalTimes(bar.getZone());
+            localTimes = times;
         }
+        return timeLevel.getPeriod(times.toLocalEpochMilli(bar.getEndEpochMilli()));
 	}
 
 }
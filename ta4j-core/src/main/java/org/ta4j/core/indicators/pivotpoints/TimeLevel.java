@@ -1,6 +1,28 @@
 package org.ta4j.core.indicators.pivotpoints;
 
+import org.ta4j.core.bars.LocalTimes;
+
 public enum TimeLevel {
 
-    BARBASED, DAY, WEEK, MONTH, YEAR
+    BARBASED, DAY, WEEK, MONTH, YEAR;
+
+    /**
+     * @param localEpochMilli a local time (milliseconds from the local epoch, see {@link LocalTimes})
+     * @return the period of the local time (days, ISO weeks or months from the local epoch, year), the local time
+     *         itself for bar-based pivots
+     */
+    long getPeriod(long localEpochMilli) {
+        switch (this) {
+            case DAY:
+                return LocalTimes.epochDay(localEpochMilli);
+            case WEEK:
+                return LocalTimes.epochWeek(localEpochMilli);
+            case MONTH:
+                return LocalTimes.epochMonth(localEpochMilli);
+            case YEAR:
+                return LocalTimes.year(localEpochMilli);
+            default:
+                return localEpochMilli;
+        }
+    }
 }
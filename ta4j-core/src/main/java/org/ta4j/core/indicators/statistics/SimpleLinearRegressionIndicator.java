@@ -74,7 +74,7 @@ public class SimpleLinearRegressionIndicator extends CachedIndicator<Decimal> {
 	}
 
     @Override
-    protected Decimal calculate(int index) {
+    protected synchronized Decimal calculate(int index) {
         final int startIndex = Math.max(0, index - timeFrame + 1);
         if (index - startIndex + 1 < 2) {
             // Not enough observations to compute a regression line
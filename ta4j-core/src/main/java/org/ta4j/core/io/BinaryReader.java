@@ -0,0 +1,379 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.IndicatorState;
+import org.ta4j.core.indicators.helpers.FixedIndicator;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of the compact binary format of Ta4j objects (see {@link BinaryWriter}).
+ * <p></p>
+ * The objects are read in the order they were written. {@link #nextType()} gives the type of the next object.
+ * The reader is buffered: it may read more bytes than the objects it returns from the input stream.
+ */
+public class BinaryReader implements Closeable {
+
+    /** End of stream */
+    public static final int END_OF_STREAM = -1;
+
+    /** The input */
+    private final InputStream input;
+
+    /** The buffer */
+    private final byte[] buffer = new byte[BinaryWriter.BUFFER_SIZE];
+
+    /** The position in the buffer */
+    private int position = 0;
+
+    /** The number of bytes in the buffer */
+    private int limit = 0;
+
+    /** The time zones already read (by index) */
+    private final List<ZoneId> zones = new ArrayList<>();
+
+    /** The end time of the previous bar (epoch seconds) */
+    private long previousEndTime = 0;
+
+    /**
+     * Constructor.
+     * @param input the input stream
+     * @throws IOException if the header cannot be read or is invalid
+     */
+    public BinaryReader(InputStream input) throws IOException {
+        this.input = input;
+        int magic = getByte() << 24 | getByte() << 16 | getByte() << 8 | getByte();
+        if (magic != BinaryWriter.MAGIC) {
+            throw new StreamCorruptedException("Not a Ta4j binary stream");
+        }
+        int version = getByte();
+        if (version != BinaryWriter.VERSION) {
+            throw new StreamCorruptedException("Unsupported Ta4j binary stream version: " + version);
+        }
+    }
+
+    /**
+     * @return the type tag of the next object (see the constants of {@link BinaryWriter}), {@link #END_OF_STREAM}
+     *         at the end of the stream
+     * @throws IOException if the stream cannot be read
+     */
+    public int nextType() throws IOException {
+        if (position == limit && !fill()) {
+            return END_OF_STREAM;
+        }
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * @return the next decimal (may be null or NaN)
+     * @throws IOException if the decimal cannot be read
+     */
+    public Decimal readDecimal() throws IOException {
+        checkTag(BinaryWriter.DECIMAL_TAG);
+        return getDecimal();
+    }
+
+    /**
+     * @return the next integer
+     * @throws IOException if the integer cannot be read
+     */
+    public long readInteger() throws IOException {
+        checkTag(BinaryWriter.INTEGER_TAG);
+        return getZigZag();
+    }
+
+    /**
+     * @return the next string
+     * @throws IOException if the string cannot be read
+     */
+    public String readString() throws IOException {
+        checkTag(BinaryWriter.STRING_TAG);
+        return getString();
+    }
+
+    /**
+     * @return the next bar
+     * @throws IOException if the bar cannot be read
+     */
+    public Bar readBar() throws IOException {
+        checkTag(BinaryWriter.BAR_TAG);
+        return getBar();
+    }
+
+    /**
+     * @return the next time series (with the indexes of the written series: the bars before the first remaining bar
+     *         are considered as removed)
+     * @throws IOException if the time series cannot be read
+     */
+    public TimeSeries readTimeSeries() throws IOException {
+        checkTag(BinaryWriter.TIME_SERIES_TAG);
+        String name = getString();
+        int maximumBarCount = (int) getVarLong();
+        int beginIndex = (int) getVarLong();
+        int barCount = (int) getVarLong();
+        List<Bar> bars = new ArrayList<>(barCount);
+        for (int i = 0; i < barCount; i++) {
+            bars.add(getBar());
+        }
+        TimeSeries series = new BaseTimeSeries(name, beginIndex);
+        series.addBars(bars);
+        if (maximumBarCount != Integer.MAX_VALUE) {
+            series.setMaximumBarCount(maximumBarCount);
+        }
+        return series;
+    }
+
+    /**
+     * @return the next trading record
+     * @throws IOException if the trading record cannot be read
+     */
+    public TradingRecord readTradingRecord() throws IOException {
+        checkTag(BinaryWriter.TRADING_RECORD_TAG);
+        Order.OrderType startingType = getByte() != 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+        int orderCount = (int) getVarLong();
+        if (orderCount == 0) {
+            return new BaseTradingRecord(startingType);
+        }
+        Order[] orders = new Order[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            Order.OrderType type = getByte() != 0 ? Order.OrderType.BUY : Order.OrderType.SELL;
+            int index = (int) getVarLong();
+            orders[i] = new Order(index, type, getDecimal(), getDecimal());
+        }
+        return new BaseTradingRecord(orders);
+    }
+
+    /**
+     * @return the next indicator values (NaN before the first remaining bar of the time series of the written indicator)
+     * @throws IOException if the indicator values cannot be read
+     */
+    public FixedIndicator<Decimal> readIndicator() throws IOException {
+        checkTag(BinaryWriter.INDICATOR_TAG);
+        int beginIndex = (int) getVarLong();
+        int valueCount = (int) getVarLong();
+        FixedIndicator<Decimal> indicator = new FixedIndicator<>();
+        for (int i = 0; i < beginIndex; i++) {
+            indicator.addValue(Decimal.NaN);
+        }
+        for (int i = 0; i < valueCount; i++) {
+            indicator.addValue(getDecimal());
+        }
+        return indicator;
+    }
+
+    /**
+     * @return the next indicator state
+     * @throws IOException if the indicator state cannot be read
+     */
+    public IndicatorState readIndicatorState() throws IOException {
+        checkTag(BinaryWriter.INDICATOR_STATE_TAG);
+        long endEpochMilli = getZigZag();
+        int valueCount = (int) getVarLong();
+        List<Decimal> values = new ArrayList<>(valueCount);
+        for (int i = 0; i < valueCount; i++) {
+            values.add(getDecimal());
+        }
+        int variableCount = (int) getVarLong();
+        List<Decimal> variables = new ArrayList<>(variableCount);
+        for (int i = 0; i < variableCount; i++) {
+            variables.add(getDecimal());
+        }
+        return new IndicatorState(endEpochMilli, values, variables);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * @param expectedTag the expected type tag of the next object
+     * @throws IOException if the tag cannot be read or is not the expected one
+     */
+    private void checkTag(int expectedTag) throws IOException {
+        int tag = getByte();
+        if (tag != expectedTag) {
+            throw new StreamCorruptedException("Unexpected object type " + tag + " (expected " + expectedTag + ")");
+        }
+    }
+
+    /**
+     * @return the next bar (without tag)
+     * @throws IOException if the bar cannot be read
+     */
+    private Bar getBar() throws IOException {
+        Duration timePeriod = Duration.ofSeconds(getVarLong(), getVarLong());
+
+        long endEpochSecond = previousEndTime + getZigZag();
+        previousEndTime = endEpochSecond;
+        int nano = (int) getVarLong();
+        int zoneIndex = (int) getVarLong();
+        if (zoneIndex == zones.size()) {
+            zones.add(ZoneId.of(getString()));
+        } else if (zoneIndex > zones.size()) {
+            throw new StreamCorruptedException("Invalid time zone index: " + zoneIndex);
+        }
+        ZoneId zone = zones.get(zoneIndex);
+
+        Decimal openPrice = getDecimal();
+        Decimal maxPrice = getDecimal();
+        Decimal minPrice = getDecimal();
+        Decimal closePrice = getDecimal();
+        Decimal volume = getDecimal();
+        Decimal amount = getDecimal();
+        int trades = (int) getVarLong();
+        if (nano % 1000000 == 0) {
+            // Whole milliseconds: the bar builds its end time only when requested
+            return new BaseBar(timePeriod, endEpochSecond * 1000 + nano / 1000000, zone, openPrice, maxPrice, minPrice,
+                    closePrice, volume, amount, trades);
+        }
+        ZonedDateTime endTime = ZonedDateTime.ofInstant(Instant.ofEpochSecond(endEpochSecond, nano), zone);
+        return new BaseBar(timePeriod, endTime, openPrice, maxPrice, minPrice, closePrice, volume, amount, trades);
+    }
+
+    /**
+     * @return the next decimal (without tag, may be null or NaN)
+     * @throws IOException if the decimal cannot be read
+     */
+    private Decimal getDecimal() throws IOException {
+        int kind = getByte();
+        switch (kind) {
+            case BinaryWriter.NULL_DECIMAL:
+                return null;
+            case BinaryWriter.NAN_DECIMAL:
+                return Decimal.NaN;
+            case BinaryWriter.COMPACT_DECIMAL: {
+                int scale = (int) getZigZag();
+                return Decimal.valueOf(BigDecimal.valueOf(getZigZag(), scale));
+            }
+            case BinaryWriter.BIG_DECIMAL: {
+                int scale = (int) getZigZag();
+                byte[] unscaled = getBytes((int) getVarLong());
+                return Decimal.valueOf(new BigDecimal(new BigInteger(unscaled), scale));
+            }
+            default:
+                throw new StreamCorruptedException("Invalid decimal kind: " + kind);
+        }
+    }
+
+    /**
+     * @return the next zigzag-encoded signed value
+     * @throws IOException if the value cannot be read
+     */
+    private long getZigZag() throws IOException {
+        long value = getVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the next variable-length integer
+     * @throws IOException if the value cannot be read
+     */
+    private long getVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = getByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Invalid variable-length integer");
+    }
+
+    /**
+     * @return the next string (its length and its UTF-8 bytes)
+     * @throws IOException if the string cannot be read
+     */
+    private String getString() throws IOException {
+        return new String(getBytes((int) getVarLong()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param length a number of bytes
+     * @return the next bytes
+     * @throws IOException if the bytes cannot be read
+     */
+    private byte[] getBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (position == limit && !fill()) {
+                throw new EOFException();
+            }
+            int count = Math.min(length - offset, limit - position);
+            System.arraycopy(buffer, position, bytes, offset, count);
+            position += count;
+            offset += count;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the next byte (unsigned)
+     * @throws IOException if the byte cannot be read
+     */
+    private int getByte() throws IOException {
+        if (position == limit && !fill()) {
+            throw new EOFException();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Reads the next bytes of the input in the (consumed) buffer.
+     * @return false at the end of the input, true otherwise
+     * @throws IOException if the input cannot be read
+     */
+    private boolean fill() throws IOException {
+        int count;
+        do {
+            count = input.read(buffer, 0, buffer.length);
+        } while (count == 0);
+        position = 0;
+        limit = Math.max(count, 0);
+        return count > 0;
+    }
+}
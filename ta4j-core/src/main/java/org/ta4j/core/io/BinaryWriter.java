@@ -0,0 +1,413 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.IndicatorState;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming writer of the compact binary format of Ta4j objects.
+ * <p></p>
+ * Writes integers, strings, {@link Decimal decimals}, {@link Bar bars}, {@link TimeSeries time series},
+ * {@link TradingRecord trading records}, {@link Indicator indicator} values and {@link IndicatorState indicator states},
+ * in any order, to be read back by a {@link BinaryReader}. The primitives are
+ * written directly (variable-length integers, unscaled values of the decimals), instead of the object graphs of the
+ * Java serialization:
+ * <ul>
+ *     <li>a stream begins with a magic number ("T4JS") and a format version
+ *     <li>each object begins with a type tag
+ *     <li>a decimal is written as its unscaled value and its scale
+ *     <li>the end time of a bar is written as the difference (in seconds) with the end time of the previous bar of
+ *     the stream, and its time zone as an index in the zones already written
+ * </ul>
+ * The writer is buffered: {@link #flush()} (or {@link #close()}) must be called to write the buffered objects.
+ */
+public class BinaryWriter implements Closeable, Flushable {
+
+    /** The magic number of the streams ("T4JS") */
+    static final int MAGIC = 0x54344A53;
+
+    /** The version of the format */
+    static final int VERSION = 2;
+
+    /** Type tag of a decimal */
+    static final int DECIMAL_TAG = 1;
+    /** Type tag of a bar */
+    static final int BAR_TAG = 2;
+    /** Type tag of a time series */
+    static final int TIME_SERIES_TAG = 3;
+    /** Type tag of a trading record */
+    static final int TRADING_RECORD_TAG = 4;
+    /** Type tag of indicator values */
+    static final int INDICATOR_TAG = 5;
+    /** Type tag of an indicator state */
+    static final int INDICATOR_STATE_TAG = 6;
+    /** Type tag of an integer */
+    static final int INTEGER_TAG = 7;
+    /** Type tag of a string */
+    static final int STRING_TAG = 8;
+
+    /** Kind of a null decimal */
+    static final int NULL_DECIMAL = 0;
+    /** Kind of the NaN decimal */
+    static final int NAN_DECIMAL = 1;
+    /** Kind of a decimal with a long unscaled value */
+    static final int COMPACT_DECIMAL = 2;
+    /** Kind of a decimal with a big unscaled value */
+    static final int BIG_DECIMAL = 3;
+
+    /** The size of the buffers */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The output */
+    private final OutputStream output;
+
+    /** The buffer */
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /** The position in the buffer */
+    private int position = 0;
+
+    /** The indexes of the time zones already written */
+    private final Map<ZoneId, Integer> zoneIndexes = new HashMap<>();
+
+    /** The end time of the previous bar (epoch seconds) */
+    private long previousEndTime = 0;
+
+    /**
+     * Constructor.
+     * @param output the output stream
+     * @throws IOException if the header cannot be written
+     */
+    public BinaryWriter(OutputStream output) throws IOException {
+        this.output = output;
+        putByte(MAGIC >>> 24);
+        putByte(MAGIC >>> 16);
+        putByte(MAGIC >>> 8);
+        putByte(MAGIC);
+        putByte(VERSION);
+    }
+
+    /**
+     * @param decimal a decimal (may be null or NaN)
+     * @throws IOException if the decimal cannot be written
+     */
+    public void writeDecimal(Decimal decimal) throws IOException {
+        ensureCapacity(1);
+        putByte(DECIMAL_TAG);
+        putDecimal(decimal);
+    }
+
+    /**
+     * @param value an integer (e.g. an index)
+     * @throws IOException if the integer cannot be written
+     */
+    public void writeInteger(long value) throws IOException {
+        ensureCapacity(11);
+        putByte(INTEGER_TAG);
+        putZigZag(value);
+    }
+
+    /**
+     * @param string a string (not null)
+     * @throws IOException if the string cannot be written
+     */
+    public void writeString(String string) throws IOException {
+        ensureCapacity(1);
+        putByte(STRING_TAG);
+        putString(string);
+    }
+
+    /**
+     * @param bar a bar
+     * @throws IOException if the bar cannot be written
+     */
+    public void writeBar(Bar bar) throws IOException {
+        ensureCapacity(1);
+        putByte(BAR_TAG);
+        putBar(bar);
+    }
+
+    /**
+     * Writes a time series (its name, its maximum bar count, the index of its first remaining bar and its remaining
+     * bars).
+     * @param series a time series
+     * @throws IOException if the time series cannot be written
+     */
+    public void writeTimeSeries(TimeSeries series) throws IOException {
+        ensureCapacity(1);
+        putByte(TIME_SERIES_TAG);
+        putString(series.getName() == null ? "" : series.getName());
+        int beginIndex = firstIndex(series);
+        ensureCapacity(30);
+        putVarLong(series.getMaximumBarCount());
+        putVarLong(beginIndex);
+        putVarLong(series.getBarCount());
+        for (int i = beginIndex, end = series.getEndIndex(); i <= end; i++) {
+            putBar(series.getBar(i));
+        }
+    }
+
+    /**
+     * Writes a trading record (its starting order type and its orders).
+     * @param tradingRecord a trading record
+     * @throws IOException if the trading record cannot be written
+     */
+    public void writeTradingRecord(TradingRecord tradingRecord) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        for (Trade trade : tradingRecord.getTrades()) {
+            orders.add(trade.getEntry());
+            orders.add(trade.getExit());
+        }
+        Trade currentTrade = tradingRecord.getCurrentTrade();
+        if (currentTrade != null && currentTrade.isOpened()) {
+            orders.add(currentTrade.getEntry());
+        }
+        Order.OrderType startingType = currentTrade != null ? currentTrade.getStartingType() : Order.OrderType.BUY;
+        ensureCapacity(12);
+        putByte(TRADING_RECORD_TAG);
+        putByte(startingType == Order.OrderType.BUY ? 1 : 0);
+        putVarLong(orders.size());
+        for (Order order : orders) {
+            ensureCapacity(11);
+            putByte(order.isBuy() ? 1 : 0);
+            putVarLong(order.getIndex());
+            putDecimal(order.getPrice());
+            putDecimal(order.getAmount());
+        }
+    }
+
+    /**
+     * Writes the values of an indicator, for the remaining bars of its time series.
+     * @param indicator an indicator (with a time series)
+     * @throws IOException if the values cannot be written
+     */
+    public void writeIndicator(Indicator<Decimal> indicator) throws IOException {
+        TimeSeries series = indicator.getTimeSeries();
+        int beginIndex = firstIndex(series);
+        int endIndex = series.getEndIndex();
+        ensureCapacity(21);
+        putByte(INDICATOR_TAG);
+        putVarLong(beginIndex);
+        putVarLong(Math.max(endIndex - beginIndex + 1, 0));
+        for (int i = beginIndex; i <= endIndex; i++) {
+            putDecimal(indicator.getValue(i));
+        }
+    }
+
+    /**
+     * Writes an indicator state (the end time of its last bar, its values and its variables).
+     * @param state an indicator state
+     * @throws IOException if the state cannot be written
+     */
+    public void writeIndicatorState(IndicatorState state) throws IOException {
+        ensureCapacity(21);
+        putByte(INDICATOR_STATE_TAG);
+        putZigZag(state.getEndEpochMilli());
+        putVarLong(state.getValues().size());
+        for (Decimal value : state.getValues()) {
+            putDecimal(value);
+        }
+        ensureCapacity(10);
+        putVarLong(state.getVariables().size());
+        for (Decimal variable : state.getVariables()) {
+            putDecimal(variable);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.write(buffer, 0, position);
+        position = 0;
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * @param series a time series
+     * @return the index of the first remaining bar of the series (bars may have been removed by the maximum bar count)
+     */
+    private static int firstIndex(TimeSeries series) {
+        return Math.max(Math.max(series.getBeginIndex(), series.getRemovedBarsCount()), 0);
+    }
+
+    /**
+     * @param bar a bar (without tag)
+     * @throws IOException if the bar cannot be written
+     */
+    private void putBar(Bar bar) throws IOException {
+        // Time period, end time and zone index: at most 5 variable-length integers
+        ensureCapacity(50);
+        Duration timePeriod = bar.getTimePeriod();
+        putVarLong(timePeriod.getSeconds());
+        putVarLong(timePeriod.getNano());
+
+        // From the epoch milliseconds and the zone, without building the end time of the bar
+        long endEpochMilli = bar.getEndEpochMilli();
+        long endEpochSecond = Math.floorDiv(endEpochMilli, 1000);
+        putZigZag(endEpochSecond - previousEndTime);
+        previousEndTime = endEpochSecond;
+        putVarLong(Math.floorMod(endEpochMilli, 1000) * 1000000L + bar.getEndNanoOfMilli());
+        ZoneId zone = bar.getZone();
+        Integer zoneIndex = zoneIndexes.get(zone);
+        if (zoneIndex == null) {
+            // New zone: its index (the number of zones) followed by its id
+            putVarLong(zoneIndexes.size());
+            putString(zone.getId());
+            zoneIndexes.put(zone, zoneIndexes.size());
+        } else {
+            putVarLong(zoneIndex);
+        }
+
+        putDecimal(bar.getOpenPrice());
+        putDecimal(bar.getMaxPrice());
+        putDecimal(bar.getMinPrice());
+        putDecimal(bar.getClosePrice());
+        putDecimal(bar.getVolume());
+        putDecimal(bar.getAmount());
+        ensureCapacity(10);
+        putVarLong(bar.getTrades());
+    }
+
+    /**
+     * @param decimal a decimal (without tag, may be null or NaN)
+     * @throws IOException if the decimal cannot be written
+     */
+    private void putDecimal(Decimal decimal) throws IOException {
+        // Kind, scale and unscaled value of a compact decimal
+        ensureCapacity(16);
+        if (decimal == null) {
+            putByte(NULL_DECIMAL);
+        } else if (decimal.isNaN()) {
+            putByte(NAN_DECIMAL);
+        } else {
+            BigDecimal value = decimal.getDelegate();
+            BigInteger unscaledValue = value.unscaledValue();
+            if (unscaledValue.bitLength() <= 63) {
+                putByte(COMPACT_DECIMAL);
+                putZigZag(value.scale());
+                putZigZag(unscaledValue.longValue());
+            } else {
+                byte[] unscaled = unscaledValue.toByteArray();
+                putByte(BIG_DECIMAL);
+                putZigZag(value.scale());
+                putVarLong(unscaled.length);
+                putBytes(unscaled);
+            }
+        }
+    }
+
+    /**
+     * @param string a string (written as its length and its UTF-8 bytes)
+     * @throws IOException if the string cannot be written
+     */
+    private void putString(String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(5);
+        putVarLong(bytes.length);
+        putBytes(bytes);
+    }
+
+    /**
+     * @param bytes bytes to be written
+     * @throws IOException if the bytes cannot be written
+     */
+    private void putBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            output.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                output.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes the buffer to the output if it has not the capacity for a number of bytes.
+     * @param byteCount a number of bytes (at most the size of the buffer)
+     * @throws IOException if the buffer cannot be written
+     */
+    private void ensureCapacity(int byteCount) throws IOException {
+        if (byteCount > buffer.length - position) {
+            output.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * @param value a byte (the low 8 bits), put in the buffer without checking its capacity
+     */
+    private void putByte(int value) {
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * @param value a signed value (zigzag-encoded, then put as a variable-length integer)
+     */
+    private void putZigZag(long value) {
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * @param value a value put in the buffer as a variable-length integer (7 bits per byte, at most 10 bytes), without
+     *              checking its capacity
+     */
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+}
@@ -0,0 +1,459 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.Order.OrderType;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.TradingRecordListener;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only journal of the {@link Order orders} of a trading record, in a memory-mapped file.
+ * <p></p>
+ * Registered as a {@link BaseTradingRecord#addListener(TradingRecordListener) listener} of a trading record, the
+ * journal appends each recorded order as a fixed-size record (32 bytes) to the mapped file: appending an order is a
+ * few writes to memory, without system call. The mapped pages are forced to the storage device by a background
+ * thread, every flush interval or as soon as a number of orders are not flushed (the appending thread never waits for
+ * the device). {@link #flush()} forces them synchronously.
+ * <p></p>
+ * After a crash of the bot, the orders of the journal are read back (up to the last complete record) to rebuild the
+ * trading record without running the strategy again (see {@link #recover(Path)} and {@link #recoverTradingRecord()}).
+ * <p></p>
+ * A record holds the index and the type of the order, its price and its amount (unscaled values on 63 bits, i.e. 18
+ * significant digits, and scales), its sequence number and a checksum.
+ */
+public final class OrderJournal implements TradingRecordListener, Closeable, Flushable {
+
+    /** The magic number of the journals ("T4JJ") */
+    static final int MAGIC = 0x54344A4A;
+
+    /** The version of the format */
+    static final int VERSION = 1;
+
+    /** The size of a record (and of the header of the file) */
+    public static final int RECORD_SIZE = 32;
+
+    /** The default size of the mapped regions of the file (131072 records) */
+    public static final int DEFAULT_REGION_SIZE = 4 * 1024 * 1024;
+
+    /** The default flush interval (milliseconds) */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 10;
+
+    /** The default number of orders not flushed waking the flushing thread */
+    public static final int DEFAULT_FLUSH_THRESHOLD = 1024;
+
+    /** The maximum precision of the decimals of a record */
+    private static final MathContext RECORD_CONTEXT = new MathContext(18, RoundingMode.HALF_UP);
+
+    /** The maximum scale of the decimals of a record */
+    private static final int MAX_SCALE = Byte.MAX_VALUE;
+
+    /** The scale of a NaN decimal */
+    private static final int NAN_SCALE = Byte.MIN_VALUE;
+
+    /** The file channel */
+    private final FileChannel channel;
+
+    /** The size of the mapped regions */
+    private final int regionSize;
+
+    /** The number of orders not flushed waking the flushing thread (0 for none) */
+    private final int flushThreshold;
+
+    /** The orders of the journal when it was opened */
+    private final List<Order> recoveredOrders;
+
+    /** The mapped region of the next record */
+    private volatile MappedByteBuffer region;
+
+    /** The position of the mapped region in the file */
+    private long regionPosition;
+
+    /** The previous regions, not forced yet */
+    private final Queue<MappedByteBuffer> fullRegions = new ConcurrentLinkedQueue<>();
+
+    /** The number of records */
+    private volatile long writtenCount;
+
+    /** The number of records forced to the device */
+    private volatile long flushedCount;
+
+    /** The lock of the flushes */
+    private final Object flushLock = new Object();
+
+    /** The flushing thread (null if none) */
+    private final Thread flusher;
+
+    /** True if the journal is closed */
+    private volatile boolean closed;
+
+    /**
+     * Constructor, with the default region size, flush interval and flush threshold.
+     * @param file the file of the journal (created if it does not exist)
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public OrderJournal(Path file) throws IOException {
+        this(file, DEFAULT_REGION_SIZE, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     * @param file the file of the journal (created if it does not exist)
+     * @param regionSize the size of the mapped regions of the file (a multiple of {@link #RECORD_SIZE})
+     * @param flushIntervalMillis the flush interval (milliseconds), 0 for no flushing thread (see {@link #flush()})
+     * @param flushThreshold the number of orders not flushed waking the flushing thread, 0 for none
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public OrderJournal(Path file, int regionSize, long flushIntervalMillis, int flushThreshold) throws IOException {
+        if (regionSize <= 0 || regionSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Region size must be a positive multiple of " + RECORD_SIZE);
+        }
+        if (flushIntervalMillis < 0 || flushThreshold < 0) {
+            throw new IllegalArgumentException("Flush interval and threshold must be positive or zero");
+        }
+        this.regionSize = regionSize;
+        this.flushThreshold = flushThreshold;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                recoveredOrders = Collections.emptyList();
+                mapRegion(0);
+                region.putInt(0, MAGIC);
+                region.putInt(4, VERSION);
+                region.putInt(8, RECORD_SIZE);
+            } else {
+                recoveredOrders = Collections.unmodifiableList(readOrders(channel, regionSize));
+                // Removing an incomplete last record (and the unused end of the file)
+                long size = (recoveredOrders.size() + 1L) * RECORD_SIZE;
+                channel.truncate(size);
+                mapRegion(size / regionSize * regionSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        writtenCount = recoveredOrders.size();
+        flushedCount = writtenCount;
+        if (flushIntervalMillis > 0) {
+            final long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+            flusher = new Thread(() -> {
+                while (!closed) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                    force();
+                }
+            }, "ta4j-order-journal-" + file.getFileName());
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Reads the orders of a journal.
+     * @param file the file of the journal
+     * @return the orders, up to the last complete record
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static List<Order> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readOrders(channel, DEFAULT_REGION_SIZE);
+        }
+    }
+
+    /**
+     * Rebuilds the trading record of a journal.
+     * @param file the file of the journal
+     * @return the trading record of the orders of the journal (an empty one with BUY entries if none)
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static BaseTradingRecord recover(Path file) throws IOException {
+        return tradingRecord(read(file));
+    }
+
+    /**
+     * Rebuilds the trading record of the journal, and registers the journal as its listener: its next orders are
+     * appended to the journal. To be called once, before appending other orders.
+     * @return the trading record of the orders of the journal when it was opened (an empty one with BUY entries if
+     *         none)
+     */
+    public BaseTradingRecord recoverTradingRecord() {
+        BaseTradingRecord tradingRecord = tradingRecord(recoveredOrders);
+        tradingRecord.addListener(this);
+        return tradingRecord;
+    }
+
+    @Override
+    public void onEntry(TradingRecord tradingRecord, Order entry) {
+        append(entry);
+    }
+
+    @Override
+    public void onExit(TradingRecord tradingRecord, Trade trade) {
+        append(trade.getExit());
+    }
+
+    /**
+     * Appends an order to the journal.
+     * @param order the order
+     */
+    public synchronized void append(Order order) {
+        if (closed) {
+            throw new IllegalStateException("Journal closed");
+        }
+        final long count = writtenCount;
+        final long position = (count + 1) * RECORD_SIZE;
+        if (position >= regionPosition + regionSize) {
+            fullRegions.add(region);
+            try {
+                mapRegion(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Journal region not mapped", e);
+            }
+        }
+        BigDecimal price = compact(order.getPrice());
+        BigDecimal amount = compact(order.getAmount());
+        long header = ((long) order.getIndex() << 32) | (order.getType() == OrderType.BUY ? 0 : 1L << 16)
+                | (scale(price) & 0xFF) << 8 | (scale(amount) & 0xFF);
+        long unscaledPrice = unscaled(price);
+        long unscaledAmount = unscaled(amount);
+        long sequence = count + 1;
+        int offset = (int) (position - regionPosition);
+        MappedByteBuffer buffer = region;
+        buffer.putLong(offset, header);
+        buffer.putLong(offset + 8, unscaledPrice);
+        buffer.putLong(offset + 16, unscaledAmount);
+        buffer.putLong(offset + 24, sequence << 32 | checksum(header, unscaledPrice, unscaledAmount, sequence)
+                & 0xFFFFFFFFL);
+        writtenCount = sequence;
+        if (flusher != null && flushThreshold > 0 && sequence - flushedCount >= flushThreshold) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    /**
+     * Forces the appended orders to the storage device.
+     */
+    @Override
+    public void flush() {
+        force();
+    }
+
+    /**
+     * @return the number of orders of the journal
+     */
+    public long getOrderCount() {
+        return writtenCount;
+    }
+
+    /**
+     * @return the number of orders forced to the storage device
+     */
+    public long getFlushedCount() {
+        return flushedCount;
+    }
+
+    /**
+     * Flushes the journal and closes its file.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        force();
+        channel.close();
+    }
+
+    /**
+     * Forces the mapped regions holding orders not flushed.
+     */
+    private void force() {
+        synchronized (flushLock) {
+            final long count = writtenCount;
+            if (count == flushedCount) {
+                return;
+            }
+            // Read before the full regions: a region filled later is the current one
+            MappedByteBuffer current = region;
+            MappedByteBuffer full;
+            while ((full = fullRegions.poll()) != null) {
+                full.force();
+            }
+            current.force();
+            flushedCount = count;
+        }
+    }
+
+    /**
+     * Maps the region of a position of the file.
+     * @param position a position of the file
+     */
+    private void mapRegion(long position) throws IOException {
+        regionPosition = position / regionSize * regionSize;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionPosition, regionSize);
+    }
+
+    /**
+     * @param channel the channel of a journal file
+     * @param regionSize the size of the regions to be mapped
+     * @return the orders of the journal, up to the last complete record
+     */
+    private static List<Order> readOrders(FileChannel channel, int regionSize) throws IOException {
+        final long size = channel.size();
+        if (size < RECORD_SIZE) {
+            throw new StreamCorruptedException("Not an order journal");
+        }
+        List<Order> orders = new ArrayList<>();
+        long regionPosition = 0;
+        MappedByteBuffer buffer = null;
+        for (long position = 0; position + RECORD_SIZE <= size; position += RECORD_SIZE) {
+            if (buffer == null || position >= regionPosition + regionSize) {
+                regionPosition = position / regionSize * regionSize;
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, regionPosition,
+                        Math.min(regionSize, size - regionPosition));
+            }
+            int offset = (int) (position - regionPosition);
+            if (position == 0) {
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+                    throw new StreamCorruptedException("Not an order journal (or unsupported version)");
+                }
+                continue;
+            }
+            long header = buffer.getLong(offset);
+            long unscaledPrice = buffer.getLong(offset + 8);
+            long unscaledAmount = buffer.getLong(offset + 16);
+            long trailer = buffer.getLong(offset + 24);
+            long sequence = orders.size() + 1;
+            if (trailer >>> 32 != sequence
+                    || (int) trailer != checksum(header, unscaledPrice, unscaledAmount, sequence)) {
+                // Incomplete record (or end of the records)
+                break;
+            }
+            OrderType type = (header >>> 16 & 0xFF) == 0 ? OrderType.BUY : OrderType.SELL;
+            orders.add(new Order((int) (header >>> 32), type, decimal(unscaledPrice, (byte) (header >>> 8)),
+                    decimal(unscaledAmount, (byte) header)));
+        }
+        return orders;
+    }
+
+    /**
+     * @param orders the orders of a trading record
+     * @return the trading record
+     */
+    private static BaseTradingRecord tradingRecord(List<Order> orders) {
+        return orders.isEmpty() ? new BaseTradingRecord() : new BaseTradingRecord(orders.toArray(new Order[0]));
+    }
+
+    /**
+     * @param decimal a decimal
+     * @return the value of the decimal rounded to fit in a record, null for NaN
+     */
+    private static BigDecimal compact(Decimal decimal) {
+        if (decimal == null || decimal.isNaN()) {
+            return null;
+        }
+        BigDecimal value = decimal.getDelegate();
+        if (value.precision() > RECORD_CONTEXT.getPrecision()) {
+            value = value.round(RECORD_CONTEXT);
+        }
+        if (value.scale() > MAX_SCALE) {
+            value = value.setScale(MAX_SCALE, RoundingMode.HALF_UP);
+        } else if (value.scale() < -MAX_SCALE) {
+            throw new IllegalArgumentException("Decimal out of the range of a journal record: " + decimal);
+        }
+        return value;
+    }
+
+    /**
+     * @param value a compacted value (null for NaN)
+     * @return the scale of the value in a record
+     */
+    private static int scale(BigDecimal value) {
+        return value == null ? NAN_SCALE : value.scale();
+    }
+
+    /**
+     * @param value a compacted value (null for NaN)
+     * @return the unscaled value in a record
+     */
+    private static long unscaled(BigDecimal value) {
+        return value == null ? 0 : value.unscaledValue().longValue();
+    }
+
+    /**
+     * @param unscaled the unscaled value of a record
+     * @param scale the scale of a record
+     * @return the decimal
+     */
+    private static Decimal decimal(long unscaled, byte scale) {
+        return scale == NAN_SCALE ? Decimal.NaN : Decimal.valueOf(BigDecimal.valueOf(unscaled, scale));
+    }
+
+    /**
+     * @return the checksum of the fields of a record
+     */
+    private static int checksum(long header, long unscaledPrice, long unscaledAmount, long sequence) {
+        long hash = sequence * 0x9E3779B97F4A7C15L;
+        hash = (hash ^ header) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ unscaledPrice) * 0xC2B2AE3D27D4EB4FL;
+        hash = (hash ^ unscaledAmount) * 0xC2B2AE3D27D4EB4FL;
+        return (int) (hash ^ hash >>> 32);
+    }
+}
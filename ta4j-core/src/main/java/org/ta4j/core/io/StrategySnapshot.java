@@ -0,0 +1,352 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.AbstractIndicator;
+import org.ta4j.core.indicators.CachedIndicator;
+import org.ta4j.core.indicators.IndicatorGraph;
+import org.ta4j.core.indicators.IndicatorState;
+import org.ta4j.core.indicators.RecursiveCachedIndicator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snapshot of a live strategy: the {@link IndicatorState states} of its recursive indicators and its trading record,
+ * at the last bar of its time series.
+ * <p></p>
+ * On restart, a bot reloads a bounded series (the last bars, including the last bar of the snapshot) and builds its
+ * strategy as before: {@link #restore(Indicator[])} restores the states of the recursive indicators (e.g. EMA, RSI,
+ * parabolic SAR), so that their next values are calculated from their restored values instead of from the first bar,
+ * and returns the trading record with the indexes of the reloaded series.<br>
+ * The recursive indicators are found from the indicators of the strategy (see {@link IndicatorGraph}), in the same
+ * order when the strategy is built the same way. Each state is kept with the fingerprint of its indicator (its class
+ * and its parameters, e.g. the time frame of an EMA), so that a state is never restored on another indicator.
+ * <p></p>
+ * The snapshot is written with the {@link BinaryWriter binary format}: the last bar, its index, the trading record
+ * and the indicator states (each one after the fingerprint of its indicator).
+ */
+public final class StrategySnapshot {
+
+    /** The default number of last values kept for each indicator (e.g. for the rules reading the previous values) */
+    public static final int DEFAULT_DEPTH = 10;
+
+    /** The last bar */
+    private final Bar lastBar;
+
+    /** The index of the last bar */
+    private final int endIndex;
+
+    /** The trading record */
+    private final TradingRecord tradingRecord;
+
+    /** The fingerprints of the recursive indicators */
+    private final List<String> indicatorFingerprints;
+
+    /** The states of the recursive indicators */
+    private final List<IndicatorState> indicatorStates;
+
+    /**
+     * Constructor.
+     * @param lastBar the last bar of the time series
+     * @param endIndex the index of the last bar
+     * @param tradingRecord the trading record
+     * @param indicatorFingerprints the fingerprints of the recursive indicators (see {@link #fingerprint(Indicator)})
+     * @param indicatorStates the states of the recursive indicators
+     */
+    public StrategySnapshot(Bar lastBar, int endIndex, TradingRecord tradingRecord,
+            List<String> indicatorFingerprints, List<IndicatorState> indicatorStates) {
+        if (lastBar == null || tradingRecord == null || indicatorFingerprints == null || indicatorStates == null) {
+            throw new IllegalArgumentException("Last bar, trading record, indicator fingerprints and states cannot be null");
+        }
+        if (indicatorFingerprints.size() != indicatorStates.size()) {
+            throw new IllegalArgumentException("Expected one fingerprint per indicator state");
+        }
+        this.lastBar = lastBar;
+        this.endIndex = endIndex;
+        this.tradingRecord = tradingRecord;
+        this.indicatorFingerprints = Collections.unmodifiableList(new ArrayList<>(indicatorFingerprints));
+        this.indicatorStates = Collections.unmodifiableList(new ArrayList<>(indicatorStates));
+    }
+
+    /**
+     * Takes a snapshot of a strategy, keeping the {@link #DEFAULT_DEPTH default number} of last values.
+     * @param tradingRecord the trading record of the strategy
+     * @param indicators the indicators of the strategy (e.g. of its rules), on a non-empty time series
+     * @return the snapshot
+     */
+    public static StrategySnapshot of(TradingRecord tradingRecord, Indicator<?>... indicators) {
+        return of(tradingRecord, DEFAULT_DEPTH, indicators);
+    }
+
+    /**
+     * Takes a snapshot of a strategy.
+     * @param tradingRecord the trading record of the strategy
+     * @param depth the number of last values kept for each recursive indicator (at least 1)
+     * @param indicators the indicators of the strategy (e.g. of its rules), on a non-empty time series
+     * @return the snapshot
+     */
+    public static StrategySnapshot of(TradingRecord tradingRecord, int depth, Indicator<?>... indicators) {
+        IndicatorGraph graph = new IndicatorGraph(indicators);
+        TimeSeries series = graph.getTimeSeries();
+        if (series == null || series.isEmpty()) {
+            throw new IllegalArgumentException("Snapshot of a strategy on an empty series");
+        }
+        List<String> fingerprints = new ArrayList<>();
+        List<IndicatorState> states = new ArrayList<>();
+        for (CachedIndicator<Decimal> indicator : recursiveIndicators(graph)) {
+            fingerprints.add(fingerprint(indicator));
+            states.add(IndicatorState.of(indicator, depth));
+        }
+        return new StrategySnapshot(series.getLastBar(), series.getEndIndex(), tradingRecord, fingerprints, states);
+    }
+
+    /**
+     * Restores the snapshot on a strategy built again on a reloaded time series.
+     * @param indicators the indicators of the strategy, built as the ones of the snapshot
+     * @return the trading record, with the indexes of the reloaded series (the orders of bars before the series have
+     *         indexes before its first remaining index)
+     * @throws IllegalArgumentException if the recursive indicators are not the ones of the snapshot, or if the time
+     *         series does not include the last bar of the snapshot
+     */
+    public TradingRecord restore(Indicator<?>... indicators) {
+        IndicatorGraph graph = new IndicatorGraph(indicators);
+        List<CachedIndicator<Decimal>> recursiveIndicators = recursiveIndicators(graph);
+        if (recursiveIndicators.size() != indicatorStates.size()) {
+            throw new IllegalArgumentException("Expected " + indicatorStates.size() + " recursive indicators, found "
+                    + recursiveIndicators.size());
+        }
+        for (int i = 0; i < indicatorFingerprints.size(); i++) {
+            String fingerprint = fingerprint(recursiveIndicators.get(i));
+            if (!indicatorFingerprints.get(i).equals(fingerprint)) {
+                throw new IllegalArgumentException("Recursive indicator " + i + ": expected " + indicatorFingerprints.get(i)
+                        + ", found " + fingerprint);
+            }
+        }
+        int lastIndex = IndicatorState.indexOf(graph.getTimeSeries(), lastBar.getEndEpochMilli());
+        if (lastIndex < 0) {
+            throw new IllegalArgumentException("The time series does not include the last bar of the snapshot");
+        }
+        for (int i = 0; i < indicatorStates.size(); i++) {
+            indicatorStates.get(i).restore(recursiveIndicators.get(i));
+        }
+        return shift(tradingRecord, lastIndex - endIndex);
+    }
+
+    /**
+     * Writes the snapshot to a file (replaced atomically once written to the storage device, so that a crash leaves
+     * the previous snapshot).
+     * @param file the file
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+                BinaryWriter writer = new BinaryWriter(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                writer.writeBar(lastBar);
+                writer.writeInteger(endIndex);
+                writer.writeTradingRecord(tradingRecord);
+                for (int i = 0; i < indicatorStates.size(); i++) {
+                    writer.writeString(indicatorFingerprints.get(i));
+                    writer.writeIndicatorState(indicatorStates.get(i));
+                }
+                writer.flush();
+                // Not renamed before being on the storage device (or the rename could be persisted first)
+                channel.force(true);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * @param file a file written by {@link #write(Path)}
+     * @return the snapshot
+     * @throws IOException if the snapshot cannot be read
+     */
+    public static StrategySnapshot read(Path file) throws IOException {
+        try (BinaryReader reader = new BinaryReader(new BufferedInputStream(Files.newInputStream(file)))) {
+            Bar lastBar = reader.readBar();
+            long endIndex = reader.readInteger();
+            if (endIndex < 0 || endIndex > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Invalid end index: " + endIndex);
+            }
+            TradingRecord tradingRecord = reader.readTradingRecord();
+            List<String> fingerprints = new ArrayList<>();
+            List<IndicatorState> states = new ArrayList<>();
+            while (reader.nextType() != BinaryReader.END_OF_STREAM) {
+                fingerprints.add(reader.readString());
+                states.add(reader.readIndicatorState());
+            }
+            return new StrategySnapshot(lastBar, (int) endIndex, tradingRecord, fingerprints, states);
+        }
+    }
+
+    /**
+     * @return the last bar of the time series
+     */
+    public Bar getLastBar() {
+        return lastBar;
+    }
+
+    /**
+     * @return the index of the last bar
+     */
+    public int getEndIndex() {
+        return endIndex;
+    }
+
+    /**
+     * @return the trading record (with the indexes of the time series of the snapshot)
+     */
+    public TradingRecord getTradingRecord() {
+        return tradingRecord;
+    }
+
+    /**
+     * @return the fingerprints of the recursive indicators
+     */
+    public List<String> getIndicatorFingerprints() {
+        return indicatorFingerprints;
+    }
+
+    /**
+     * @return the states of the recursive indicators
+     */
+    public List<IndicatorState> getIndicatorStates() {
+        return indicatorStates;
+    }
+
+    /**
+     * Returns the fingerprint of an indicator: its class name and its parameters, i.e. its final fields of primitive,
+     * string, enum or decimal type (e.g. the time frame of an EMA), and the class names of the indicators it is
+     * built on.
+     * @param indicator an indicator
+     * @return the fingerprint of the indicator (e.g. "org.ta4j.core.indicators.EMAIndicator(indicator=ClosePriceIndicator,
+     *         multiplier=0.3333333333333333, timeFrame=5)")
+     */
+    public static String fingerprint(Indicator<?> indicator) {
+        StringBuilder fingerprint = new StringBuilder(indicator.getClass().getName()).append('(');
+        String separator = "";
+        for (Class<?> type = indicator.getClass(); type != null && type != CachedIndicator.class
+                && type != AbstractIndicator.class; type = type.getSuperclass()) {
+            Field[] fields = type.getDeclaredFields();
+            // Sorted by name: the order of the declared fields is not specified
+            Arrays.sort(fields, Comparator.comparing(Field::getName));
+            for (Field field : fields) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers)) {
+                    continue;
+                }
+                Class<?> fieldType = field.getType();
+                boolean dependency = Indicator.class.isAssignableFrom(fieldType);
+                if (!dependency && !fieldType.isPrimitive() && !fieldType.isEnum() && fieldType != String.class
+                        && fieldType != Decimal.class && !Number.class.isAssignableFrom(fieldType)) {
+                    continue;
+                }
+                Object value;
+                try {
+                    field.setAccessible(true);
+                    value = field.get(indicator);
+                } catch (IllegalAccessException | SecurityException e) {
+                    throw new IllegalStateException("Cannot read the parameter " + field + " of the indicator", e);
+                }
+                fingerprint.append(separator).append(field.getName()).append('=');
+                fingerprint.append(dependency && value != null ? value.getClass().getSimpleName() : value);
+                separator = ", ";
+            }
+        }
+        return fingerprint.append(')').toString();
+    }
+
+    /**
+     * @param graph a graph of indicators
+     * @return the recursive indicators of the graph (on the time series of the graph), in topological order
+     */
+    @SuppressWarnings("unchecked")
+    private static List<CachedIndicator<Decimal>> recursiveIndicators(IndicatorGraph graph) {
+        List<CachedIndicator<Decimal>> recursiveIndicators = new ArrayList<>();
+        for (List<Indicator<?>> level : graph.getLevels()) {
+            for (Indicator<?> indicator : level) {
+                if (indicator instanceof RecursiveCachedIndicator) {
+                    recursiveIndicators.add((CachedIndicator<Decimal>) indicator);
+                }
+            }
+        }
+        return recursiveIndicators;
+    }
+
+    /**
+     * @param tradingRecord a trading record
+     * @param offset the offset of the indexes
+     * @return a copy of the trading record, with shifted indexes
+     */
+    private static TradingRecord shift(TradingRecord tradingRecord, int offset) {
+        List<Order> orders = new ArrayList<>();
+        for (Trade trade : tradingRecord.getTrades()) {
+            orders.add(shift(trade.getEntry(), offset));
+            orders.add(shift(trade.getExit(), offset));
+        }
+        Trade currentTrade = tradingRecord.getCurrentTrade();
+        if (currentTrade.isOpened()) {
+            orders.add(shift(currentTrade.getEntry(), offset));
+        }
+        return orders.isEmpty() ? new BaseTradingRecord(currentTrade.getStartingType())
+                : new BaseTradingRecord(orders.toArray(new Order[0]));
+    }
+
+    /**
+     * @param order an order
+     * @param offset the offset of the index
+     * @return a copy of the order, with a shifted index
+     */
+    private static Order shift(Order order, int offset) {
+        return new Order(order.getIndex() + offset, order.getType(), order.getPrice(), order.getAmount());
+    }
+}
@@ -0,0 +1,79 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.TimeSeries;
+
+/**
+ * Event of a bar added to a time series.
+ */
+public final class BarEvent {
+
+    /** The time series */
+    private final TimeSeries series;
+
+    /** The index of the bar */
+    private final int index;
+
+    /** The bar */
+    private final Bar bar;
+
+    /**
+     * Constructor.
+     * @param series the time series
+     * @param index the index of the bar
+     * @param bar the bar
+     */
+    public BarEvent(TimeSeries series, int index, Bar bar) {
+        this.series = series;
+        this.index = index;
+        this.bar = bar;
+    }
+
+    /**
+     * @return the time series
+     */
+    public TimeSeries getTimeSeries() {
+        return series;
+    }
+
+    /**
+     * @return the index of the bar
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the bar
+     */
+    public Bar getBar() {
+        return bar;
+    }
+
+    @Override
+    public String toString() {
+        return "BarEvent{series=" + series.getName() + ", index=" + index + ", bar=" + bar + "}";
+    }
+}
@@ -0,0 +1,328 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A publisher of events (e.g. bars, signals or orders) to subscribers with back-pressure, delivered in batches.
+ * <p></p>
+ * {@link #publish(Object) Publishing} an event never blocks nor calls the subscribers: the event is added to the
+ * bounded buffer of each subscriber, and the buffers are emptied by tasks run on an executor. When the buffer of a slow
+ * subscriber is full, its new events are dropped (and {@link #getDroppedCount() counted}), so that the publishing
+ * thread (e.g. of a strategy) is never stalled by a subscriber.<br>
+ * The events are delivered as batches of at most {@code batchSize} events (all the buffered events up to the batch
+ * size), a batch being an item of the stream: subscribers requesting one batch at a time receive many events per call
+ * at high event rates.
+ * @param <T> the type of the events
+ */
+public class EventPublisher<T> implements Flow.Publisher<List<T>>, AutoCloseable {
+
+    /** The default capacity of the buffers of the subscribers */
+    public static final int DEFAULT_BUFFER_CAPACITY = 1 << 12;
+
+    /** The logger */
+    private static final Logger log = LoggerFactory.getLogger(EventPublisher.class);
+
+    /** The executor of the deliveries */
+    private final Executor executor;
+
+    /** The capacity of the buffers of the subscribers */
+    private final int bufferCapacity;
+
+    /** The maximum number of events per batch */
+    private final int batchSize;
+
+    /** The subscriptions */
+    private final List<BufferedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /** The number of dropped events */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /** True if the publisher is closed */
+    private volatile boolean closed;
+
+    /** The error of the publisher (when closed exceptionally) */
+    private volatile Throwable error;
+
+    /**
+     * Constructor (one event per batch).
+     * @param executor the executor of the deliveries
+     */
+    public EventPublisher(Executor executor) {
+        this(executor, DEFAULT_BUFFER_CAPACITY, 1);
+    }
+
+    /**
+     * Constructor.
+     * @param executor the executor of the deliveries
+     * @param bufferCapacity the capacity of the buffer of each subscriber (rounded up to a power of two)
+     * @param batchSize the maximum number of events per batch
+     */
+    public EventPublisher(Executor executor, int bufferCapacity, int batchSize) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be strictly positive");
+        }
+        MpscQueue.checkCapacity(bufferCapacity);
+        this.executor = executor;
+        this.bufferCapacity = bufferCapacity;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super List<T>> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        BufferedSubscription subscription = new BufferedSubscription(subscriber);
+        subscriptions.add(subscription);
+        if (closed) {
+            // Completed at once
+            subscriptions.remove(subscription);
+        }
+        subscription.signal();
+    }
+
+    /**
+     * Publishes an event to the current subscribers (any thread, without blocking).
+     * @param event the event (not null)
+     * @return true if the event has been buffered for all the subscribers, false if it has been dropped for at least one
+     * (or if the publisher is closed)
+     */
+    public boolean publish(T event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        if (closed) {
+            return false;
+        }
+        boolean buffered = true;
+        for (BufferedSubscription subscription : subscriptions) {
+            if (subscription.buffer.offer(event)) {
+                subscription.signal();
+            } else {
+                droppedCount.increment();
+                buffered = false;
+            }
+        }
+        return buffered;
+    }
+
+    /**
+     * Closes the publisher: the subscribers receive their buffered events, then {@code onComplete}.
+     */
+    @Override
+    public void close() {
+        terminate(null);
+    }
+
+    /**
+     * Closes the publisher: the subscribers receive their buffered events, then {@code onError}.
+     * @param error the error
+     */
+    public void closeExceptionally(Throwable error) {
+        if (error == null) {
+            throw new IllegalArgumentException("Error cannot be null");
+        }
+        terminate(error);
+    }
+
+    /**
+     * @return true if the publisher is closed, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return true if the publisher has subscribers, false otherwise
+     */
+    public boolean hasSubscribers() {
+        return !subscriptions.isEmpty();
+    }
+
+    /**
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return the number of events dropped because the buffer of a subscriber was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * @param error the error of the publisher (null if closed normally)
+     */
+    private void terminate(Throwable error) {
+        if (!closed) {
+            this.error = error;
+            closed = true;
+            for (BufferedSubscription subscription : subscriptions) {
+                subscription.signal();
+            }
+            subscriptions.clear();
+        }
+    }
+
+    /**
+     * The subscription of a subscriber: a buffer of events, emptied by a task run on the executor.
+     * <p></p>
+     * The task is scheduled by the signals (new events, requests, cancellation, closing) and run by one thread at a
+     * time: it calls the subscriber until there is no more demand or no more buffered events.
+     */
+    private final class BufferedSubscription implements Flow.Subscription, Runnable {
+
+        /** The subscriber */
+        private final Flow.Subscriber<? super List<T>> subscriber;
+
+        /** The buffered events */
+        private final MpscQueue<T> buffer = new MpscQueue<>(bufferCapacity);
+
+        /** The number of requested (and not delivered) batches */
+        private final AtomicLong demand = new AtomicLong();
+
+        /** The number of signals not processed by the task (the task is scheduled if positive) */
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+
+        /** True if onSubscribe has been called */
+        private boolean subscribed;
+
+        /** True if the subscriber has been cancelled (or has failed) */
+        private volatile boolean cancelled;
+
+        /** The error of an invalid request */
+        private volatile Throwable requestError;
+
+        private BufferedSubscription(Flow.Subscriber<? super List<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                requestError = new IllegalArgumentException("Requested items must be strictly positive: " + n);
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Schedules the task (if not already scheduled).
+         */
+        private void signal() {
+            if (pendingSignals.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int signals = pendingSignals.get();
+            while (true) {
+                try {
+                    deliver();
+                } catch (RuntimeException e) {
+                    // Faulty subscriber: no more calls
+                    log.error("Subscriber failed", e);
+                    cancel();
+                }
+                signals = pendingSignals.addAndGet(-signals);
+                if (signals == 0) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Calls the subscriber until there is no more demand or no more buffered events.
+         */
+        private void deliver() {
+            if (!subscribed) {
+                subscribed = true;
+                subscriber.onSubscribe(this);
+            }
+            while (!cancelled) {
+                if (requestError != null) {
+                    cancel();
+                    subscriber.onError(requestError);
+                    return;
+                }
+                if (buffer.isEmpty() && closed) {
+                    cancel();
+                    if (error == null) {
+                        subscriber.onComplete();
+                    } else {
+                        subscriber.onError(error);
+                    }
+                    return;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                List<T> batch = null;
+                T event;
+                while ((batch == null || batch.size() < batchSize) && (event = buffer.poll()) != null) {
+                    if (batch == null) {
+                        batch = new ArrayList<>(Math.min(batchSize, buffer.size() + 1));
+                    }
+                    batch.add(event);
+                }
+                if (batch == null) {
+                    // Empty buffer (or event not published yet: signaled by its publisher)
+                    return;
+                }
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                subscriber.onNext(batch);
+            }
+        }
+    }
+}
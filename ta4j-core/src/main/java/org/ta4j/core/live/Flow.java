@@ -0,0 +1,101 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+/**
+ * Interfaces of the reactive streams (publishers of events to subscribers, with back-pressure).
+ * <p></p>
+ * Same interfaces (and rules) as {@code java.util.concurrent.Flow} (Java 9), which is not available in Java 8:
+ * <ul>
+ *     <li>a subscriber receives {@link Subscriber#onSubscribe(Subscription) onSubscribe} first, then at most as many
+ *     {@link Subscriber#onNext(Object) onNext} as it {@link Subscription#request(long) requested}, then
+ *     {@link Subscriber#onComplete() onComplete} or {@link Subscriber#onError(Throwable) onError}
+ *     <li>the methods of a subscriber are called one at a time (never concurrently)
+ * </ul>
+ */
+public final class Flow {
+
+    private Flow() {
+    }
+
+    /**
+     * A publisher of items to subscribers.
+     * @param <T> the type of the items
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Adds a subscriber.
+         * @param subscriber the subscriber
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items.
+     * @param <T> the type of the items
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called before any other method of the subscriber.
+         * @param subscription the subscription (to request items or to cancel it)
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * @param item the next item (requested)
+         */
+        void onNext(T item);
+
+        /**
+         * Called when the publisher (or the subscription) failed: no other method is called afterwards.
+         * @param throwable the error
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Called when the publisher is closed, once all the items have been received: no other method is called
+         * afterwards.
+         */
+        void onComplete();
+    }
+
+    /**
+     * The link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Requests items.
+         * @param n the number of additional items (positive, {@link Long#MAX_VALUE} for an unbounded demand)
+         */
+        void request(long n);
+
+        /**
+         * Stops the items (some items may be received before the cancellation is effective).
+         */
+        void cancel();
+    }
+}
@@ -0,0 +1,391 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.Bar;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.bars.TradeBarAggregator;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Live trading engine for many symbols, sharded across worker threads.
+ * <p></p>
+ * Each {@link LiveSymbol symbol} is owned by one shard (the symbols are spread round-robin over the shards). A shard
+ * is a worker thread with its own bounded lock-free queue: the bars (or trades) of its symbols are offered to the
+ * queue by any thread, and the worker adds them to the time series, runs the strategies and emits the orders to the
+ * {@link OrderListener order listener}. Since a symbol is only written by its worker thread, no lock is needed on the
+ * series, the indicators or the trading records, and the shards do not share any mutable state: the throughput grows
+ * with the number of shards (up to the number of cores).
+ * <p></p>
+ * The bars of a symbol must be offered in chronological order (e.g. by one producer thread per symbol). A worker
+ * parks while its queue is empty, and is woken up by the next offer.
+ */
+public class LiveEngine {
+
+    /** The default capacity of the queue of each shard */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1 << 16;
+
+    /** The maximum park time of an idle worker (nanoseconds) */
+    private static final long PARK_NANOS = 1000000L;
+
+    /** The logger */
+    private static final Logger log = LoggerFactory.getLogger(LiveEngine.class);
+
+    /** The shards */
+    private final Shard[] shards;
+
+    /** The symbols, by name */
+    private final Map<String, LiveSymbol> symbols = new ConcurrentHashMap<>();
+
+    /** The listener of the orders (may be null) */
+    private final OrderListener orderListener;
+
+    /** The number of symbols added (for the round-robin shard assignment) */
+    private final AtomicInteger symbolCount = new AtomicInteger();
+
+    /** True if the engine has been started */
+    private boolean started;
+
+    /** True while the workers run */
+    private volatile boolean running;
+
+    /**
+     * Constructor.
+     * @param shardCount the number of shards (worker threads)
+     * @param orderListener the listener of the orders (may be null)
+     */
+    public LiveEngine(int shardCount, OrderListener orderListener) {
+        this(shardCount, DEFAULT_QUEUE_CAPACITY, orderListener);
+    }
+
+    /**
+     * Constructor.
+     * @param shardCount the number of shards (worker threads)
+     * @param queueCapacity the capacity of the queue of each shard (number of pending bars or trades)
+     * @param orderListener the listener of the orders (may be null)
+     */
+    public LiveEngine(int shardCount, int queueCapacity, OrderListener orderListener) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be strictly positive");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+        this.orderListener = orderListener;
+    }
+
+    /**
+     * Adds a symbol receiving bars.
+     * @param name the name of the symbol
+     * @param series the time series of the symbol (should have a maximum bar count)
+     * @param strategy the strategy (built on the series)
+     * @param amount the amount of the orders
+     * @return the symbol
+     */
+    public LiveSymbol addSymbol(String name, TimeSeries series, Strategy strategy, Decimal amount) {
+        return addSymbol(name, series, strategy, amount, null);
+    }
+
+    /**
+     * Adds a symbol receiving trades.
+     * @param name the name of the symbol
+     * @param series the time series of the symbol (should have a maximum bar count)
+     * @param strategy the strategy (built on the series)
+     * @param amount the amount of the orders
+     * @param aggregator the aggregator of the trades into bars (without time series: the bars are added by the engine)
+     * @return the symbol
+     */
+    public LiveSymbol addSymbol(String name, TimeSeries series, Strategy strategy, Decimal amount,
+            TradeBarAggregator aggregator) {
+        if (name == null || series == null || strategy == null) {
+            throw new IllegalArgumentException("Name, series and strategy cannot be null");
+        }
+        int shard = Math.floorMod(symbolCount.getAndIncrement(), shards.length);
+        LiveSymbol symbol = new LiveSymbol(name, series, strategy, amount, aggregator, shard);
+        if (symbols.putIfAbsent(name, symbol) != null) {
+            throw new IllegalArgumentException("Symbol " + name + " already added");
+        }
+        return symbol;
+    }
+
+    /**
+     * @param name the name of a symbol
+     * @return the symbol, null if not added
+     */
+    public LiveSymbol getSymbol(String name) {
+        return symbols.get(name);
+    }
+
+    /**
+     * @return the symbols
+     */
+    public Collection<LiveSymbol> getSymbols() {
+        return Collections.unmodifiableCollection(symbols.values());
+    }
+
+    /**
+     * Offers a new bar of a symbol (any thread).
+     * @param name the name of the symbol
+     * @param bar the bar
+     * @return true if the bar has been queued, false if the queue of the shard is full or if the engine has been
+     * stopped
+     */
+    public boolean offerBar(String name, Bar bar) {
+        return offerBar(symbol(name), bar);
+    }
+
+    /**
+     * Offers a new bar of a symbol (any thread).
+     * @param symbol the symbol
+     * @param bar the bar
+     * @return true if the bar has been queued, false if the queue of the shard is full or if the engine has been
+     * stopped
+     */
+    public boolean offerBar(LiveSymbol symbol, Bar bar) {
+        if (bar == null) {
+            throw new IllegalArgumentException("Bar cannot be null");
+        }
+        return shards[symbol.getShard()].offer(new Event(symbol, bar, 0, 0, 0));
+    }
+
+    /**
+     * Offers a new trade of a symbol receiving trades (any thread).
+     * @param name the name of the symbol
+     * @param time the time of the trade (epoch milliseconds)
+     * @param volume the traded volume
+     * @param price the price
+     * @return true if the trade has been queued, false if the queue of the shard is full or if the engine has been
+     * stopped
+     */
+    public boolean offerTrade(String name, long time, double volume, double price) {
+        return offerTrade(symbol(name), time, volume, price);
+    }
+
+    /**
+     * Offers a new trade of a symbol receiving trades (any thread).
+     * @param symbol the symbol
+     * @param time the time of the trade (epoch milliseconds)
+     * @param volume the traded volume
+     * @param price the price
+     * @return true if the trade has been queued, false if the queue of the shard is full or if the engine has been
+     * stopped
+     */
+    public boolean offerTrade(LiveSymbol symbol, long time, double volume, double price) {
+        return shards[symbol.getShard()].offer(new Event(symbol, null, time, volume, price));
+    }
+
+    /**
+     * Starts the worker threads. The bars and trades offered before are processed first.
+     */
+    public synchronized void start() {
+        if (started) {
+            throw new IllegalStateException("Engine already started");
+        }
+        started = true;
+        running = true;
+        for (Shard shard : shards) {
+            shard.thread = new Thread(shard, "ta4j-live-shard-" + shard.index);
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads, once the queued bars and trades are processed. The bars and trades offered afterwards
+     * are rejected.
+     * @throws InterruptedException if interrupted while waiting for the worker threads
+     */
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        // Closed before the workers see the engine stopped, so that they process all the queued events
+        for (Shard shard : shards) {
+            shard.queue.close();
+        }
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            shard.thread.join();
+        }
+    }
+
+    /**
+     * @return true while the worker threads run
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return the number of bars and trades processed by the workers
+     */
+    public long getProcessedCount() {
+        long processedCount = 0;
+        for (Shard shard : shards) {
+            processedCount += shard.processedCount;
+        }
+        return processedCount;
+    }
+
+    /**
+     * @param name the name of a symbol
+     * @return the symbol
+     * @throws IllegalArgumentException if the symbol has not been added
+     */
+    private LiveSymbol symbol(String name) {
+        LiveSymbol symbol = symbols.get(name);
+        if (symbol == null) {
+            throw new IllegalArgumentException("Unknown symbol " + name);
+        }
+        return symbol;
+    }
+
+    /**
+     * A bar or a trade of a symbol.
+     */
+    private static final class Event {
+
+        private final LiveSymbol symbol;
+
+        /** The bar (null for a trade) */
+        private final Bar bar;
+
+        private final long time;
+
+        private final double volume;
+
+        private final double price;
+
+        private Event(LiveSymbol symbol, Bar bar, long time, double volume, double price) {
+            this.symbol = symbol;
+            this.bar = bar;
+            this.time = time;
+            this.volume = volume;
+            this.price = price;
+        }
+    }
+
+    /**
+     * A worker thread, its queue and its symbols.
+     */
+    private final class Shard implements Runnable {
+
+        /** The index of the shard */
+        private final int index;
+
+        /** The queue of the events of the symbols of the shard */
+        private final MpscQueue<Event> queue;
+
+        /** The worker thread */
+        private volatile Thread thread;
+
+        /** True while the worker is parked (or about to be) */
+        private volatile boolean sleeping;
+
+        /** The number of processed events (written by the worker thread only, not private for its updater) */
+        volatile long processedCount;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new MpscQueue<>(queueCapacity);
+        }
+
+        /**
+         * @param event an event of a symbol of the shard
+         * @return true if the event has been queued, false if the queue is full or closed
+         */
+        private boolean offer(Event event) {
+            if (!queue.offer(event)) {
+                return false;
+            }
+            if (sleeping) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Event event = queue.poll();
+                if (event != null) {
+                    process(event);
+                } else if (!queue.isEmpty()) {
+                    // Slot claimed by a producer, event not published yet
+                    Thread.yield();
+                } else if (running) {
+                    sleeping = true;
+                    if (queue.isEmpty() && running) {
+                        LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                    sleeping = false;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @param event an event to be processed by the worker thread
+         */
+        private void process(Event event) {
+            LiveSymbol symbol = event.symbol;
+            try {
+                Order order = event.bar != null ? symbol.addBar(event.bar)
+                        : symbol.addTrade(event.time, event.volume, event.price);
+                if (order != null && orderListener != null) {
+                    orderListener.onOrder(symbol, order);
+                }
+            } catch (RuntimeException e) {
+                log.error("Event of symbol {} not processed", symbol.getName(), e);
+            }
+            PROCESSED_COUNT.lazySet(this, processedCount + 1);
+        }
+    }
+
+    /** Updater of the processed counts of the shards */
+    private static final AtomicLongFieldUpdater<Shard> PROCESSED_COUNT =
+            AtomicLongFieldUpdater.newUpdater(Shard.class, "processedCount");
+}
@@ -0,0 +1,152 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.bars.TradeBarAggregator;
+
+/**
+ * A symbol traded by a {@link LiveEngine live engine}: its time series, its strategy and its trading record.
+ * <p></p>
+ * The symbol is owned by one worker thread of the engine (its shard), which is the only one to add bars to the
+ * series and orders to the trading record. The series can be read by other threads meanwhile (see
+ * {@link org.ta4j.core.BaseTimeSeries}); the trading record should be read once the engine is stopped, or from the
+ * {@link OrderListener order listener}.
+ */
+public final class LiveSymbol {
+
+    /** The name of the symbol */
+    private final String name;
+
+    /** The time series */
+    private final TimeSeries series;
+
+    /** The strategy */
+    private final Strategy strategy;
+
+    /** The trading record */
+    private final TradingRecord tradingRecord = new BaseTradingRecord();
+
+    /** The amount of the orders */
+    private final Decimal amount;
+
+    /** The aggregator of the trades into bars (null if the symbol receives bars) */
+    private final TradeBarAggregator aggregator;
+
+    /** The index of the shard owning the symbol */
+    private final int shard;
+
+    /**
+     * Constructor.
+     * @param name the name of the symbol
+     * @param series the time series
+     * @param strategy the strategy
+     * @param amount the amount of the orders
+     * @param aggregator the aggregator of the trades into bars (null if the symbol receives bars)
+     * @param shard the index of the shard owning the symbol
+     */
+    LiveSymbol(String name, TimeSeries series, Strategy strategy, Decimal amount, TradeBarAggregator aggregator, int shard) {
+        this.name = name;
+        this.series = series;
+        this.strategy = strategy;
+        this.amount = amount;
+        this.aggregator = aggregator;
+        this.shard = shard;
+    }
+
+    /**
+     * @return the name of the symbol
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the time series
+     */
+    public TimeSeries getTimeSeries() {
+        return series;
+    }
+
+    /**
+     * @return the strategy
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the trading record
+     */
+    public TradingRecord getTradingRecord() {
+        return tradingRecord;
+    }
+
+    /**
+     * @return the index of the shard owning the symbol
+     */
+    public int getShard() {
+        return shard;
+    }
+
+    /**
+     * Adds a trade to the current bar (owner thread only).
+     * @param time the time of the trade (epoch milliseconds)
+     * @param volume the traded volume
+     * @param price the price
+     * @return the new order, null if the trade does not complete a bar or if the strategy does not operate
+     */
+    Order addTrade(long time, double volume, double price) {
+        if (aggregator == null) {
+            throw new IllegalStateException("Symbol " + name + " does not aggregate trades");
+        }
+        Bar bar = aggregator.addTrade(time, volume, price);
+        return bar == null ? null : addBar(bar);
+    }
+
+    /**
+     * Adds a bar to the series and runs the strategy on it (owner thread only).
+     * @param bar the new bar
+     * @return the new order, null if the strategy does not operate
+     */
+    Order addBar(Bar bar) {
+        series.addBar(bar);
+        int endIndex = series.getEndIndex();
+        if (strategy.shouldOperate(endIndex, tradingRecord)) {
+            tradingRecord.operate(endIndex, bar.getClosePrice(), amount);
+            return tradingRecord.getLastOrder();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "LiveSymbol " + name + " (shard " + shard + ")";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue, for many producer threads and one consumer thread.
+ * <p></p>
+ * The elements are kept in a ring buffer: a producer claims a slot by incrementing the producer index
+ * (compare-and-set), then publishes its element in the slot. The consumer empties the slots in order and is the only
+ * one to move the consumer index. No object is allocated per element.
+ * <p></p>
+ * A closed queue rejects the new elements: the sign bit of the producer index is set, so that an element is either
+ * claimed before the queue is closed (and consumed) or rejected.
+ * @param <E> the type of the elements
+ */
+final class MpscQueue<E> {
+
+    /** Updater of the consumer index */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<MpscQueue> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(MpscQueue.class, "consumerIndex");
+
+    /** The ring buffer */
+    private final AtomicReferenceArray<E> buffer;
+
+    /** The mask of the positions in the ring buffer (capacity - 1) */
+    private final int mask;
+
+    /** The index of the next claimed slot (with the sign bit set once the queue is closed) */
+    private final AtomicLong producerIndex = new AtomicLong();
+
+    /** The index of the next slot to be consumed */
+    private volatile long consumerIndex;
+
+    /**
+     * Constructor.
+     * @param capacity the minimal capacity of the queue (rounded up to a power of two)
+     */
+    MpscQueue(int capacity) {
+        checkCapacity(capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @param capacity the minimal capacity of a queue
+     * @throws IllegalArgumentException if the capacity is not between 1 and 2^30
+     */
+    static void checkCapacity(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+    }
+
+    /**
+     * Adds an element (any thread).
+     * @param element the element (not null)
+     * @return true if the element has been added, false if the queue is full or closed
+     */
+    boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index < 0 || index - consumerIndex > mask) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Removes the first element (consumer thread only).
+     * @return the first element, null if the queue is empty (or if its first element is not published yet)
+     */
+    E poll() {
+        long index = consumerIndex;
+        int offset = (int) index & mask;
+        E element = buffer.get(offset);
+        if (element != null) {
+            buffer.lazySet(offset, null);
+            CONSUMER_INDEX.lazySet(this, index + 1);
+        }
+        return element;
+    }
+
+    /**
+     * @return true if no slot is claimed, false otherwise
+     */
+    boolean isEmpty() {
+        return (producerIndex.get() & Long.MAX_VALUE) == consumerIndex;
+    }
+
+    /**
+     * Closes the queue (any thread): the elements offered afterwards are rejected, the claimed slots remain to be
+     * consumed.
+     */
+    void close() {
+        long index;
+        do {
+            index = producerIndex.get();
+        } while (index >= 0 && !producerIndex.compareAndSet(index, index | Long.MIN_VALUE));
+    }
+
+    /**
+     * @return true if the queue has been closed, false otherwise
+     */
+    boolean isClosed() {
+        return producerIndex.get() < 0;
+    }
+
+    /**
+     * @return the number of claimed slots (approximate when the queue is used)
+     */
+    int size() {
+        return (int) Math.max(0, (producerIndex.get() & Long.MAX_VALUE) - consumerIndex);
+    }
+
+    /**
+     * @return the capacity of the queue
+     */
+    int capacity() {
+        return mask + 1;
+    }
+}
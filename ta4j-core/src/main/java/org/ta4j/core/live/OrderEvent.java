@@ -0,0 +1,66 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Order;
+
+/**
+ * Event of an order recorded in the trading record of a strategy.
+ */
+public final class OrderEvent {
+
+    /** The runner of the strategy */
+    private final StrategyRunner runner;
+
+    /** The order */
+    private final Order order;
+
+    /**
+     * Constructor.
+     * @param runner the runner of the strategy
+     * @param order the order
+     */
+    public OrderEvent(StrategyRunner runner, Order order) {
+        this.runner = runner;
+        this.order = order;
+    }
+
+    /**
+     * @return the runner of the strategy
+     */
+    public StrategyRunner getRunner() {
+        return runner;
+    }
+
+    /**
+     * @return the order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{series=" + runner.getTimeSeries().getName() + ", order=" + order + "}";
+    }
+}
@@ -0,0 +1,46 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Order;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A router of the {@link Order orders} of the strategies run by a {@link StrategyExecutor strategy executor} (e.g. to a
+ * broker).
+ * <p></p>
+ * The routing is asynchronous: the router returns at once, and the strategy is suspended (without holding a thread)
+ * until the returned stage is completed. The slow or blocking calls (e.g. network I/O) should be made by the stage,
+ * not by the router itself.
+ */
+public interface OrderRouter {
+
+    /**
+     * Routes an order.
+     * @param runner the runner of the strategy
+     * @param order the order (already recorded in the trading record of the runner)
+     * @return a stage completed once the order has been routed
+     */
+    CompletionStage<?> route(StrategyRunner runner, Order order);
+}
@@ -0,0 +1,292 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Bar;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Deterministic replay of recorded events (e.g. bars or trades of CSV files) into the live code, under a
+ * {@link VirtualClock virtual clock}.
+ * <p></p>
+ * The events of each source are time-ordered. The events of all the sources are delivered to their sinks (e.g.
+ * {@link StrategyExecutor#addBar(org.ta4j.core.TimeSeries, Bar)} or {@link LiveEngine#offerBar(String, Bar)}) by the
+ * thread running the replay, in a reproducible order: by time, then by source (in the order they were added), then in
+ * the order of the source. The virtual clock is set to the time of each event before its delivery.
+ * <p></p>
+ * The replay is paced by its speed: at a speed of 100, one hour of events is delivered in 36 seconds (the delivery lag
+ * behind the schedule measures whether the live code keeps up). At {@link #AS_FAST_AS_POSSIBLE} the events are
+ * delivered without waiting.
+ */
+public class ReplaySimulator {
+
+    /** The speed of a replay without waiting between the events */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    /** The speed (ratio of the event time to the wall-clock time) */
+    private final double speed;
+
+    /** The virtual clock */
+    private final VirtualClock clock;
+
+    /** The sources with remaining events, by time of their next event */
+    private final PriorityQueue<Source<?>> sources = new PriorityQueue<>((source1, source2) -> {
+        int comparison = Long.compare(source1.nextTime, source2.nextTime);
+        return comparison != 0 ? comparison : Integer.compare(source1.order, source2.order);
+    });
+
+    /** The number of added sources */
+    private int sourceCount;
+
+    /** The wall-clock time of the first delivered event (nanoseconds), -1 before the first event */
+    private long startNanos = -1;
+
+    /** The time of the first delivered event (milliseconds from the epoch) */
+    private long startEpochMilli;
+
+    /** The number of delivered events */
+    private long eventCount;
+
+    /** The sum of the delivery lags (nanoseconds) */
+    private long totalLagNanos;
+
+    /** The maximum delivery lag (nanoseconds) */
+    private long maximumLagNanos;
+
+    /**
+     * Constructor (virtual clock in UTC).
+     * @param speed the speed of the replay (e.g. 100 for 100 times the real time), or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public ReplaySimulator(double speed) {
+        this(speed, new VirtualClock(0, ZoneOffset.UTC));
+    }
+
+    /**
+     * Constructor.
+     * @param speed the speed of the replay (e.g. 100 for 100 times the real time), or {@link #AS_FAST_AS_POSSIBLE}
+     * @param clock the virtual clock
+     */
+    public ReplaySimulator(double speed, VirtualClock clock) {
+        if (!(speed > 0)) {
+            throw new IllegalArgumentException("Speed must be strictly positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock cannot be null");
+        }
+        this.speed = speed;
+        this.clock = clock;
+    }
+
+    /**
+     * Adds bars to be replayed (at their end times).
+     * @param bars the bars (time-ordered)
+     * @param sink the receiver of the bars
+     */
+    public void addBars(List<? extends Bar> bars, Consumer<? super Bar> sink) {
+        addEvents(bars, Bar::getEndEpochMilli, sink);
+    }
+
+    /**
+     * Adds events to be replayed.
+     * @param events the events (time-ordered)
+     * @param timeFunction the function returning the time of an event (milliseconds from the epoch)
+     * @param sink the receiver of the events
+     * @param <T> the type of the events
+     */
+    public <T> void addEvents(List<? extends T> events, ToLongFunction<? super T> timeFunction,
+            Consumer<? super T> sink) {
+        if (events == null || timeFunction == null || sink == null) {
+            throw new IllegalArgumentException("Events, time function and sink cannot be null");
+        }
+        long previousTime = Long.MIN_VALUE;
+        for (T event : events) {
+            long time = timeFunction.applyAsLong(event);
+            if (time < previousTime) {
+                throw new IllegalArgumentException("Events must be time-ordered: " + event);
+            }
+            previousTime = time;
+        }
+        Source<T> source = new Source<>(events, timeFunction, sink, sourceCount++);
+        if (source.hasNext()) {
+            sources.add(source);
+        }
+    }
+
+    /**
+     * Replays all the remaining events.
+     * @return the number of delivered events
+     */
+    public long run() {
+        return runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Replays the remaining events until a time, then sets the virtual clock to the time.
+     * @param epochMilli the time (milliseconds from the epoch), included
+     * @return the number of delivered events
+     */
+    public long runUntil(long epochMilli) {
+        long delivered = 0;
+        Source<?> source;
+        while ((source = sources.peek()) != null && source.nextTime <= epochMilli) {
+            sources.poll();
+            long time = source.nextTime;
+            waitFor(time);
+            clock.setMillis(time);
+            eventCount++;
+            delivered++;
+            try {
+                source.deliver();
+            } finally {
+                // Errors of the sinks are thrown to the caller, the replay can be continued
+                if (source.hasNext()) {
+                    sources.add(source);
+                }
+            }
+        }
+        if (epochMilli != Long.MAX_VALUE && epochMilli > clock.millis()) {
+            clock.setMillis(epochMilli);
+        }
+        return delivered;
+    }
+
+    /**
+     * @return true if all the events have been delivered, false otherwise
+     */
+    public boolean isFinished() {
+        return sources.isEmpty();
+    }
+
+    /**
+     * @return the virtual clock
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the speed of the replay
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return the number of delivered events
+     */
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * @return the maximum delay of the deliveries behind the schedule (nanoseconds, 0 when replayed as fast as
+     * possible)
+     */
+    public long getMaximumLagNanos() {
+        return maximumLagNanos;
+    }
+
+    /**
+     * @return the average delay of the deliveries behind the schedule (nanoseconds, 0 when replayed as fast as
+     * possible)
+     */
+    public double getAverageLagNanos() {
+        return eventCount == 0 ? 0 : (double) totalLagNanos / eventCount;
+    }
+
+    /**
+     * Waits for the wall-clock time of an event (according to the speed).
+     * @param epochMilli the time of the event (milliseconds from the epoch)
+     */
+    private void waitFor(long epochMilli) {
+        if (startNanos < 0) {
+            startNanos = System.nanoTime();
+            startEpochMilli = epochMilli;
+        }
+        if (speed == AS_FAST_AS_POSSIBLE) {
+            return;
+        }
+        long scheduledNanos = startNanos + (long) ((epochMilli - startEpochMilli) * 1e6 / speed);
+        long remainingNanos;
+        while ((remainingNanos = scheduledNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remainingNanos);
+        }
+        long lagNanos = -remainingNanos;
+        totalLagNanos += lagNanos;
+        maximumLagNanos = Math.max(maximumLagNanos, lagNanos);
+    }
+
+    /**
+     * The events of a source, and the position of its next event.
+     * @param <T> the type of the events
+     */
+    private static final class Source<T> {
+
+        private final List<? extends T> events;
+
+        private final ToLongFunction<? super T> timeFunction;
+
+        private final Consumer<? super T> sink;
+
+        /** The order of the source (in the added sources) */
+        private final int order;
+
+        /** The position of the next event */
+        private int position;
+
+        /** The time of the next event */
+        private long nextTime;
+
+        private Source(List<? extends T> events, ToLongFunction<? super T> timeFunction, Consumer<? super T> sink,
+                int order) {
+            this.events = events;
+            this.timeFunction = timeFunction;
+            this.sink = sink;
+            this.order = order;
+            if (!events.isEmpty()) {
+                nextTime = timeFunction.applyAsLong(events.get(0));
+            }
+        }
+
+        private boolean hasNext() {
+            return position < events.size();
+        }
+
+        /**
+         * Delivers the next event to the sink.
+         */
+        private void deliver() {
+            T event = events.get(position++);
+            if (hasNext()) {
+                nextTime = timeFunction.applyAsLong(events.get(position));
+            }
+            sink.accept(event);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Decimal;
+
+/**
+ * Event of an entry or exit signal of a strategy (before its order is recorded).
+ */
+public final class SignalEvent {
+
+    /** The runner of the strategy */
+    private final StrategyRunner runner;
+
+    /** The index of the bar */
+    private final int index;
+
+    /** True for an entry signal, false for an exit signal */
+    private final boolean entry;
+
+    /** The close price of the bar */
+    private final Decimal price;
+
+    /**
+     * Constructor.
+     * @param runner the runner of the strategy
+     * @param index the index of the bar
+     * @param entry true for an entry signal, false for an exit signal
+     * @param price the close price of the bar
+     */
+    public SignalEvent(StrategyRunner runner, int index, boolean entry, Decimal price) {
+        this.runner = runner;
+        this.index = index;
+        this.entry = entry;
+        this.price = price;
+    }
+
+    /**
+     * @return the runner of the strategy
+     */
+    public StrategyRunner getRunner() {
+        return runner;
+    }
+
+    /**
+     * @return the index of the bar
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return true for an entry signal, false for an exit signal
+     */
+    public boolean isEntry() {
+        return entry;
+    }
+
+    /**
+     * @return the close price of the bar
+     */
+    public Decimal getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return "SignalEvent{series=" + runner.getTimeSeries().getName() + ", index=" + index
+                + (entry ? ", entry" : ", exit") + ", price=" + price + "}";
+    }
+}
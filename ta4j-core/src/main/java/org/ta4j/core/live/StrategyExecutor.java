@@ -0,0 +1,312 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executor of many live strategies, each one with its own trading record.
+ * <p></p>
+ * Each strategy is run by a {@link StrategyRunner runner}: a lightweight task scheduled on a small pool of threads
+ * (a work-stealing pool by default) when new bars are added to its time series. The strategies do not hold a thread
+ * while they wait for bars, nor while their orders are {@link OrderRouter routed} (asynchronously), so that a JVM can
+ * run hundreds of thousands of strategies with a thread per core.
+ * <p></p>
+ * The bars of a time series must be added by one thread (e.g. through {@link #addBar(TimeSeries, Bar)}), while its
+ * strategies read it from the threads of the executor (see {@link org.ta4j.core.BaseTimeSeries}).
+ * <p></p>
+ * The bars, the signals of the strategies and their orders can be published to subscribers (e.g. risk checks,
+ * persistence, dashboards) through {@link EventPublisher event publishers}, which never stall the strategies.
+ */
+public class StrategyExecutor {
+
+    /** The maximum park time while waiting for the runners (nanoseconds) */
+    private static final long PARK_NANOS = 100000L;
+
+    /** The threads running the strategies */
+    private final Executor threads;
+
+    /** The pool created by the executor (null if the threads are provided) */
+    private final ForkJoinPool pool;
+
+    /** The runners, by time series */
+    private final Map<TimeSeries, List<StrategyRunner>> runners = new ConcurrentHashMap<>();
+
+    /** The number of runners which are not idle */
+    private final AtomicLong busyRunners = new AtomicLong();
+
+    /** The publisher of the added bars (may be null) */
+    private volatile EventPublisher<BarEvent> barPublisher;
+
+    /** The publisher of the signals of the strategies (may be null) */
+    private volatile EventPublisher<SignalEvent> signalPublisher;
+
+    /** The publisher of the recorded orders (may be null) */
+    private volatile EventPublisher<OrderEvent> orderPublisher;
+
+    /**
+     * Constructor (a work-stealing pool with a thread per core).
+     */
+    public StrategyExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     * @param parallelism the number of threads of the work-stealing pool
+     */
+    public StrategyExecutor(int parallelism) {
+        // FIFO scheduling of the runners
+        this.pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        this.threads = pool;
+    }
+
+    /**
+     * Constructor.
+     * @param threads the threads running the strategies
+     */
+    public StrategyExecutor(Executor threads) {
+        if (threads == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.pool = null;
+        this.threads = threads;
+    }
+
+    /**
+     * Adds a strategy, run on the bars added to its time series from now on.
+     * @param series the time series
+     * @param strategy the strategy (built on the series, with its own indicators)
+     * @param amount the amount of the orders
+     * @param router the router of the orders (may be null)
+     * @return the runner of the strategy
+     */
+    public StrategyRunner addStrategy(TimeSeries series, Strategy strategy, Decimal amount, OrderRouter router) {
+        return addStrategy(series, strategy, new BaseTradingRecord(), amount, router);
+    }
+
+    /**
+     * Adds a strategy, run on the bars added to its time series from now on.
+     * @param series the time series
+     * @param strategy the strategy (built on the series, with its own indicators)
+     * @param tradingRecord the trading record of the strategy
+     * @param amount the amount of the orders
+     * @param router the router of the orders (may be null)
+     * @return the runner of the strategy
+     */
+    public StrategyRunner addStrategy(TimeSeries series, Strategy strategy, TradingRecord tradingRecord,
+            Decimal amount, OrderRouter router) {
+        if (series == null || strategy == null || tradingRecord == null) {
+            throw new IllegalArgumentException("Series, strategy and trading record cannot be null");
+        }
+        StrategyRunner runner = new StrategyRunner(this, series, strategy, tradingRecord, amount, router);
+        runners.computeIfAbsent(series, s -> new CopyOnWriteArrayList<>()).add(runner);
+        return runner;
+    }
+
+    /**
+     * Removes a strategy (its runner is not scheduled anymore).
+     * @param runner the runner of the strategy
+     */
+    public void removeStrategy(StrategyRunner runner) {
+        List<StrategyRunner> seriesRunners = runners.get(runner.getTimeSeries());
+        if (seriesRunners != null) {
+            seriesRunners.remove(runner);
+        }
+    }
+
+    /**
+     * @param series a time series
+     * @return the runners of the strategies of the series
+     */
+    public List<StrategyRunner> getRunners(TimeSeries series) {
+        List<StrategyRunner> seriesRunners = runners.get(series);
+        return seriesRunners == null ? Collections.emptyList() : Collections.unmodifiableList(seriesRunners);
+    }
+
+    /**
+     * @return the runners of all the strategies
+     */
+    public List<StrategyRunner> getRunners() {
+        List<StrategyRunner> allRunners = new ArrayList<>();
+        runners.values().forEach(allRunners::addAll);
+        return allRunners;
+    }
+
+    /**
+     * Adds a bar to a time series and schedules its strategies.
+     * @param series the time series
+     * @param bar the new bar
+     */
+    public void addBar(TimeSeries series, Bar bar) {
+        series.addBar(bar);
+        EventPublisher<BarEvent> publisher = barPublisher;
+        if (publisher != null) {
+            publisher.publish(new BarEvent(series, series.getEndIndex(), bar));
+        }
+        barsAdded(series);
+    }
+
+    /**
+     * Adds bars to a time series at once (e.g. to catch up after a disconnection) and schedules its strategies.
+     * @param series the time series
+     * @param bars the new bars (in time order)
+     * @see TimeSeries#addBars(Collection)
+     */
+    public void addBars(TimeSeries series, Collection<? extends Bar> bars) {
+        List<Bar> added = new ArrayList<>(bars);
+        series.addBars(added);
+        EventPublisher<BarEvent> publisher = barPublisher;
+        if (publisher != null) {
+            int index = series.getEndIndex() - added.size();
+            for (Bar bar : added) {
+                publisher.publish(new BarEvent(series, ++index, bar));
+            }
+        }
+        barsAdded(series);
+    }
+
+    /**
+     * Schedules the strategies of a time series, once bars have been added to it (without publishing them).
+     * @param series the time series
+     */
+    public void barsAdded(TimeSeries series) {
+        List<StrategyRunner> seriesRunners = runners.get(series);
+        if (seriesRunners != null) {
+            for (StrategyRunner runner : seriesRunners) {
+                runner.signal();
+            }
+        }
+    }
+
+    /**
+     * @param barPublisher the publisher of the bars added through {@link #addBar(TimeSeries, Bar)} (null for none)
+     */
+    public void setBarPublisher(EventPublisher<BarEvent> barPublisher) {
+        this.barPublisher = barPublisher;
+    }
+
+    /**
+     * @return the publisher of the added bars (null if none)
+     */
+    public EventPublisher<BarEvent> getBarPublisher() {
+        return barPublisher;
+    }
+
+    /**
+     * @param signalPublisher the publisher of the entry and exit signals of the strategies (null for none)
+     */
+    public void setSignalPublisher(EventPublisher<SignalEvent> signalPublisher) {
+        this.signalPublisher = signalPublisher;
+    }
+
+    /**
+     * @return the publisher of the signals of the strategies (null if none)
+     */
+    public EventPublisher<SignalEvent> getSignalPublisher() {
+        return signalPublisher;
+    }
+
+    /**
+     * @param orderPublisher the publisher of the orders recorded by the strategies (null for none)
+     */
+    public void setOrderPublisher(EventPublisher<OrderEvent> orderPublisher) {
+        this.orderPublisher = orderPublisher;
+    }
+
+    /**
+     * @return the publisher of the recorded orders (null if none)
+     */
+    public EventPublisher<OrderEvent> getOrderPublisher() {
+        return orderPublisher;
+    }
+
+    /**
+     * Waits until all the strategies have caught up with their series (and their orders are routed).
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if all the strategies are idle, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (busyRunners.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the pool created by the executor (the strategies are not run anymore, but remain idle for {@link #awaitIdle}).
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @param runner a runner to be run by a thread of the executor
+     */
+    void schedule(StrategyRunner runner) {
+        threads.execute(runner);
+    }
+
+    /**
+     * Called when a runner is no longer idle.
+     */
+    void runnerBusy() {
+        busyRunners.incrementAndGet();
+    }
+
+    /**
+     * Called when a runner becomes idle.
+     */
+    void runnerIdle() {
+        busyRunners.decrementAndGet();
+    }
+}
@@ -0,0 +1,247 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A strategy and its trading record, run by a {@link StrategyExecutor strategy executor} on the bars of a time series.
+ * <p></p>
+ * A runner is a lightweight task (a few fields, no thread): it is scheduled on the threads of the executor when new
+ * bars are added to its series, evaluates its strategy on each new bar in order, and returns the thread once it has
+ * caught up with the series. While one of its orders is being {@link OrderRouter routed}, the runner is suspended
+ * (it holds no thread and no lock), and resumed when the routing is completed.<br>
+ * A runner is run by one thread at a time: its strategy and its trading record are confined to it. Its indicators may
+ * be shared with the other runners of the series (e.g. the close price), as their caches can be read concurrently.<br>
+ * The bars removed from the series (maximum bar count) before the runner evaluates them are skipped.
+ */
+public final class StrategyRunner implements Runnable {
+
+    /** Updater of the states */
+    private static final AtomicIntegerFieldUpdater<StrategyRunner> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(StrategyRunner.class, "state");
+
+    /** State of a runner which has caught up with its series */
+    private static final int IDLE = 0;
+    /** State of a runner waiting for a thread */
+    private static final int SCHEDULED = 1;
+    /** State of a running runner */
+    private static final int RUNNING = 2;
+    /** State of a runner waiting for the routing of an order */
+    private static final int SUSPENDED = 3;
+
+    /** The logger */
+    private static final Logger log = LoggerFactory.getLogger(StrategyRunner.class);
+
+    /** The executor */
+    private final StrategyExecutor executor;
+
+    /** The time series */
+    private final TimeSeries series;
+
+    /** The strategy */
+    private final Strategy strategy;
+
+    /** The trading record */
+    private final TradingRecord tradingRecord;
+
+    /** The amount of the orders */
+    private final Decimal amount;
+
+    /** The router of the orders (may be null) */
+    private final OrderRouter router;
+
+    /** The state of the runner */
+    private volatile int state = IDLE;
+
+    /** The index of the last evaluated bar */
+    private volatile int processedIndex;
+
+    /**
+     * Constructor.
+     * @param executor the executor
+     * @param series the time series
+     * @param strategy the strategy
+     * @param tradingRecord the trading record
+     * @param amount the amount of the orders
+     * @param router the router of the orders (may be null)
+     */
+    StrategyRunner(StrategyExecutor executor, TimeSeries series, Strategy strategy, TradingRecord tradingRecord,
+            Decimal amount, OrderRouter router) {
+        this.executor = executor;
+        this.series = series;
+        this.strategy = strategy;
+        this.tradingRecord = tradingRecord;
+        this.amount = amount;
+        this.router = router;
+        // The bars already in the series are not evaluated
+        this.processedIndex = series.getEndIndex();
+    }
+
+    /**
+     * @return the time series
+     */
+    public TimeSeries getTimeSeries() {
+        return series;
+    }
+
+    /**
+     * @return the strategy
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return the trading record (to be read when the runner is idle)
+     */
+    public TradingRecord getTradingRecord() {
+        return tradingRecord;
+    }
+
+    /**
+     * @return the index of the last evaluated bar
+     */
+    public int getProcessedIndex() {
+        return processedIndex;
+    }
+
+    /**
+     * @return true if the runner is waiting for the routing of an order, false otherwise
+     */
+    public boolean isSuspended() {
+        return state == SUSPENDED;
+    }
+
+    /**
+     * Schedules the runner if it is idle (i.e. when new bars have been added to its series).
+     */
+    void signal() {
+        if (state == IDLE) {
+            // Busy before scheduled, so that the executor is never seen idle meanwhile
+            executor.runnerBusy();
+            if (STATE.compareAndSet(this, IDLE, SCHEDULED)) {
+                schedule();
+            } else {
+                executor.runnerIdle();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        state = RUNNING;
+        while (true) {
+            int endIndex = series.getEndIndex();
+            while (processedIndex < endIndex) {
+                // Bars removed meanwhile (maximum bar count) are skipped
+                int index = Math.max(processedIndex + 1, series.getRemovedBarsCount());
+                processedIndex = index;
+                Order order = evaluate(index);
+                if (order != null && router != null && suspend(order)) {
+                    return;
+                }
+            }
+            state = IDLE;
+            if (series.getEndIndex() <= processedIndex || !STATE.compareAndSet(this, IDLE, RUNNING)) {
+                executor.runnerIdle();
+                return;
+            }
+            // Bar added while becoming idle
+        }
+    }
+
+    /**
+     * @param index the index of a new bar
+     * @return the new order, null if the strategy does not operate
+     */
+    private Order evaluate(int index) {
+        try {
+            if (strategy.shouldOperate(index, tradingRecord)) {
+                Decimal price = series.getBar(index).getClosePrice();
+                EventPublisher<SignalEvent> signalPublisher = executor.getSignalPublisher();
+                if (signalPublisher != null) {
+                    signalPublisher.publish(new SignalEvent(this, index, tradingRecord.getCurrentTrade().isNew(), price));
+                }
+                tradingRecord.operate(index, price, amount);
+                Order order = tradingRecord.getLastOrder();
+                EventPublisher<OrderEvent> orderPublisher = executor.getOrderPublisher();
+                if (orderPublisher != null) {
+                    orderPublisher.publish(new OrderEvent(this, order));
+                }
+                return order;
+            }
+        } catch (RuntimeException e) {
+            log.error("Strategy not evaluated on bar {} of {}", index, series.getName(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Routes an order and suspends the runner until the order is routed.
+     * @param order the new order
+     * @return true if the runner has been suspended, false if the order has not been routed
+     */
+    private boolean suspend(Order order) {
+        CompletionStage<?> routing;
+        try {
+            routing = router.route(this, order);
+        } catch (RuntimeException e) {
+            log.error("Order {} of {} not routed", order, series.getName(), e);
+            return false;
+        }
+        state = SUSPENDED;
+        routing.whenComplete((result, error) -> {
+            if (error != null) {
+                log.error("Order {} of {} not routed", order, series.getName(), error);
+            }
+            // Resumed on a thread of the executor
+            state = SCHEDULED;
+            schedule();
+        });
+        return true;
+    }
+
+    /**
+     * Schedules the scheduled runner on the executor (idle again if the executor has been shut down).
+     */
+    private void schedule() {
+        try {
+            executor.schedule(this);
+        } catch (RejectedExecutionException e) {
+            log.warn("Strategy of {} not run: executor shut down", series.getName());
+            state = IDLE;
+            executor.runnerIdle();
+        }
+    }
+}
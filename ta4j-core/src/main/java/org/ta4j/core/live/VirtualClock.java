@@ -0,0 +1,91 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock whose time is set by a simulation (e.g. a {@link ReplaySimulator replay}) instead of the system time.
+ * <p></p>
+ * The live code reading the time through a {@link Clock} (instead of {@link System#currentTimeMillis()}) sees the
+ * time of the replayed events, whatever the speed of the replay.
+ */
+public final class VirtualClock extends Clock {
+
+    /** The time (milliseconds from the epoch), shared by the clocks of all the zones */
+    private final AtomicLong epochMilli;
+
+    /** The time zone */
+    private final ZoneId zone;
+
+    /**
+     * Constructor.
+     * @param epochMilli the initial time (milliseconds from the epoch)
+     * @param zone the time zone
+     */
+    public VirtualClock(long epochMilli, ZoneId zone) {
+        this(new AtomicLong(epochMilli), zone);
+    }
+
+    private VirtualClock(AtomicLong epochMilli, ZoneId zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("Time zone cannot be null");
+        }
+        this.epochMilli = epochMilli;
+        this.zone = zone;
+    }
+
+    /**
+     * @param epochMilli the new time (milliseconds from the epoch)
+     */
+    public void setMillis(long epochMilli) {
+        this.epochMilli.set(epochMilli);
+    }
+
+    @Override
+    public long millis() {
+        return epochMilli.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(epochMilli.get());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * @param zone a time zone
+     * @return a clock of the zone, sharing the time of this clock
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new VirtualClock(epochMilli, zone);
+    }
+}
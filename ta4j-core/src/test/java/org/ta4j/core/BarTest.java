@@ -25,6 +25,11 @@ package org.ta4j.core;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -84,4 +89,62 @@ public class BarTest {
         assertTrue(bar.inPeriod(beginTime));
         assertFalse(bar.inPeriod(endTime));
     }
+
+    @Test
+    public void epochTimes() {
+        assertEquals(endTime.toInstant().toEpochMilli(), bar.getEndEpochMilli());
+        assertEquals(beginTime.toInstant().toEpochMilli(), bar.getBeginEpochMilli());
+        assertEquals(endTime.getZone(), bar.getZone());
+
+        Bar epochBar = new BaseBar(Duration.ofHours(1), bar.getEndEpochMilli(), endTime.getZone(), Decimal.ONE,
+                Decimal.TWO, Decimal.ONE, Decimal.TWO, Decimal.TEN, Decimal.valueOf(15), 3);
+        assertEquals(endTime, epochBar.getEndTime());
+        assertEquals(beginTime, epochBar.getBeginTime());
+        assertEquals(3, epochBar.getTrades());
+
+        // Sub-millisecond times
+        ZonedDateTime preciseEndTime = endTime.plusNanos(1500);
+        Bar preciseBar = new BaseBar(Duration.ofNanos(2000), preciseEndTime);
+        assertEquals(bar.getEndEpochMilli(), preciseBar.getEndEpochMilli());
+        assertEquals(bar.getEndEpochMilli() - 1, preciseBar.getBeginEpochMilli());
+        assertEquals(0, bar.getEndNanoOfMilli());
+        assertEquals(1500, preciseBar.getEndNanoOfMilli());
+        assertTrue(preciseBar.endsAfter(bar));
+        assertFalse(bar.endsAfter(preciseBar));
+        assertFalse(bar.endsAfter(epochBar));
+    }
+
+    @Test
+    public void serialization() throws IOException, ClassNotFoundException {
+        Bar preciseBar = new BaseBar(Duration.ofHours(1), endTime.plusNanos(1500), Decimal.ONE, Decimal.TWO,
+                Decimal.ONE, Decimal.TWO, Decimal.TEN);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(preciseBar);
+        }
+        Bar read;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (Bar) input.readObject();
+        }
+        assertEquals(preciseBar.getEndTime(), read.getEndTime());
+        assertEquals(preciseBar.getBeginTime(), read.getBeginTime());
+        assertEquals(preciseBar.getClosePrice(), read.getClosePrice());
+        assertEquals(preciseBar.getVolume(), read.getVolume());
+    }
+
+    @Test
+    public void deserializationOfZonedTimes() throws IOException, ClassNotFoundException {
+        // Serialized by the previous versions (end and begin times as zoned date times)
+        Bar read;
+        try (ObjectInputStream input = new ObjectInputStream(getClass().getResourceAsStream("BaseBarZonedTimes.ser"))) {
+            read = (Bar) input.readObject();
+        }
+        ZonedDateTime expectedEndTime = ZonedDateTime.of(2017, 10, 29, 2, 30, 0, 123456789, ZoneId.of("Europe/Paris"));
+        assertEquals(expectedEndTime, read.getEndTime());
+        assertEquals(expectedEndTime.toInstant().toEpochMilli(), read.getEndEpochMilli());
+        assertEquals(expectedEndTime.minusHours(1), read.getBeginTime());
+        assertEquals(Decimal.valueOf(11), read.getClosePrice());
+        assertEquals(Decimal.valueOf(12.5), read.getMaxPrice());
+        assertEquals(Decimal.valueOf(1000), read.getVolume());
+    }
 }
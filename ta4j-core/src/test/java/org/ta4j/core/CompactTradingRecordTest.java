@@ -0,0 +1,120 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompactTradingRecordTest {
+
+    private CompactTradingRecord emptyRecord, openedRecord, closedRecord;
+
+    @Before
+    public void setUp() {
+        emptyRecord = new CompactTradingRecord();
+        openedRecord = new CompactTradingRecord(Order.buyAt(0, Decimal.NaN, Decimal.NaN), Order.sellAt(3, Decimal.NaN, Decimal.NaN),
+                Order.buyAt(7, Decimal.NaN, Decimal.NaN));
+        closedRecord = new CompactTradingRecord(Order.buyAt(0, Decimal.NaN, Decimal.NaN), Order.sellAt(3, Decimal.NaN, Decimal.NaN),
+                Order.buyAt(7, Decimal.NaN, Decimal.NaN), Order.sellAt(8, Decimal.NaN, Decimal.NaN));
+    }
+
+    @Test
+    public void getCurrentTrade() {
+        assertTrue(emptyRecord.getCurrentTrade().isNew());
+        assertTrue(openedRecord.getCurrentTrade().isOpened());
+        assertTrue(closedRecord.getCurrentTrade().isNew());
+    }
+
+    @Test
+    public void operate() {
+        CompactTradingRecord record = new CompactTradingRecord();
+
+        record.operate(1, Decimal.valueOf("1.5"), Decimal.TEN);
+        assertTrue(record.getCurrentTrade().isOpened());
+        assertEquals(0, record.getTradeCount());
+        assertNull(record.getLastTrade());
+        assertEquals(Order.buyAt(1, Decimal.valueOf("1.5"), Decimal.TEN), record.getLastOrder());
+        assertNull(record.getLastOrder(Order.OrderType.SELL));
+        assertNull(record.getLastExit());
+
+        record.operate(3, Decimal.valueOf("2.25"), Decimal.TEN);
+        assertTrue(record.getCurrentTrade().isNew());
+        assertEquals(1, record.getTradeCount());
+        Trade trade = new Trade(Order.buyAt(1, Decimal.valueOf("1.5"), Decimal.TEN), Order.sellAt(3, Decimal.valueOf("2.25"), Decimal.TEN));
+        assertEquals(trade, record.getLastTrade());
+        assertEquals(trade, record.getTrades().get(0));
+        assertEquals(Order.sellAt(3, Decimal.valueOf("2.25"), Decimal.TEN), record.getLastOrder(Order.OrderType.SELL));
+
+        record.operate(5);
+        record.operate(6);
+        record.operate(9);
+        assertEquals(5, record.getOrderCount());
+        assertEquals(2, record.getTrades().size());
+        assertEquals(new Trade(Order.buyAt(5, Decimal.NaN, Decimal.NaN), Order.sellAt(6, Decimal.NaN, Decimal.NaN)), record.getLastTrade());
+        assertEquals(Order.buyAt(9, Decimal.NaN, Decimal.NaN), record.getLastEntry());
+        assertEquals(Order.sellAt(6, Decimal.NaN, Decimal.NaN), record.getLastExit());
+    }
+
+    @Test
+    public void sameAsBaseTradingRecord() {
+        Order[] orders = {
+                Order.buyAt(0, Decimal.ONE, Decimal.ONE), Order.sellAt(1, Decimal.TWO, Decimal.ONE),
+                Order.sellAt(2, Decimal.THREE, Decimal.ONE), Order.buyAt(4, Decimal.TWO, Decimal.ONE),
+                Order.buyAt(4, Decimal.TWO, Decimal.ONE), Order.sellAt(5, Decimal.TEN, Decimal.ONE) };
+        TradingRecord baseRecord = new BaseTradingRecord(orders);
+        TradingRecord compactRecord = new CompactTradingRecord(orders);
+
+        assertEquals(baseRecord.getTrades(), compactRecord.getTrades());
+        assertEquals(baseRecord.getLastTrade(), compactRecord.getLastTrade());
+        assertEquals(baseRecord.getLastOrder(Order.OrderType.BUY), compactRecord.getLastOrder(Order.OrderType.BUY));
+        assertEquals(baseRecord.getLastOrder(Order.OrderType.SELL), compactRecord.getLastOrder(Order.OrderType.SELL));
+    }
+
+    @Test
+    public void getTradeCount() {
+        assertEquals(0, emptyRecord.getTradeCount());
+        assertEquals(1, openedRecord.getTradeCount());
+        assertEquals(2, closedRecord.getTradeCount());
+        assertEquals(2, closedRecord.getTrades().size());
+    }
+
+    @Test
+    public void getLastOrder() {
+        assertNull(emptyRecord.getLastOrder());
+        assertEquals(Order.buyAt(7, Decimal.NaN, Decimal.NaN), openedRecord.getLastOrder());
+        assertEquals(Order.sellAt(8, Decimal.NaN, Decimal.NaN), closedRecord.getLastOrder());
+        assertEquals(Order.buyAt(7, Decimal.NaN, Decimal.NaN), closedRecord.getLastOrder(Order.OrderType.BUY));
+        assertEquals(Order.sellAt(3, Decimal.NaN, Decimal.NaN), openedRecord.getLastOrder(Order.OrderType.SELL));
+    }
+
+    @Test
+    public void getLastEntryExit() {
+        assertNull(emptyRecord.getLastEntry());
+        assertEquals(Order.buyAt(7, Decimal.NaN, Decimal.NaN), openedRecord.getLastEntry());
+        assertNull(emptyRecord.getLastExit());
+        assertEquals(Order.sellAt(3, Decimal.NaN, Decimal.NaN), openedRecord.getLastExit());
+        assertEquals(Order.sellAt(8, Decimal.NaN, Decimal.NaN), closedRecord.getLastExit());
+    }
+}
@@ -31,9 +31,16 @@ import org.ta4j.core.trading.rules.FixedRule;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TimeSeriesManagerTest {
@@ -99,6 +106,54 @@ public class TimeSeriesManagerTest {
         assertEquals(Order.sellAt(7, seriesForRun.getBar(7).getClosePrice(), Decimal.NaN), trades.get(1).getExit());
     }
 
+    @Test
+    public void runWithProvidedTradingRecord() {
+        TradingRecord tradingRecord = new CompactTradingRecord();
+        assertSame(tradingRecord, manager.run(strategy, tradingRecord, Decimal.NaN, 0, 8));
+
+        List<Trade> trades = tradingRecord.getTrades();
+        assertEquals(manager.run(strategy).getTrades(), trades);
+        assertEquals(Order.sellAt(7, seriesForRun.getBar(7).getClosePrice(), Decimal.NaN), tradingRecord.getLastExit());
+    }
+
+    @Test
+    public void runStrategiesInBatch() {
+        Strategy openAtEnd = new BaseStrategy(new FixedRule(1), new FixedRule(3));
+        Strategy sellEntries = new BaseStrategy(new FixedRule(0, 5), new FixedRule(2, 6));
+        List<Strategy> strategies = Arrays.asList(strategy, openAtEnd, sellEntries);
+
+        List<TradingRecord> tradingRecords = manager.run(strategies, OrderType.SELL, Decimal.TEN, 0, 2);
+        assertEquals(3, tradingRecords.size());
+        for (int i = 0; i < strategies.size(); i++) {
+            TradingRecord expected = manager.run(strategies.get(i), OrderType.SELL, Decimal.TEN, 0, 2);
+            assertEquals(expected.getTrades(), tradingRecords.get(i).getTrades());
+            assertEquals(expected.getCurrentTrade().isOpened(), tradingRecords.get(i).getCurrentTrade().isOpened());
+        }
+        assertEquals(1, tradingRecords.get(1).getTradeCount());
+    }
+
+    @Test
+    public void runStrategiesInPartitions() throws InterruptedException {
+        List<Strategy> strategies = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            strategies.add(new BaseStrategy(new FixedRule(i % 3, 5), new FixedRule(i % 4 + 3, 8)));
+        }
+        List<TradingRecord> expected = manager.run(strategies);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(3);
+        try {
+            List<TradingRecord> tradingRecords = manager.run(strategies, executorService, 3);
+            assertEquals(strategies.size(), tradingRecords.size());
+            for (int i = 0; i < strategies.size(); i++) {
+                assertEquals(expected.get(i).getTrades(), tradingRecords.get(i).getTrades());
+            }
+            assertTrue(manager.run(Collections.<Strategy>emptyList(), executorService, 2).isEmpty());
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(1, TimeUnit.SECONDS);
+        }
+    }
+
     @Test
     public void runWithOpenEntryBuyLeft() {
         Strategy aStrategy = new BaseStrategy(new FixedRule(1), new FixedRule(3));
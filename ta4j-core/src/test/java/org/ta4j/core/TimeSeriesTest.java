@@ -27,11 +27,15 @@ import org.junit.Test;
 import org.ta4j.core.mocks.MockBar;
 import org.ta4j.core.trading.rules.FixedRule;
 
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 
@@ -232,4 +236,257 @@ public class TimeSeriesTest {
         assertEquals(0, defaultSeries.getBeginIndex());
         assertEquals(1, defaultSeries.getEndIndex());
     }
+
+    @Test
+    public void addBars() {
+        TimeSeries series = new BaseTimeSeries();
+        series.addBars(bars.subList(0, 2));
+        assertEquals(2, series.getBarCount());
+        assertEquals(0, series.getBeginIndex());
+        assertEquals(1, series.getEndIndex());
+
+        series.addBars(new ArrayList<Bar>());
+        series.addBars(bars.subList(2, 6));
+        assertEquals(6, series.getBarCount());
+        assertEquals(5, series.getEndIndex());
+        for (int i = 0; i < 6; i++) {
+            assertSame(bars.get(i), series.getBar(i));
+        }
+    }
+
+    @Test
+    public void externalSeries() {
+        TimeSeries series = new ExternalTimeSeries();
+        series.addBars(bars.subList(0, 3));
+        assertEquals(3, series.getBarCount());
+        assertSame(bars.get(2), series.getLastBar());
+
+        series.addBar(bars.get(3), false);
+        assertSame(bars.get(3), series.getLastBar());
+        assertEquals(0, series.getLastBarVersion());
+        try {
+            series.addBar(bars.get(4), true);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertSame(bars.get(3), series.getLastBar());
+        }
+        try {
+            series.addTrade(Decimal.ONE, Decimal.TEN);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(0, series.getLastBarVersion());
+        }
+    }
+
+    @Test
+    public void addBarsOnMovingSeries() {
+        TimeSeries series = new BaseTimeSeries();
+        series.setMaximumBarCount(3);
+        series.addBar(bars.get(0));
+        series.addBars(bars.subList(1, 6));
+        assertEquals(3, series.getBarCount());
+        assertEquals(3, series.getRemovedBarsCount());
+        assertEquals(0, series.getBeginIndex());
+        assertEquals(5, series.getEndIndex());
+        assertSame(bars.get(3), series.getBar(3));
+        assertSame(bars.get(5), series.getBar(5));
+        // Removed bar: first remaining bar
+        assertSame(bars.get(3), series.getBar(1));
+    }
+
+    @Test
+    public void addManyBarsToBuffer() {
+        TimeSeries series = new BaseTimeSeries();
+        List<Bar> manyBars = new ArrayList<>();
+        ZonedDateTime time = ZonedDateTime.of(2014, 6, 13, 0, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 1000; i++) {
+            manyBars.add(new MockBar(time.plusMinutes(i), i));
+        }
+        series.addBar(manyBars.get(0));
+        series.addBars(manyBars.subList(1, 700));
+        series.addBars(manyBars.subList(700, 1000));
+        assertEquals(1000, series.getBarCount());
+        assertEquals(manyBars, series.getBarData());
+    }
+
+    @Test
+    public void addBarsIsValidatedBeforeAddingAnyBar() {
+        TimeSeries series = new BaseTimeSeries();
+        series.addBar(bars.get(1));
+        try {
+            series.addBars(Arrays.asList(bars.get(2), bars.get(4), bars.get(3)));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, series.getBarCount());
+        }
+        try {
+            // Older than the last bar of the series
+            series.addBars(Arrays.asList(bars.get(0), bars.get(2)));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, series.getBarCount());
+        }
+        try {
+            series.addBars(Arrays.asList(bars.get(2), null));
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, series.getBarCount());
+        }
+    }
+
+    @Test
+    public void concurrentReadsWhileAddingBars() throws InterruptedException {
+        final int barCount = 20000;
+        final TimeSeries series = new BaseTimeSeries();
+        series.setMaximumBarCount(100);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    int endIndex;
+                    while ((endIndex = series.getEndIndex()) < barCount - 1) {
+                        for (int i = Math.max(0, endIndex - 150); i <= endIndex; i++) {
+                            // Close price of a bar: its index (the first remaining bar if removed)
+                            int closePrice = series.getBar(i).getClosePrice().intValue();
+                            assertTrue(closePrice == i || (closePrice > i && i < series.getRemovedBarsCount()));
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        for (int i = 0; i < barCount; i++) {
+            Decimal price = Decimal.valueOf(i);
+            series.addBar(new BaseBar(Duration.ofMinutes(1), 60000L * (i + 1), ZoneId.of("UTC"),
+                    price, price, price, price, Decimal.ONE, price, 1));
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(100, series.getBarCount());
+        assertEquals(barCount - 100, series.getBar(series.getBeginIndex()).getClosePrice().intValue());
+    }
+
+    @Test
+    public void replaceLastBar() {
+        long version = defaultSeries.getLastBarVersion();
+        int endIndex = defaultSeries.getEndIndex();
+        Bar lastBar = defaultSeries.getLastBar();
+        Bar newBar = new MockBar(lastBar.getEndTime(), 42d);
+        defaultSeries.addBar(newBar, true);
+        assertEquals(endIndex, defaultSeries.getEndIndex());
+        assertSame(newBar, defaultSeries.getLastBar());
+        assertEquals(version + 1, defaultSeries.getLastBarVersion());
+
+        // Adding a bar does not change the version
+        defaultSeries.addBar(new MockBar(lastBar.getEndTime().plusDays(1), 43d), false);
+        assertEquals(endIndex + 1, defaultSeries.getEndIndex());
+        assertEquals(version + 1, defaultSeries.getLastBarVersion());
+    }
+
+    @Test
+    public void replaceLastBarOnMovingSeries() {
+        TimeSeries series = new BaseTimeSeries();
+        series.setMaximumBarCount(2);
+        ZonedDateTime time = ZonedDateTime.of(2014, 6, 13, 0, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 5; i++) {
+            series.addBar(new MockBar(time.plusDays(i), i));
+        }
+        series.addBar(new MockBar(time.plusDays(4), 10d), true);
+        assertEquals(2, series.getBarCount());
+        assertEquals(3, series.getBar(3).getClosePrice().intValue());
+        assertEquals(10, series.getBar(4).getClosePrice().intValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replaceLastBarWithEndTimePriorToPreviousBarShouldThrowException() {
+        defaultSeries.addBar(new MockBar(defaultSeries.getBar(defaultSeries.getEndIndex() - 1).getEndTime(), 1d), true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void replaceLastBarOnEmptySeriesShouldThrowException() {
+        emptySeries.addBar(new MockBar(ZonedDateTime.now(), 1d), true);
+    }
+
+    @Test
+    public void addTrade() {
+        TimeSeries series = new BaseTimeSeries();
+        series.addBar(new BaseBar(Duration.ofMinutes(1), ZonedDateTime.now()));
+        series.addTrade(Decimal.TEN, Decimal.valueOf(5));
+        series.addTrade(Decimal.ONE, Decimal.valueOf(7));
+        Bar bar = series.getLastBar();
+        assertEquals(Decimal.valueOf(5), bar.getOpenPrice());
+        assertEquals(Decimal.valueOf(7), bar.getClosePrice());
+        assertEquals(Decimal.valueOf(11), bar.getVolume());
+        assertEquals(2, bar.getTrades());
+        assertEquals(2, series.getLastBarVersion());
+    }
+
+    /**
+     * A time series implementing only the abstract methods of the interface (e.g. outside of the library).
+     */
+    private static class ExternalTimeSeries implements TimeSeries {
+
+        private final TimeSeries delegate = new BaseTimeSeries();
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Bar getBar(int i) {
+            return delegate.getBar(i);
+        }
+
+        @Override
+        public int getBarCount() {
+            return delegate.getBarCount();
+        }
+
+        @Override
+        public List<Bar> getBarData() {
+            return delegate.getBarData();
+        }
+
+        @Override
+        public int getBeginIndex() {
+            return delegate.getBeginIndex();
+        }
+
+        @Override
+        public int getEndIndex() {
+            return delegate.getEndIndex();
+        }
+
+        @Override
+        public void setMaximumBarCount(int maximumBarCount) {
+            delegate.setMaximumBarCount(maximumBarCount);
+        }
+
+        @Override
+        public int getMaximumBarCount() {
+            return delegate.getMaximumBarCount();
+        }
+
+        @Override
+        public int getRemovedBarsCount() {
+            return delegate.getRemovedBarsCount();
+        }
+
+        @Override
+        public void addBar(Bar bar) {
+            delegate.addBar(bar);
+        }
+
+        @Override
+        public TimeSeries getSubSeries(int startIndex, int endIndex) {
+            return delegate.getSubSeries(startIndex, endIndex);
+        }
+    }
 }
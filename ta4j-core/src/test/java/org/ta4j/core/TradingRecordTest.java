@@ -25,6 +25,9 @@ package org.ta4j.core;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class TradingRecordTest {
@@ -130,4 +133,67 @@ public class TradingRecordTest {
         assertEquals(Order.sellAt(3, Decimal.NaN, Decimal.NaN), openedRecord.getLastExit());
         assertEquals(Order.sellAt(8, Decimal.NaN, Decimal.NaN), closedRecord.getLastExit());
     }
+
+    @Test
+    public void listeners() {
+        final List<Order> entries = new ArrayList<>();
+        final List<Trade> exits = new ArrayList<>();
+        TradingRecordListener listener = new TradingRecordListener() {
+            @Override
+            public void onEntry(TradingRecord tradingRecord, Order entry) {
+                entries.add(entry);
+            }
+
+            @Override
+            public void onExit(TradingRecord tradingRecord, Trade trade) {
+                assertTrue(tradingRecord.isClosed());
+                assertEquals(trade, tradingRecord.getLastTrade());
+                exits.add(trade);
+            }
+        };
+        BaseTradingRecord record = new BaseTradingRecord();
+        record.addListener(listener);
+
+        record.operate(1);
+        assertEquals(1, entries.size());
+        assertEquals(Order.buyAt(1, Decimal.NaN, Decimal.NaN), entries.get(0));
+        assertTrue(exits.isEmpty());
+
+        record.enter(2);
+        record.exit(3);
+        assertEquals(1, entries.size());
+        assertEquals(1, exits.size());
+        assertEquals(new Trade(Order.buyAt(1, Decimal.NaN, Decimal.NaN), Order.sellAt(3, Decimal.NaN, Decimal.NaN)), exits.get(0));
+
+        record.removeListener(listener);
+        record.operate(5);
+        assertEquals(1, entries.size());
+    }
+
+    @Test
+    public void listenerRemovingItself() {
+        final List<Order> entries = new ArrayList<>();
+        final BaseTradingRecord record = new BaseTradingRecord();
+        TradingRecordListener oneShotListener = new TradingRecordListener() {
+            @Override
+            public void onEntry(TradingRecord tradingRecord, Order entry) {
+                record.removeListener(this);
+                entries.add(entry);
+            }
+        };
+        TradingRecordListener listener = new TradingRecordListener() {
+            @Override
+            public void onEntry(TradingRecord tradingRecord, Order entry) {
+                entries.add(entry);
+            }
+        };
+        record.addListener(oneShotListener);
+        record.addListener(listener);
+
+        record.enter(1);
+        assertEquals(2, entries.size());
+        record.exit(2);
+        record.enter(3);
+        assertEquals(3, entries.size());
+    }
 }
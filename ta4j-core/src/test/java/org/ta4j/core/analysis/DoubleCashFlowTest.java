@@ -0,0 +1,113 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import org.junit.Test;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.mocks.MockTimeSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.ta4j.core.TATestsUtils.TA_OFFSET;
+import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
+
+public class DoubleCashFlowTest {
+
+    @Test
+    public void cashFlowSize() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(1d, 2d, 3d, 4d, 5d);
+        DoubleCashFlow cashFlow = new DoubleCashFlow(sampleTimeSeries, new BaseTradingRecord());
+        assertEquals(5, cashFlow.getSize());
+        assertEquals(1d, cashFlow.getDoubleValue(4), TA_OFFSET);
+    }
+
+    @Test
+    public void sameValuesAsCashFlow() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(3d, 2d, 5d, 1000d, 5000d, 0.0001d, 4d, 7d,
+                6d, 7d, 8d, 5d, 6d);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, sampleTimeSeries), Order.sellAt(2, sampleTimeSeries),
+                Order.buyAt(6, sampleTimeSeries), Order.sellAt(8, sampleTimeSeries),
+                Order.sellAt(9, sampleTimeSeries), Order.buyAt(11, sampleTimeSeries));
+
+        CashFlow cashFlow = new CashFlow(sampleTimeSeries, tradingRecord);
+        DoubleCashFlow doubleCashFlow = new DoubleCashFlow(sampleTimeSeries, tradingRecord);
+
+        assertEquals(cashFlow.getSize(), doubleCashFlow.getSize());
+        for (int i = 0; i < cashFlow.getSize(); i++) {
+            assertEquals(cashFlow.getValue(i).doubleValue(), doubleCashFlow.getDoubleValue(i), TA_OFFSET);
+            assertDecimalEquals(doubleCashFlow.getValue(i), cashFlow.getValue(i).doubleValue());
+        }
+    }
+
+    @Test
+    public void cashFlowShortSell() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(1, 2, 4, 8, 16, 32);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, sampleTimeSeries), Order.sellAt(2, sampleTimeSeries),
+                Order.sellAt(2, sampleTimeSeries), Order.buyAt(4, sampleTimeSeries),
+                Order.buyAt(4, sampleTimeSeries), Order.sellAt(5, sampleTimeSeries));
+
+        DoubleCashFlow cashFlow = new DoubleCashFlow(sampleTimeSeries, tradingRecord);
+
+        assertEquals(1d, cashFlow.getDoubleValue(0), TA_OFFSET);
+        assertEquals(2d, cashFlow.getDoubleValue(1), TA_OFFSET);
+        assertEquals(4d, cashFlow.getDoubleValue(2), TA_OFFSET);
+        assertEquals(2d, cashFlow.getDoubleValue(3), TA_OFFSET);
+        assertEquals(1d, cashFlow.getDoubleValue(4), TA_OFFSET);
+        assertEquals(2d, cashFlow.getDoubleValue(5), TA_OFFSET);
+    }
+
+    @Test
+    public void cashFlowValueWithOnlyOneTradeAndAGapBefore() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(1d, 1d, 2d);
+        DoubleCashFlow cashFlow = new DoubleCashFlow(sampleTimeSeries,
+                new BaseTradingRecord(Order.buyAt(1, sampleTimeSeries), Order.sellAt(2, sampleTimeSeries)).getLastTrade());
+
+        assertEquals(1d, cashFlow.getDoubleValue(0), TA_OFFSET);
+        assertEquals(1d, cashFlow.getDoubleValue(1), TA_OFFSET);
+        assertEquals(2d, cashFlow.getDoubleValue(2), TA_OFFSET);
+    }
+
+    @Test
+    public void maximumDrawdown() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(1, 2, 3, 6, 5, 20, 3);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, sampleTimeSeries), Order.sellAt(1, sampleTimeSeries),
+                Order.buyAt(3, sampleTimeSeries), Order.sellAt(4, sampleTimeSeries),
+                Order.buyAt(5, sampleTimeSeries), Order.sellAt(6, sampleTimeSeries));
+
+        DoubleCashFlow cashFlow = new DoubleCashFlow(sampleTimeSeries, tradingRecord);
+
+        assertEquals(.875d, cashFlow.getMaximumDrawdown(0, 6), TA_OFFSET);
+        assertEquals(0d, cashFlow.getMaximumDrawdown(0, 1), TA_OFFSET);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void valueAfterTheEnd() {
+        TimeSeries sampleTimeSeries = new MockTimeSeries(1d, 2d);
+        new DoubleCashFlow(sampleTimeSeries, new BaseTradingRecord()).getDoubleValue(2);
+    }
+}
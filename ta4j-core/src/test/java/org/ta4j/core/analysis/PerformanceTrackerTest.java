@@ -0,0 +1,105 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import org.junit.Test;
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.analysis.criteria.AverageProfitCriterion;
+import org.ta4j.core.analysis.criteria.AverageProfitableTradesCriterion;
+import org.ta4j.core.analysis.criteria.MaximumDrawdownCriterion;
+import org.ta4j.core.analysis.criteria.NumberOfBarsCriterion;
+import org.ta4j.core.analysis.criteria.TotalProfitCriterion;
+import org.ta4j.core.mocks.MockTimeSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.ta4j.core.TATestsUtils.TA_OFFSET;
+
+public class PerformanceTrackerTest {
+
+    private final AnalysisCriterion totalProfit = new TotalProfitCriterion();
+    private final AnalysisCriterion averageProfit = new AverageProfitCriterion();
+    private final AnalysisCriterion profitableTrades = new AverageProfitableTradesCriterion();
+    private final AnalysisCriterion numberOfBars = new NumberOfBarsCriterion();
+    private final AnalysisCriterion maximumDrawdown = new MaximumDrawdownCriterion();
+
+    @Test
+    public void noTrades() {
+        TimeSeries series = new MockTimeSeries(1, 2, 3);
+        PerformanceTracker tracker = new PerformanceTracker(series);
+
+        assertEquals(0, tracker.getTradeCount());
+        assertEquals(1d, tracker.getTotalProfit(), TA_OFFSET);
+        assertEquals(1d, tracker.getAverageProfit(), TA_OFFSET);
+        assertEquals(0d, tracker.getMaximumDrawdown(), TA_OFFSET);
+        assertEquals(Double.NaN, tracker.getAverageProfitableTrades(), TA_OFFSET);
+    }
+
+    @Test
+    public void followsTheCriteriaAsTheRecordIsOperated() {
+        TimeSeries series = new MockTimeSeries(10, 12, 9, 8, 11, 15, 7, 6, 9, 10, 14, 8);
+        BaseTradingRecord tradingRecord = new BaseTradingRecord();
+        PerformanceTracker tracker = new PerformanceTracker(series);
+        tradingRecord.addListener(tracker);
+
+        int[] orderIndexes = { 0, 1, 2, 5, 6, 7, 8, 11 };
+        for (int index : orderIndexes) {
+            tradingRecord.operate(index, series.getBar(index).getClosePrice(), Decimal.ONE);
+            assertSameAsCriteria(series, tradingRecord, tracker);
+        }
+        assertEquals(4, tracker.getTradeCount());
+        assertEquals(2, tracker.getProfitableTradeCount());
+    }
+
+    @Test
+    public void catchesUpWithRecordedTrades() {
+        TimeSeries series = new MockTimeSeries(2, 1, 3, 5, 6, 3, 20);
+        BaseTradingRecord tradingRecord = new BaseTradingRecord();
+        tradingRecord.operate(0);
+        tradingRecord.operate(1);
+        tradingRecord.operate(3);
+        tradingRecord.operate(4);
+
+        PerformanceTracker tracker = new PerformanceTracker(series, tradingRecord);
+        tradingRecord.addListener(tracker);
+        tradingRecord.operate(5);
+        tradingRecord.operate(6);
+
+        assertEquals(3, tracker.getTradeCount());
+        assertSameAsCriteria(series, tradingRecord, tracker);
+    }
+
+    private void assertSameAsCriteria(TimeSeries series, TradingRecord tradingRecord, PerformanceTracker tracker) {
+        assertEquals(tradingRecord.getTradeCount(), tracker.getTradeCount());
+        assertEquals(totalProfit.calculate(series, tradingRecord), tracker.getTotalProfit(), TA_OFFSET);
+        assertEquals(averageProfit.calculate(series, tradingRecord), tracker.getAverageProfit(), TA_OFFSET);
+        assertEquals(numberOfBars.calculate(series, tradingRecord), tracker.getNumberOfBars(), TA_OFFSET);
+        assertEquals(maximumDrawdown.calculate(series, tradingRecord), tracker.getMaximumDrawdown(), TA_OFFSET);
+        if (tradingRecord.getTradeCount() > 0) {
+            assertEquals(profitableTrades.calculate(series, tradingRecord), tracker.getAverageProfitableTrades(), TA_OFFSET);
+        }
+    }
+}
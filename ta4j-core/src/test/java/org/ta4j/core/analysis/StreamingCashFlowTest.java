@@ -0,0 +1,108 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.analysis;
+
+import org.junit.Test;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Order;
+import org.ta4j.core.Trade;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.analysis.criteria.MaximumDrawdownCriterion;
+import org.ta4j.core.indicators.UlcerIndexIndicator;
+import org.ta4j.core.mocks.MockTimeSeries;
+
+import static org.junit.Assert.assertEquals;
+import static org.ta4j.core.TATestsUtils.TA_OFFSET;
+
+public class StreamingCashFlowTest {
+
+    @Test
+    public void noTrades() {
+        TimeSeries series = new MockTimeSeries(3d, 2d, 5d, 4d);
+        StreamingCashFlow cashFlow = new StreamingCashFlow(series, new BaseTradingRecord());
+
+        assertEquals(3, cashFlow.getLastIndex());
+        assertEquals(1d, cashFlow.getEquity(), TA_OFFSET);
+        assertEquals(0d, cashFlow.getMaximumDrawdown(), TA_OFFSET);
+        assertEquals(0d, cashFlow.getUlcerIndex(), TA_OFFSET);
+    }
+
+    @Test
+    public void sameEquityAsCashFlow() {
+        TimeSeries series = new MockTimeSeries(2, 1, 3, 5, 6, 3, 20);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, series), Order.sellAt(1, series),
+                Order.buyAt(3, series), Order.sellAt(4, series),
+                Order.sellAt(5, series), Order.buyAt(6, series));
+
+        StreamingCashFlow streamingCashFlow = new StreamingCashFlow(series);
+        CashFlow cashFlow = new CashFlow(series, tradingRecord);
+        for (Trade trade : tradingRecord.getTrades()) {
+            streamingCashFlow.addTrade(trade);
+            int exitIndex = trade.getExit().getIndex();
+            assertEquals(exitIndex, streamingCashFlow.getLastIndex());
+            assertEquals(cashFlow.getValue(exitIndex).doubleValue(), streamingCashFlow.getEquity(), TA_OFFSET);
+        }
+        assertEquals(.91, streamingCashFlow.getMaximumDrawdown(), TA_OFFSET);
+        assertEquals(0.09, streamingCashFlow.getEquity(), TA_OFFSET);
+        assertEquals(1, streamingCashFlow.getPeak(), TA_OFFSET);
+    }
+
+    @Test
+    public void sameMaximumDrawdownAsCriterion() {
+        TimeSeries series = new MockTimeSeries(1, 10, 5, 6, 1, 4, 2, 8);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, series), Order.sellAt(1, series),
+                Order.buyAt(1, series), Order.sellAt(2, series),
+                Order.buyAt(3, series), Order.sellAt(4, series),
+                Order.buyAt(5, series), Order.sellAt(7, series));
+
+        StreamingCashFlow cashFlow = new StreamingCashFlow(series, tradingRecord);
+
+        assertEquals(new MaximumDrawdownCriterion().calculate(series, tradingRecord), cashFlow.getMaximumDrawdown(), TA_OFFSET);
+    }
+
+    @Test
+    public void ulcerIndex() {
+        TimeSeries series = new MockTimeSeries(1, 2, 4, 3, 1, 2, 4, 3);
+        TradingRecord tradingRecord = new BaseTradingRecord(
+                Order.buyAt(0, series), Order.sellAt(4, series),
+                Order.buyAt(5, series), Order.sellAt(6, series));
+
+        StreamingCashFlow streamingCashFlow = new StreamingCashFlow(series, tradingRecord);
+        CashFlow cashFlow = new CashFlow(series, tradingRecord);
+        UlcerIndexIndicator ulcerIndex = new UlcerIndexIndicator(cashFlow, series.getBarCount());
+
+        assertEquals(7, streamingCashFlow.getLastIndex());
+        assertEquals(ulcerIndex.getValue(7).doubleValue(), streamingCashFlow.getUlcerIndex(), TA_OFFSET);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openTrade() {
+        TimeSeries series = new MockTimeSeries(1, 2);
+        Trade trade = new Trade();
+        trade.operate(0);
+        new StreamingCashFlow(series).addTrade(trade);
+    }
+}
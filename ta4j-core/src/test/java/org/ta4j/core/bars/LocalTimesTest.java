@@ -0,0 +1,79 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.IsoFields;
+
+import static org.junit.Assert.assertEquals;
+
+public class LocalTimesTest {
+
+    @Test
+    public void localTimesLikeZonedDateTimes() {
+        for (String zone : new String[] { "UTC", "Europe/Paris", "America/New_York", "Australia/Sydney", "+05:30" }) {
+            LocalTimes localTimes = new LocalTimes(ZoneId.of(zone));
+            // Every 7 hours and 13 minutes, over the DST changes of several years
+            ZonedDateTime time = ZonedDateTime.of(1998, 12, 25, 0, 0, 0, 0, ZoneId.of(zone));
+            for (int i = 0; i < 10000; i++) {
+                long localEpochMilli = localTimes.toLocalEpochMilli(time.toInstant().toEpochMilli());
+                LocalDateTime localTime = time.toLocalDateTime();
+                assertEquals(localTime.toInstant(ZoneOffset.UTC).toEpochMilli(), localEpochMilli);
+                assertEquals(localTime.toLocalDate().toEpochDay(), LocalTimes.epochDay(localEpochMilli));
+                assertEquals(localTime.getYear(), LocalTimes.year(localEpochMilli));
+                assertEquals((localTime.getYear() - 1970) * 12 + localTime.getMonthValue() - 1,
+                        LocalTimes.epochMonth(localEpochMilli));
+                time = time.plus(Duration.ofMinutes(7 * 60 + 13));
+            }
+        }
+    }
+
+    @Test
+    public void epochWeeks() {
+        LocalDateTime monday = LocalDateTime.of(2017, 12, 25, 0, 0);
+        long mondayMillis = monday.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long week = LocalTimes.epochWeek(mondayMillis);
+        assertEquals(week - 1, LocalTimes.epochWeek(mondayMillis - 1));
+        assertEquals(week, LocalTimes.epochWeek(mondayMillis + Duration.ofDays(7).toMillis() - 1));
+        assertEquals(week + 1, LocalTimes.epochWeek(mondayMillis + Duration.ofDays(7).toMillis()));
+        // Same ISO weeks as java.time, across the year change
+        for (int day = 0; day < 30; day++) {
+            LocalDateTime time = monday.plusDays(day);
+            assertEquals(time.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) == monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR),
+                    LocalTimes.epochWeek(time.toInstant(ZoneOffset.UTC).toEpochMilli()) == week);
+        }
+        assertEquals(0, LocalTimes.epochWeek(0));
+        assertEquals(-1, LocalTimes.epochWeek(-Duration.ofDays(4).toMillis()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullZone() {
+        new LocalTimes(null);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
+
+public class TimeSeriesResamplerTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2018, 1, 1, 0, 0, 0, 0, ZoneId.of("Europe/Paris"));
+
+    private TimeSeries series;
+
+    @Before
+    public void setUp() {
+        series = new BaseTimeSeries("hourly");
+    }
+
+    @Test
+    public void dailyBarsFromHourlyBars() {
+        // 2018-01-01 01:00 to 2018-01-03 00:00: two complete days
+        addHourlyBars(48);
+        TimeSeriesResampler resampler = new TimeSeriesResampler(series, Duration.ofDays(1));
+        TimeSeries daily = resampler.getResampledSeries();
+
+        assertEquals(2, daily.getBarCount());
+        assertNull(resampler.getCurrentBar());
+        Bar firstDay = daily.getBar(0);
+        assertEquals(START.plusDays(1), firstDay.getEndTime());
+        assertEquals(Duration.ofDays(1), firstDay.getTimePeriod());
+        assertDecimalEquals(firstDay.getOpenPrice(), 1);
+        assertDecimalEquals(firstDay.getClosePrice(), 24);
+        assertDecimalEquals(firstDay.getMaxPrice(), 25);
+        assertDecimalEquals(firstDay.getMinPrice(), 0);
+        assertDecimalEquals(firstDay.getVolume(), 24 * 10);
+
+        assertEquals(-1, resampler.getResampledIndex(0));
+        assertEquals(-1, resampler.getResampledIndex(22));
+        assertEquals(0, resampler.getResampledIndex(23));
+        assertEquals(0, resampler.getResampledIndex(46));
+        assertEquals(1, resampler.getResampledIndex(47));
+    }
+
+    @Test
+    public void incrementalUpdateWithCurrentBar() {
+        addHourlyBars(30);
+        TimeSeriesResampler resampler = new TimeSeriesResampler(series, Duration.ofHours(4));
+        assertEquals(7, resampler.getResampledSeries().getBarCount());
+        Bar current = resampler.getCurrentBar();
+        assertNotNull(current);
+        assertEquals(START.plusHours(32), current.getEndTime());
+        assertDecimalEquals(current.getOpenPrice(), 29);
+        assertDecimalEquals(current.getClosePrice(), 30);
+
+        addHourlyBars(2);
+        // Not updated yet
+        assertEquals(7, resampler.getResampledSeries().getBarCount());
+        // Updated when a new base index is read
+        assertEquals(7, resampler.getResampledIndex(31));
+        assertEquals(8, resampler.getResampledSeries().getBarCount());
+        assertNull(resampler.getCurrentBar());
+    }
+
+    @Test
+    public void weeklyBarsBeginOnMonday() {
+        addHourlyBars(24 * 10);
+        TimeSeriesResampler resampler = new TimeSeriesResampler(series, Duration.ofDays(7));
+        TimeSeries weekly = resampler.getResampledSeries();
+        assertEquals(1, weekly.getBarCount());
+        assertEquals(DayOfWeek.MONDAY, weekly.getBar(0).getEndTime().getDayOfWeek());
+        assertEquals(START.plusDays(7), weekly.getBar(0).getEndTime());
+        assertEquals(START.plusDays(14), resampler.getCurrentBar().getEndTime());
+    }
+
+    @Test
+    public void liveBaseSeriesWithMaximumBarCount() {
+        series.setMaximumBarCount(100);
+        TimeSeriesResampler resampler = new TimeSeriesResampler(series, Duration.ofHours(4));
+        for (int i = 0; i < 100; i++) {
+            addHourlyBars(100);
+            resampler.update();
+        }
+        // 10000 base bars processed, the indexes of the removed ones dropped
+        assertTrue(resampler.getCompletedIndexCapacity() <= 1024);
+        assertEquals(2499, resampler.getResampledIndex(9999));
+        assertEquals(2474, resampler.getResampledIndex(9900));
+        try {
+            resampler.getResampledIndex(100);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // Base bar removed long ago
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidTimePeriod() {
+        new TimeSeriesResampler(series, Duration.ZERO);
+    }
+
+    /**
+     * Adds hourly bars: the close price of the i-th bar (from 1) is i.
+     * @param count the number of bars to add
+     */
+    private void addHourlyBars(int count) {
+        int first = series.getEndIndex() + 2;
+        for (int i = first; i < first + count; i++) {
+            series.addBar(new BaseBar(Duration.ofHours(1), START.plusHours(i), Decimal.valueOf(i), Decimal.valueOf(i + 1),
+                    Decimal.valueOf(i - 1), Decimal.valueOf(i), Decimal.TEN));
+        }
+    }
+}
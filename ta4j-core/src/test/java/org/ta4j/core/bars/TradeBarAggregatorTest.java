@@ -0,0 +1,230 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.bars;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
+
+public class TradeBarAggregatorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private List<Bar> bars;
+
+    @Before
+    public void setUp() {
+        bars = new ArrayList<>();
+    }
+
+    @Test
+    public void timeBarsLikeAddTrade() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.time(Duration.ofSeconds(60)), ZONE);
+        add(aggregator, 0, 3, 200);
+        add(aggregator, 10000, 4, 201);
+        add(aggregator, 59999, 2, 198);
+        add(aggregator, 60000, 1, 199);
+        flush(aggregator);
+
+        assertEquals(2, bars.size());
+        Bar expected = new BaseBar(Duration.ofSeconds(60), time(60000));
+        expected.addTrade(3.0, 200.0);
+        expected.addTrade(4.0, 201.0);
+        expected.addTrade(2.0, 198.0);
+        Bar bar = bars.get(0);
+        assertEquals(expected.getBeginTime(), bar.getBeginTime());
+        assertEquals(expected.getEndTime(), bar.getEndTime());
+        assertEquals(expected.getTrades(), bar.getTrades());
+        assertEquals(expected.getOpenPrice(), bar.getOpenPrice());
+        assertEquals(expected.getMaxPrice(), bar.getMaxPrice());
+        assertEquals(expected.getMinPrice(), bar.getMinPrice());
+        assertEquals(expected.getClosePrice(), bar.getClosePrice());
+        assertEquals(expected.getVolume(), bar.getVolume());
+        assertEquals(expected.getAmount(), bar.getAmount());
+
+        assertEquals(time(120000), bars.get(1).getEndTime());
+        assertEquals(1, bars.get(1).getTrades());
+    }
+
+    @Test
+    public void timeBarsSkipPeriodsWithoutTrades() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.time(Duration.ofSeconds(60)), ZONE);
+        add(aggregator, 5000, 1, 10);
+        add(aggregator, 5000 + 60000 * 3 + 1, 1, 11);
+        flush(aggregator);
+
+        assertEquals(2, bars.size());
+        assertEquals(time(65000), bars.get(0).getEndTime());
+        assertEquals(time(65000 + 60000 * 2), bars.get(1).getBeginTime());
+        assertEquals(time(65000 + 60000 * 3), bars.get(1).getEndTime());
+    }
+
+    @Test
+    public void tickBars() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.ticks(2), ZONE);
+        add(aggregator, 1000, 1, 10);
+        add(aggregator, 2000, 1, 12);
+        assertTrue(bars.isEmpty());
+        assertEquals(2, aggregator.getPendingTrades());
+        add(aggregator, 3000, 1, 11);
+        add(aggregator, 4000, 1, 9);
+        add(aggregator, 5000, 1, 8);
+        flush(aggregator);
+
+        assertEquals(3, bars.size());
+        assertEquals(2, bars.get(0).getTrades());
+        assertEquals(time(2000), bars.get(0).getEndTime());
+        assertEquals(Duration.ofSeconds(1), bars.get(0).getTimePeriod());
+        assertDecimalEquals(bars.get(0).getClosePrice(), 12);
+        assertDecimalEquals(bars.get(1).getMinPrice(), 9);
+        assertEquals(1, bars.get(2).getTrades());
+    }
+
+    @Test
+    public void thresholdBarsIncludeTradesAtTheSameTime() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.volume(5), ZONE);
+        add(aggregator, 1000, 3, 10);
+        add(aggregator, 1000, 3, 11);
+        // Same time as the completing trade: still in the first bar
+        add(aggregator, 1000, 1, 12);
+        add(aggregator, 2000, 1, 13);
+        flush(aggregator);
+
+        assertEquals(2, bars.size());
+        assertEquals(3, bars.get(0).getTrades());
+        assertDecimalEquals(bars.get(0).getVolume(), 7);
+        assertDecimalEquals(bars.get(0).getAmount(), 30 + 33 + 12);
+        assertTrue(bars.get(1).getEndTime().isAfter(bars.get(0).getEndTime()));
+    }
+
+    @Test
+    public void amountBars() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.amount(100), ZONE);
+        add(aggregator, 1000, 5, 10);
+        add(aggregator, 2000, 5, 10);
+        add(aggregator, 3000, 1, 10);
+        flush(aggregator);
+
+        assertEquals(2, bars.size());
+        assertDecimalEquals(bars.get(0).getAmount(), 100);
+        assertDecimalEquals(bars.get(1).getAmount(), 10);
+    }
+
+    @Test
+    public void rangeBars() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.range(2), ZONE);
+        add(aggregator, 1000, 1, 10);
+        add(aggregator, 2000, 1, 11);
+        add(aggregator, 3000, 1, 9.5);
+        add(aggregator, 4000, 1, 12);
+        add(aggregator, 5000, 1, 11);
+        add(aggregator, 9000, 1, 13);
+        add(aggregator, 9500, 1, 14);
+        flush(aggregator);
+
+        assertEquals(3, bars.size());
+        assertDecimalEquals(bars.get(0).getMaxPrice(), 12);
+        assertDecimalEquals(bars.get(0).getMinPrice(), 9.5);
+        assertEquals(Duration.ofSeconds(3), bars.get(0).getTimePeriod());
+        assertEquals(2, bars.get(1).getTrades());
+        assertEquals(Duration.ofSeconds(4), bars.get(1).getTimePeriod());
+        assertEquals(1, bars.get(2).getTrades());
+    }
+
+    @Test
+    public void barsAddedToSeriesUsableWithIndicators() {
+        TimeSeries series = new BaseTimeSeries("volume bars");
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.volume(10), ZONE, series);
+        long time = 0;
+        for (int i = 1; i <= 100; i++) {
+            // Irregular times: bars of variable durations
+            time += 1000 * (i % 7 + 1);
+            aggregator.addTrade(time, 1 + i % 4, 100 + i);
+        }
+        aggregator.flush();
+
+        assertTrue(series.getBarCount() > 10);
+        for (int i = 1; i <= series.getEndIndex(); i++) {
+            assertTrue(series.getBar(i).getEndTime().isAfter(series.getBar(i - 1).getEndTime()));
+            assertTrue(series.getBar(i).getVolume().isGreaterThanOrEqual(Decimal.TEN) || i == series.getEndIndex());
+        }
+        SMAIndicator sma = new SMAIndicator(new ClosePriceIndicator(series), 3);
+        int index = series.getEndIndex();
+        Decimal expected = series.getBar(index).getClosePrice()
+                .plus(series.getBar(index - 1).getClosePrice())
+                .plus(series.getBar(index - 2).getClosePrice())
+                .dividedBy(Decimal.valueOf(3));
+        assertEquals(expected, sma.getValue(index));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreshold() {
+        BarSampling.range(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tradesOutOfOrder() {
+        TradeBarAggregator aggregator = new TradeBarAggregator(BarSampling.ticks(10), ZONE);
+        aggregator.addTrade(2000, 1, 10);
+        aggregator.addTrade(1000, 1, 10);
+    }
+
+    @Test
+    public void flushWithoutTrades() {
+        assertNull(new TradeBarAggregator(BarSampling.ticks(10), ZONE).flush());
+    }
+
+    private void add(TradeBarAggregator aggregator, long time, double volume, double price) {
+        Bar bar = aggregator.addTrade(time, volume, price);
+        if (bar != null) {
+            bars.add(bar);
+        }
+    }
+
+    private void flush(TradeBarAggregator aggregator) {
+        Bar bar = aggregator.flush();
+        if (bar != null) {
+            bars.add(bar);
+        }
+    }
+
+    private static ZonedDateTime time(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZONE);
+    }
+}
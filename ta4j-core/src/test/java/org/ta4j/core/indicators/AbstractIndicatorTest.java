@@ -24,11 +24,20 @@ package org.ta4j.core.indicators;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.TimeSeries;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.SumIndicator;
 import org.ta4j.core.mocks.MockTimeSeries;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
 
 public class AbstractIndicatorTest {
 
@@ -46,4 +55,39 @@ public class AbstractIndicatorTest {
         SMAIndicator sma = new SMAIndicator(cp, 3);
         assertEquals(series, sma.getTimeSeries());
     }
+
+    @Test
+    public void getInputs() {
+        ClosePriceIndicator cp = new ClosePriceIndicator(series);
+        assertTrue(cp.getInputs().isEmpty());
+        SMAIndicator sma = new SMAIndicator(cp, 3);
+        assertEquals(Collections.singletonList(cp), sma.getInputs());
+
+        // Inputs held by subclasses and by arrays, without duplicates
+        MACDIndicator macd = new MACDIndicator(cp, 2, 4);
+        assertEquals(2, macd.getInputs().size());
+        for (Indicator<?> ema : macd.getInputs()) {
+            assertTrue(ema instanceof EMAIndicator);
+            assertSame(cp, ema.getInputs().get(0));
+        }
+        SumIndicator sum = new SumIndicator(sma, cp, sma);
+        assertEquals(Arrays.asList(sma, cp), sum.getInputs());
+    }
+
+    @Test
+    public void declaredInputs() {
+        final ClosePriceIndicator cp = new ClosePriceIndicator(series);
+        Indicator<Decimal> indicator = new CachedIndicator<Decimal>(series) {
+            @Override
+            protected Decimal calculate(int index) {
+                return getTimeSeries().getBar(index).getClosePrice();
+            }
+
+            @Override
+            public List<Indicator<?>> getInputs() {
+                return Collections.singletonList(cp);
+            }
+        };
+        assertEquals(Collections.singletonList(cp), indicator.getInputs());
+    }
 }
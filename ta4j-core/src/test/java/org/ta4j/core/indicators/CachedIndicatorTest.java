@@ -24,17 +24,28 @@ package org.ta4j.core.indicators;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
 import org.ta4j.core.BaseStrategy;
+import org.ta4j.core.BaseTimeSeries;
 import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
 import org.ta4j.core.Strategy;
 import org.ta4j.core.TimeSeries;
 import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
 import org.ta4j.core.indicators.helpers.ConstantIndicator;
+import org.ta4j.core.mocks.MockBar;
 import org.ta4j.core.mocks.MockTimeSeries;
 import org.ta4j.core.trading.rules.OverIndicatorRule;
 import org.ta4j.core.trading.rules.UnderIndicatorRule;
 
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.*;
 import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
@@ -158,4 +169,202 @@ public class CachedIndicatorTest {
             fail(t.getMessage());
         }
     }
+
+    @Test
+    public void updateOnAddedBars() {
+        TimeSeries bulkSeries = new BaseTimeSeries();
+        TimeSeries sequentialSeries = new BaseTimeSeries();
+        List<Bar> newBars = new ArrayList<>();
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 0; i < 20000; i++) {
+            double price = 100 + 10 * Math.sin(i / 10.0);
+            newBars.add(new MockBar(time.plusMinutes(i), price));
+            sequentialSeries.addBar(newBars.get(i));
+        }
+        EMAIndicator bulkEma = new EMAIndicator(new ClosePriceIndicator(bulkSeries), 10);
+        EMAIndicator sequentialEma = new EMAIndicator(new ClosePriceIndicator(sequentialSeries), 10);
+
+        bulkSeries.addBars(newBars.subList(0, 10));
+        bulkEma.update(0, 9);
+        assertEquals(9, bulkEma.highestResultIndex);
+        // Catching up: one sweep, without deep recursion
+        bulkSeries.addBars(newBars.subList(10, 20000));
+        bulkEma.update(10, 19999);
+        assertEquals(19999, bulkEma.highestResultIndex);
+        for (int i = 0; i < 20000; i++) {
+            assertEquals(sequentialEma.getValue(i), bulkEma.getValue(i));
+        }
+    }
+
+    @Test
+    public void updateOnMovingSeriesSkipsRemovedBars() {
+        series.setMaximumBarCount(5);
+        final List<Integer> calculatedIndexes = new ArrayList<>();
+        CachedIndicator<Decimal> indicator = new CachedIndicator<Decimal>(series) {
+            @Override
+            protected Decimal calculate(int index) {
+                calculatedIndexes.add(index);
+                return getTimeSeries().getBar(index).getClosePrice();
+            }
+        };
+        indicator.update(0, series.getEndIndex());
+        assertEquals(Arrays.asList(8, 9, 10, 11, 12), calculatedIndexes);
+        indicator.update(10, 12);
+        assertEquals(5, calculatedIndexes.size());
+    }
+
+    @Test
+    public void concurrentReadsWhileAddingBars() throws InterruptedException {
+        final int barCount = 5000;
+        List<Bar> bars = new ArrayList<>();
+        for (int i = 0; i < barCount; i++) {
+            Decimal price = Decimal.valueOf(100 + (i * 7) % 13);
+            bars.add(new BaseBar(Duration.ofMinutes(1), 60000L * (i + 1), ZoneId.of("UTC"),
+                    price, price, price, price, Decimal.ONE, price, 1));
+        }
+        // Reference values, calculated by one thread
+        TimeSeries referenceSeries = new BaseTimeSeries(new ArrayList<>(bars));
+        final SMAIndicator referenceSma = new SMAIndicator(new ClosePriceIndicator(referenceSeries), 10);
+        final EMAIndicator referenceEma = new EMAIndicator(new ClosePriceIndicator(referenceSeries), 10);
+
+        final TimeSeries liveSeries = new BaseTimeSeries();
+        final SMAIndicator sma = new SMAIndicator(new ClosePriceIndicator(liveSeries), 10);
+        final EMAIndicator ema = new EMAIndicator(new ClosePriceIndicator(liveSeries), 10);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    int index;
+                    while ((index = liveSeries.getEndIndex()) < barCount - 1) {
+                        for (int i = Math.max(0, index - 20); i <= index; i++) {
+                            assertEquals(referenceSma.getValue(i), sma.getValue(i));
+                            assertEquals(referenceEma.getValue(i), ema.getValue(i));
+                        }
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        for (Bar bar : bars) {
+            liveSeries.addBar(bar);
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        for (int i = 0; i < barCount; i++) {
+            assertEquals(referenceSma.getValue(i), sma.getValue(i));
+            assertEquals(referenceEma.getValue(i), ema.getValue(i));
+        }
+    }
+
+    @Test
+    public void replacingLastBarRecalculatesLastResultOnly() {
+        TimeSeries liveSeries = new BaseTimeSeries();
+        for (int i = 0; i < 10; i++) {
+            liveSeries.addBar(new MockBar(ZonedDateTime.of(2017, 1, 1, 0, i, 0, 0, ZoneId.of("UTC")), i + 1));
+        }
+        final List<Integer> calculatedIndexes = new ArrayList<>();
+        CachedIndicator<Decimal> closePrice = new CachedIndicator<Decimal>(liveSeries) {
+            @Override
+            protected Decimal calculate(int index) {
+                calculatedIndexes.add(index);
+                return getTimeSeries().getBar(index).getClosePrice();
+            }
+        };
+        EMAIndicator ema = new EMAIndicator(closePrice, 3);
+        Decimal initialValue = ema.getValue(9);
+        assertEquals(10, calculatedIndexes.size());
+
+        // Replacing the last bar
+        calculatedIndexes.clear();
+        liveSeries.addBar(new MockBar(liveSeries.getLastBar().getEndTime(), 20), true);
+        Decimal replacedValue = ema.getValue(9);
+        assertEquals(Arrays.asList(9), calculatedIndexes);
+        assertTrue(replacedValue.isGreaterThan(initialValue));
+        assertEquals(replacedValue, ema.getValue(9));
+        assertEquals(Arrays.asList(9), calculatedIndexes);
+
+        // Updating the last bar
+        calculatedIndexes.clear();
+        liveSeries.addTrade(Decimal.ONE, Decimal.valueOf(30));
+        assertEquals(new EMAIndicator(new ClosePriceIndicator(liveSeries), 3).getValue(9), ema.getValue(9));
+        assertEquals(Arrays.asList(9), calculatedIndexes);
+    }
+
+    @Test
+    public void lastBarReplacedBeforeNewBarShouldBeRecalculated() {
+        TimeSeries liveSeries = new BaseTimeSeries();
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+        liveSeries.addBar(new MockBar(time, 1));
+        liveSeries.addBar(new MockBar(time.plusMinutes(1), 2));
+        SMAIndicator sma = new SMAIndicator(new ClosePriceIndicator(liveSeries), 2);
+        assertDecimalEquals(sma.getValue(1), 1.5);
+
+        // Last bar replaced then new bar, value at the new bar read first
+        liveSeries.addBar(new MockBar(time.plusMinutes(1), 4), true);
+        liveSeries.addBar(new MockBar(time.plusMinutes(2), 6));
+        assertDecimalEquals(sma.getValue(2), 5);
+        assertDecimalEquals(sma.getValue(1), 2.5);
+    }
+
+    @Test
+    public void statefulIndicatorAfterLastBarReplacementsAndUpdates() {
+        TimeSeries liveSeries = new BaseTimeSeries();
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < 16; i++) {
+            // Up trend
+            double close = 10 + i;
+            liveSeries.addBar(new MockBar(time.plusMinutes(i), close - 0.5, close, close + 0.25, close - 1, 0, 1, 1));
+        }
+        ParabolicSarIndicator sar = new ParabolicSarIndicator(liveSeries);
+        SMAIndicator smaOfSar = new SMAIndicator(sar, 3);
+        for (int i = 0; i <= liveSeries.getEndIndex(); i++) {
+            sar.getValue(i);
+        }
+        assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+
+        // Identical last bar
+        Bar lastBar = liveSeries.getLastBar();
+        liveSeries.addBar(new MockBar(lastBar.getEndTime(), 24.5, 25, 25.25, 24, 0, 1, 1), true);
+        assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+        liveSeries.addBar(new MockBar(lastBar.getEndTime(), 24.5, 25, 25.25, 24, 0, 1, 1), true);
+        assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+
+        // Trades on the last bar, then on a new bar (trend reversal)
+        for (double price : new double[] { 25.5, 26, 24.5 }) {
+            liveSeries.addTrade(Decimal.ONE, Decimal.valueOf(price));
+            assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+        }
+        liveSeries.addBar(new MockBar(time.plusMinutes(16), 24, 24, 24.5, 23.5, 0, 1, 1));
+        assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+        for (double price : new double[] { 18, 15, 19, 23 }) {
+            liveSeries.addTrade(Decimal.ONE, Decimal.valueOf(price));
+            assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+        }
+
+        // Replaced last bar not read before a new bar
+        liveSeries.addBar(new MockBar(time.plusMinutes(16), 24, 17, 24.5, 16, 0, 1, 1), true);
+        liveSeries.addBar(new MockBar(time.plusMinutes(17), 17, 16, 17.5, 15.5, 0, 1, 1));
+        assertValuesOfFreshIndicators(liveSeries, sar, smaOfSar);
+    }
+
+    /**
+     * Checks the values of the parabolic SAR (and of an SMA of it) at the last index against fresh indicators.
+     */
+    private static void assertValuesOfFreshIndicators(TimeSeries series, Indicator<Decimal> sar,
+            Indicator<Decimal> smaOfSar) {
+        ParabolicSarIndicator freshSar = new ParabolicSarIndicator(series);
+        SMAIndicator freshSmaOfSar = new SMAIndicator(freshSar, 3);
+        for (int i = 2; i <= series.getEndIndex(); i++) {
+            freshSar.getValue(i);
+        }
+        int endIndex = series.getEndIndex();
+        assertEquals(freshSar.getValue(endIndex), sar.getValue(endIndex));
+        assertEquals(freshSmaOfSar.getValue(endIndex), smaOfSar.getValue(endIndex));
+    }
 }
@@ -0,0 +1,163 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.ConstantIndicator;
+import org.ta4j.core.indicators.helpers.DifferenceIndicator;
+import org.ta4j.core.mocks.MockTimeSeries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
+
+public class IndicatorGraphTest {
+
+    private TimeSeries series;
+
+    private ClosePriceIndicator closePrice;
+
+    @Before
+    public void setUp() {
+        series = new MockTimeSeries(1, 2, 3, 4, 3, 4, 5, 4, 3, 3, 4, 3, 2);
+        closePrice = new ClosePriceIndicator(series);
+    }
+
+    @Test
+    public void topologicalOrderAndLevels() {
+        MACDIndicator macd = new MACDIndicator(closePrice, 2, 4);
+        SMAIndicator sma = new SMAIndicator(closePrice, 3);
+        IndicatorGraph graph = new IndicatorGraph(macd, sma);
+
+        List<Indicator<?>> indicators = graph.getIndicators();
+        assertEquals(5, indicators.size());
+        assertSame(closePrice, indicators.get(0));
+        for (Indicator<?> indicator : indicators) {
+            for (Indicator<?> input : indicator.getInputs()) {
+                assertTrue(indicators.indexOf(input) < indicators.indexOf(indicator));
+                assertTrue(graph.getDependents(input).contains(indicator));
+            }
+        }
+        assertEquals(Arrays.asList(macd.getInputs().get(0), macd.getInputs().get(1), sma),
+                graph.getDependents(closePrice));
+
+        assertEquals(0, graph.getLevel(closePrice));
+        assertEquals(1, graph.getLevel(sma));
+        assertEquals(2, graph.getLevel(macd));
+        assertEquals(-1, graph.getLevel(new SMAIndicator(closePrice, 5)));
+        List<List<Indicator<?>>> levels = graph.getLevels();
+        assertEquals(3, levels.size());
+        assertEquals(Collections.singletonList(closePrice), levels.get(0));
+        assertEquals(3, levels.get(1).size());
+        assertEquals(Collections.singletonList(macd), levels.get(2));
+    }
+
+    @Test
+    public void onlyCachedIndicatorsOfTheSeriesAreEvaluated() {
+        ConstantIndicator<Decimal> constant = new ConstantIndicator<>(Decimal.ONE);
+        ClosePriceIndicator otherClosePrice = new ClosePriceIndicator(new MockTimeSeries(1, 2, 3));
+        DifferenceIndicator difference = new DifferenceIndicator(closePrice, constant);
+        DifferenceIndicator otherDifference = new DifferenceIndicator(difference, otherClosePrice);
+        IndicatorGraph graph = new IndicatorGraph(otherDifference);
+
+        assertEquals(5, graph.getIndicators().size());
+        List<Indicator<?>> evaluated = new ArrayList<>();
+        graph.getLevels().forEach(evaluated::addAll);
+        assertEquals(Arrays.asList(closePrice, difference, otherDifference), evaluated);
+        assertSame(series, graph.getTimeSeries());
+    }
+
+    @Test
+    public void updateWithoutDeepRecursion() {
+        // Pulling the value of the last indicator would need a deep recursion
+        Indicator<Decimal> indicator = closePrice;
+        for (int i = 0; i < 20000; i++) {
+            indicator = new SMAIndicator(indicator, 1);
+        }
+        IndicatorGraph graph = new IndicatorGraph(indicator);
+        assertEquals(20001, graph.getIndicators().size());
+        assertEquals(20001, graph.getLevels().size());
+
+        graph.update(0, series.getEndIndex());
+        for (int i = 0; i <= series.getEndIndex(); i++) {
+            assertEquals(closePrice.getValue(i), indicator.getValue(i));
+        }
+    }
+
+    @Test
+    public void parallelUpdate() throws InterruptedException {
+        List<Indicator<?>> roots = new ArrayList<>();
+        for (int timeFrame = 2; timeFrame < 10; timeFrame++) {
+            roots.add(new MACDIndicator(closePrice, timeFrame, timeFrame * 2));
+            roots.add(new RSIIndicator(closePrice, timeFrame));
+        }
+        IndicatorGraph graph = new IndicatorGraph(roots);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i <= series.getEndIndex(); i++) {
+                graph.update(i, executor);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int timeFrame = 2; timeFrame < 10; timeFrame++) {
+            MACDIndicator macd = new MACDIndicator(closePrice, timeFrame, timeFrame * 2);
+            RSIIndicator rsi = new RSIIndicator(closePrice, timeFrame);
+            for (int i = 0; i <= series.getEndIndex(); i++) {
+                assertDecimalEquals((Decimal) roots.get((timeFrame - 2) * 2).getValue(i), macd.getValue(i).doubleValue());
+                assertDecimalEquals((Decimal) roots.get((timeFrame - 2) * 2 + 1).getValue(i), rsi.getValue(i).doubleValue());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cycle() {
+        final List<Indicator<?>> inputs = new ArrayList<>();
+        Indicator<Decimal> first = new SMAIndicator(closePrice, 2) {
+            @Override
+            public List<Indicator<?>> getInputs() {
+                return inputs;
+            }
+        };
+        Indicator<Decimal> second = new SMAIndicator(first, 2);
+        inputs.add(second);
+        new IndicatorGraph(second);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noRoot() {
+        new IndicatorGraph();
+    }
+}
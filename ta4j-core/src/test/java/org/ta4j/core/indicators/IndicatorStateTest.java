@@ -0,0 +1,123 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class IndicatorStateTest {
+
+    private List<Bar> bars;
+
+    @Before
+    public void setUp() {
+        bars = new ArrayList<>();
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 2, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < 300; i++) {
+            double close = 100 + 10 * Math.sin(i / 7.0) + (i * 37 % 11) / 4.0;
+            bars.add(new BaseBar(Duration.ofMinutes(1), time.plusMinutes(i), Decimal.valueOf(close - 0.5),
+                    Decimal.valueOf(close + 1.25), Decimal.valueOf(close - 1.5), Decimal.valueOf(close),
+                    Decimal.valueOf(i), Decimal.ZERO, 1));
+        }
+    }
+
+    @Test
+    public void ema() {
+        assertWarmRestart(series -> new EMAIndicator(new ClosePriceIndicator(series), 20));
+    }
+
+    @Test
+    public void rsi() {
+        assertWarmRestart(series -> {
+            RSIIndicator rsi = new RSIIndicator(new ClosePriceIndicator(series), 14);
+            return new IndicatorGraph(rsi).getIndicators().stream()
+                    .filter(indicator -> indicator instanceof MMAIndicator)
+                    .map(indicator -> (CachedIndicator<Decimal>) indicator)
+                    .findFirst().get();
+        });
+    }
+
+    @Test
+    public void kama() {
+        assertWarmRestart(series -> new KAMAIndicator(new ClosePriceIndicator(series), 10, 2, 30));
+    }
+
+    @Test
+    public void parabolicSar() {
+        assertWarmRestart(ParabolicSarIndicator::new);
+    }
+
+    @Test
+    public void restoreOnSeriesWithoutTheLastBar() {
+        TimeSeries series = series(0, 100);
+        EMAIndicator ema = new EMAIndicator(new ClosePriceIndicator(series), 5);
+        IndicatorState state = IndicatorState.of(ema, 3);
+        assertEquals(3, state.getValues().size());
+        assertEquals(ema.getValue(99), state.getValues().get(2));
+        assertEquals(-1, state.restore(new EMAIndicator(new ClosePriceIndicator(series(100, 200)), 5)));
+        assertEquals(-1, state.restore(new EMAIndicator(new ClosePriceIndicator(new BaseTimeSeries()), 5)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stateOfEmptySeries() {
+        IndicatorState.of(new EMAIndicator(new ClosePriceIndicator(new BaseTimeSeries()), 5), 1);
+    }
+
+    /**
+     * Checks that an indicator restored on a bounded series (the last bars) calculates the same values as the
+     * indicator calculated from the first bar.
+     */
+    private void assertWarmRestart(Function<TimeSeries, CachedIndicator<Decimal>> factory) {
+        CachedIndicator<Decimal> full = factory.apply(series(0, 300));
+        CachedIndicator<Decimal> saved = factory.apply(series(0, 200));
+        IndicatorState state = IndicatorState.of(saved, 5);
+
+        // The last 150 bars: the bar 199 at index 49
+        CachedIndicator<Decimal> restored = factory.apply(series(150, 300));
+        assertEquals(49, state.restore(restored));
+        for (int index = 45; index < 150; index++) {
+            assertEquals(full.getValue(index + 150), restored.getValue(index));
+        }
+    }
+
+    private TimeSeries series(int from, int to) {
+        TimeSeries series = new BaseTimeSeries();
+        series.addBars(bars.subList(from, to));
+        return series;
+    }
+}
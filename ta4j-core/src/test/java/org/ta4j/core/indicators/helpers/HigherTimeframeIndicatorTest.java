@@ -0,0 +1,79 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.indicators.helpers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.bars.TimeSeriesResampler;
+import org.ta4j.core.indicators.SMAIndicator;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.TATestsUtils.assertDecimalEquals;
+
+public class HigherTimeframeIndicatorTest {
+
+    private TimeSeries hourlySeries;
+
+    private TimeSeriesResampler resampler;
+
+    @Before
+    public void setUp() {
+        hourlySeries = new BaseTimeSeries("hourly");
+        ZonedDateTime start = ZonedDateTime.of(2018, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        for (int i = 1; i <= 24 * 3; i++) {
+            // Close price: day number (1, 2, 3)
+            Decimal price = Decimal.valueOf((i - 1) / 24 + 1);
+            hourlySeries.addBar(new BaseBar(Duration.ofHours(1), start.plusHours(i), price, price, price, price, Decimal.ONE));
+        }
+        resampler = new TimeSeriesResampler(hourlySeries, Duration.ofDays(1));
+    }
+
+    @Test
+    public void dailyIndicatorByHourlyIndex() {
+        HigherTimeframeIndicator dailySma = new HigherTimeframeIndicator(resampler,
+                new SMAIndicator(new ClosePriceIndicator(resampler.getResampledSeries()), 2));
+
+        assertTrue(dailySma.getValue(0).isNaN());
+        assertTrue(dailySma.getValue(22).isNaN());
+        // First day completed
+        assertDecimalEquals(dailySma.getValue(23), 1);
+        assertDecimalEquals(dailySma.getValue(46), 1);
+        // Second day completed
+        assertDecimalEquals(dailySma.getValue(47), 1.5);
+        assertDecimalEquals(dailySma.getValue(71), 2.5);
+        assertSame(hourlySeries, dailySma.getTimeSeries());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void indicatorOfAnotherSeries() {
+        new HigherTimeframeIndicator(resampler, new ClosePriceIndicator(hourlySeries));
+    }
+}
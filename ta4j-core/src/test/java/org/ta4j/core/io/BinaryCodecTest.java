@@ -0,0 +1,306 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.IndicatorState;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTest {
+
+    private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    @Test
+    public void decimals() throws IOException {
+        Decimal[] decimals = {
+                Decimal.ZERO, Decimal.valueOf(-12.345), Decimal.valueOf("1234567890.123456789012345678901"),
+                Decimal.valueOf(1).dividedBy(Decimal.valueOf(3)), Decimal.valueOf(Long.MIN_VALUE), Decimal.NaN, null
+        };
+        BinaryWriter writer = new BinaryWriter(bytes);
+        for (Decimal decimal : decimals) {
+            writer.writeDecimal(decimal);
+        }
+        writer.close();
+
+        BinaryReader reader = reader();
+        for (Decimal decimal : decimals) {
+            Decimal read = reader.readDecimal();
+            if (decimal == null) {
+                assertNull(read);
+            } else if (decimal.isNaN()) {
+                assertSame(Decimal.NaN, read);
+            } else {
+                assertEquals(decimal.getDelegate(), read.getDelegate());
+            }
+        }
+        assertEquals(BinaryReader.END_OF_STREAM, reader.nextType());
+    }
+
+    @Test
+    public void bars() throws IOException {
+        ZonedDateTime time = ZonedDateTime.of(2017, 10, 29, 1, 0, 0, 0, ZoneId.of("Europe/Paris"));
+        Bar bar1 = new BaseBar(Duration.ofHours(1), time, Decimal.valueOf(10), Decimal.valueOf(12.5),
+                Decimal.valueOf(9.75), Decimal.valueOf(11), Decimal.valueOf(1000), Decimal.valueOf(10500), 42);
+        Bar bar2 = new BaseBar(Duration.ofMillis(1500), time.withZoneSameInstant(ZoneId.of("UTC")).minusNanos(1));
+        Bar bar3 = new BaseBar(Duration.ofHours(1), time.plusHours(2), Decimal.valueOf(11), Decimal.valueOf(11),
+                Decimal.valueOf(11), Decimal.valueOf(11), Decimal.ZERO, Decimal.ZERO, 1);
+        // Before the epoch, with and without sub-millisecond nanoseconds
+        Bar bar4 = new BaseBar(Duration.ofDays(1), -1500, ZoneId.of("America/New_York"), Decimal.ONE, Decimal.ONE,
+                Decimal.ONE, Decimal.ONE, Decimal.ZERO, Decimal.ZERO, 0);
+        Bar bar5 = new BaseBar(Duration.ofNanos(1), ZonedDateTime.of(1969, 12, 31, 23, 59, 59, 999000001,
+                ZoneId.of("UTC")));
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeBar(bar1);
+        writer.writeBar(bar2);
+        writer.writeBar(bar3);
+        writer.writeBar(bar4);
+        writer.writeBar(bar5);
+        writer.close();
+
+        BinaryReader reader = reader();
+        assertBarEquals(bar1, reader.readBar());
+        assertBarEquals(bar2, reader.readBar());
+        assertBarEquals(bar3, reader.readBar());
+        assertBarEquals(bar4, reader.readBar());
+        assertBarEquals(bar5, reader.readBar());
+    }
+
+    @Test
+    public void timeSeries() throws IOException {
+        TimeSeries series = series(100);
+        series.setMaximumBarCount(50);
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeTimeSeries(series);
+        writer.writeTimeSeries(new BaseTimeSeries());
+        writer.close();
+
+        BinaryReader reader = reader();
+        TimeSeries read = reader.readTimeSeries();
+        assertEquals(series.getName(), read.getName());
+        assertEquals(50, read.getMaximumBarCount());
+        assertEquals(50, read.getBarCount());
+        assertEquals(50, read.getRemovedBarsCount());
+        assertEquals(99, read.getEndIndex());
+        for (int i = 50; i < 100; i++) {
+            assertBarEquals(series.getBar(i), read.getBar(i));
+        }
+        assertTrue(reader.readTimeSeries().isEmpty());
+
+        // The read series goes on with the next indexes
+        TimeSeries nextBars = series(101);
+        read.addBar(nextBars.getBar(100));
+        assertEquals(100, read.getEndIndex());
+        assertEquals(51, read.getRemovedBarsCount());
+        assertBarEquals(nextBars.getBar(100), read.getBar(100));
+    }
+
+    @Test
+    public void tradingRecords() throws IOException {
+        TradingRecord closedRecord = new BaseTradingRecord(Order.buyAt(0, Decimal.TEN, Decimal.ONE),
+                Order.sellAt(3, Decimal.valueOf(12), Decimal.ONE), Order.sellAt(5, Decimal.valueOf(13), Decimal.valueOf(2)),
+                Order.buyAt(8, Decimal.valueOf(11.5), Decimal.valueOf(2)));
+        TradingRecord openedRecord = new BaseTradingRecord(Order.buyAt(1, Decimal.NaN, Decimal.NaN));
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeTradingRecord(closedRecord);
+        writer.writeTradingRecord(openedRecord);
+        writer.writeTradingRecord(new BaseTradingRecord());
+        writer.writeTradingRecord(new BaseTradingRecord(Order.OrderType.SELL));
+        writer.close();
+
+        BinaryReader reader = reader();
+        TradingRecord read = reader.readTradingRecord();
+        assertEquals(closedRecord.getTrades(), read.getTrades());
+        assertTrue(read.getCurrentTrade().isNew());
+        read = reader.readTradingRecord();
+        assertEquals(0, read.getTradeCount());
+        assertEquals(openedRecord.getCurrentTrade().getEntry(), read.getCurrentTrade().getEntry());
+        read = reader.readTradingRecord();
+        assertEquals(0, read.getTradeCount());
+        assertTrue(read.getCurrentTrade().isNew());
+        assertEquals(Order.OrderType.BUY, read.getCurrentTrade().getStartingType());
+        read = reader.readTradingRecord();
+        assertTrue(read.getCurrentTrade().isNew());
+        assertEquals(Order.OrderType.SELL, read.getCurrentTrade().getStartingType());
+        read.enter(4);
+        assertTrue(read.getLastEntry().isSell());
+    }
+
+    @Test
+    public void indicators() throws IOException {
+        TimeSeries series = series(30);
+        series.setMaximumBarCount(20);
+        Indicator<Decimal> sma = new SMAIndicator(new ClosePriceIndicator(series), 5);
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeIndicator(sma);
+        writer.close();
+
+        Indicator<Decimal> read = reader().readIndicator();
+        assertTrue(read.getValue(9).isNaN());
+        for (int i = series.getRemovedBarsCount(); i <= series.getEndIndex(); i++) {
+            assertEquals(sma.getValue(i), read.getValue(i));
+        }
+    }
+
+    @Test
+    public void indicatorStates() throws IOException {
+        IndicatorState state = new IndicatorState(-1500L, Arrays.asList(Decimal.valueOf(1.5), Decimal.NaN),
+                Arrays.asList(Decimal.ONE, Decimal.valueOf(-3)));
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeIndicatorState(state);
+        writer.close();
+
+        BinaryReader reader = reader();
+        assertEquals(BinaryWriter.INDICATOR_STATE_TAG, reader.nextType());
+        IndicatorState read = reader.readIndicatorState();
+        assertEquals(-1500L, read.getEndEpochMilli());
+        assertEquals(2, read.getValues().size());
+        assertEquals(Decimal.valueOf(1.5), read.getValues().get(0));
+        assertSame(Decimal.NaN, read.getValues().get(1));
+        assertEquals(state.getVariables(), read.getVariables());
+    }
+
+    @Test
+    public void seriesIndicatorAndRecordWithMaximumBarCount() throws IOException {
+        TimeSeries series = series(60);
+        series.setMaximumBarCount(25);
+        Indicator<Decimal> sma = new SMAIndicator(new ClosePriceIndicator(series), 5);
+        TradingRecord record = new BaseTradingRecord(Order.buyAt(40, Decimal.TEN, Decimal.ONE),
+                Order.sellAt(52, Decimal.valueOf(12), Decimal.ONE), Order.buyAt(57, Decimal.valueOf(11), Decimal.ONE));
+
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeTimeSeries(series);
+        writer.writeIndicator(sma);
+        writer.writeTradingRecord(record);
+        writer.close();
+
+        BinaryReader reader = reader();
+        TimeSeries readSeries = reader.readTimeSeries();
+        Indicator<Decimal> readSma = reader.readIndicator();
+        TradingRecord readRecord = reader.readTradingRecord();
+        assertEquals(series.getRemovedBarsCount(), readSeries.getRemovedBarsCount());
+        assertEquals(series.getEndIndex(), readSeries.getEndIndex());
+        // Same indexes for the bars, the indicator values and the orders
+        for (int i = series.getRemovedBarsCount(); i <= series.getEndIndex(); i++) {
+            assertBarEquals(series.getBar(i), readSeries.getBar(i));
+            assertEquals(sma.getValue(i), readSma.getValue(i));
+        }
+        for (Order order : new Order[] { readRecord.getTrades().get(0).getEntry(),
+                readRecord.getTrades().get(0).getExit(), readRecord.getCurrentTrade().getEntry() }) {
+            assertEquals(series.getBar(order.getIndex()).getEndTime(),
+                    readSeries.getBar(order.getIndex()).getEndTime());
+        }
+        assertEquals(record.getLastEntry(), readRecord.getLastEntry());
+        // The indicators built on the read series get the same values
+        Indicator<Decimal> sma2 = new SMAIndicator(new ClosePriceIndicator(readSeries), 5);
+        assertEquals(sma.getValue(series.getEndIndex()), sma2.getValue(readSeries.getEndIndex()));
+    }
+
+    @Test
+    public void mixedStream() throws IOException {
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeTimeSeries(series(3));
+        writer.writeDecimal(Decimal.ONE);
+        writer.writeInteger(-42);
+        writer.writeString("EMA(5) é");
+        writer.writeInteger(Long.MAX_VALUE);
+        writer.close();
+
+        BinaryReader reader = reader();
+        assertEquals(BinaryWriter.TIME_SERIES_TAG, reader.nextType());
+        assertEquals(3, reader.readTimeSeries().getBarCount());
+        assertEquals(BinaryWriter.DECIMAL_TAG, reader.nextType());
+        assertEquals(Decimal.ONE, reader.readDecimal());
+        assertEquals(BinaryWriter.INTEGER_TAG, reader.nextType());
+        assertEquals(-42, reader.readInteger());
+        assertEquals(BinaryWriter.STRING_TAG, reader.nextType());
+        assertEquals("EMA(5) é", reader.readString());
+        assertEquals(Long.MAX_VALUE, reader.readInteger());
+        assertEquals(BinaryReader.END_OF_STREAM, reader.nextType());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void unexpectedType() throws IOException {
+        BinaryWriter writer = new BinaryWriter(bytes);
+        writer.writeDecimal(Decimal.ONE);
+        writer.close();
+        reader().readBar();
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void invalidStream() throws IOException {
+        new BinaryReader(new ByteArrayInputStream(new byte[] { 'C', 'A', 'F', 'E', 1 }));
+    }
+
+    private BinaryReader reader() throws IOException {
+        return new BinaryReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static TimeSeries series(int barCount) {
+        TimeSeries series = new BaseTimeSeries("Binary series");
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 2, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < barCount; i++) {
+            Decimal price = Decimal.valueOf(100 + i % 7).multipliedBy(Decimal.valueOf(1.01));
+            series.addBar(new BaseBar(Duration.ofMinutes(1), time.plusMinutes(i), price, price.plus(Decimal.ONE),
+                    price.minus(Decimal.ONE), price, Decimal.valueOf(i), price.multipliedBy(Decimal.valueOf(i)), i));
+        }
+        return series;
+    }
+
+    private static void assertBarEquals(Bar expected, Bar actual) {
+        assertEquals(expected.getTimePeriod(), actual.getTimePeriod());
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        assertEquals(expected.getOpenPrice(), actual.getOpenPrice());
+        assertEquals(expected.getMaxPrice(), actual.getMaxPrice());
+        assertEquals(expected.getMinPrice(), actual.getMinPrice());
+        assertEquals(expected.getClosePrice(), actual.getClosePrice());
+        assertEquals(expected.getVolume(), actual.getVolume());
+        assertEquals(expected.getAmount(), actual.getAmount());
+        assertEquals(expected.getTrades(), actual.getTrades());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.TradingRecord;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void journalAndRecover() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        TradingRecord expected;
+        try (OrderJournal journal = new OrderJournal(file)) {
+            BaseTradingRecord tradingRecord = journal.recoverTradingRecord();
+            assertEquals(0, tradingRecord.getTradeCount());
+            tradingRecord.enter(1, Decimal.valueOf(10.25), Decimal.ONE);
+            tradingRecord.exit(4, Decimal.valueOf("12.123456789012345678901"), Decimal.ONE);
+            tradingRecord.operate(7);
+            tradingRecord.exit(9, Decimal.valueOf(-3), Decimal.valueOf(1e-130));
+            tradingRecord.enter(12, Decimal.valueOf(11), Decimal.valueOf(2));
+            assertEquals(5, journal.getOrderCount());
+            expected = tradingRecord;
+        }
+
+        List<Order> orders = OrderJournal.read(file);
+        assertEquals(5, orders.size());
+        assertEquals(Order.buyAt(1, Decimal.valueOf(10.25), Decimal.ONE), orders.get(0));
+        assertEquals(Decimal.valueOf("12.1234567890123457"), orders.get(1).getPrice());
+        assertTrue(orders.get(2).getPrice().isNaN());
+        assertTrue(orders.get(2).getAmount().isNaN());
+        assertTrue(orders.get(3).getAmount().isZero());
+
+        BaseTradingRecord recovered = OrderJournal.recover(file);
+        assertEquals(2, recovered.getTradeCount());
+        assertEquals(expected.getTrades().get(0).getEntry(), recovered.getTrades().get(0).getEntry());
+        assertEquals(expected.getCurrentTrade().getEntry(), recovered.getCurrentTrade().getEntry());
+    }
+
+    @Test
+    public void appendAfterReopening() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        // Small regions: the records are mapped in many regions
+        try (OrderJournal journal = new OrderJournal(file, 4 * OrderJournal.RECORD_SIZE, 1, 2)) {
+            BaseTradingRecord tradingRecord = journal.recoverTradingRecord();
+            for (int i = 0; i < 25; i++) {
+                tradingRecord.operate(i, Decimal.valueOf(i), Decimal.ONE);
+            }
+        }
+        try (OrderJournal journal = new OrderJournal(file, 4 * OrderJournal.RECORD_SIZE, 0, 0)) {
+            assertEquals(25, journal.getOrderCount());
+            BaseTradingRecord tradingRecord = journal.recoverTradingRecord();
+            assertEquals(12, tradingRecord.getTradeCount());
+            assertTrue(tradingRecord.getCurrentTrade().isOpened());
+            tradingRecord.operate(30, Decimal.valueOf(30), Decimal.ONE);
+            journal.flush();
+            assertEquals(26, journal.getFlushedCount());
+        }
+        BaseTradingRecord recovered = OrderJournal.recover(file);
+        assertEquals(13, recovered.getTradeCount());
+        assertEquals(30, recovered.getLastExit().getIndex());
+    }
+
+    @Test
+    public void incompleteLastRecord() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file)) {
+            journal.append(Order.buyAt(0, Decimal.ONE, Decimal.ONE));
+            journal.append(Order.sellAt(1, Decimal.TEN, Decimal.ONE));
+        }
+        // Crash while writing the second record
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(2 * OrderJournal.RECORD_SIZE + 10);
+            raf.write(0x7F);
+        }
+        assertEquals(1, OrderJournal.read(file).size());
+
+        // The incomplete record is replaced by the next one
+        try (OrderJournal journal = new OrderJournal(file)) {
+            assertEquals(1, journal.getOrderCount());
+            journal.recoverTradingRecord().exit(2, Decimal.TEN, Decimal.ONE);
+        }
+        List<Order> orders = OrderJournal.read(file);
+        assertEquals(2, orders.size());
+        assertEquals(2, orders.get(1).getIndex());
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void notAJournal() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.file");
+        Files.write(file, new byte[64]);
+        OrderJournal.read(file);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void appendToClosedJournal() throws IOException {
+        OrderJournal journal = new OrderJournal(folder.getRoot().toPath().resolve("orders.journal"));
+        journal.close();
+        journal.append(Order.buyAt(0, Decimal.ONE, Decimal.ONE));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.ParabolicSarIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StrategySnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private List<Bar> bars;
+
+    @Before
+    public void setUp() {
+        bars = new ArrayList<>();
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 2, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < 300; i++) {
+            double close = 100 + 10 * Math.sin(i / 9.0) + (i * 13 % 7) / 3.0;
+            bars.add(new BaseBar(Duration.ofMinutes(1), time.plusMinutes(i), Decimal.valueOf(close),
+                    Decimal.valueOf(close + 1), Decimal.valueOf(close - 1), Decimal.valueOf(close),
+                    Decimal.valueOf(i), Decimal.ZERO, 1));
+        }
+    }
+
+    @Test
+    public void warmRestart() throws IOException {
+        TimeSeries savedSeries = series(0, 200);
+        TradingRecord tradingRecord = new BaseTradingRecord(Order.buyAt(20, Decimal.TEN, Decimal.ONE),
+                Order.sellAt(120, Decimal.valueOf(12), Decimal.ONE), Order.buyAt(190, Decimal.valueOf(11), Decimal.ONE));
+        StrategySnapshot snapshot = StrategySnapshot.of(tradingRecord, indicators(savedSeries));
+        assertEquals(4, snapshot.getIndicatorStates().size()); // 2 EMAs, 2 MMAs of the RSI
+        assertEquals(199, snapshot.getEndIndex());
+
+        Path file = folder.getRoot().toPath().resolve("strategy.snapshot");
+        snapshot.write(file);
+        snapshot.write(file); // replaced
+        StrategySnapshot read = StrategySnapshot.read(file);
+        assertEquals(snapshot.getLastBar().getEndTime(), read.getLastBar().getEndTime());
+        assertEquals(199, read.getEndIndex());
+        assertEquals(tradingRecord.getTrades(), read.getTradingRecord().getTrades());
+        assertEquals(4, read.getIndicatorStates().size());
+        assertEquals(snapshot.getIndicatorFingerprints(), read.getIndicatorFingerprints());
+
+        // Restart on the last 100 bars: the bar 199 at index 99
+        TimeSeries fullSeries = series(0, 300);
+        TimeSeries restartSeries = series(100, 300);
+        Indicator<?>[] fullIndicators = indicators(fullSeries);
+        Indicator<?>[] restartIndicators = indicators(restartSeries);
+        TradingRecord restoredRecord = read.restore(restartIndicators);
+
+        assertEquals(1, restoredRecord.getTradeCount());
+        assertEquals(-80, restoredRecord.getLastTrade().getEntry().getIndex());
+        assertEquals(20, restoredRecord.getLastTrade().getExit().getIndex());
+        assertTrue(restoredRecord.getCurrentTrade().isOpened());
+        assertEquals(90, restoredRecord.getCurrentTrade().getEntry().getIndex());
+        for (int i = 0; i < fullIndicators.length; i++) {
+            for (int index = 100; index < 200; index++) {
+                assertEquals(fullIndicators[i].getValue(index + 100), restartIndicators[i].getValue(index));
+            }
+        }
+    }
+
+    @Test
+    public void emptyTradingRecord() throws IOException {
+        StrategySnapshot snapshot = StrategySnapshot.of(new BaseTradingRecord(), 1,
+                new ParabolicSarIndicator(series(0, 50)));
+        assertEquals(1, snapshot.getIndicatorStates().size());
+        Path file = folder.getRoot().toPath().resolve("psar.snapshot");
+        snapshot.write(file);
+        TradingRecord restored = StrategySnapshot.read(file).restore(new ParabolicSarIndicator(series(40, 60)));
+        assertEquals(0, restored.getTradeCount());
+        assertTrue(restored.getCurrentTrade().isNew());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restoreOnSeriesWithoutTheLastBar() {
+        StrategySnapshot snapshot = StrategySnapshot.of(new BaseTradingRecord(), indicators(series(0, 200)));
+        snapshot.restore(indicators(series(200, 300)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void restoreOnOtherIndicators() {
+        StrategySnapshot snapshot = StrategySnapshot.of(new BaseTradingRecord(), indicators(series(0, 200)));
+        snapshot.restore(new EMAIndicator(new ClosePriceIndicator(series(100, 300)), 5));
+    }
+
+    @Test
+    public void restoreOnIndicatorsWithOtherParameters() {
+        StrategySnapshot snapshot = StrategySnapshot.of(new BaseTradingRecord(), indicators(series(0, 200)));
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series(100, 300));
+        // Same number of recursive indicators, but EMA(5) instead of EMA(20)
+        try {
+            snapshot.restore(new EMAIndicator(closePrice, 5), new EMAIndicator(closePrice, 5),
+                    new RSIIndicator(closePrice, 14));
+            fail("Restored on other indicators");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("timeFrame=20"));
+        }
+    }
+
+    @Test
+    public void fingerprint() {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series(0, 10));
+        String fingerprint = StrategySnapshot.fingerprint(new EMAIndicator(closePrice, 5));
+        assertTrue(fingerprint.startsWith(EMAIndicator.class.getName() + "("));
+        assertTrue(fingerprint.contains("indicator=ClosePriceIndicator"));
+        assertTrue(fingerprint.contains("timeFrame=5"));
+        assertEquals(fingerprint, StrategySnapshot.fingerprint(new EMAIndicator(closePrice, 5)));
+        assertNotEquals(fingerprint, StrategySnapshot.fingerprint(new EMAIndicator(closePrice, 6)));
+        assertNotEquals(StrategySnapshot.fingerprint(new ParabolicSarIndicator(series(0, 10))),
+                StrategySnapshot.fingerprint(new ParabolicSarIndicator(series(0, 10), Decimal.valueOf(0.03),
+                        Decimal.valueOf(0.2))));
+    }
+
+    private static Indicator<?>[] indicators(TimeSeries series) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        return new Indicator<?>[] {
+                new EMAIndicator(closePrice, 5), new EMAIndicator(closePrice, 20), new RSIIndicator(closePrice, 14),
+                new SMAIndicator(closePrice, 10)
+        };
+    }
+
+    private TimeSeries series(int from, int to) {
+        TimeSeries series = new BaseTimeSeries();
+        series.addBars(bars.subList(from, to));
+        return series;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class EventPublisherTest {
+
+    @Test
+    public void eventsAreDeliveredOnDemand() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        assertNotNull(subscriber.subscription);
+        assertEquals(1, publisher.getSubscriberCount());
+
+        assertTrue(publisher.publish(1));
+        assertTrue(publisher.publish(2));
+        assertTrue(publisher.publish(3));
+        assertTrue(subscriber.batches.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList(Collections.singletonList(1), Collections.singletonList(2)), subscriber.batches);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        publisher.publish(4);
+        assertEquals(4, subscriber.batches.size());
+        assertEquals(Collections.singletonList(4), subscriber.batches.get(3));
+
+        publisher.close();
+        assertTrue(subscriber.completed);
+        assertNull(subscriber.error);
+        assertFalse(publisher.hasSubscribers());
+        assertFalse(publisher.publish(5));
+    }
+
+    @Test
+    public void eventsAreBatched() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run, 64, 4);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(i);
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 2, 3), Arrays.asList(4, 5, 6, 7), Arrays.asList(8, 9)),
+                subscriber.batches);
+    }
+
+    @Test
+    public void slowSubscriberDoesNotStallThePublisher() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run, 4, 1);
+        TestSubscriber slow = new TestSubscriber(0);
+        TestSubscriber fast = new TestSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+        for (int i = 0; i < 10; i++) {
+            // Dropped for the slow subscriber once its buffer is full
+            assertEquals(i < 4, publisher.publish(i));
+        }
+        assertEquals(6, publisher.getDroppedCount());
+        assertEquals(10, fast.batches.size());
+
+        slow.subscription.request(10);
+        assertEquals(Arrays.asList(Collections.singletonList(0), Collections.singletonList(1),
+                Collections.singletonList(2), Collections.singletonList(3)), slow.batches);
+    }
+
+    @Test
+    public void bufferedEventsAreDeliveredBeforeCompletion() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        publisher.publish(1);
+        publisher.closeExceptionally(new IllegalStateException("Feed lost"));
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.batches.size());
+        assertEquals("Feed lost", subscriber.error.getMessage());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void subscriberOfClosedPublisherIsCompleted() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        publisher.close();
+        TestSubscriber subscriber = new TestSubscriber(1);
+        publisher.subscribe(subscriber);
+        assertNotNull(subscriber.subscription);
+        assertTrue(subscriber.completed);
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    public void invalidRequest() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertFalse(publisher.hasSubscribers());
+        publisher.publish(1);
+        assertTrue(subscriber.batches.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBufferCapacity() {
+        new EventPublisher<Integer>(Runnable::run, 0, 1);
+    }
+
+    @Test
+    public void cancelledSubscription() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(subscriber);
+        publisher.publish(1);
+        subscriber.subscription.cancel();
+        publisher.publish(2);
+        assertEquals(1, subscriber.batches.size());
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    public void failingSubscriberIsCancelled() {
+        EventPublisher<Integer> publisher = new EventPublisher<>(Runnable::run);
+        TestSubscriber subscriber = new TestSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(List<Integer> batch) {
+                throw new IllegalStateException("Dashboard down");
+            }
+        };
+        publisher.subscribe(subscriber);
+        assertTrue(publisher.publish(1));
+        assertFalse(publisher.hasSubscribers());
+    }
+
+    @Test
+    public void concurrentPublishers() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        EventPublisher<Integer> publisher = new EventPublisher<>(executor, 1 << 16, 100);
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<Integer> events = new ArrayList<>();
+        TestSubscriber subscriber = new TestSubscriber(1) {
+            @Override
+            public void onNext(List<Integer> batch) {
+                events.addAll(batch);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        };
+        publisher.subscribe(subscriber);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t * 10000;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    assertTrue(publisher.publish(offset + i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        publisher.close();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(40000, events.size());
+        // Events of a publisher in order
+        int[] last = { -1, -1, -1, -1 };
+        for (int event : events) {
+            assertTrue(event % 10000 > last[event / 10000]);
+            last[event / 10000] = event % 10000;
+        }
+    }
+
+    private static class TestSubscriber implements Flow.Subscriber<List<Integer>> {
+
+        private final long initialRequest;
+
+        Flow.Subscription subscription;
+
+        final List<List<Integer>> batches = new ArrayList<>();
+
+        boolean completed;
+
+        Throwable error;
+
+        TestSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(List<Integer> batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
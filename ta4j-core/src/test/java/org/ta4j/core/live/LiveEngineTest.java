@@ -0,0 +1,207 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.junit.Test;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.bars.BarSampling;
+import org.ta4j.core.bars.TradeBarAggregator;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.mocks.MockBarFeed.*;
+
+public class LiveEngineTest {
+
+    @Test
+    public void symbolsAreSpreadOverShards() {
+        LiveEngine engine = new LiveEngine(3, null);
+        for (int i = 0; i < 7; i++) {
+            LiveSymbol symbol = engine.addSymbol("S" + i, new BaseTimeSeries(), strategy(new BaseTimeSeries(), 5), Decimal.ONE);
+            assertEquals(i % 3, symbol.getShard());
+        }
+        assertEquals(7, engine.getSymbols().size());
+        assertEquals("S4", engine.getSymbol("S4").getName());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateSymbol() {
+        LiveEngine engine = new LiveEngine(2, null);
+        engine.addSymbol("S", new BaseTimeSeries(), strategy(new BaseTimeSeries(), 5), Decimal.ONE);
+        engine.addSymbol("S", new BaseTimeSeries(), strategy(new BaseTimeSeries(), 5), Decimal.ONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownSymbol() {
+        new LiveEngine(1, null).offerBar("S", bar(0, 1));
+    }
+
+    @Test
+    public void sameOrdersAsSequentialRun() throws InterruptedException {
+        final int symbolCount = 20;
+        final int barCount = 500;
+        final Map<String, AtomicInteger> orderCounts = new ConcurrentHashMap<>();
+        LiveEngine engine = new LiveEngine(4, 64, (symbol, order) -> {
+            assertEquals(symbol.getTradingRecord().getLastOrder(), order);
+            orderCounts.computeIfAbsent(symbol.getName(), name -> new AtomicInteger()).incrementAndGet();
+        });
+        List<LiveSymbol> symbols = new ArrayList<>();
+        for (int s = 0; s < symbolCount; s++) {
+            TimeSeries series = new BaseTimeSeries("S" + s);
+            series.setMaximumBarCount(50);
+            symbols.add(engine.addSymbol("S" + s, series, strategy(series, 5), Decimal.ONE));
+        }
+        engine.start();
+
+        // One producer per group of symbols (the bars of a symbol are offered in order)
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            final int producer = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < barCount; i++) {
+                    for (int s = producer; s < symbolCount; s += 4) {
+                        while (!engine.offerBar(symbols.get(s), bar(i, price(s, i)))) {
+                            // Queue full
+                            Thread.yield();
+                        }
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        engine.stop();
+
+        assertFalse(engine.isRunning());
+        assertEquals(symbolCount * barCount, engine.getProcessedCount());
+        for (int s = 0; s < symbolCount; s++) {
+            TradingRecord expected = sequentialRun(s, 5, barCount, 50);
+            TradingRecord actual = symbols.get(s).getTradingRecord();
+            assertEquals(expected.getTrades(), actual.getTrades());
+            assertEquals(expected.getCurrentTrade().getEntry(), actual.getCurrentTrade().getEntry());
+            int orders = expected.getTradeCount() * 2 + (expected.getCurrentTrade().isOpened() ? 1 : 0);
+            assertTrue(orders > 0);
+            assertEquals(orders, orderCounts.get("S" + s).get());
+        }
+    }
+
+    @Test
+    public void trades() throws InterruptedException {
+        final List<Order> orders = new ArrayList<>();
+        LiveEngine engine = new LiveEngine(2, (symbol, order) -> orders.add(order));
+        TimeSeries series = new BaseTimeSeries();
+        LiveSymbol symbol = engine.addSymbol("T", series, strategy(series, 5), Decimal.ONE,
+                new TradeBarAggregator(BarSampling.time(Duration.ofMinutes(1)), UTC));
+        engine.start();
+        for (int i = 0; i < 120; i++) {
+            // 2 trades per minute
+            assertTrue(engine.offerTrade("T", 30000L * i, 1, price(0, i / 2)));
+        }
+        engine.stop();
+
+        assertEquals(120, engine.getProcessedCount());
+        // The last bar is not completed yet
+        assertEquals(59, series.getBarCount());
+        assertEquals(symbol.getTradingRecord().getTradeCount() * 2
+                + (symbol.getTradingRecord().getCurrentTrade().isOpened() ? 1 : 0), orders.size());
+    }
+
+    @Test
+    public void eventErrorsDoNotStopTheShard() throws InterruptedException {
+        LiveEngine engine = new LiveEngine(1, null);
+        TimeSeries series = new BaseTimeSeries();
+        engine.addSymbol("S", series, strategy(series, 5), Decimal.ONE);
+        engine.start();
+        engine.offerBar("S", bar(1, 10));
+        // Older bar: rejected by the series
+        engine.offerBar("S", bar(0, 10));
+        engine.offerBar("S", bar(2, 10));
+        engine.stop();
+        assertEquals(3, engine.getProcessedCount());
+        assertEquals(2, series.getBarCount());
+    }
+
+    @Test
+    public void eventsOfferedAfterStopAreRejected() throws InterruptedException {
+        LiveEngine engine = new LiveEngine(1, null);
+        TimeSeries series = new BaseTimeSeries();
+        engine.addSymbol("S", series, strategy(series, 5), Decimal.ONE);
+        engine.start();
+        assertTrue(engine.offerBar("S", bar(0, 10)));
+        engine.stop();
+        assertFalse(engine.offerBar("S", bar(1, 10)));
+        assertFalse(engine.offerTrade("S", 0, 1, 10));
+        assertEquals(1, engine.getProcessedCount());
+        assertEquals(1, series.getBarCount());
+    }
+
+    @Test
+    public void eventsQueuedWhileStoppingAreProcessed() throws InterruptedException {
+        final LiveEngine engine = new LiveEngine(2, null);
+        final List<String> names = new ArrayList<>();
+        for (int s = 0; s < 4; s++) {
+            TimeSeries series = new BaseTimeSeries();
+            engine.addSymbol("S" + s, series, strategy(series, 5), Decimal.ONE);
+            names.add("S" + s);
+        }
+        engine.start();
+        final AtomicInteger accepted = new AtomicInteger();
+        List<Thread> producers = new ArrayList<>();
+        for (final String name : names) {
+            producers.add(new Thread(() -> {
+                int i = 0;
+                while (true) {
+                    if (engine.offerBar(name, bar(i, 10))) {
+                        accepted.incrementAndGet();
+                        i++;
+                    } else if (!engine.isRunning()) {
+                        return;
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        while (engine.getProcessedCount() < 1000) {
+            Thread.yield();
+        }
+        engine.stop();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(accepted.get(), engine.getProcessedCount());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.junit.Test;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.TimeSeries;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.mocks.MockBarFeed.*;
+
+public class ReplaySimulatorTest {
+
+    @Test
+    public void eventsAreMergedInReproducibleOrder() {
+        List<String> delivered = new ArrayList<>();
+        ReplaySimulator simulator = new ReplaySimulator(ReplaySimulator.AS_FAST_AS_POSSIBLE);
+        simulator.addEvents(Arrays.asList(10L, 20L, 20L, 40L), time -> time, time -> delivered.add("A" + time));
+        simulator.addEvents(Arrays.asList(5L, 20L, 30L), time -> time, time -> delivered.add("B" + time));
+        simulator.addEvents(Collections.<Long>emptyList(), time -> time, time -> delivered.add("C" + time));
+        simulator.addEvents(Collections.singletonList(20L), time -> time, time -> delivered.add("D" + time));
+
+        assertEquals(8, simulator.run());
+        assertEquals(Arrays.asList("B5", "A10", "A20", "A20", "B20", "D20", "B30", "A40"), delivered);
+        assertTrue(simulator.isFinished());
+        assertEquals(40, simulator.getClock().millis());
+        assertEquals(0, simulator.getMaximumLagNanos());
+    }
+
+    @Test
+    public void clockIsSetBeforeEachEvent() {
+        ReplaySimulator simulator = new ReplaySimulator(ReplaySimulator.AS_FAST_AS_POSSIBLE);
+        VirtualClock clock = simulator.getClock();
+        List<Long> times = new ArrayList<>();
+        simulator.addBars(Arrays.asList(bar(0, 10), bar(1, 11), bar(2, 12)), bar -> times.add(clock.millis()));
+
+        assertEquals(2, simulator.runUntil(120000));
+        assertEquals(Arrays.asList(60000L, 120000L), times);
+        assertEquals(0, simulator.runUntil(150000));
+        assertEquals(150000, clock.millis());
+        assertEquals(150000, clock.withZone(ZoneId.of("Europe/Paris")).millis());
+        assertFalse(simulator.isFinished());
+
+        assertEquals(1, simulator.run());
+        assertEquals(180000, clock.millis());
+        assertEquals(3, simulator.getEventCount());
+    }
+
+    @Test
+    public void barsAreReplayedIntoSeries() {
+        List<Bar> recorded = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            recorded.add(bar(i, 100 + i % 10));
+        }
+        TimeSeries series = new BaseTimeSeries();
+        series.setMaximumBarCount(20);
+        ReplaySimulator simulator = new ReplaySimulator(ReplaySimulator.AS_FAST_AS_POSSIBLE);
+        simulator.addBars(recorded, series::addBar);
+        simulator.run();
+        assertEquals(20, series.getBarCount());
+        assertSame(recorded.get(99), series.getLastBar());
+    }
+
+    @Test
+    public void replayIsPacedBySpeed() {
+        ReplaySimulator simulator = new ReplaySimulator(1000);
+        // 2 minutes of bars at 1000 times the real time: 120 ms
+        simulator.addBars(Arrays.asList(bar(0, 10), bar(1, 10), bar(2, 10)), bar -> { });
+        long start = System.nanoTime();
+        simulator.run();
+        assertTrue(System.nanoTime() - start >= 120000000L);
+        assertTrue(simulator.getAverageLagNanos() <= simulator.getMaximumLagNanos());
+    }
+
+    @Test
+    public void replayContinuesAfterSinkError() {
+        List<Long> delivered = new ArrayList<>();
+        ReplaySimulator simulator = new ReplaySimulator(ReplaySimulator.AS_FAST_AS_POSSIBLE);
+        simulator.addEvents(Arrays.asList(1L, 2L, 3L), time -> time, time -> {
+            if (time == 2) {
+                throw new IllegalStateException("Sink failure");
+            }
+            delivered.add(time);
+        });
+        try {
+            simulator.run();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(2, simulator.getClock().millis());
+        }
+        simulator.run();
+        assertEquals(Arrays.asList(1L, 3L), delivered);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unorderedEvents() {
+        new ReplaySimulator(1).addEvents(Arrays.asList(2L, 1L), time -> time, time -> { });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidSpeed() {
+        new ReplaySimulator(0);
+    }
+}
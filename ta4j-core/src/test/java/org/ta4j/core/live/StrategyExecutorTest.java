@@ -0,0 +1,294 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.live;
+
+import org.junit.After;
+import org.junit.Test;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Order;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.ta4j.core.mocks.MockBarFeed.*;
+
+public class StrategyExecutorTest {
+
+    private StrategyExecutor executor = new StrategyExecutor(3);
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void sameOrdersAsSequentialRun() throws InterruptedException {
+        final int seriesCount = 10;
+        final int strategyCount = 20;
+        final int barCount = 300;
+        final AtomicInteger routedOrders = new AtomicInteger();
+        OrderRouter router = (runner, order) -> {
+            assertEquals(runner.getTradingRecord().getLastOrder(), order);
+            routedOrders.incrementAndGet();
+            return CompletableFuture.completedFuture(order);
+        };
+        List<TimeSeries> seriesList = new ArrayList<>();
+        for (int s = 0; s < seriesCount; s++) {
+            TimeSeries series = new BaseTimeSeries("S" + s);
+            seriesList.add(series);
+            for (int t = 0; t < strategyCount; t++) {
+                executor.addStrategy(series, strategy(series, 2 + t), Decimal.ONE, router);
+            }
+        }
+        assertEquals(seriesCount * strategyCount, executor.getRunners().size());
+
+        for (int i = 0; i < barCount; i++) {
+            for (int s = 0; s < seriesCount; s++) {
+                executor.addBar(seriesList.get(s), bar(i, price(s, i)));
+            }
+        }
+        assertTrue(executor.awaitIdle(30, TimeUnit.SECONDS));
+
+        int orders = 0;
+        for (int s = 0; s < seriesCount; s++) {
+            List<StrategyRunner> runners = executor.getRunners(seriesList.get(s));
+            assertEquals(strategyCount, runners.size());
+            for (int t = 0; t < strategyCount; t++) {
+                StrategyRunner runner = runners.get(t);
+                assertEquals(barCount - 1, runner.getProcessedIndex());
+                TradingRecord expected = sequentialRun(s, 2 + t, barCount, Integer.MAX_VALUE);
+                TradingRecord actual = runner.getTradingRecord();
+                assertEquals(expected.getTrades(), actual.getTrades());
+                assertEquals(expected.getCurrentTrade().getEntry(), actual.getCurrentTrade().getEntry());
+                orders += expected.getTradeCount() * 2 + (expected.getCurrentTrade().isOpened() ? 1 : 0);
+            }
+        }
+        assertTrue(orders > 0);
+        assertEquals(orders, routedOrders.get());
+    }
+
+    @Test
+    public void runnerIsSuspendedWhileRouting() throws InterruptedException {
+        final List<CompletableFuture<Order>> routings = new ArrayList<>();
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, (r, order) -> {
+            CompletableFuture<Order> routing = new CompletableFuture<>();
+            synchronized (routings) {
+                routings.add(routing);
+            }
+            return routing;
+        });
+        for (int i = 0; i < 100; i++) {
+            executor.addBar(series, bar(i, price(0, i)));
+        }
+
+        while (!executor.awaitIdle(50, TimeUnit.MILLISECONDS)) {
+            if (!runner.isSuspended()) {
+                continue;
+            }
+            // Suspended on the last order: no bar processed until the order is routed
+            Order lastOrder = runner.getTradingRecord().getLastOrder();
+            assertEquals(lastOrder.getIndex(), runner.getProcessedIndex());
+            CompletableFuture<Order> routing;
+            synchronized (routings) {
+                routing = routings.get(routings.size() - 1);
+            }
+            assertFalse(routing.isDone());
+            routing.complete(lastOrder);
+        }
+        assertFalse(runner.isSuspended());
+        assertEquals(99, runner.getProcessedIndex());
+        TradingRecord expected = sequentialRun(0, 3, 100, Integer.MAX_VALUE);
+        assertEquals(expected.getTrades(), runner.getTradingRecord().getTrades());
+        assertEquals(expected.getTradeCount() * 2 + (expected.getCurrentTrade().isOpened() ? 1 : 0), routings.size());
+    }
+
+    @Test
+    public void routingErrorsDoNotStopTheRunner() throws InterruptedException {
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner throwing = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, (r, order) -> {
+            throw new IllegalStateException("Broker unavailable");
+        });
+        StrategyRunner failing = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, (r, order) -> {
+            CompletableFuture<Order> routing = new CompletableFuture<>();
+            routing.completeExceptionally(new IllegalStateException("Order rejected"));
+            return routing;
+        });
+        for (int i = 0; i < 100; i++) {
+            executor.addBar(series, bar(i, price(0, i)));
+        }
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+
+        TradingRecord expected = sequentialRun(0, 3, 100, Integer.MAX_VALUE);
+        assertEquals(99, throwing.getProcessedIndex());
+        assertEquals(expected.getTrades(), throwing.getTradingRecord().getTrades());
+        assertEquals(99, failing.getProcessedIndex());
+        assertEquals(expected.getTrades(), failing.getTradingRecord().getTrades());
+    }
+
+    @Test
+    public void barsBeforeTheStrategyAreNotEvaluated() throws InterruptedException {
+        TimeSeries series = new BaseTimeSeries();
+        for (int i = 0; i < 10; i++) {
+            series.addBar(bar(i, price(0, i)));
+        }
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, null);
+        assertEquals(9, runner.getProcessedIndex());
+        executor.addBar(series, bar(10, price(0, 10)));
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(10, runner.getProcessedIndex());
+    }
+
+    @Test
+    public void removedStrategy() throws InterruptedException {
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, null);
+        executor.addBar(series, bar(0, 10));
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        executor.removeStrategy(runner);
+        executor.addBar(series, bar(1, 10));
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(0, runner.getProcessedIndex());
+        assertTrue(executor.getRunners(series).isEmpty());
+    }
+
+    @Test
+    public void publishedEvents() throws InterruptedException {
+        final List<BarEvent> bars = Collections.synchronizedList(new ArrayList<>());
+        final List<SignalEvent> signals = Collections.synchronizedList(new ArrayList<>());
+        final List<OrderEvent> orders = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService delivery = Executors.newSingleThreadExecutor();
+        EventPublisher<BarEvent> barPublisher = new EventPublisher<>(delivery, 1024, 16);
+        EventPublisher<SignalEvent> signalPublisher = new EventPublisher<>(delivery, 1024, 16);
+        EventPublisher<OrderEvent> orderPublisher = new EventPublisher<>(delivery, 1024, 16);
+        CountDownLatch completed = new CountDownLatch(3);
+        barPublisher.subscribe(collector(bars, completed));
+        signalPublisher.subscribe(collector(signals, completed));
+        orderPublisher.subscribe(collector(orders, completed));
+        executor.setBarPublisher(barPublisher);
+        executor.setSignalPublisher(signalPublisher);
+        executor.setOrderPublisher(orderPublisher);
+
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, null);
+        for (int i = 0; i < 100; i++) {
+            executor.addBar(series, bar(i, price(0, i)));
+        }
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        barPublisher.close();
+        signalPublisher.close();
+        orderPublisher.close();
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        delivery.shutdown();
+
+        assertEquals(100, bars.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, bars.get(i).getIndex());
+            assertSame(series.getBar(i), bars.get(i).getBar());
+        }
+        TradingRecord record = runner.getTradingRecord();
+        int orderCount = record.getTradeCount() * 2 + (record.getCurrentTrade().isOpened() ? 1 : 0);
+        assertTrue(orderCount > 0);
+        assertEquals(orderCount, signals.size());
+        assertEquals(orderCount, orders.size());
+        for (int i = 0; i < orderCount; i++) {
+            Order order = orders.get(i).getOrder();
+            assertSame(runner, orders.get(i).getRunner());
+            assertEquals(order.getIndex(), signals.get(i).getIndex());
+            assertEquals(order.getPrice(), signals.get(i).getPrice());
+            assertEquals(i % 2 == 0, signals.get(i).isEntry());
+        }
+    }
+
+    @Test
+    public void barsAddedAfterShutdown() throws InterruptedException {
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, null);
+        executor.addBar(series, bar(0, 10));
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        executor.addBar(series, bar(1, 10));
+        executor.addBar(series, bar(2, 10));
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        assertEquals(0, runner.getProcessedIndex());
+    }
+
+    @Test
+    public void orderRoutedAfterShutdown() throws InterruptedException {
+        final CompletableFuture<Order> routing = new CompletableFuture<>();
+        TimeSeries series = new BaseTimeSeries();
+        StrategyRunner runner = executor.addStrategy(series, strategy(series, 3), Decimal.ONE, (r, order) -> routing);
+        for (int i = 0; i < 100 && !runner.isSuspended(); i++) {
+            executor.addBar(series, bar(i, price(0, i)));
+            executor.awaitIdle(10, TimeUnit.MILLISECONDS);
+        }
+        assertTrue(runner.isSuspended());
+        assertFalse(executor.awaitIdle(10, TimeUnit.MILLISECONDS));
+        executor.shutdown();
+
+        routing.complete(runner.getTradingRecord().getLastOrder());
+        assertTrue(executor.awaitIdle(10, TimeUnit.SECONDS));
+        assertFalse(runner.isSuspended());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullStrategy() {
+        executor.addStrategy(new BaseTimeSeries(), null, Decimal.ONE, null);
+    }
+
+    private static <T> Flow.Subscriber<List<T>> collector(final List<T> events, final CountDownLatch completed) {
+        return new Flow.Subscriber<List<T>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<T> batch) {
+                events.addAll(batch);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                fail(throwable.getMessage());
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.ta4j.core.mocks;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseStrategy;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.BaseTradingRecord;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.trading.rules.OverIndicatorRule;
+import org.ta4j.core.trading.rules.UnderIndicatorRule;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * A mock feed of one-minute bars (UTC), with a sample strategy and its sequential run as reference for the
+ * live trading tests.
+ */
+public final class MockBarFeed {
+
+    public static final ZoneId UTC = ZoneId.of("UTC");
+
+    private MockBarFeed() {
+    }
+
+    /**
+     * @param index the index of the bar
+     * @param price the (open, high, low and close) price of the bar
+     * @return a one-minute bar ending at (index + 1) minutes after the epoch
+     */
+    public static Bar bar(int index, double price) {
+        Decimal decimal = Decimal.valueOf(price);
+        return new BaseBar(Duration.ofMinutes(1), 60000L * (index + 1), UTC,
+                decimal, decimal, decimal, decimal, Decimal.ONE, decimal, 1);
+    }
+
+    /**
+     * @param symbol the number of the symbol
+     * @param index the index of the bar
+     * @return the price of the symbol at the index (a sine wave shifted by symbol)
+     */
+    public static double price(int symbol, int index) {
+        return 100 + symbol + 10 * Math.sin((index + symbol) / 4.0);
+    }
+
+    /**
+     * @param series the series
+     * @param smaPeriod the time frame of the SMA
+     * @return a strategy entering when the SMA is over the close price, and exiting when it is under
+     */
+    public static Strategy strategy(TimeSeries series, int smaPeriod) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        SMAIndicator sma = new SMAIndicator(closePrice, smaPeriod);
+        return new BaseStrategy(new OverIndicatorRule(sma, closePrice), new UnderIndicatorRule(sma, closePrice));
+    }
+
+    /**
+     * Runs the strategy on the bars of a symbol, one bar after the other in the current thread.
+     * @param symbol the number of the symbol
+     * @param smaPeriod the time frame of the SMA of the strategy
+     * @param barCount the number of bars
+     * @param maximumBarCount the maximum bar count of the series
+     * @return the trading record of the run (one unit per order, at the close price)
+     */
+    public static TradingRecord sequentialRun(int symbol, int smaPeriod, int barCount, int maximumBarCount) {
+        TimeSeries series = new BaseTimeSeries();
+        series.setMaximumBarCount(maximumBarCount);
+        Strategy strategy = strategy(series, smaPeriod);
+        TradingRecord tradingRecord = new BaseTradingRecord();
+        for (int i = 0; i < barCount; i++) {
+            Bar bar = bar(i, price(symbol, i));
+            series.addBar(bar);
+            if (strategy.shouldOperate(i, tradingRecord)) {
+                tradingRecord.operate(i, bar.getClosePrice(), Decimal.ONE);
+            }
+        }
+        return tradingRecord;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.bots;
+
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseStrategy;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.live.OrderRouter;
+import org.ta4j.core.live.StrategyExecutor;
+import org.ta4j.core.live.StrategyRunner;
+import org.ta4j.core.trading.rules.OverIndicatorRule;
+import org.ta4j.core.trading.rules.UnderIndicatorRule;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is an example of a trading bot running 100k strategies on one JVM, using the
+ * {@link StrategyExecutor strategy executor}.
+ * <p></p>
+ * Each strategy has its own trading record and is run by a lightweight {@link StrategyRunner runner} (no thread per
+ * strategy): the runners are scheduled on a thread per core when a bar is added to their series, and suspended while
+ * their orders are routed to a simulated broker (with a latency, without blocking a thread).<br>
+ * The strategies of a symbol share its close price indicator, and have their own moving averages.
+ * Run it with enough heap for the caches of the indicators (e.g. -Xmx2g).
+ */
+public class ManyStrategiesTradingBot {
+
+    /** The number of symbols */
+    private static final int SYMBOL_COUNT = 1000;
+
+    /** The number of strategies per symbol */
+    private static final int STRATEGY_COUNT = 100;
+
+    /** The number of bars per symbol */
+    private static final int BAR_COUNT = 100;
+
+    /** The number of bars kept by the series */
+    private static final int MAXIMUM_BAR_COUNT = 20;
+
+    /** The latency of the simulated broker (milliseconds) */
+    private static final long BROKER_LATENCY = 5;
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    public static void main(String[] args) throws InterruptedException {
+        final ScheduledExecutorService broker = Executors.newSingleThreadScheduledExecutor();
+        final LongAdder orderCount = new LongAdder();
+        // Simulated broker: the order is acknowledged after the latency
+        OrderRouter router = (runner, order) -> {
+            orderCount.increment();
+            CompletableFuture<Void> routing = new CompletableFuture<>();
+            broker.schedule(() -> routing.complete(null), BROKER_LATENCY, TimeUnit.MILLISECONDS);
+            return routing;
+        };
+
+        StrategyExecutor executor = new StrategyExecutor();
+        List<TimeSeries> seriesList = new ArrayList<>();
+        for (int s = 0; s < SYMBOL_COUNT; s++) {
+            TimeSeries series = new BaseTimeSeries("S" + s);
+            series.setMaximumBarCount(MAXIMUM_BAR_COUNT);
+            seriesList.add(series);
+            ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+            for (int t = 0; t < STRATEGY_COUNT; t++) {
+                executor.addStrategy(series, buildStrategy(closePrice, 2 + t % 10), Decimal.TEN, router);
+            }
+        }
+        int strategyCount = executor.getRunners().size();
+        System.out.println(strategyCount + " strategies on " + SYMBOL_COUNT + " symbols, "
+                + Runtime.getRuntime().availableProcessors() + " cores");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BAR_COUNT; i++) {
+            // A new bar of each symbol (e.g. every minute), then waiting for all the strategies
+            for (int s = 0; s < SYMBOL_COUNT; s++) {
+                Decimal price = Decimal.valueOf(100 + 10 * Math.sin((i + s) / 8.0) + (s % 7) * Math.cos(i / 3.0));
+                executor.addBar(seriesList.get(s), new BaseBar(Duration.ofMinutes(1), 60000L * (i + 1), ZONE,
+                        price, price, price, price, Decimal.ONE, price, 1));
+            }
+            if (!executor.awaitIdle(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Strategies not evaluated on bar " + i);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf("%d bars, %d strategy evaluations in %d ms (%.0f evaluations/s)%n", BAR_COUNT,
+                (long) strategyCount * BAR_COUNT, elapsed / 1000000, strategyCount * (double) BAR_COUNT * 1e9 / elapsed);
+        System.out.println(orderCount.sum() + " orders routed with a latency of " + BROKER_LATENCY + " ms");
+        System.out.printf("Heap used: %d MB (%d bytes per strategy)%n",
+                (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024),
+                (runtime.totalMemory() - runtime.freeMemory()) / strategyCount);
+        executor.shutdown();
+        broker.shutdown();
+    }
+
+    /**
+     * @param closePrice the close price indicator (shared by the strategies of a symbol)
+     * @param smaPeriod the period of the moving average of the strategy
+     * @return a dummy strategy (same as the one of {@link TradingBotOnMovingTimeSeries})
+     */
+    private static Strategy buildStrategy(Indicator<Decimal> closePrice, int smaPeriod) {
+        SMAIndicator sma = new SMAIndicator(closePrice, smaPeriod);
+        return new BaseStrategy(new OverIndicatorRule(sma, closePrice), new UnderIndicatorRule(sma, closePrice));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.bots;
+
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.live.EventPublisher;
+import org.ta4j.core.live.Flow;
+import org.ta4j.core.live.OrderEvent;
+import org.ta4j.core.live.ReplaySimulator;
+import org.ta4j.core.live.StrategyExecutor;
+import org.ta4j.core.live.StrategyRunner;
+import org.ta4j.core.live.VirtualClock;
+import ta4jexamples.loaders.CsvTicksLoader;
+import ta4jexamples.strategies.CCICorrectionStrategy;
+import ta4jexamples.strategies.MovingMomentumStrategy;
+import ta4jexamples.strategies.RSI2Strategy;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is an example of a trading bot fed by a {@link ReplaySimulator replay} of recorded bars.
+ * <p></p>
+ * Unlike {@link TradingBotOnMovingTimeSeries} and {@link LiveTestingTimeSeries} (random or recorded bars added every
+ * 30 ms), the hourly bars of the CSV files are replayed into the live code path (a {@link StrategyExecutor strategy
+ * executor}) under a virtual clock, in a reproducible order, at a given speed. The end-to-end latency (from the
+ * delivery of a bar to the evaluation of all the strategies) and the heap are reported, e.g. to soak-test the live
+ * code for memory leaks.
+ * Run it from the root directory of the repository (where the CSV files are), with the speed as argument (e.g. 100 for
+ * 100 times the real time, as fast as possible by default).
+ */
+public class ReplayTradingBot {
+
+    /** The CSV files of the bars (one symbol per file) */
+    private static final List<String> FILES = Arrays.asList("2016_H.csv", "2017_H.csv", "2018_H.csv", "2019_H.csv",
+            "2020_H.csv");
+
+    /** The number of bars kept by the live series */
+    private static final int MAXIMUM_BAR_COUNT = 200;
+
+    /** The number of bars between two reports */
+    private static final int REPORT_INTERVAL = 5000;
+
+    public static void main(String[] args) throws InterruptedException {
+        double speed = args.length > 0 ? Double.parseDouble(args[0]) : ReplaySimulator.AS_FAST_AS_POSSIBLE;
+        final VirtualClock clock = new VirtualClock(0, ZoneOffset.UTC);
+        final ReplaySimulator simulator = new ReplaySimulator(speed, clock);
+        final StrategyExecutor executor = new StrategyExecutor();
+
+        // Orders counted by a subscriber (e.g. persistence, dashboard)
+        final LongAdder orderCount = new LongAdder();
+        EventPublisher<OrderEvent> orders = new EventPublisher<>(Runnable::run);
+        orders.subscribe(new Flow.Subscriber<List<OrderEvent>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(List<OrderEvent> batch) {
+                orderCount.add(batch.size());
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throwable.printStackTrace();
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        executor.setOrderPublisher(orders);
+
+        final long[] latencies = new long[2];
+        final Runtime runtime = Runtime.getRuntime();
+        List<TimeSeries> liveSeries = new ArrayList<>();
+        for (String file : FILES) {
+            TimeSeries recorded = CsvTicksLoader.load(file);
+            final TimeSeries live = new BaseTimeSeries(file);
+            live.setMaximumBarCount(MAXIMUM_BAR_COUNT);
+            liveSeries.add(live);
+            executor.addStrategy(live, MovingMomentumStrategy.buildStrategy(live), Decimal.TEN, null);
+            executor.addStrategy(live, RSI2Strategy.buildStrategy(live), Decimal.TEN, null);
+            executor.addStrategy(live, CCICorrectionStrategy.buildStrategy(live), Decimal.TEN, null);
+            simulator.addBars(recorded.getBarData(), bar -> {
+                long start = System.nanoTime();
+                executor.addBar(live, bar);
+                try {
+                    executor.awaitIdle(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                long latency = System.nanoTime() - start;
+                latencies[0] += latency;
+                latencies[1] = Math.max(latencies[1], latency);
+                if ((simulator.getEventCount() + 1) % REPORT_INTERVAL == 0) {
+                    System.out.printf("%s: %d bars, heap used: %d MB%n", clock.instant(),
+                            simulator.getEventCount() + 1, (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024));
+                }
+            });
+        }
+
+        System.out.println("Replay of " + FILES.size() + " symbols at " + (speed == ReplaySimulator.AS_FAST_AS_POSSIBLE
+                ? "full speed" : speed + " times the real time"));
+        long start = System.nanoTime();
+        long barCount = simulator.run();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%d bars in %d ms, %d orders%n", barCount, elapsed / 1000000, orderCount.sum());
+        System.out.printf("Latency (bar to evaluated strategies): %.1f us on average, %.1f us at most%n",
+                latencies[0] / 1000.0 / barCount, latencies[1] / 1000.0);
+        System.out.printf("Delivery lag behind the schedule: %.1f us on average, %.1f us at most%n",
+                simulator.getAverageLagNanos() / 1000, simulator.getMaximumLagNanos() / 1000.0);
+        for (TimeSeries live : liveSeries) {
+            StringBuilder trades = new StringBuilder(live.getName()).append(" trades:");
+            for (StrategyRunner runner : executor.getRunners(live)) {
+                trades.append(' ').append(runner.getTradingRecord().getTradeCount());
+            }
+            System.out.println(trades);
+        }
+        executor.shutdown();
+    }
+}
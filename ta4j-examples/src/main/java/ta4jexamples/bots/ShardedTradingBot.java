@@ -0,0 +1,137 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.bots;
+
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseStrategy;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Strategy;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.live.LiveEngine;
+import org.ta4j.core.live.LiveSymbol;
+import org.ta4j.core.trading.rules.OverIndicatorRule;
+import org.ta4j.core.trading.rules.UnderIndicatorRule;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is an example of a trading bot on many symbols, using the {@link LiveEngine live engine}.
+ * <p></p>
+ * Unlike {@link TradingBotOnMovingTimeSeries} (one series and one strategy in a loop), the symbols are spread over
+ * shards: each shard owns its symbols and updates them on its own thread, fed by lock-free queues. The same bars are
+ * processed with 1, 2, 4... shards (up to the number of cores), to measure the throughput.
+ */
+public class ShardedTradingBot {
+
+    /** The number of symbols */
+    private static final int SYMBOL_COUNT = 2000;
+
+    /** The number of bars per symbol */
+    private static final int BAR_COUNT = 300;
+
+    /** The number of bars kept by the series */
+    private static final int MAXIMUM_BAR_COUNT = 100;
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println(SYMBOL_COUNT + " symbols, " + BAR_COUNT + " bars per symbol, " + cores + " cores");
+        // Warm-up
+        run(Math.min(2, cores));
+
+        double baseThroughput = 0;
+        for (int shards = 1; shards <= cores; shards *= 2) {
+            double throughput = run(shards);
+            if (shards == 1) {
+                baseThroughput = throughput;
+            }
+            System.out.printf("\t%d shard(s): %.0f bars/s (x%.2f)%n", shards, throughput, throughput / baseThroughput);
+        }
+    }
+
+    /**
+     * Feeds all the bars of all the symbols to a live engine.
+     * @param shardCount the number of shards of the engine (and of producer threads)
+     * @return the throughput (bars per second)
+     */
+    private static double run(int shardCount) throws InterruptedException {
+        final LongAdder orderCount = new LongAdder();
+        final LiveEngine engine = new LiveEngine(shardCount, (symbol, order) -> orderCount.increment());
+        final List<LiveSymbol> symbols = new ArrayList<>();
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            TimeSeries series = new BaseTimeSeries("S" + i);
+            series.setMaximumBarCount(MAXIMUM_BAR_COUNT);
+            symbols.add(engine.addSymbol("S" + i, series, buildStrategy(series), Decimal.TEN));
+        }
+        engine.start();
+
+        long start = System.nanoTime();
+        // One producer per shard (e.g. one market data connection), each feeding its own symbols in order
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < shardCount; p++) {
+            final int producer = p;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < BAR_COUNT; i++) {
+                    for (int s = producer; s < SYMBOL_COUNT; s += shardCount) {
+                        Decimal price = Decimal.valueOf(100 + 10 * Math.sin((i + s) / 8.0));
+                        BaseBar bar = new BaseBar(Duration.ofMinutes(1), 60000L * (i + 1), ZONE,
+                                price, price, price, price, Decimal.ONE, price, 1);
+                        while (!engine.offerBar(symbols.get(s), bar)) {
+                            // Shard queue full: back-pressure on the producer
+                            Thread.yield();
+                        }
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        engine.stop();
+        long elapsed = System.nanoTime() - start;
+
+        if (engine.getProcessedCount() != (long) SYMBOL_COUNT * BAR_COUNT) {
+            throw new IllegalStateException("Bars not processed: " + engine.getProcessedCount());
+        }
+        return engine.getProcessedCount() * 1e9 / elapsed;
+    }
+
+    /**
+     * @param series a time series
+     * @return a dummy strategy (same as the one of {@link TradingBotOnMovingTimeSeries})
+     */
+    private static Strategy buildStrategy(TimeSeries series) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        SMAIndicator sma = new SMAIndicator(closePrice, 12);
+        return new BaseStrategy(new OverIndicatorRule(sma, closePrice), new UnderIndicatorRule(sma, closePrice));
+    }
+}
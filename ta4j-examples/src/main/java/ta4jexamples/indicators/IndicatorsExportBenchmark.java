@@ -0,0 +1,278 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.indicators;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.MaxPriceIndicator;
+import org.ta4j.core.indicators.helpers.MinPriceIndicator;
+import org.ta4j.core.indicators.helpers.OpenPriceIndicator;
+import org.ta4j.core.indicators.helpers.VolumeIndicator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Benchmark of the bulk export of indicators.
+ * <p></p>
+ * Measures, on a generated series, the evaluation of the indicators (sequential and parallel), then compares
+ * the writing of their (cached) values by the row by row string building of the former {@link IndicatorsToCsv}
+ * with the CSV and binary exports of {@link IndicatorsExporter}.
+ * <p>
+ * Then measures the end-to-end exports of bar value columns (close, open, max, min prices and volume, one factory
+ * column each) on a longer series: as the columns are written block by block, and their indicators released once
+ * written, the memory does not grow with the number of columns.<br>
+ * Arguments: number of bars (100000 by default), number of indicator columns (100 by default), number of bars of
+ * the longer series (1000000 by default).
+ */
+public class IndicatorsExportBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int barCount = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int columnCount = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int longBarCount = args.length > 2 ? Integer.parseInt(args[2]) : 1000000;
+        benchmarkIndicators(barCount, columnCount);
+        benchmarkLongSeries(longBarCount, columnCount);
+    }
+
+    /**
+     * Measures the evaluation of the indicators, and the writing of their values.
+     * @param barCount the number of bars
+     * @param columnCount the number of indicator columns
+     * @throws IOException if the files cannot be written
+     */
+    private static void benchmarkIndicators(int barCount, int columnCount) throws IOException {
+        TimeSeries series = generateSeries(barCount);
+        Path file = Files.createTempFile("indicators", ".csv");
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            // Evaluation of the (cached) indicators
+            List<Indicator<Decimal>> indicators = createIndicators(series, columnCount);
+            IndicatorsExporter exporter = new IndicatorsExporter(series);
+            for (int column = 0; column < columnCount; column++) {
+                exporter.add("column" + column, indicators.get(column));
+            }
+            long start = System.nanoTime();
+            exporter.evaluate(null);
+            long evaluationTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            createExporter(series, columnCount).evaluate(executor);
+            long parallelEvaluationTime = System.nanoTime() - start;
+
+            // Writing of the cached values (after a warm-up)
+            writeWithStrings(series, indicators, file);
+            exporter.writeCsv(file, null);
+            exporter.writeBinary(file, null);
+            start = System.nanoTime();
+            writeWithStrings(series, indicators, file);
+            long stringTime = System.nanoTime() - start;
+            long stringSize = Files.size(file);
+
+            start = System.nanoTime();
+            exporter.writeCsv(file, null);
+            long csvTime = System.nanoTime() - start;
+            long csvSize = Files.size(file);
+
+            start = System.nanoTime();
+            exporter.writeBinary(file, null);
+            long binaryTime = System.nanoTime() - start;
+            long binarySize = Files.size(file);
+
+            System.out.printf("Export of %d columns x %d bars (%d threads):%n", columnCount, barCount,
+                    Runtime.getRuntime().availableProcessors());
+            System.out.printf("\tEvaluation:                        %d ms%n", evaluationTime / 1000000);
+            System.out.printf("\tEvaluation (parallel, factories):  %d ms%n", parallelEvaluationTime / 1000000);
+            System.out.printf("\tWriting, string building:          %d ms (%d MB)%n", stringTime / 1000000, stringSize / (1024 * 1024));
+            System.out.printf("\tWriting, CSV export:               %d ms (%d MB)%n", csvTime / 1000000, csvSize / (1024 * 1024));
+            System.out.printf("\tWriting, binary export:            %d ms (%d MB)%n", binaryTime / 1000000, binarySize / (1024 * 1024));
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Measures the end-to-end exports of bar value columns on a long series.
+     * @param barCount the number of bars
+     * @param columnCount the number of columns
+     * @throws IOException if the files cannot be written
+     */
+    private static void benchmarkLongSeries(int barCount, int columnCount) throws IOException {
+        TimeSeries series = generateSeries(barCount);
+        IndicatorsExporter exporter = new IndicatorsExporter(series);
+        for (int column = 0; column < columnCount; column++) {
+            switch (column % 5) {
+                case 0:
+                    exporter.add("close" + column, ClosePriceIndicator::new);
+                    break;
+                case 1:
+                    exporter.add("open" + column, OpenPriceIndicator::new);
+                    break;
+                case 2:
+                    exporter.add("max" + column, MaxPriceIndicator::new);
+                    break;
+                case 3:
+                    exporter.add("min" + column, MinPriceIndicator::new);
+                    break;
+                default:
+                    exporter.add("volume" + column, VolumeIndicator::new);
+                    break;
+            }
+        }
+        Path file = Files.createTempFile("indicators", ".bin");
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long usedMemory = runtime.totalMemory() - runtime.freeMemory();
+
+            long start = System.nanoTime();
+            exporter.writeBinary(file, executor);
+            long binaryTime = System.nanoTime() - start;
+            long binarySize = Files.size(file);
+
+            start = System.nanoTime();
+            exporter.writeCsv(file, executor);
+            long csvTime = System.nanoTime() - start;
+            long csvSize = Files.size(file);
+
+            System.out.printf("Export of %d bar value columns x %d bars (%d threads, series of %d MB):%n", columnCount,
+                    barCount, runtime.availableProcessors(), usedMemory / (1024 * 1024));
+            System.out.printf("\tBinary export:                     %d ms (%d MB)%n", binaryTime / 1000000, binarySize / (1024 * 1024));
+            System.out.printf("\tCSV export:                        %d ms (%d MB)%n", csvTime / 1000000, csvSize / (1024 * 1024));
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * @param barCount the number of bars
+     * @return a random walk series of hourly bars
+     */
+    private static TimeSeries generateSeries(int barCount) {
+        Random random = new Random(42);
+        List<Bar> bars = new ArrayList<>(barCount);
+        ZonedDateTime time = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneId.systemDefault());
+        double price = 100;
+        for (int i = 0; i < barCount; i++) {
+            double open = price;
+            price = Math.max(1, price + random.nextGaussian());
+            double high = Math.max(open, price) + random.nextDouble();
+            double low = Math.min(open, price) - random.nextDouble();
+            time = time.plusHours(1);
+            bars.add(new BaseBar(Duration.ofHours(1), time, Decimal.valueOf(open), Decimal.valueOf(high),
+                    Decimal.valueOf(low), Decimal.valueOf(price), Decimal.valueOf(random.nextInt(1000))));
+        }
+        return new BaseTimeSeries("random walk", bars);
+    }
+
+    /**
+     * @param series the series
+     * @param columnCount the number of indicators
+     * @return SMA, EMA and RSI indicators of various time frames
+     */
+    private static List<Indicator<Decimal>> createIndicators(TimeSeries series, int columnCount) {
+        List<Indicator<Decimal>> indicators = new ArrayList<>(columnCount);
+        for (int column = 0; column < columnCount; column++) {
+            indicators.add(createIndicator(series, column));
+        }
+        return indicators;
+    }
+
+    /**
+     * @param series the series
+     * @param column the column number
+     * @return the indicator of the column
+     */
+    private static Indicator<Decimal> createIndicator(TimeSeries series, int column) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        int timeFrame = 5 + column / 3;
+        switch (column % 3) {
+            case 0:
+                return new SMAIndicator(closePrice, timeFrame);
+            case 1:
+                return new EMAIndicator(closePrice, timeFrame);
+            default:
+                return new RSIIndicator(closePrice, timeFrame);
+        }
+    }
+
+    /**
+     * @param series the series
+     * @param columnCount the number of indicators
+     * @return an exporter of the indicators (one factory column per indicator)
+     */
+    private static IndicatorsExporter createExporter(TimeSeries series, int columnCount) {
+        IndicatorsExporter exporter = new IndicatorsExporter(series);
+        for (int column = 0; column < columnCount; column++) {
+            final int c = column;
+            exporter.add("column" + column, s -> createIndicator(s, c));
+        }
+        return exporter;
+    }
+
+    /**
+     * Writes the indicators as {@link IndicatorsToCsv} does (row by row string building).
+     * @param series the series
+     * @param indicators the indicators
+     * @param file the CSV file
+     * @throws IOException if the file cannot be written
+     */
+    private static void writeWithStrings(TimeSeries series, List<Indicator<Decimal>> indicators, Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("timestamp");
+        for (int column = 0; column < indicators.size(); column++) {
+            sb.append(",column").append(column);
+        }
+        sb.append('\n');
+        for (int i = 0; i < series.getBarCount(); i++) {
+            sb.append(series.getBar(i).getEndTime());
+            for (Indicator<Decimal> indicator : indicators) {
+                sb.append(',').append(indicator.getValue(i));
+            }
+            sb.append('\n');
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(sb.toString());
+        }
+    }
+}
@@ -0,0 +1,543 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.indicators;
+
+import org.ta4j.core.Decimal;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.TimeSeries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Bulk export of indicator values.
+ * <p></p>
+ * The indicators are evaluated column by column (optionally in parallel, one task per column)
+ * and written through a file channel, either:
+ * <ul>
+ *     <li>as a CSV file (end time of the bars, then one column per indicator), with a fast fixed-precision
+ *     double formatting
+ *     <li>as a binary columnar file (see {@link #writeBinary(Path, ExecutorService)})
+ * </ul>
+ * Columns can be added as indicators, or as indicator factories:
+ * <ul>
+ *     <li>the columns added as indicators may share sub-indicators, as the values of the
+ *     {@link org.ta4j.core.indicators.CachedIndicator cached indicators} can be read by several threads (a value
+ *     missing from a shared cache may then be calculated more than once)
+ *     <li>each column added as a factory gets its own indicator instance (e.g. for indicators that cannot be read
+ *     by several threads), released once the column is written by the binary export
+ * </ul>
+ */
+public class IndicatorsExporter {
+
+    /** The magic number of the binary indicator files ("T4JI") */
+    private static final int BINARY_MAGIC = 0x54344A49;
+
+    /** The version of the binary indicator files */
+    private static final short BINARY_VERSION = 1;
+
+    /** The number of rows evaluated at once for the exports */
+    static final int BLOCK_ROWS = 16 * 1024;
+
+    /** The size of the output buffer */
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    /** The maximum length of a formatted value */
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    /** The powers of ten for the fixed-precision formatting */
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L
+    };
+
+    /** The (exact) double powers of ten for the decimal to double conversion */
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+            1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** The time series */
+    private final TimeSeries series;
+
+    /** The names of the columns */
+    private final List<String> names = new ArrayList<>();
+
+    /** The indicators of the columns (null for factory columns) */
+    private final List<Indicator<Decimal>> indicators = new ArrayList<>();
+
+    /** The factories of the columns (null for indicator columns) */
+    private final List<Function<TimeSeries, Indicator<Decimal>>> factories = new ArrayList<>();
+
+    /** The number of decimals of the CSV values */
+    private int decimals = 8;
+
+    /**
+     * Constructor.
+     * @param series the time series
+     */
+    public IndicatorsExporter(TimeSeries series) {
+        this.series = series;
+    }
+
+    /**
+     * Adds a column.
+     * @param name the name of the column
+     * @param indicator the indicator (of the time series)
+     * @return this exporter
+     */
+    public IndicatorsExporter add(String name, Indicator<Decimal> indicator) {
+        names.add(name);
+        indicators.add(indicator);
+        factories.add(null);
+        return this;
+    }
+
+    /**
+     * Adds a column with its own indicator instance.
+     * @param name the name of the column
+     * @param factory the factory of the indicator (from the time series), called by the task evaluating the column
+     * @return this exporter
+     */
+    public IndicatorsExporter add(String name, Function<TimeSeries, Indicator<Decimal>> factory) {
+        names.add(name);
+        indicators.add(null);
+        factories.add(factory);
+        return this;
+    }
+
+    /**
+     * @param decimals the number of decimals of the CSV values (from 0 to 12, 8 by default)
+     * @return this exporter
+     */
+    public IndicatorsExporter setDecimals(int decimals) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Decimals must be between 0 and " + (POWERS_OF_TEN.length - 1));
+        }
+        this.decimals = decimals;
+        return this;
+    }
+
+    /**
+     * Evaluates the columns.
+     * @param executor the executor evaluating the columns (null to evaluate them in the current thread)
+     * @return the values of the columns (values[column][row], a row per bar of the series)
+     */
+    public double[][] evaluate(ExecutorService executor) {
+        double[][] values = new double[names.size()][series.getBarCount()];
+        evaluate(createTasks(values, series.getBeginIndex(), series.getBarCount()), executor);
+        return values;
+    }
+
+    /**
+     * Writes the values of the columns in a CSV file.
+     * @param file the CSV file
+     * @param executor the executor evaluating the columns (null to evaluate them in the current thread)
+     * @throws IOException if the file cannot be written
+     */
+    public void writeCsv(Path file, ExecutorService executor) throws IOException {
+        final int columnCount = names.size();
+        final int barCount = series.getBarCount();
+        double[][] block = new double[columnCount][Math.min(BLOCK_ROWS, Math.max(barCount, 1))];
+        List<ColumnTask> columnTasks = createTasks(block, series.getBeginIndex(), 0);
+
+        try (FileChannel channel = open(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            StringBuilder header = new StringBuilder("timestamp");
+            for (String name : names) {
+                header.append(',').append(name);
+            }
+            put(channel, buffer, header.append('\n').toString().getBytes(StandardCharsets.UTF_8));
+
+            for (int blockStart = 0; blockStart < barCount; blockStart += BLOCK_ROWS) {
+                int rows = Math.min(BLOCK_ROWS, barCount - blockStart);
+                for (ColumnTask columnTask : columnTasks) {
+                    columnTask.moveTo(series.getBeginIndex() + blockStart, rows);
+                }
+                evaluate(columnTasks, executor);
+                for (int row = 0; row < rows; row++) {
+                    int index = series.getBeginIndex() + blockStart + row;
+                    put(channel, buffer, series.getBar(index).getEndTime().toString().getBytes(StandardCharsets.US_ASCII));
+                    for (int column = 0; column < columnCount; column++) {
+                        if (buffer.remaining() < MAX_VALUE_LENGTH + 2) {
+                            flush(channel, buffer);
+                        }
+                        buffer.put((byte) ',');
+                        format(block[column][row], buffer);
+                    }
+                    if (!buffer.hasRemaining()) {
+                        flush(channel, buffer);
+                    }
+                    buffer.put((byte) '\n');
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the values of the columns in a binary columnar file.
+     * <p>
+     * The columns are evaluated by blocks of rows, each block being written at its offset in the column sections:
+     * only a block of values is kept in memory, and the indicators of the factory columns are released once their
+     * column is written.
+     * <p>
+     * Format (version 1, little-endian):
+     * <pre>
+     * int     magic number ("T4JI": 0x54344A49)
+     * short   format version (1)
+     * short   number of columns (c)
+     * int     number of rows (n)
+     * c times: short length of the column name, followed by the column name (UTF-8)
+     * padding to a multiple of 8 bytes
+     * n longs: end times of the bars (epoch milliseconds)
+     * c times: n doubles (values of the column)
+     * </pre>
+     * @param file the binary file
+     * @param executor the executor evaluating the columns (null to evaluate them in the current thread)
+     * @throws IOException if the file cannot be written
+     */
+    public void writeBinary(Path file, ExecutorService executor) throws IOException {
+        final int barCount = series.getBarCount();
+        double[][] block = new double[names.size()][Math.min(BLOCK_ROWS, Math.max(barCount, 1))];
+        List<ColumnTask> columnTasks = createTasks(block, series.getBeginIndex(), 0);
+
+        try (FileChannel channel = open(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(BINARY_MAGIC).putShort(BINARY_VERSION).putShort((short) names.size()).putInt(barCount);
+            long headerSize = 12;
+            for (String name : names) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < bytes.length + 2) {
+                    flush(channel, buffer);
+                }
+                buffer.putShort((short) bytes.length).put(bytes);
+                headerSize += bytes.length + 2;
+            }
+            if (buffer.remaining() < 8) {
+                flush(channel, buffer);
+            }
+            for (; headerSize % 8 != 0; headerSize++) {
+                buffer.put((byte) 0);
+            }
+            for (int row = 0; row < barCount; row++) {
+                if (buffer.remaining() < 8) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(series.getBar(series.getBeginIndex() + row).getEndEpochMilli());
+            }
+            flush(channel, buffer);
+
+            // Each task evaluates its column block by block, and writes each block at its offset in the file
+            final long valuesPosition = headerSize + 8L * barCount;
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (ColumnTask columnTask : columnTasks) {
+                tasks.add(() -> {
+                    columnTask.write(channel, valuesPosition, barCount);
+                    return null;
+                });
+            }
+            evaluate(tasks, executor);
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+    }
+
+    /**
+     * Creates the tasks evaluating the columns.
+     * @param values the values of the columns
+     * @param beginIndex the first bar index
+     * @param rows the number of bars
+     * @return the tasks evaluating the columns (one per column)
+     */
+    private List<ColumnTask> createTasks(double[][] values, int beginIndex, int rows) {
+        List<ColumnTask> tasks = new ArrayList<>(names.size());
+        for (int column = 0; column < names.size(); column++) {
+            final Function<TimeSeries, Indicator<Decimal>> factory = factories.get(column);
+            tasks.add(factory == null ? new ColumnTask(values, column, indicators.get(column), null, beginIndex, rows)
+                    : new ColumnTask(values, column, null, () -> factory.apply(series), beginIndex, rows));
+        }
+        return tasks;
+    }
+
+    /**
+     * Evaluates columns.
+     * @param tasks the tasks evaluating the columns
+     * @param executor the executor running the tasks (null to run them in the current thread)
+     */
+    private static void evaluate(List<? extends Callable<Void>> tasks, ExecutorService executor) {
+        try {
+            if (executor == null || tasks.size() < 2) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+                return;
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {                future.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while evaluating the indicators", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new IllegalStateException("Unable to evaluate the indicators", ee.getCause());
+        } catch (RuntimeException re) {
+            throw re;
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to evaluate the indicators", e);
+        }
+    }
+
+    /**
+     * Converts a decimal to a double.
+     * <p>
+     * Faster than {@link Decimal#doubleValue()} (which goes through a string conversion), within two ulps.
+     * @param value a decimal value
+     * @return the double value (NaN for Decimal.NaN)
+     */
+    private static double toDouble(Decimal value) {
+        if (value.isNaN()) {
+            return Double.NaN;
+        }
+        BigDecimal decimal = value.getDelegate();
+        int scale = decimal.scale();
+        final int maxExactScale = DOUBLE_POWERS_OF_TEN.length - 1;
+        if (scale >= 0 && scale <= maxExactScale) {
+            return decimal.unscaledValue().doubleValue() / DOUBLE_POWERS_OF_TEN[scale];
+        }
+        if (scale > maxExactScale && scale <= 2 * maxExactScale) {
+            // Usual case of the 32-digit results of divisions
+            return decimal.unscaledValue().doubleValue() / DOUBLE_POWERS_OF_TEN[maxExactScale]
+                    / DOUBLE_POWERS_OF_TEN[scale - maxExactScale];
+        }
+        return decimal.doubleValue();
+    }
+
+    /**
+     * Formats a value with a fixed number of decimals (trailing zeros removed).
+     * @param value the value
+     * @param buffer the output buffer (at least {@link #MAX_VALUE_LENGTH} bytes remaining)
+     */
+    private void format(double value, ByteBuffer buffer) {
+        double scaled = value * POWERS_OF_TEN[decimals];
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(scaled) >= 1e18) {
+            buffer.put(Double.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        long unscaled = Math.round(scaled);
+        if (unscaled < 0) {
+            buffer.put((byte) '-');
+            unscaled = -unscaled;
+        }
+        long integerPart = unscaled / POWERS_OF_TEN[decimals];
+        long fractionPart = unscaled % POWERS_OF_TEN[decimals];
+        putDigits(integerPart, buffer);
+        if (fractionPart != 0) {
+            int fractionDigits = decimals;
+            while (fractionPart % 10 == 0) {
+                fractionPart /= 10;
+                fractionDigits--;
+            }
+            buffer.put((byte) '.');
+            for (long power = POWERS_OF_TEN[fractionDigits - 1]; power > fractionPart && power > 1; power /= 10) {
+                buffer.put((byte) '0');
+            }
+            putDigits(fractionPart, buffer);
+        }
+    }
+
+    /**
+     * @param value a positive value
+     * @param buffer the output buffer
+     */
+    private static void putDigits(long value, ByteBuffer buffer) {
+        int start = buffer.position();
+        do {
+            buffer.put((byte) ('0' + value % 10));
+            value /= 10;
+        } while (value > 0);
+        // Digits written in reverse order
+        for (int i = start, j = buffer.position() - 1; i < j; i++, j--) {
+            byte digit = buffer.get(i);
+            buffer.put(i, buffer.get(j));
+            buffer.put(j, digit);
+        }
+    }
+
+    /**
+     * @param file a file
+     * @return a new channel writing the file (truncated)
+     * @throws IOException if the file cannot be opened
+     */
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * Writes bytes through the buffer.
+     * @param channel the channel
+     * @param buffer the buffer
+     * @param bytes the bytes
+     * @throws IOException if the bytes cannot be written
+     */
+    private static void put(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        if (buffer.remaining() < bytes.length) {
+            flush(channel, buffer);
+        }
+        if (bytes.length > buffer.remaining()) {
+            channel.write(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    /**
+     * Writes the content of the buffer.
+     * @param channel the channel
+     * @param buffer the buffer (cleared)
+     * @throws IOException if the content cannot be written
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Task evaluating a column, over a range of bars.
+     */
+    private static class ColumnTask implements Callable<Void> {
+
+        /** The values of all the columns */
+        private final double[][] values;
+
+        /** The column number */
+        private final int column;
+
+        /** The factory of the indicator of a factory column (null for an indicator column) */
+        private final Supplier<Indicator<Decimal>> factory;
+
+        /** The indicator of the column (created on the first evaluation for a factory column) */
+        private Indicator<Decimal> indicator;
+
+        /** The first bar index */
+        private int beginIndex;
+
+        /** The number of bars */
+        private int rows;
+
+        /**
+         * Constructor.
+         * @param values the values of all the columns
+         * @param column the column number
+         * @param indicator the indicator of the column (null for a factory column)
+         * @param factory the factory of the indicator of the column (null for an indicator column)
+         * @param beginIndex the first bar index
+         * @param rows the number of bars
+         */
+        ColumnTask(double[][] values, int column, Indicator<Decimal> indicator, Supplier<Indicator<Decimal>> factory,
+                int beginIndex, int rows) {
+            this.values = values;
+            this.column = column;
+            this.indicator = indicator;
+            this.factory = factory;
+            this.beginIndex = beginIndex;
+            this.rows = rows;
+        }
+
+        /**
+         * @param beginIndex the first bar index
+         * @param rows the number of bars
+         */
+        void moveTo(int beginIndex, int rows) {
+            this.beginIndex = beginIndex;
+            this.rows = rows;
+        }
+
+        /**
+         * Evaluates the column block by block, and writes the blocks in the column section of a binary file.
+         * <p>
+         * Only a block of values is kept in memory, and the indicator of a factory column is released at the end.
+         * @param channel the channel of the binary file (positional writes)
+         * @param valuesPosition the position of the first column section
+         * @param barCount the number of bars (from the first bar index of the task)
+         * @throws UncheckedIOException if the values cannot be written
+         */
+        void write(FileChannel channel, long valuesPosition, int barCount) {
+            final double[] block = values[column];
+            final int firstIndex = beginIndex;
+            ByteBuffer buffer = ByteBuffer.allocate(8 * block.length).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                for (int blockStart = 0; blockStart < barCount; blockStart += block.length) {
+                    moveTo(firstIndex + blockStart, Math.min(block.length, barCount - blockStart));
+                    call();
+                    buffer.clear();
+                    buffer.asDoubleBuffer().put(block, 0, rows);
+                    buffer.limit(8 * rows);
+                    long position = valuesPosition + 8L * ((long) column * barCount + blockStart);
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            } finally {
+                moveTo(firstIndex, 0);
+                if (factory != null) {
+                    indicator = null;
+                }
+            }
+        }
+
+        @Override
+        public Void call() {
+            if (indicator == null) {
+                indicator = factory.get();
+            }
+            double[] block = values[column];
+            for (int row = 0; row < rows; row++) {
+                block[row] = toDouble(indicator.getValue(beginIndex + row));
+            }
+            return null;
+        }
+    }
+}
@@ -30,14 +30,15 @@ import org.ta4j.core.indicators.helpers.TypicalPriceIndicator;
 import org.ta4j.core.indicators.statistics.StandardDeviationIndicator;
 import ta4jexamples.loaders.CsvTradesLoader;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * This class builds a CSV file containing values from indicators.
+ * <p></p>
+ * See {@link IndicatorsExporter} for the export of many indicators over long series.
  */
 public class IndicatorsToCsv {
 
@@ -77,49 +78,26 @@ public class IndicatorsToCsv {
         StandardDeviationIndicator sd = new StandardDeviationIndicator(closePrice, 14);
 
         /*
-          Building header
+          Writing CSV file (indicators evaluated column by column)
          */
-        StringBuilder sb = new StringBuilder("timestamp,close,typical,variation,sma8,sma20,ema8,ema20,ppo,roc,rsi,williamsr,atr,sd\n");
-
-        /*
-          Adding indicators values
-         */
-        final int nbBars = series.getBarCount();
-        for (int i = 0; i < nbBars; i++) {
-            sb.append(series.getBar(i).getEndTime()).append(',')
-            .append(closePrice.getValue(i)).append(',')
-            .append(typicalPrice.getValue(i)).append(',')
-            .append(priceVariation.getValue(i)).append(',')
-            .append(shortSma.getValue(i)).append(',')
-            .append(longSma.getValue(i)).append(',')
-            .append(shortEma.getValue(i)).append(',')
-            .append(longEma.getValue(i)).append(',')
-            .append(ppo.getValue(i)).append(',')
-            .append(roc.getValue(i)).append(',')
-            .append(rsi.getValue(i)).append(',')
-            .append(williamsR.getValue(i)).append(',')
-            .append(atr.getValue(i)).append(',')
-            .append(sd.getValue(i)).append('\n');
-        }
-
-        /*
-          Writing CSV file
-         */
-        BufferedWriter writer = null;
+        IndicatorsExporter exporter = new IndicatorsExporter(series)
+                .add("close", closePrice)
+                .add("typical", typicalPrice)
+                .add("variation", priceVariation)
+                .add("sma8", shortSma)
+                .add("sma20", longSma)
+                .add("ema8", shortEma)
+                .add("ema20", longEma)
+                .add("ppo", ppo)
+                .add("roc", roc)
+                .add("rsi", rsi)
+                .add("williamsr", williamsR)
+                .add("atr", atr)
+                .add("sd", sd);
         try {
-            writer = new BufferedWriter(new FileWriter("indicators.csv"));
-            writer.write(sb.toString());
+            exporter.writeCsv(Paths.get("indicators.csv"), null);
         } catch (IOException ioe) {
             Logger.getLogger(IndicatorsToCsv.class.getName()).log(Level.SEVERE, "Unable to write CSV file", ioe);
-        } finally {
-            try {
-                if (writer != null) {
-                    writer.close();
-                }
-            } catch (IOException ioe) {
-                ioe.printStackTrace();
-            }
         }
-
     }
 }
@@ -0,0 +1,439 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bars stored column by column, in primitive arrays.
+ * <p></p>
+ * Used by the loaders as a series builder: the bars are appended without any object
+ * allocation (end times as epoch milliseconds, prices and volumes as doubles), then converted
+ * to a {@link TimeSeries time series} whose bars are created on first access.
+ */
+public class BarColumns {
+
+    /** Initial capacity of the columns */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /** The powers of ten used to find short decimal representations */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /** The limit of the unscaled values (less than one digit per ulp) */
+    private static final double MAX_EXACT_UNSCALED = 1e15;
+
+    /** The time zone of the bars */
+    private final ZoneId zoneId;
+
+    /** The time period of the bars */
+    private Duration timePeriod = Duration.ofDays(1);
+
+    /** The end times of the bars (epoch milliseconds) */
+    private long[] endTimes;
+
+    /** The open prices of the bars */
+    private double[] openPrices;
+
+    /** The max prices of the bars */
+    private double[] maxPrices;
+
+    /** The min prices of the bars */
+    private double[] minPrices;
+
+    /** The close prices of the bars */
+    private double[] closePrices;
+
+    /** The volumes of the bars */
+    private double[] volumes;
+
+    /** The number of bars */
+    private int size = 0;
+
+    /**
+     * Constructor.
+     * @param zoneId the time zone of the bars
+     */
+    public BarColumns(ZoneId zoneId) {
+        this(zoneId, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor.
+     * @param zoneId the time zone of the bars
+     * @param capacity the initial capacity (number of bars)
+     */
+    public BarColumns(ZoneId zoneId, int capacity) {
+        this.zoneId = zoneId;
+        int initialCapacity = Math.max(capacity, 1);
+        endTimes = new long[initialCapacity];
+        openPrices = new double[initialCapacity];
+        maxPrices = new double[initialCapacity];
+        minPrices = new double[initialCapacity];
+        closePrices = new double[initialCapacity];
+        volumes = new double[initialCapacity];
+    }
+
+    /**
+     * Appends a bar.
+     * @param endTime the end time of the bar (epoch milliseconds)
+     * @param openPrice the open price of the bar
+     * @param maxPrice the max price of the bar
+     * @param minPrice the min price of the bar
+     * @param closePrice the close price of the bar
+     * @param volume the volume of the bar
+     */
+    public void add(long endTime, double openPrice, double maxPrice, double minPrice, double closePrice, double volume) {
+        if (size == endTimes.length) {
+            grow(size * 2);
+        }
+        endTimes[size] = endTime;
+        openPrices[size] = openPrice;
+        maxPrices[size] = maxPrice;
+        minPrices[size] = minPrice;
+        closePrices[size] = closePrice;
+        volumes[size] = volume;
+        size++;
+    }
+
+    /**
+     * Appends all the bars of other columns.
+     * @param other the columns to be appended
+     */
+    public void addAll(BarColumns other) {
+        if (size + other.size > endTimes.length) {
+            grow(Math.max(size + other.size, size * 2));
+        }
+        System.arraycopy(other.endTimes, 0, endTimes, size, other.size);
+        System.arraycopy(other.openPrices, 0, openPrices, size, other.size);
+        System.arraycopy(other.maxPrices, 0, maxPrices, size, other.size);
+        System.arraycopy(other.minPrices, 0, minPrices, size, other.size);
+        System.arraycopy(other.closePrices, 0, closePrices, size, other.size);
+        System.arraycopy(other.volumes, 0, volumes, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * @return true if the bars are sorted by end time, false otherwise
+     */
+    public boolean isSorted() {
+        for (int i = 1; i < size; i++) {
+            if (endTimes[i] < endTimes[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the bars by end time (stable).
+     * <p>
+     * Merges the already sorted runs of bars, so that sorted (or almost sorted) columns are sorted in linear time.
+     */
+    public void sort() {
+        if (isSorted()) {
+            return;
+        }
+        List<BarColumns> runs = new ArrayList<>();
+        int runStart = 0;
+        for (int i = 1; i <= size; i++) {
+            if (i == size || endTimes[i] < endTimes[i - 1]) {
+                runs.add(copyOf(runStart, i));
+                runStart = i;
+            }
+        }
+        while (runs.size() > 1) {
+            List<BarColumns> mergedRuns = new ArrayList<>((runs.size() + 1) / 2);
+            for (int i = 0; i < runs.size(); i += 2) {
+                mergedRuns.add(i + 1 < runs.size() ? merge(runs.get(i), runs.get(i + 1)) : runs.get(i));
+            }
+            runs = mergedRuns;
+        }
+        BarColumns sorted = runs.get(0);
+        endTimes = sorted.endTimes;
+        openPrices = sorted.openPrices;
+        maxPrices = sorted.maxPrices;
+        minPrices = sorted.minPrices;
+        closePrices = sorted.closePrices;
+        volumes = sorted.volumes;
+    }
+
+    /**
+     * Removes the bars having the same end time as the previous bar (i.e. keeps the first bar of each end time).
+     * @return the number of removed bars
+     * @throws IllegalStateException if the bars are not sorted by end time
+     */
+    public int removeDuplicates() {
+        int kept = Math.min(size, 1);
+        for (int i = 1; i < size; i++) {
+            if (endTimes[i] < endTimes[kept - 1]) {
+                throw new IllegalStateException("Bars must be sorted by end time to remove duplicates");
+            }
+            if (endTimes[i] != endTimes[kept - 1]) {
+                if (kept != i) {
+                    endTimes[kept] = endTimes[i];
+                    openPrices[kept] = openPrices[i];
+                    maxPrices[kept] = maxPrices[i];
+                    minPrices[kept] = minPrices[i];
+                    closePrices[kept] = closePrices[i];
+                    volumes[kept] = volumes[i];
+                }
+                kept++;
+            }
+        }
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /**
+     * Merges two columns sorted by end time.
+     * <p>
+     * The bars of the first columns come first in case of equal end times.
+     * @param first the first sorted columns
+     * @param second the second sorted columns
+     * @return new columns with the bars of both columns, sorted by end time
+     */
+    public static BarColumns merge(BarColumns first, BarColumns second) {
+        BarColumns merged = new BarColumns(first.zoneId, first.size + second.size);
+        merged.timePeriod = first.timePeriod;
+        if (first.size == 0 || second.size == 0 || first.endTimes[first.size - 1] <= second.endTimes[0]) {
+            // Not overlapping (e.g. consecutive chunks of a file): simple concatenation
+            merged.addAll(first);
+            merged.addAll(second);
+            return merged;
+        }
+        int i = 0, j = 0;
+        while (i < first.size && j < second.size) {
+            if (second.endTimes[j] < first.endTimes[i]) {
+                merged.addBar(second, j++);
+            } else {
+                merged.addBar(first, i++);
+            }
+        }
+        while (i < first.size) {
+            merged.addBar(first, i++);
+        }
+        while (j < second.size) {
+            merged.addBar(second, j++);
+        }
+        return merged;
+    }
+
+    /**
+     * @return the number of bars
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the time zone of the bars
+     */
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    /**
+     * @return the time period of the bars
+     */
+    public Duration getTimePeriod() {
+        return timePeriod;
+    }
+
+    /**
+     * @param timePeriod the time period of the bars (1 day by default)
+     */
+    public void setTimePeriod(Duration timePeriod) {
+        this.timePeriod = timePeriod;
+    }
+
+    /**
+     * @param index the bar index
+     * @return the end time of the bar (epoch milliseconds)
+     */
+    public long getEndTime(int index) {
+        checkIndex(index);
+        return endTimes[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the open price of the bar
+     */
+    public double getOpenPrice(int index) {
+        checkIndex(index);
+        return openPrices[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the max price of the bar
+     */
+    public double getMaxPrice(int index) {
+        checkIndex(index);
+        return maxPrices[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the min price of the bar
+     */
+    public double getMinPrice(int index) {
+        checkIndex(index);
+        return minPrices[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the close price of the bar
+     */
+    public double getClosePrice(int index) {
+        checkIndex(index);
+        return closePrices[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the volume of the bar
+     */
+    public double getVolume(int index) {
+        checkIndex(index);
+        return volumes[index];
+    }
+
+    /**
+     * @param index the bar index
+     * @return the bar
+     */
+    public Bar getBar(int index) {
+        checkIndex(index);
+        return new BaseBar(timePeriod, endTimes[index], zoneId, toDecimal(openPrices[index]), toDecimal(maxPrices[index]),
+                toDecimal(minPrices[index]), toDecimal(closePrices[index]), toDecimal(volumes[index]), Decimal.ZERO, 0);
+    }
+
+    /**
+     * Builds a time series from the bars.
+     * <p>
+     * The bars of the series are created on first access, from a copy of the columns.
+     * @param name the name of the series
+     * @return the time series
+     * @throws IllegalArgumentException if the end times of the bars are not strictly increasing
+     */
+    public TimeSeries toTimeSeries(String name) {
+        for (int i = 1; i < size; i++) {
+            if (endTimes[i] <= endTimes[i - 1]) {
+                throw new IllegalArgumentException("Cannot add a bar with end time <= to series end time (bar " + i + ")");
+            }
+        }
+        BarColumns copy = copyOf(0, size);
+        return new BaseTimeSeries(name, new ColumnarBarList(size, copy::getBar));
+    }
+
+    /**
+     * Appends a bar of other columns.
+     * @param other the other columns
+     * @param index the index of the bar in the other columns
+     */
+    private void addBar(BarColumns other, int index) {
+        add(other.endTimes[index], other.openPrices[index], other.maxPrices[index], other.minPrices[index],
+                other.closePrices[index], other.volumes[index]);
+    }
+
+    /**
+     * @param from the first bar index (inclusive)
+     * @param to the last bar index (exclusive)
+     * @return new columns with a copy of the bars between both indexes
+     */
+    private BarColumns copyOf(int from, int to) {
+        BarColumns copy = new BarColumns(zoneId, to - from);
+        copy.timePeriod = timePeriod;
+        System.arraycopy(endTimes, from, copy.endTimes, 0, to - from);
+        System.arraycopy(openPrices, from, copy.openPrices, 0, to - from);
+        System.arraycopy(maxPrices, from, copy.maxPrices, 0, to - from);
+        System.arraycopy(minPrices, from, copy.minPrices, 0, to - from);
+        System.arraycopy(closePrices, from, copy.closePrices, 0, to - from);
+        System.arraycopy(volumes, from, copy.volumes, 0, to - from);
+        copy.size = to - from;
+        return copy;
+    }
+
+    /**
+     * @param capacity the new capacity of the columns
+     */
+    private void grow(int capacity) {
+        endTimes = Arrays.copyOf(endTimes, capacity);
+        openPrices = Arrays.copyOf(openPrices, capacity);
+        maxPrices = Arrays.copyOf(maxPrices, capacity);
+        minPrices = Arrays.copyOf(minPrices, capacity);
+        closePrices = Arrays.copyOf(closePrices, capacity);
+        volumes = Arrays.copyOf(volumes, capacity);
+    }
+
+    /**
+     * @param index a bar index
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /**
+     * Converts a double to a decimal.
+     * <p>
+     * Same value as {@link Decimal#valueOf(double)}, but avoids its costly double-to-string conversion
+     * for the (usual) values having a short decimal representation.
+     * @param value a double value
+     * @return the decimal value (Decimal.NaN for NaN)
+     */
+    static Decimal toDecimal(double value) {
+        if (Double.isNaN(value)) {
+            return Decimal.NaN;
+        }
+        for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+            double scaled = value * POWERS_OF_TEN[scale];
+            if (Math.abs(scaled) >= MAX_EXACT_UNSCALED) {
+                break;
+            }
+            long unscaled = Math.round(scaled);
+            if (unscaled / POWERS_OF_TEN[scale] == value) {
+                // Shortest decimal representation of the value
+                return Decimal.valueOf(BigDecimal.valueOf(unscaled, scale));
+            }
+        }
+        return Decimal.valueOf(value);
+    }
+}
@@ -0,0 +1,458 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Binary columnar bar files.
+ * <p></p>
+ * Stores bars in a compact binary file which is loaded without any per-bar parsing: the columns
+ * are memory-mapped and the bars of the loaded {@link TimeSeries time series} are only created
+ * when first accessed.
+ * <p>
+ * Format (version 1, little-endian):
+ * <pre>
+ * Header
+ *   int     magic number ("T4JB": 0x54344A42)
+ *   short   format version (1)
+ *   short   flags (bit 0: compressed columns)
+ *   int     number of bars (n)
+ *   long    time period of the bars (milliseconds)
+ *   short   length of the time zone id, followed by the time zone id (UTF-8)
+ *   short   length of the series name, followed by the series name (UTF-8)
+ *   padding to a multiple of 8 bytes
+ * Columns (in this order)
+ *   end times (epoch milliseconds), open prices, max prices, min prices, close prices, volumes, amounts
+ *   - uncompressed: n longs (end times) or n doubles per column, fixed-width
+ *   - compressed: per column, an int (size in bytes of the compressed column) followed by:
+ *     - for the end times: the differences with the previous end time, zigzag-encoded as varints
+ *     - for the other columns: the bits of each value XOR-ed with the bits of the previous value,
+ *       as a control byte ((leading zero bytes &lt;&lt; 4) | trailing zero bytes, 0xFF for no difference)
+ *       followed by the remaining bytes
+ * </pre>
+ * Uncompressed files are memory-mapped; compressed files (usually 2 to 4 times smaller) are decoded
+ * once in memory. Both are limited to 2 GB.
+ */
+public class BinaryBarFile {
+
+    /** The magic number of the binary bar files ("T4JB") */
+    private static final int MAGIC = 0x54344A42;
+
+    /** The version of the file format */
+    private static final short VERSION = 1;
+
+    /** Flag of compressed columns */
+    private static final short COMPRESSED_FLAG = 1;
+
+    /** Column number of the end times */
+    private static final int END_TIME_COLUMN = 0;
+    /** Column number of the open prices */
+    private static final int OPEN_PRICE_COLUMN = 1;
+    /** Column number of the max prices */
+    private static final int MAX_PRICE_COLUMN = 2;
+    /** Column number of the min prices */
+    private static final int MIN_PRICE_COLUMN = 3;
+    /** Column number of the close prices */
+    private static final int CLOSE_PRICE_COLUMN = 4;
+    /** Column number of the volumes */
+    private static final int VOLUME_COLUMN = 5;
+    /** Column number of the amounts */
+    private static final int AMOUNT_COLUMN = 6;
+
+    /** The number of columns */
+    private static final int COLUMN_COUNT = 7;
+
+    /**
+     * Writes the bars of a time series to a binary bar file.
+     * @param series the time series (with bars of the same time period)
+     * @param file the binary bar file
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(TimeSeries series, Path file, boolean compressed) throws IOException {
+        final int barCount = series.getBarCount();
+        Duration timePeriod = barCount == 0 ? Duration.ofDays(1) : series.getFirstBar().getTimePeriod();
+        ZoneId zoneId = barCount == 0 ? ZoneId.systemDefault() : series.getFirstBar().getZone();
+        long[] endTimes = new long[barCount];
+        double[][] values = new double[COLUMN_COUNT][barCount];
+        for (int i = 0; i < barCount; i++) {
+            Bar bar = series.getBar(series.getBeginIndex() + i);
+            if (!bar.getTimePeriod().equals(timePeriod)) {
+                throw new IllegalArgumentException("All the bars must have the same time period");
+            }
+            endTimes[i] = bar.getEndEpochMilli();
+            values[OPEN_PRICE_COLUMN][i] = bar.getOpenPrice().doubleValue();
+            values[MAX_PRICE_COLUMN][i] = bar.getMaxPrice().doubleValue();
+            values[MIN_PRICE_COLUMN][i] = bar.getMinPrice().doubleValue();
+            values[CLOSE_PRICE_COLUMN][i] = bar.getClosePrice().doubleValue();
+            values[VOLUME_COLUMN][i] = bar.getVolume().doubleValue();
+            values[AMOUNT_COLUMN][i] = bar.getAmount().doubleValue();
+        }
+        write(file, series.getName(), timePeriod, zoneId, barCount, endTimes, values, compressed);
+    }
+
+    /**
+     * Writes bars in columns to a binary bar file.
+     * @param columns the bars (with a zero amount)
+     * @param name the name of the series
+     * @param file the binary bar file
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(BarColumns columns, String name, Path file, boolean compressed) throws IOException {
+        final int barCount = columns.size();
+        long[] endTimes = new long[barCount];
+        double[][] values = new double[COLUMN_COUNT][barCount];
+        for (int i = 0; i < barCount; i++) {
+            endTimes[i] = columns.getEndTime(i);
+            values[OPEN_PRICE_COLUMN][i] = columns.getOpenPrice(i);
+            values[MAX_PRICE_COLUMN][i] = columns.getMaxPrice(i);
+            values[MIN_PRICE_COLUMN][i] = columns.getMinPrice(i);
+            values[CLOSE_PRICE_COLUMN][i] = columns.getClosePrice(i);
+            values[VOLUME_COLUMN][i] = columns.getVolume(i);
+        }
+        write(file, name, columns.getTimePeriod(), columns.getZoneId(), barCount, endTimes, values, compressed);
+    }
+
+    /**
+     * Converts a CSV bar file (see {@link FastCsvTicksLoader}) to a binary bar file.
+     * @param csvFile the CSV bar file
+     * @param binaryFile the binary bar file
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void convert(Path csvFile, Path binaryFile, boolean compressed) throws IOException {
+        write(FastCsvTicksLoader.loadColumns(csvFile), csvFile.getFileName().toString(), binaryFile, compressed);
+    }
+
+    /**
+     * Loads a binary bar file.
+     * @param file the binary bar file
+     * @return the time series of the bars of the file (created on first access)
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a (supported) binary bar file, or is corrupted
+     */
+    public static TimeSeries load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Files larger than 2 GB are not supported: " + file);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 20 || buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary bar file: " + file);
+            }
+            if (buffer.getShort() != VERSION) {
+                throw new IllegalArgumentException("Unsupported binary bar file version: " + file);
+            }
+            try {
+                boolean compressed = (buffer.getShort() & COMPRESSED_FLAG) != 0;
+                int barCount = buffer.getInt();
+                if (barCount < 0) {
+                    throw new IllegalArgumentException("Corrupted binary bar file (negative bar count): " + file);
+                }
+                Duration timePeriod = Duration.ofMillis(buffer.getLong());
+                ZoneId zoneId = ZoneId.of(getString(buffer));
+                String name = getString(buffer);
+                buffer.position(align(buffer.position()));
+
+                ByteBuffer slice = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+                if (!compressed && columnOffset(COLUMN_COUNT, barCount) > slice.limit()) {
+                    throw new IllegalArgumentException("Corrupted binary bar file (truncated columns): " + file);
+                }
+                ByteBuffer columns = compressed ? decompress(slice, barCount) : slice;
+                return new BaseTimeSeries(name, new ColumnarBarList(barCount,
+                        index -> bar(columns, barCount, timePeriod, zoneId, index)));
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | DateTimeException e) {
+                throw new IllegalArgumentException("Corrupted binary bar file: " + file, e);
+            }
+        }
+    }
+
+    /**
+     * @param columns the (uncompressed) columns
+     * @param barCount the number of bars
+     * @param timePeriod the time period of the bars
+     * @param zoneId the time zone of the bars
+     * @param index the index of the bar in the columns
+     * @return a new bar from the columns
+     */
+    private static Bar bar(ByteBuffer columns, int barCount, Duration timePeriod, ZoneId zoneId, int index) {
+        return new BaseBar(timePeriod, columns.getLong(offset(END_TIME_COLUMN, barCount, index)), zoneId,
+                value(columns, OPEN_PRICE_COLUMN, barCount, index), value(columns, MAX_PRICE_COLUMN, barCount, index),
+                value(columns, MIN_PRICE_COLUMN, barCount, index), value(columns, CLOSE_PRICE_COLUMN, barCount, index),
+                value(columns, VOLUME_COLUMN, barCount, index), value(columns, AMOUNT_COLUMN, barCount, index), 0);
+    }
+
+    /**
+     * @param columns the (uncompressed) columns
+     * @param column a column number
+     * @param barCount the number of bars
+     * @param index the index of the bar in the columns
+     * @return the decimal value of the column for the bar
+     */
+    private static Decimal value(ByteBuffer columns, int column, int barCount, int index) {
+        return BarColumns.toDecimal(columns.getDouble(offset(column, barCount, index)));
+    }
+
+    /**
+     * @param column a column number
+     * @param barCount the number of bars
+     * @param index the index of the bar in the columns
+     * @return the position of the value of the column for the bar (the columns are checked to fit in the buffer)
+     */
+    private static int offset(int column, int barCount, int index) {
+        return (int) (columnOffset(column, barCount) + index * 8L);
+    }
+
+    /**
+     * @param column a column number
+     * @param barCount the number of bars
+     * @return the position of the (uncompressed) column in the columns (computed in long: may exceed 2 GB for a
+     *         corrupted bar count)
+     */
+    private static long columnOffset(int column, int barCount) {
+        return column * (long) barCount * 8;
+    }
+
+    /**
+     * Writes a binary bar file.
+     * @param file the binary bar file
+     * @param name the name of the series
+     * @param timePeriod the time period of the bars
+     * @param zoneId the time zone of the bars
+     * @param barCount the number of bars
+     * @param endTimes the end times of the bars
+     * @param values the other columns (index 0 unused)
+     * @param compressed true to compress the columns, false otherwise
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(Path file, String name, Duration timePeriod, ZoneId zoneId, int barCount,
+            long[] endTimes, double[][] values, boolean compressed) throws IOException {
+        byte[] zoneBytes = zoneId.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] nameBytes = (name == null ? "" : name).getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Too long series name for a binary bar file: " + name);
+        }
+        int headerSize = align(20 + 2 + zoneBytes.length + 2 + nameBytes.length);
+        // Compressed columns take at most 10 bytes per end time and 9 bytes per value
+        long maxSize = headerSize + (long) barCount * (compressed ? 10 + 9 * (COLUMN_COUNT - 1) : 8 * COLUMN_COUNT)
+                + COLUMN_COUNT * 4;
+        if (maxSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many bars for a binary bar file: " + barCount);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) maxSize).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort(compressed ? COMPRESSED_FLAG : 0).putInt(barCount)
+                .putLong(timePeriod.toMillis());
+        buffer.putShort((short) zoneBytes.length).put(zoneBytes);
+        buffer.putShort((short) nameBytes.length).put(nameBytes);
+        buffer.position(headerSize);
+
+        if (compressed) {
+            writeCompressedTimes(buffer, endTimes, barCount);
+            for (int column = OPEN_PRICE_COLUMN; column < COLUMN_COUNT; column++) {
+                writeCompressedValues(buffer, values[column], barCount);
+            }
+        } else {
+            for (int i = 0; i < barCount; i++) {
+                buffer.putLong(endTimes[i]);
+            }
+            for (int column = OPEN_PRICE_COLUMN; column < COLUMN_COUNT; column++) {
+                for (int i = 0; i < barCount; i++) {
+                    buffer.putDouble(values[column][i]);
+                }
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Writes the compressed end times (zigzag-encoded varint deltas), preceded by their size.
+     * @param buffer the output buffer
+     * @param endTimes the end times
+     * @param barCount the number of bars
+     */
+    private static void writeCompressedTimes(ByteBuffer buffer, long[] endTimes, int barCount) {
+        int sizePosition = buffer.position();
+        buffer.putInt(0);
+        long previous = 0;
+        for (int i = 0; i < barCount; i++) {
+            long delta = endTimes[i] - previous;
+            long zigzag = (delta << 1) ^ (delta >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            buffer.put((byte) zigzag);
+            previous = endTimes[i];
+        }
+        buffer.putInt(sizePosition, buffer.position() - sizePosition - 4);
+    }
+
+    /**
+     * Writes the compressed values (XOR with the previous value), preceded by their size.
+     * @param buffer the output buffer
+     * @param values the values
+     * @param barCount the number of bars
+     */
+    private static void writeCompressedValues(ByteBuffer buffer, double[] values, int barCount) {
+        int sizePosition = buffer.position();
+        buffer.putInt(0);
+        long previous = 0;
+        for (int i = 0; i < barCount; i++) {
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previous;
+            if (xor == 0) {
+                buffer.put((byte) 0xFF);
+            } else {
+                int leading = Long.numberOfLeadingZeros(xor) / 8;
+                int trailing = Long.numberOfTrailingZeros(xor) / 8;
+                buffer.put((byte) ((leading << 4) | trailing));
+                for (int b = 7 - leading; b >= trailing; b--) {
+                    buffer.put((byte) (xor >>> (b * 8)));
+                }
+            }
+            previous = bits;
+        }
+        buffer.putInt(sizePosition, buffer.position() - sizePosition - 4);
+    }
+
+    /**
+     * Decodes compressed columns.
+     * @param compressed the compressed columns
+     * @param barCount the number of bars
+     * @return the uncompressed (fixed-width) columns
+     */
+    private static ByteBuffer decompress(ByteBuffer compressed, int barCount) {
+        long size = columnOffset(COLUMN_COUNT, barCount);
+        // At least one byte per compressed value
+        if (size > Integer.MAX_VALUE || (long) barCount * COLUMN_COUNT > compressed.remaining()) {
+            throw new IllegalArgumentException("Corrupted binary bar file (bar count: " + barCount + ")");
+        }
+        ByteBuffer columns = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+
+        int end = compressed.getInt();
+        end += compressed.position();
+        long previous = 0;
+        for (int i = 0; i < barCount; i++) {
+            long zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = compressed.get();
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            columns.putLong(previous);
+        }
+        checkColumnEnd(compressed, end);
+
+        for (int column = OPEN_PRICE_COLUMN; column < COLUMN_COUNT; column++) {
+            end = compressed.getInt();
+            end += compressed.position();
+            long previousBits = 0;
+            for (int i = 0; i < barCount; i++) {
+                int control = compressed.get() & 0xFF;
+                if (control != 0xFF) {
+                    int leading = control >>> 4;
+                    int trailing = control & 0x0F;
+                    long xor = 0;
+                    for (int k = 7 - leading; k >= trailing; k--) {
+                        xor |= (compressed.get() & 0xFFL) << (k * 8);
+                    }
+                    previousBits ^= xor;
+                }
+                columns.putDouble(Double.longBitsToDouble(previousBits));
+            }
+            checkColumnEnd(compressed, end);
+        }
+        columns.flip();
+        return columns;
+    }
+
+    /**
+     * @param compressed the compressed columns
+     * @param end the expected end position of the column
+     */
+    private static void checkColumnEnd(ByteBuffer compressed, int end) {
+        if (compressed.position() != end) {
+            throw new IllegalArgumentException("Corrupted binary bar file");
+        }
+    }
+
+    /**
+     * @param buffer a buffer
+     * @return the string (length as a short, then UTF-8 bytes) at the position of the buffer
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param position a position
+     * @return the next multiple of 8
+     */
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Converting the CSV files provided as arguments (or a default one)
+        for (String csvFile : args.length > 0 ? Arrays.asList(args) : Arrays.asList("2016_H.csv")) {
+            Path csvPath = Paths.get(csvFile);
+            Path binaryPath = Paths.get(csvFile.replaceFirst("\\.csv$", "") + ".t4jb");
+            convert(csvPath, binaryPath, true);
+            System.out.println(csvFile + " (" + Files.size(csvPath) + " bytes) --> " + binaryPath
+                    + " (" + Files.size(binaryPath) + " bytes, " + load(binaryPath).getBarCount() + " bars)");
+        }
+    }
+}
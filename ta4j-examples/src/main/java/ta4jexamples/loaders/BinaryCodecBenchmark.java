@@ -0,0 +1,165 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.TimeSeriesManager;
+import org.ta4j.core.TradingRecord;
+import org.ta4j.core.io.BinaryReader;
+import org.ta4j.core.io.BinaryWriter;
+import ta4jexamples.strategies.MovingMomentumStrategy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * Benchmark of the binary codec of Ta4j objects.
+ * <p></p>
+ * Compares the round-trip (write then read) of a time series and of a trading record through:
+ * <ul>
+ *     <li>the Java serialization ({@link ObjectOutputStream}/{@link ObjectInputStream})
+ *     <li>the {@link BinaryWriter}/{@link BinaryReader} codec
+ * </ul>
+ * and checks that the codec returns the same bars and trades.
+ * Run it from the root directory of the repository (where the CSV files are).
+ */
+public class BinaryCodecBenchmark {
+
+    /** The CSV file of the bars */
+    private static final String FILE = "2016_H.csv";
+
+    /** The number of round-trips per measure */
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        TimeSeries series = CsvTicksLoader.load(FILE);
+        TradingRecord tradingRecord = new TimeSeriesManager(series).run(MovingMomentumStrategy.buildStrategy(series));
+        System.out.println(FILE + ": " + series.getBarCount() + " bars, " + tradingRecord.getTradeCount() + " trades");
+
+        check(series, tradingRecord);
+        // Warm-up
+        for (int i = 0; i < 5; i++) {
+            javaSerialization(series, tradingRecord, ITERATIONS);
+            binaryCodec(series, tradingRecord, ITERATIONS);
+        }
+
+        long[] javaResult = javaSerialization(series, tradingRecord, ITERATIONS);
+        long[] codecResult = binaryCodec(series, tradingRecord, ITERATIONS);
+        System.out.println("Round-trips of the series and the trading record, " + ITERATIONS + " times:");
+        System.out.printf("\tJava serialization: %d ms, %d KB%n", javaResult[0] / 1000000, javaResult[1] / 1024);
+        System.out.printf("\tBinary codec:       %d ms, %d KB (x%.1f faster, x%.1f smaller)%n",
+                codecResult[0] / 1000000, codecResult[1] / 1024,
+                (double) javaResult[0] / codecResult[0], (double) javaResult[1] / codecResult[1]);
+    }
+
+    /**
+     * @param series a time series
+     * @param tradingRecord a trading record
+     * @param iterations the number of round-trips
+     * @return the total time (in nanoseconds) and the size (in bytes) of one serialization
+     */
+    private static long[] javaSerialization(TimeSeries series, TradingRecord tradingRecord, int iterations)
+            throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < iterations; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+                output.writeObject(series);
+                output.writeObject(tradingRecord);
+            }
+            size = bytes.size();
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                input.readObject();
+                input.readObject();
+            }
+        }
+        return new long[] { System.nanoTime() - start, size };
+    }
+
+    /**
+     * @param series a time series
+     * @param tradingRecord a trading record
+     * @param iterations the number of round-trips
+     * @return the total time (in nanoseconds) and the size (in bytes) of one encoding
+     */
+    private static long[] binaryCodec(TimeSeries series, TradingRecord tradingRecord, int iterations) throws IOException {
+        long start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < iterations; i++) {
+            ByteArrayOutputStream bytes = encode(series, tradingRecord);
+            size = bytes.size();
+            try (BinaryReader reader = new BinaryReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+                reader.readTimeSeries();
+                reader.readTradingRecord();
+            }
+        }
+        return new long[] { System.nanoTime() - start, size };
+    }
+
+    /**
+     * Checks that the codec returns the same bars and trades.
+     * @param series a time series
+     * @param tradingRecord a trading record
+     */
+    private static void check(TimeSeries series, TradingRecord tradingRecord) throws IOException {
+        TimeSeries readSeries;
+        TradingRecord readRecord;
+        try (BinaryReader reader = new BinaryReader(new ByteArrayInputStream(encode(series, tradingRecord).toByteArray()))) {
+            readSeries = reader.readTimeSeries();
+            readRecord = reader.readTradingRecord();
+        }
+        if (readSeries.getBarCount() != series.getBarCount()) {
+            throw new IllegalStateException("Bar counts differ");
+        }
+        for (int i = 0; i < series.getBarCount(); i++) {
+            Bar expected = series.getBar(i), actual = readSeries.getBar(i);
+            if (!expected.getEndTime().equals(actual.getEndTime())
+                    || !expected.getClosePrice().equals(actual.getClosePrice())
+                    || !expected.getVolume().equals(actual.getVolume())) {
+                throw new IllegalStateException("Bars differ at index " + i);
+            }
+        }
+        if (!readRecord.getTrades().equals(tradingRecord.getTrades())) {
+            throw new IllegalStateException("Trades differ");
+        }
+    }
+
+    /**
+     * @param series a time series
+     * @param tradingRecord a trading record
+     * @return the encoded series and trading record
+     */
+    private static ByteArrayOutputStream encode(TimeSeries series, TradingRecord tradingRecord) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (BinaryWriter writer = new BinaryWriter(bytes)) {
+            writer.writeTimeSeries(series);
+            writer.writeTradingRecord(tradingRecord);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.Bar;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
+
+/**
+ * List of bars backed by primitive columns (e.g. {@link BarColumns bar columns} or a memory-mapped
+ * {@link BinaryBarFile binary bar file}).
+ * <p></p>
+ * The bars are only created when first accessed, then cached. Bars can be appended (they are stored
+ * as objects), replaced (e.g. the last bar of a live time series) and the first bar can be removed
+ * (for the maximum bar count of a time series); other modifications are not supported.
+ */
+final class ColumnarBarList extends AbstractList<Bar> implements RandomAccess {
+
+    /** The factory of the bars of the columns (by index in the columns) */
+    private final IntFunction<Bar> barFactory;
+
+    /** The number of bars in the columns */
+    private final int columnBarCount;
+
+    /** The bars already created from the columns */
+    private final Bar[] bars;
+
+    /** The bars appended after the columns */
+    private final List<Bar> appendedBars = new ArrayList<>();
+
+    /** The number of bars removed from the beginning of the columns */
+    private int removedCount = 0;
+
+    /**
+     * Constructor.
+     * @param barCount the number of bars in the columns
+     * @param barFactory the factory of the bars of the columns (by index in the columns)
+     */
+    ColumnarBarList(int barCount, IntFunction<Bar> barFactory) {
+        if (barCount < 0) {
+            throw new IllegalArgumentException("Bar count must be positive");
+        }
+        this.barFactory = barFactory;
+        this.columnBarCount = barCount;
+        this.bars = new Bar[barCount];
+    }
+
+    @Override
+    public Bar get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        int columnIndex = index + removedCount;
+        if (columnIndex >= columnBarCount) {
+            return appendedBars.get(columnIndex - columnBarCount);
+        }
+        Bar bar = bars[columnIndex];
+        if (bar == null) {
+            bar = barFactory.apply(columnIndex);
+            bars[columnIndex] = bar;
+        }
+        return bar;
+    }
+
+    @Override
+    public int size() {
+        return columnBarCount - removedCount + appendedBars.size();
+    }
+
+    @Override
+    public boolean add(Bar bar) {
+        modCount++;
+        return appendedBars.add(bar);
+    }
+
+    @Override
+    public Bar set(int index, Bar bar) {
+        Bar previous = get(index);
+        int columnIndex = index + removedCount;
+        if (columnIndex >= columnBarCount) {
+            appendedBars.set(columnIndex - columnBarCount, bar);
+        } else {
+            // The replacing bar takes the place of the (cached) bar of the columns
+            bars[columnIndex] = bar;
+        }
+        return previous;
+    }
+
+    @Override
+    public Bar remove(int index) {
+        if (index != 0) {
+            throw new UnsupportedOperationException("Only the first bar can be removed");
+        }
+        Bar removed = get(0);
+        modCount++;
+        if (removedCount < columnBarCount) {
+            bars[removedCount++] = null;
+        } else {
+            appendedBars.remove(0);
+        }
+        return removed;
+    }
+}
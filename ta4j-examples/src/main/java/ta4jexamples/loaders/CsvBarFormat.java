@@ -0,0 +1,197 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Layout of a CSV bar file, detected once from its header.
+ * <p></p>
+ * Supports the layouts of the files read by {@link CsvTicksLoader}:
+ * <ul>
+ *     <li>';' or ',' separators
+ *     <li>daily (DATE, OPEN, HIGH, LOW, CLOSE, VOLUME) and intraday (DATE, TIME, ...) columns,
+ *     in any order, possibly written as {@code <DATE>}, {@code <TIME>}, etc.
+ *     <li>decimal commas (with the ';' separator)
+ *     <li>decimal commas with the ',' separator (each number split in two fields), when the
+ *     header ends with one empty column per number column (i.e. per column other than DATE and TIME)
+ * </ul>
+ * The volume is read from the VOLUME column (or TICKVOL, or VOL); it is 0 if none of them exists.
+ */
+final class CsvBarFormat {
+
+    /** Column role: ignored column */
+    static final byte IGNORED = 0;
+    /** Column role: date (yyyy.MM.dd) */
+    static final byte DATE = 1;
+    /** Column role: time (H:mm[:ss]) */
+    static final byte TIME = 2;
+    /** Column role: open price */
+    static final byte OPEN = 3;
+    /** Column role: high price */
+    static final byte HIGH = 4;
+    /** Column role: low price */
+    static final byte LOW = 5;
+    /** Column role: close price */
+    static final byte CLOSE = 6;
+    /** Column role: volume */
+    static final byte VOLUME = 7;
+
+    /** The names of the volume columns, by order of preference */
+    private static final List<String> VOLUME_COLUMNS = Arrays.asList("VOLUME", "TICKVOL", "VOL");
+
+    /** The field separator */
+    final byte separator;
+
+    /** True if the numbers are split in two fields (integer part and decimals) */
+    final boolean splitDecimals;
+
+    /** True if the bars have a TIME column */
+    final boolean intraday;
+
+    /** The role of each (named) column */
+    final byte[] roles;
+
+    /**
+     * Constructor.
+     * @param separator the field separator
+     * @param splitDecimals true if the numbers are split in two fields
+     * @param roles the role of each (named) column
+     */
+    private CsvBarFormat(byte separator, boolean splitDecimals, byte[] roles) {
+        this.separator = separator;
+        this.splitDecimals = splitDecimals;
+        this.roles = roles;
+        boolean hasTime = false;
+        for (byte role : roles) {
+            hasTime |= role == TIME;
+        }
+        this.intraday = hasTime;
+    }
+
+    /**
+     * Detects the layout of a CSV bar file.
+     * @param header the header line of the file
+     * @return the layout of the file
+     * @throws IllegalArgumentException if the header has no valid separator or misses a mandatory column
+     */
+    static CsvBarFormat detect(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("Missing header");
+        }
+        final char separator;
+        if (header.indexOf(';') >= 0) {
+            separator = ';';
+        } else if (header.indexOf(',') >= 0) {
+            separator = ',';
+        } else {
+            throw new IllegalArgumentException("The header has no valid separator (valid separators: ';' and ',')");
+        }
+
+        String[] names = header.trim().split(String.valueOf(separator), -1);
+        int namedCount = names.length;
+        while (namedCount > 0 && columnName(names[namedCount - 1]).isEmpty()) {
+            namedCount--;
+        }
+
+        byte[] roles = new byte[namedCount];
+        int numberCount = 0;
+        int volumeColumn = -1;
+        int volumeRank = Integer.MAX_VALUE;
+        for (int i = 0; i < namedCount; i++) {
+            String name = columnName(names[i]);
+            switch (name) {
+                case "DATE": roles[i] = DATE; break;
+                case "TIME": roles[i] = TIME; break;
+                case "OPEN": roles[i] = OPEN; break;
+                case "HIGH": roles[i] = HIGH; break;
+                case "LOW": roles[i] = LOW; break;
+                case "CLOSE": roles[i] = CLOSE; break;
+                default: roles[i] = IGNORED;
+            }
+            int rank = VOLUME_COLUMNS.indexOf(name);
+            if (rank >= 0 && rank < volumeRank) {
+                volumeColumn = i;
+                volumeRank = rank;
+            }
+            if (roles[i] != DATE && roles[i] != TIME) {
+                numberCount++;
+            }
+        }
+        if (volumeColumn >= 0) {
+            roles[volumeColumn] = VOLUME;
+        }
+        for (byte mandatory : new byte[] { DATE, OPEN, HIGH, LOW, CLOSE }) {
+            if (indexOf(roles, mandatory) < 0) {
+                throw new IllegalArgumentException("The header misses the column " + roleName(mandatory) + ": " + header);
+            }
+        }
+
+        boolean splitDecimals = separator == ',' && numberCount > 0 && names.length - namedCount == numberCount;
+        return new CsvBarFormat((byte) separator, splitDecimals, roles);
+    }
+
+    /**
+     * @param role a column role
+     * @return true if the column holds a number
+     */
+    static boolean isNumber(byte role) {
+        return role >= OPEN;
+    }
+
+    /**
+     * @param rawName a raw column name (e.g. "&lt;DATE&gt;")
+     * @return the column name, upper-cased and without brackets
+     */
+    private static String columnName(String rawName) {
+        String name = rawName.trim();
+        if (name.startsWith("<") && name.endsWith(">")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @param roles the column roles
+     * @param role a role
+     * @return the index of the first column with the role (-1 if none)
+     */
+    private static int indexOf(byte[] roles, byte role) {
+        for (int i = 0; i < roles.length; i++) {
+            if (roles[i] == role) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param role a column role
+     * @return the column name of the role
+     */
+    private static String roleName(byte role) {
+        return new String[] { "", "DATE", "TIME", "OPEN", "HIGH", "LOW", "CLOSE", "VOLUME" }[role];
+    }
+}
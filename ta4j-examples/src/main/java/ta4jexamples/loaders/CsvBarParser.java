@@ -0,0 +1,419 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+import static ta4jexamples.loaders.CsvBarFormat.*;
+
+/**
+ * Byte-level parser of CSV bar lines.
+ * <p></p>
+ * Scans the bytes directly (no line strings, no splitting, no {@link java.time.format.DateTimeFormatter}),
+ * with hand-rolled number and timestamp parsing, and appends the bars to {@link BarColumns columns}.
+ * The layout of the lines is given by a {@link CsvBarFormat format} detected once per file.
+ * <p>
+ * A parser is not thread-safe: use one parser per thread.
+ */
+final class CsvBarParser {
+
+    /** The number of seconds per day */
+    private static final long SECONDS_PER_DAY = 86400;
+
+    /** The exactly representable powers of ten */
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    /** The maximum number of significant digits parsed as a long */
+    private static final int MAX_DIGITS = 18;
+
+    /** The layout of the lines */
+    private final CsvBarFormat format;
+
+    /** The rules of the time zone */
+    private final ZoneRules zoneRules;
+
+    /** The values of the current line, by column role */
+    private final double[] values = new double[VOLUME + 1];
+
+    /** The epoch day of the current line */
+    private long epochDay;
+
+    /** The second of day of the current line */
+    private int secondOfDay;
+
+    /** The first local epoch second of the cached offset */
+    private long offsetValidFrom = Long.MAX_VALUE;
+
+    /** The local epoch second after the last one of the cached offset */
+    private long offsetValidTo = Long.MIN_VALUE;
+
+    /** The cached offset of the time zone (in seconds) */
+    private int cachedOffset;
+
+    /**
+     * Constructor.
+     * @param format the layout of the lines
+     * @param zoneId the time zone of the bars
+     */
+    CsvBarParser(CsvBarFormat format, ZoneId zoneId) {
+        this.format = format;
+        this.zoneRules = zoneId.getRules();
+    }
+
+    /**
+     * Reads the header line at the beginning of a buffer.
+     * @param buffer the buffer
+     * @return the header line
+     */
+    static String readHeader(ByteBuffer buffer) {
+        int end = buffer.position();
+        while (end < buffer.limit() && buffer.get(end) != '\n') {
+            end++;
+        }
+        byte[] header = new byte[end - buffer.position()];
+        for (int i = 0; i < header.length; i++) {
+            header[i] = buffer.get(buffer.position() + i);
+        }
+        return new String(header, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * @param buffer a buffer
+     * @param from a position in the buffer
+     * @param to the limit of the search
+     * @return the start position of the line following the one containing the position (or the limit)
+     */
+    static int nextLineStart(ByteBuffer buffer, int from, int to) {
+        int position = from;
+        while (position < to && buffer.get(position) != '\n') {
+            position++;
+        }
+        return Math.min(position + 1, to);
+    }
+
+    /**
+     * Parses the lines between two positions of a buffer.
+     * @param buffer the buffer
+     * @param from the start position (beginning of a line)
+     * @param to the end position (exclusive, end of a line)
+     * @param columns the columns to append the bars to
+     * @throws IllegalArgumentException if a line cannot be parsed
+     */
+    void parse(ByteBuffer buffer, int from, int to, BarColumns columns) {
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            while (contentEnd > lineStart && (buffer.get(contentEnd - 1) == '\r' || buffer.get(contentEnd - 1) == ' ')) {
+                contentEnd--;
+            }
+            if (contentEnd > lineStart) {
+                parseLine(buffer, lineStart, contentEnd, columns);
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Parses a line and appends the bar.
+     * @param buffer the buffer
+     * @param start the start position of the line
+     * @param end the end position of the line (exclusive, without line separator)
+     * @param columns the columns to append the bar to
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end, BarColumns columns) {
+        epochDay = Long.MIN_VALUE;
+        secondOfDay = 0;
+        Arrays.fill(values, Double.NaN);
+        values[VOLUME] = 0;
+
+        final byte[] roles = format.roles;
+        int position = start;
+        int column = 0;
+        for (; column < roles.length && position <= end; column++) {
+            final byte role = roles[column];
+            if (role == DATE) {
+                position = parseDate(buffer, position, end);
+            } else if (role == TIME) {
+                position = parseTime(buffer, position, end);
+            } else if (role == IGNORED && !format.splitDecimals) {
+                while (position < end && buffer.get(position) != format.separator) {
+                    position++;
+                }
+            } else {
+                position = parseNumber(buffer, position, end, role);
+                if (position < 0) {
+                    throw invalidLine(buffer, start, end);
+                }
+            }
+            if (position < end && buffer.get(position) != format.separator) {
+                throw invalidLine(buffer, start, end);
+            }
+            // Skipping the separator
+            position++;
+        }
+        if (column < roles.length || epochDay == Long.MIN_VALUE) {
+            // Missing fields
+            throw invalidLine(buffer, start, end);
+        }
+
+        long endTime = toEpochMillis(epochDay * SECONDS_PER_DAY + secondOfDay);
+        columns.add(endTime, values[OPEN], values[HIGH], values[LOW], values[CLOSE], values[VOLUME]);
+    }
+
+    /**
+     * Parses a date (yyyy.MM.dd, yyyy-MM-dd or yyyy/MM/dd).
+     * @param buffer the buffer
+     * @param position the start position of the field
+     * @param end the end position of the line
+     * @return the position after the field
+     */
+    private int parseDate(ByteBuffer buffer, int position, int end) {
+        int year = 0, month = 0, day = 0;
+        int part = 0;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                int digit = b - '0';
+                if (part == 0) {
+                    year = year * 10 + digit;
+                } else if (part == 1) {
+                    month = month * 10 + digit;
+                } else {
+                    day = day * 10 + digit;
+                }
+            } else if ((b == '.' || b == '-' || b == '/') && part < 2) {
+                part++;
+            } else {
+                break;
+            }
+        }
+        if (part != 2 || month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new IllegalArgumentException("Invalid date: " + year + "." + month + "." + day);
+        }
+        epochDay = toEpochDay(year, month, day);
+        return position;
+    }
+
+    /**
+     * Parses a time (H:mm or H:mm:ss).
+     * @param buffer the buffer
+     * @param position the start position of the field
+     * @param end the end position of the line
+     * @return the position after the field
+     */
+    private int parseTime(ByteBuffer buffer, int position, int end) {
+        int hours = 0, minutes = 0, seconds = 0;
+        int part = 0;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                int digit = b - '0';
+                if (part == 0) {
+                    hours = hours * 10 + digit;
+                } else if (part == 1) {
+                    minutes = minutes * 10 + digit;
+                } else {
+                    seconds = seconds * 10 + digit;
+                }
+            } else if (b == ':' && part < 2) {
+                part++;
+            } else {
+                break;
+            }
+        }
+        if (part == 0 || hours > 23 || minutes > 59 || seconds > 59) {
+            throw new IllegalArgumentException("Invalid time: " + hours + ":" + minutes + ":" + seconds);
+        }
+        secondOfDay = hours * 3600 + minutes * 60 + seconds;
+        return position;
+    }
+
+    /**
+     * Parses a number (with a '.' or ',' decimal separator, or split in two fields).
+     * @param buffer the buffer
+     * @param position the start position of the field
+     * @param end the end position of the line
+     * @param role the role of the column (the value is not stored for ignored columns)
+     * @return the position after the field (-1 if the field of a column other than an ignored one has no digits)
+     */
+    private int parseNumber(ByteBuffer buffer, int position, int end, byte role) {
+        final int start = position;
+        final byte separator = format.separator;
+        boolean negative = false;
+        if (position < end && (buffer.get(position) == '-' || buffer.get(position) == '+')) {
+            negative = buffer.get(position) == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean hasDigits = false;
+        boolean decimals = false;
+        for (; position < end; position++) {
+            byte b = buffer.get(position);
+            if (b >= '0' && b <= '9') {
+                hasDigits = true;
+                if (digits < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (decimals) {
+                        scale++;
+                    }
+                } else if (!decimals) {
+                    // Too many digits for a long
+                    digits++;
+                }
+            } else if (!decimals && (b == '.' || (b == ',' && separator == ';')
+                    || (b == separator && format.splitDecimals))) {
+                decimals = true;
+            } else {
+                break;
+            }
+        }
+        if (role == IGNORED) {
+            return position;
+        }
+        if (!hasDigits) {
+            return -1;
+        }
+        if (digits > MAX_DIGITS || scale >= POWERS_OF_TEN.length || mantissa >= (1L << 53)) {
+            // Not exactly computable with doubles: falling back to the JDK parser
+            values[role] = parseDoubleFallback(buffer, start, position);
+        } else {
+            double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            values[role] = negative ? -value : value;
+        }
+        return position;
+    }
+
+    /**
+     * Parses a number with {@link Double#parseDouble(String)}.
+     * @param buffer the buffer
+     * @param start the start position of the number
+     * @param end the end position of the number
+     * @return the parsed number
+     */
+    private double parseDoubleFallback(ByteBuffer buffer, int start, int end) {
+        StringBuilder number = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = (char) buffer.get(i);
+            number.append(c == ',' || c == ';' ? '.' : c);
+        }
+        return Double.parseDouble(number.toString());
+    }
+
+    /**
+     * @param localEpochSecond a local date-time, in seconds since 1970-01-01T00:00
+     * @return the epoch milliseconds of the date-time in the time zone
+     */
+    private long toEpochMillis(long localEpochSecond) {
+        if (localEpochSecond < offsetValidFrom || localEpochSecond >= offsetValidTo) {
+            cacheOffset(localEpochSecond);
+        }
+        return (localEpochSecond - cachedOffset) * 1000;
+    }
+
+    /**
+     * Caches the offset of the time zone for a local date-time, with the local interval in which it is valid.
+     * @param localEpochSecond a local date-time, in seconds since 1970-01-01T00:00
+     */
+    private void cacheOffset(long localEpochSecond) {
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+        if (zoneRules.isFixedOffset()) {
+            cachedOffset = zoneRules.getOffset(Instant.EPOCH).getTotalSeconds();
+            offsetValidFrom = Long.MIN_VALUE;
+            offsetValidTo = Long.MAX_VALUE;
+            return;
+        }
+        ZoneOffsetTransition transition = zoneRules.getTransition(dateTime);
+        if (transition != null) {
+            // In a gap or an overlap: not cached. As with ZonedDateTime.of, the offset before the transition (a time
+            // in a gap is moved later by the length of the gap, a time in an overlap gets the earlier offset)
+            cachedOffset = transition.getOffsetBefore().getTotalSeconds();
+            offsetValidFrom = localEpochSecond;
+            offsetValidTo = localEpochSecond + 1;
+            return;
+        }
+        ZoneOffset offset = zoneRules.getOffset(dateTime);
+        Instant instant = dateTime.toInstant(offset);
+        // Transition at the instant included (e.g. the first time after a gap)
+        ZoneOffsetTransition previous = zoneRules.previousTransition(instant.plusNanos(1));
+        ZoneOffsetTransition next = zoneRules.nextTransition(instant);
+        cachedOffset = offset.getTotalSeconds();
+        offsetValidFrom = previous == null ? Long.MIN_VALUE
+                : Math.max(previous.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC), previous.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC));
+        offsetValidTo = next == null ? Long.MAX_VALUE
+                : Math.min(next.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC), next.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * @param year the year
+     * @param month the month (1-12)
+     * @param day the day of month
+     * @return the number of days since 1970-01-01 (proleptic Gregorian calendar)
+     */
+    static long toEpochDay(int year, int month, int day) {
+        // Shifting the year start to March (so that the leap day is the last day of the year)
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @param buffer the buffer
+     * @param start the start position of the line
+     * @param end the end position of the line
+     * @return an exception describing the invalid line
+     */
+    private static IllegalArgumentException invalidLine(ByteBuffer buffer, int start, int end) {
+        StringBuilder line = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            line.append((char) buffer.get(i));
+        }
+        return new IllegalArgumentException("Invalid CSV line: " + line);
+    }
+}
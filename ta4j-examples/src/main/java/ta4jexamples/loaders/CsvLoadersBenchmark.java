@@ -0,0 +1,235 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.TimeSeries;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Benchmark of the CSV bar loaders.
+ * <p></p>
+ * Compares, on the CSV files of the repository, the load time of:
+ * <ul>
+ *     <li>{@link CsvTicksLoader#load(String)}
+ *     <li>{@link FastCsvTicksLoader#loadColumns(java.nio.file.Path)} (parsing only)
+ *     <li>{@link FastCsvTicksLoader#load(String)} (parsing and building of the time series, whose bars are
+ *     created on first access)
+ *     <li>{@link FastCsvTicksLoader#load(String)}, then access of all the bars of the time series
+ * </ul>
+ * and checks that both loaders return the same bars.<br>
+ * Then compares {@link FastCsvTicksLoader} and {@link MappedCsvTicksLoader} on a large (generated) file,
+ * and measures the load of the same bars from {@link BinaryBarFile binary bar files}.
+ * Run it from the root directory of the repository (where the CSV files are).
+ */
+public class CsvLoadersBenchmark {
+
+    /** The files read by both loaders */
+    private static final String[] FILES = {
+            "DATA.csv", "2010_D.csv", "2021_D.csv", "2016_H.csv", "2017_H.csv", "2018_H.csv", "2019_H.csv", "2020_H.csv"
+    };
+
+    /** The files only read by the fast loader */
+    private static final String[] FAST_ONLY_FILES = {
+            "2009_2014.csv", "EURUSD_H1_201801020000_201902111900.csv"
+    };
+
+    /** The number of repetitions of the lines of the file in the large file */
+    private static final int LARGE_FILE_REPETITIONS = 200;
+
+    /** The number of loads of each file per measure */
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) throws IOException {
+        // Warm-up
+        for (int i = 0; i < 5; i++) {
+            measure(FILES, ITERATIONS);
+        }
+
+        long[] times = measure(FILES, ITERATIONS);
+        System.out.println("Loads of " + FILES.length + " files, " + ITERATIONS + " times:");
+        System.out.printf("\tCsvTicksLoader.load:            %d ms%n", times[0] / 1000000);
+        System.out.printf("\tFastCsvTicksLoader.loadColumns: %d ms (x%.1f)%n", times[1] / 1000000, (double) times[0] / times[1]);
+        System.out.printf("\tFastCsvTicksLoader.load:        %d ms (x%.1f)%n", times[2] / 1000000, (double) times[0] / times[2]);
+        System.out.printf("\t  + access of all the bars:     %d ms (x%.1f)%n", times[3] / 1000000, (double) times[0] / times[3]);
+
+        for (String file : FAST_ONLY_FILES) {
+            BarColumns columns = FastCsvTicksLoader.loadColumns(Paths.get(file));
+            System.out.println(file + ": " + columns.size() + " bars");
+        }
+
+        benchmarkLargeFile("2016_H.csv", LARGE_FILE_REPETITIONS);
+    }
+
+    /**
+     * Compares the sequential and the parallel memory-mapped loaders on a large file.
+     * @param file the CSV file repeated in the large file
+     * @param repetitions the number of repetitions of the lines of the file
+     * @throws IOException if the large file cannot be written or read
+     */
+    private static void benchmarkLargeFile(String file, int repetitions) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.ISO_8859_1);
+        Path largeFile = Files.createTempFile("bars", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(largeFile, StandardCharsets.ISO_8859_1)) {
+                writer.write(lines.get(0));
+                writer.newLine();
+                for (int i = 0; i < repetitions; i++) {
+                    for (String line : lines.subList(1, lines.size())) {
+                        // Shifting the years (yyyy.MM.dd dates) to keep the file sorted
+                        writer.write(String.valueOf(Integer.parseInt(line.substring(0, 4)) + i));
+                        writer.write(line, 4, line.length() - 4);
+                        writer.newLine();
+                    }
+                }
+            }
+            for (int i = 0; i < 3; i++) {
+                // Warm-up
+                MappedCsvTicksLoader.loadColumns(largeFile);
+            }
+            long start = System.nanoTime();
+            BarColumns sequential = FastCsvTicksLoader.loadColumns(largeFile);
+            long sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            BarColumns parallel = MappedCsvTicksLoader.loadColumns(largeFile);
+            long parallelTime = System.nanoTime() - start;
+            if (sequential.size() != parallel.size()) {
+                throw new IllegalStateException("Bar counts differ on the large file");
+            }
+            System.out.printf("Load of a %d MB file (%d bars, %d threads):%n", Files.size(largeFile) / (1024 * 1024),
+                    parallel.size(), ForkJoinPool.commonPool().getParallelism());
+            System.out.printf("\tFastCsvTicksLoader.loadColumns:   %d ms%n", sequentialTime / 1000000);
+            System.out.printf("\tMappedCsvTicksLoader.loadColumns: %d ms%n", parallelTime / 1000000);
+            benchmarkBinaryFiles(parallel);
+        } finally {
+            Files.delete(largeFile);
+        }
+    }
+
+    /**
+     * Measures the load of bars from (raw and compressed) binary bar files.
+     * @param columns the bars
+     * @throws IOException if a binary file cannot be written or read
+     */
+    private static void benchmarkBinaryFiles(BarColumns columns) throws IOException {
+        for (boolean compressed : new boolean[] { false, true }) {
+            Path binaryFile = Files.createTempFile("bars", ".t4jb");
+            try {
+                BinaryBarFile.write(columns, "bars", binaryFile, compressed);
+                long start = System.nanoTime();
+                TimeSeries series = BinaryBarFile.load(binaryFile);
+                long loadTime = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int i = 0; i < series.getBarCount(); i++) {
+                    Bar bar = series.getBar(i);
+                    if (bar.getEndEpochMilli() != columns.getEndTime(i)
+                            || bar.getClosePrice().doubleValue() != columns.getClosePrice(i)) {
+                        throw new IllegalStateException("Binary bar file: bars differ at index " + i);
+                    }
+                }
+                long accessTime = System.nanoTime() - start;
+                System.out.printf("\tBinaryBarFile.load (%s, %d MB): %d ms (+ %d ms to access all the bars)%n",
+                        compressed ? "compressed" : "raw", Files.size(binaryFile) / (1024 * 1024),
+                        loadTime / 1000000, accessTime / 1000000);
+            } finally {
+                Files.delete(binaryFile);
+            }
+        }
+    }
+
+    /**
+     * Loads the files with both loaders and checks the results.
+     * @param files the CSV files
+     * @param iterations the number of loads of each file
+     * @return the total times (in nanoseconds) of the four loading methods
+     * @throws IOException if a file cannot be read
+     */
+    private static long[] measure(String[] files, int iterations) throws IOException {
+        long[] times = new long[4];
+        for (String file : files) {
+            TimeSeries expected = null, actual = null;
+            BarColumns columns = null;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                expected = CsvTicksLoader.load(file);
+            }
+            times[0] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                columns = FastCsvTicksLoader.loadColumns(Paths.get(file));
+            }
+            times[1] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                actual = FastCsvTicksLoader.load(file);
+            }
+            times[2] += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                TimeSeries series = FastCsvTicksLoader.load(file);
+                for (int index = series.getBeginIndex(); index <= series.getEndIndex(); index++) {
+                    series.getBar(index);
+                }
+            }
+            times[3] += System.nanoTime() - start;
+
+            check(file, expected, actual, columns);
+        }
+        return times;
+    }
+
+    /**
+     * Checks that both loaders returned the same bars.
+     * @param file the CSV file
+     * @param expected the series returned by {@link CsvTicksLoader}
+     * @param actual the series returned by {@link FastCsvTicksLoader}
+     * @param columns the columns returned by {@link FastCsvTicksLoader}
+     */
+    private static void check(String file, TimeSeries expected, TimeSeries actual, BarColumns columns) {
+        if (expected.getBarCount() != actual.getBarCount() || expected.getBarCount() != columns.size()) {
+            throw new IllegalStateException(file + ": bar counts differ");
+        }
+        for (int i = 0; i < expected.getBarCount(); i++) {
+            if (!expected.getBar(i).getEndTime().equals(actual.getBar(i).getEndTime())
+                    || !expected.getBar(i).getOpenPrice().equals(actual.getBar(i).getOpenPrice())
+                    || !expected.getBar(i).getMaxPrice().equals(actual.getBar(i).getMaxPrice())
+                    || !expected.getBar(i).getMinPrice().equals(actual.getBar(i).getMinPrice())
+                    || !expected.getBar(i).getClosePrice().equals(actual.getBar(i).getClosePrice())
+                    || !expected.getBar(i).getVolume().equals(actual.getBar(i).getVolume())) {
+                throw new IllegalStateException(file + ": bars differ at index " + i);
+            }
+        }
+    }
+}
@@ -22,122 +22,437 @@
  */
 package ta4jexamples.loaders;
 
-import com.opencsv.CSVReader;
 import org.ta4j.core.Bar;
-import org.ta4j.core.BaseBar;
 import org.ta4j.core.BaseTimeSeries;
 import org.ta4j.core.TimeSeries;
+import org.ta4j.core.bars.BarSampling;
+import org.ta4j.core.bars.TradeBarAggregator;
 
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.time.Instant;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * This class builds a Ta4j time series from a CSV file containing trades.
+ * <p></p>
+ * The trades (lines "timestamp in seconds,price,amount") are read one by one and {@link TradeBarAggregator
+ * aggregated into bars} in a single pass, so that the memory used does not depend on the number of trades.
+ * Files with the most recent trades first are read backwards, block by block. Only the trades of a
+ * {@link #loadBars(BufferedReader, BarSampling, ZoneId) reader} in reverse chronological order have to be
+ * buffered (in primitive arrays) to be reversed.
  */
 public class CsvTradesLoader {
 
+    /** The Bitstamp trades resource */
+    private static final String BITSTAMP_TRADES = "bitstamp_trades_from_20131125_usd.csv";
+
+    /** The size of the blocks of the files read backwards */
+    static final int BLOCK_SIZE = 64 * 1024;
+
     /**
-     * @return a time series from Bitstamp (bitcoin exchange) trades
+     * @return a time series from Bitstamp (bitcoin exchange) trades, in bars of 5 minutes
      */
     public static TimeSeries loadBitstampSeries() {
+        return loadBitstampSeries(BarSampling.time(Duration.ofSeconds(300)));
+    }
+
+    /**
+     * @param sampling the sampling of the trades in bars
+     * @return a time series from Bitstamp (bitcoin exchange) trades
+     */
+    public static TimeSeries loadBitstampSeries(BarSampling sampling) {
+        List<Bar> bars = new ArrayList<>();
+        URL resource = CsvTradesLoader.class.getClassLoader().getResource(BITSTAMP_TRADES);
+        if (resource == null) {
+            Logger.getLogger(CsvTradesLoader.class.getName()).log(Level.SEVERE, "Unable to find trades resource " + BITSTAMP_TRADES);
+        } else {
+            try {
+                bars = loadBars(resource, sampling, ZoneId.systemDefault());
+            } catch (IOException ioe) {
+                Logger.getLogger(CsvTradesLoader.class.getName()).log(Level.SEVERE, "Unable to load trades from CSV", ioe);
+            }
+        }
+        return new BaseTimeSeries("bitstamp_trades", bars);
+    }
+
+    /**
+     * Builds bars from a trade file.
+     * @param file the trade file (a header line, then lines "timestamp in seconds,price,amount", in chronological
+     *             or reverse chronological order)
+     * @param sampling the sampling of the trades in bars
+     * @param zoneId the time zone of the bars
+     * @return the bars
+     * @throws IOException if the file cannot be read
+     */
+    public static List<Bar> loadBars(Path file, BarSampling sampling, ZoneId zoneId) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            final long dataStart = nextLineStart(channel, 0);
+            TradeLine firstTrade = new TradeLine();
+            TradeLine lastTrade = new TradeLine();
+            if (!firstTrade.parse(readLine(channel, dataStart))) {
+                // No trade (or an empty first line): read forward
+                return loadBars(forwardReader(channel, dataStart), sampling, zoneId);
+            }
+            ReverseLineReader reverseReader = new ReverseLineReader(channel, dataStart, BLOCK_SIZE);
+            String line;
+            while ((line = reverseReader.readLine()) != null && !lastTrade.parse(line)) {
+                // Skipping the empty last lines
+            }
+            if (firstTrade.time < lastTrade.time) {
+                // Chronological order: streamed
+                return loadBars(forwardReader(channel, dataStart), sampling, zoneId);
+            }
+
+            // Reverse chronological order (or a single time): read backwards, from the last trade
+            List<Bar> bars = new ArrayList<>();
+            TradeBarAggregator aggregator = new TradeBarAggregator(sampling, zoneId);
+            TradeLine trade = lastTrade;
+            do {
+                addTrade(aggregator, bars, trade.time, trade.amount, trade.price);
+                while ((line = reverseReader.readLine()) != null && !trade.parse(line)) {
+                    // Skipping the empty lines
+                }
+            } while (line != null);
+            Bar lastBar = aggregator.flush();
+            if (lastBar != null) {
+                bars.add(lastBar);
+            }
+            return bars;
+        }
+    }
+
+    /**
+     * Builds bars from trade lines.
+     * <p>
+     * The trades of a reader in reverse chronological order are buffered till the end (see
+     * {@link #loadBars(Path, BarSampling, ZoneId)} to read a file backwards instead).
+     * @param reader the reader of the trade lines ("timestamp in seconds,price,amount", in chronological
+     *               or reverse chronological order)
+     * @param sampling the sampling of the trades in bars
+     * @param zoneId the time zone of the bars
+     * @return the bars
+     * @throws IOException if the lines cannot be read
+     */
+    public static List<Bar> loadBars(BufferedReader reader, BarSampling sampling, ZoneId zoneId) throws IOException {
+        List<Bar> bars = new ArrayList<>();
+        TradeBarAggregator aggregator = new TradeBarAggregator(sampling, zoneId);
+        // Trades buffered until the order of the file is known (or till the end for a reverse chronological order)
+        TradeBuffer buffer = new TradeBuffer();
+        TradeLine trade = new TradeLine();
+        boolean chronological = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!trade.parse(line)) {
+                continue;
+            }
+            if (chronological) {
+                addTrade(aggregator, bars, trade.time, trade.amount, trade.price);
+                continue;
+            }
+            if (buffer.size > 0 && trade.time > buffer.times[0]) {
+                // Chronological order: the buffered trades can be aggregated, the next ones are streamed
+                chronological = true;
+                for (int i = 0; i < buffer.size; i++) {
+                    addTrade(aggregator, bars, buffer.times[i], buffer.amounts[i], buffer.prices[i]);
+                }
+                buffer = null;
+                addTrade(aggregator, bars, trade.time, trade.amount, trade.price);
+            } else {
+                buffer.add(trade.time, trade.price, trade.amount);
+            }
+        }
+        if (!chronological) {
+            // Reverse chronological order (or a single time): most recent trades first
+            for (int i = buffer.size - 1; i >= 0; i--) {
+                addTrade(aggregator, bars, buffer.times[i], buffer.amounts[i], buffer.prices[i]);
+            }
+        }
+        Bar lastBar = aggregator.flush();
+        if (lastBar != null) {
+            bars.add(lastBar);
+        }
+        return bars;
+    }
 
-        // Reading all lines of the CSV file
-        InputStream stream = CsvTradesLoader.class.getClassLoader().getResourceAsStream("bitstamp_trades_from_20131125_usd.csv");
-        CSVReader csvReader = null;
-        List<String[]> lines = null;
+    /**
+     * Builds bars from a trade resource (read backwards if it is a file, copied to a temporary file otherwise).
+     * @param resource the trade resource
+     * @param sampling the sampling of the trades in bars
+     * @param zoneId the time zone of the bars
+     * @return the bars
+     * @throws IOException if the resource cannot be read
+     */
+    private static List<Bar> loadBars(URL resource, BarSampling sampling, ZoneId zoneId) throws IOException {
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return loadBars(Paths.get(resource.toURI()), sampling, zoneId);
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid resource: " + resource, e);
+            }
+        }
+        // E.g. in a jar: not seekable
+        Path file = Files.createTempFile("trades", ".csv");
         try {
-            csvReader = new CSVReader(new InputStreamReader(stream, Charset.forName("UTF-8")), ',');
-            lines = csvReader.readAll();
-            lines.remove(0); // Removing header line
-        } catch (IOException ioe) {
-            Logger.getLogger(CsvTradesLoader.class.getName()).log(Level.SEVERE, "Unable to load trades from CSV", ioe);
+            try (InputStream stream = resource.openStream()) {
+                Files.copy(stream, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return loadBars(file, sampling, zoneId);
         } finally {
-            if (csvReader != null) {
-                try {
-                    csvReader.close();
-                } catch (IOException ioe) {
-                    ioe.printStackTrace();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Adds a trade to an aggregator.
+     * @param aggregator the aggregator
+     * @param bars the bars completed by the aggregator
+     * @param time the time of the trade (epoch milliseconds)
+     * @param amount the traded amount
+     * @param price the price
+     */
+    private static void addTrade(TradeBarAggregator aggregator, List<Bar> bars, long time, double amount, double price) {
+        Bar bar = aggregator.addTrade(time, amount, price);
+        if (bar != null) {
+            bars.add(bar);
+        }
+    }
+
+    /**
+     * @param channel a file channel
+     * @param position a position in the file
+     * @return a reader of the lines of the file from the position (closing the channel when closed)
+     * @throws IOException if the file cannot be read
+     */
+    private static BufferedReader forwardReader(SeekableByteChannel channel, long position) throws IOException {
+        return new BufferedReader(Channels.newReader(channel.position(position), StandardCharsets.UTF_8.newDecoder(), -1));
+    }
+
+    /**
+     * @param channel a file channel
+     * @param position a position in the file
+     * @return the position of the line after the one at the position (the size of the file for the last line)
+     * @throws IOException if the file cannot be read
+     */
+    private static long nextLineStart(SeekableByteChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        channel.position(position);
+        int read;
+        while ((read = channel.read(buffer)) > 0) {
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
                 }
             }
+            position += read;
+            buffer.clear();
         }
+        return channel.size();
+    }
+
+    /**
+     * @param channel a file channel
+     * @param position a position in the file
+     * @return the line at the position (without line separator)
+     * @throws IOException if the file cannot be read
+     */
+    private static String readLine(SeekableByteChannel channel, long position) throws IOException {
+        long end = nextLineStart(channel, position);
+        ByteBuffer line = ByteBuffer.allocate((int) (end - position));
+        channel.position(position);
+        while (line.hasRemaining() && channel.read(line) > 0) {
+            // Reading the whole line
+        }
+        return new String(line.array(), 0, line.position(), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * A trade line, parsed in place.
+     */
+    private static class TradeLine {
 
-        List<Bar> bars = null;
-        if ((lines != null) && !lines.isEmpty()) {
+        /** The time of the trade (epoch milliseconds) */
+        long time;
 
-            // Getting the first and last trades timestamps
-            ZonedDateTime beginTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(lines.get(0)[0]) * 1000), ZoneId.systemDefault());
-            ZonedDateTime endTime = ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(lines.get(lines.size() - 1)[0]) * 1000), ZoneId.systemDefault());
-            if (beginTime.isAfter(endTime)) {
-                Instant beginInstant = beginTime.toInstant();
-                Instant endInstant = endTime.toInstant();
-                beginTime = ZonedDateTime.ofInstant(endInstant, ZoneId.systemDefault());
-                endTime = ZonedDateTime.ofInstant(beginInstant, ZoneId.systemDefault());
-                // Since the CSV file has the most recent trades at the top of the file, we'll reverse the list to feed the List<Bar> correctly.
-                Collections.reverse(lines);
+        /** The price */
+        double price;
+
+        /** The traded amount */
+        double amount;
+
+        /**
+         * @param line a line ("timestamp in seconds,price,amount")
+         * @return true if the line was parsed, false if it is empty (or null)
+         * @throws IOException if the line is not a trade line
+         */
+        boolean parse(String line) throws IOException {
+            if (line == null || line.isEmpty()) {
+                return false;
+            }
+            int firstComma = line.indexOf(',');
+            int secondComma = line.indexOf(',', firstComma + 1);
+            if (firstComma < 0 || secondComma < 0) {
+                throw new IOException("Invalid trade line: " + line);
             }
-            // build the list of populated bars
-           	bars = buildBars(beginTime, endTime, 300, lines);
+            time = Long.parseLong(line.substring(0, firstComma)) * 1000;
+            price = Double.parseDouble(line.substring(firstComma + 1, secondComma));
+            amount = Double.parseDouble(line.substring(secondComma + 1).trim());
+            return true;
         }
+    }
 
-        return new BaseTimeSeries("bitstamp_trades", bars);
+    /**
+     * Reader of the lines of a file from the last one, by blocks: the memory used only depends on the block size
+     * (and on the longest line).
+     */
+    static class ReverseLineReader {
+
+        /** The file channel */
+        private final SeekableByteChannel channel;
+
+        /** The position of the first line to be read */
+        private final long start;
+
+        /** The size of the blocks */
+        private final int blockSize;
+
+        /** The bytes of the block being read (and of the beginning of the line after it) */
+        private byte[] bytes;
+
+        /** The position of the first byte of the bytes in the file */
+        private long bytesPosition;
+
+        /** The number of bytes not read yet (from the first byte) */
+        private int limit = 0;
+
+        /**
+         * Constructor.
+         * @param channel the file channel
+         * @param start the position of the first line to be read (e.g. after a header line)
+         * @param blockSize the size of the blocks
+         * @throws IOException if the size of the file cannot be read
+         */
+        ReverseLineReader(SeekableByteChannel channel, long start, int blockSize) throws IOException {
+            this.channel = channel;
+            this.start = start;
+            this.blockSize = blockSize;
+            this.bytes = new byte[2 * blockSize];
+            this.bytesPosition = channel.size();
+        }
+
+        /**
+         * @return the previous line (without line separator, may be empty), null after the first line
+         * @throws IOException if the file cannot be read
+         */
+        String readLine() throws IOException {
+            int searchFrom = limit;
+            while (true) {
+                for (int i = searchFrom - 1; i >= 0; i--) {
+                    if (bytes[i] == '\n') {
+                        String line = line(i + 1, limit);
+                        limit = i;
+                        return line;
+                    }
+                }
+                if (bytesPosition == start) {
+                    if (limit == 0) {
+                        return null;
+                    }
+                    String line = line(0, limit);
+                    limit = 0;
+                    return line;
+                }
+                searchFrom = readPreviousBlock();
+            }
+        }
+
+        /**
+         * Reads the block before the bytes.
+         * @return the number of bytes of the block (to be searched for a line separator)
+         * @throws IOException if the file cannot be read
+         */
+        private int readPreviousBlock() throws IOException {
+            int length = (int) Math.min(blockSize, bytesPosition - start);
+            if (limit + length > bytes.length) {
+                // Line longer than a block
+                bytes = Arrays.copyOf(bytes, limit + length);
+            }
+            System.arraycopy(bytes, 0, bytes, length, limit);
+            bytesPosition -= length;
+            ByteBuffer block = ByteBuffer.wrap(bytes, 0, length);
+            channel.position(bytesPosition);
+            while (block.hasRemaining()) {
+                if (channel.read(block) < 0) {
+                    throw new EOFException("Unexpected end of file");
+                }
+            }
+            limit += length;
+            return length;
+        }
+
+        /**
+         * @param from the first byte of the line
+         * @param to the byte after the last byte of the line
+         * @return the line (without '\r')
+         */
+        private String line(int from, int to) {
+            if (to > from && bytes[to - 1] == '\r') {
+                to--;
+            }
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        }
     }
 
     /**
-     * Builds a list of populated bars from csv data.
-     * @param beginTime the begin time of the whole period
-     * @param endTime the end time of the whole period
-     * @param duration the bar duration (in seconds)
-     * @param lines the csv data returned by CSVReader.readAll()
-     * @return the list of populated bars
+     * Trades stored in primitive arrays.
      */
-    private static List<Bar> buildBars(ZonedDateTime beginTime, ZonedDateTime endTime, int duration, List<String[]> lines) {
-
-    	List<Bar> bars = new ArrayList<>();
-
-    	Duration barDuration = Duration.ofSeconds(duration);
-    	ZonedDateTime barEndTime = beginTime;
-    	// line number of trade data
-    	int i = 0;
-    	do {
-    		// build a bar
-    		barEndTime = barEndTime.plus(barDuration);
-    		Bar bar = new BaseBar(barDuration, barEndTime);
-    		do {
-    			// get a trade
-    			String[] tradeLine = lines.get(i);
-    			ZonedDateTime tradeTimeStamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(tradeLine[0]) * 1000), ZoneId.systemDefault());
-    			// if the trade happened during the bar
-    			if (bar.inPeriod(tradeTimeStamp)) {
-    				// add the trade to the bar
-    				double tradePrice = Double.parseDouble(tradeLine[1]);
-    				double tradeAmount = Double.parseDouble(tradeLine[2]);
-    				bar.addTrade(tradeAmount, tradePrice);
-    			} else {
-    				// the trade happened after the end of the bar
-    				// go to the next bar but stay with the same trade (don't increment i)
-    				// this break will drop us after the inner "while", skipping the increment
-    				break;
-    			}
-    			i++;
-    		} while (i < lines.size());
-    		// if the bar has any trades add it to the bars list
-    		// this is where the break drops to
-    		if (bar.getTrades() > 0) {
-    			bars.add(bar);
-    		}
-    	} while (barEndTime.isBefore(endTime));
-    	return bars;
+    private static class TradeBuffer {
+
+        /** The times of the trades (epoch milliseconds) */
+        long[] times = new long[1024];
+
+        /** The prices of the trades */
+        double[] prices = new double[1024];
+
+        /** The traded amounts */
+        double[] amounts = new double[1024];
+
+        /** The number of trades */
+        int size = 0;
+
+        /**
+         * @param time the time of the trade (epoch milliseconds)
+         * @param price the price
+         * @param amount the traded amount
+         */
+        void add(long time, double price, double amount) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                prices = Arrays.copyOf(prices, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+            }
+            times[size] = time;
+            prices[size] = price;
+            amounts[size] = amount;
+            size++;
+        }
     }
 
     public static void main(String[] args) {
@@ -149,5 +464,11 @@ public class CsvTradesLoader {
                 + "\tVolume: " + series.getBar(0).getVolume() + "\n"
                 + "\tNumber of trades: " + series.getBar(0).getTrades() + "\n"
                 + "\tClose price: " + series.getBar(0).getClosePrice());
+
+        // Information-driven bars (of variable durations)
+        System.out.println("Number of bars of 100 trades: " + loadBitstampSeries(BarSampling.ticks(100)).getBarCount());
+        System.out.println("Number of bars of 50 BTC: " + loadBitstampSeries(BarSampling.volume(50)).getBarCount());
+        System.out.println("Number of bars of 50000 USD: " + loadBitstampSeries(BarSampling.amount(50000)).getBarCount());
+        System.out.println("Number of bars of a 5 USD range: " + loadBitstampSeries(BarSampling.range(5)).getBarCount());
     }
 }
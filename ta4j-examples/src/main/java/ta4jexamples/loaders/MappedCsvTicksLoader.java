@@ -0,0 +1,193 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.TimeSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class builds a Ta4j time series from a (large) CSV file containing bars, in parallel.
+ * <p></p>
+ * The file is memory-mapped and split into line-aligned chunks, parsed in parallel on a
+ * {@link ForkJoinPool fork-join pool} (with the same {@link CsvBarFormat format detection} and
+ * {@link CsvBarParser byte-level parsing} as {@link FastCsvTicksLoader}). The bars of the chunks are
+ * merged in end time order.<br>
+ * Files up to 2 GB are supported.
+ */
+public class MappedCsvTicksLoader {
+
+    /** The minimum size of a chunk (in bytes) */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    /** The number of chunks per thread of the pool (for load balancing) */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * @param name the name (path) of the CSV file
+     * @return the time series of the bars of the file (empty if the file cannot be read)
+     */
+    public static TimeSeries load(String name) {
+        return load(Paths.get(name), name);
+    }
+
+    /**
+     * @param file the CSV file
+     * @return the time series of the bars of the file (empty if the file cannot be read)
+     */
+    public static TimeSeries load(File file) {
+        return load(file.toPath(), file.getName());
+    }
+
+    /**
+     * Loads the bars of a CSV file in columns, on the common fork-join pool.
+     * @param file the CSV file
+     * @return the bars of the file sorted by end time, in the system default time zone
+     * @throws IOException if the file cannot be read
+     */
+    public static BarColumns loadColumns(Path file) throws IOException {
+        return loadColumns(file, ZoneId.systemDefault(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads the bars of a CSV file in columns.
+     * @param file the CSV file
+     * @param zoneId the time zone of the bars
+     * @param pool the fork-join pool parsing the chunks
+     * @return the bars of the file sorted by end time
+     * @throws IOException if the file cannot be read
+     */
+    public static BarColumns loadColumns(Path file, ZoneId zoneId, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Files larger than 2 GB are not supported: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            String header = CsvBarParser.readHeader(buffer);
+            CsvBarFormat format = CsvBarFormat.detect(header);
+
+            int dataStart = CsvBarParser.nextLineStart(buffer, 0, buffer.limit());
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, buffer.limit() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+            return pool.invoke(new ChunkTask(buffer, format, zoneId, dataStart, buffer.limit(), chunkSize));
+        }
+    }
+
+    /**
+     * @param file the CSV file
+     * @param name the name of the series
+     * @return the time series of the bars of the file (empty if the file cannot be read)
+     */
+    private static TimeSeries load(Path file, String name) {
+        try {
+            return loadColumns(file).toTimeSeries(name);
+        } catch (IOException ioe) {
+            Logger.getLogger(MappedCsvTicksLoader.class.getName()).log(Level.SEVERE, "Unable to load bars from CSV", ioe);
+        }
+        return new BaseTimeSeries(name);
+    }
+
+    /**
+     * Task parsing the lines between two positions of the file.
+     * <p>
+     * Splits the range at a line boundary until it is smaller than the chunk size, then merges the
+     * bars of both halves in end time order.
+     */
+    private static class ChunkTask extends RecursiveTask<BarColumns> {
+
+        private static final long serialVersionUID = -3197453920437437329L;
+
+        /** The content of the file (only read with absolute gets) */
+        private final ByteBuffer buffer;
+
+        /** The layout of the file */
+        private final CsvBarFormat format;
+
+        /** The time zone of the bars */
+        private final ZoneId zoneId;
+
+        /** The start position (beginning of a line) */
+        private final int from;
+
+        /** The end position (exclusive, end of a line) */
+        private final int to;
+
+        /** The maximum size of a chunk parsed without splitting */
+        private final int chunkSize;
+
+        /**
+         * Constructor.
+         * @param buffer the content of the file
+         * @param format the layout of the file
+         * @param zoneId the time zone of the bars
+         * @param from the start position (beginning of a line)
+         * @param to the end position (exclusive, end of a line)
+         * @param chunkSize the maximum size of a chunk parsed without splitting
+         */
+        ChunkTask(ByteBuffer buffer, CsvBarFormat format, ZoneId zoneId, int from, int to, int chunkSize) {
+            this.buffer = buffer;
+            this.format = format;
+            this.zoneId = zoneId;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected BarColumns compute() {
+            if (to - from > chunkSize) {
+                int middle = CsvBarParser.nextLineStart(buffer, from + (to - from) / 2, to);
+                if (middle < to) {
+                    ChunkTask first = new ChunkTask(buffer, format, zoneId, from, middle, chunkSize);
+                    ChunkTask second = new ChunkTask(buffer, format, zoneId, middle, to, chunkSize);
+                    first.fork();
+                    BarColumns secondColumns = second.compute();
+                    BarColumns firstColumns = first.join();
+                    if (firstColumns.size() == 0 || secondColumns.size() == 0
+                            || firstColumns.getEndTime(firstColumns.size() - 1) <= secondColumns.getEndTime(0)) {
+                        // Usual case (sorted file): appending in place
+                        firstColumns.addAll(secondColumns);
+                        return firstColumns;
+                    }
+                    return BarColumns.merge(firstColumns, secondColumns);
+                }
+            }
+            BarColumns columns = new BarColumns(zoneId, (to - from) / 50 + 1);
+            new CsvBarParser(format, zoneId).parse(buffer, from, to, columns);
+            columns.sort();
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.TimeSeries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class builds a single Ta4j time series from several CSV files containing bars (e.g. one file per year).
+ * <p></p>
+ * The files are parsed in parallel on a {@link ForkJoinPool fork-join pool} (as {@link FastCsvTicksLoader} does,
+ * each file with its own {@link CsvBarFormat detected format}). Their bars are merged by end time, and the
+ * bars found in several files (e.g. <code>2020_D.csv</code> and <code>2020_ENE_D.csv</code>) are only kept once.
+ * <p>
+ * The files of a directory have no priority order (the order of their names, e.g. of the month names, is
+ * arbitrary): their duplicated bars must be identical. Files given as a list are in priority order: the first
+ * file wins.<br>
+ * The end times of the bars of each file must be increasing.
+ */
+public class MultiFileCsvTicksLoader {
+
+    /** The default pattern of the files of a directory */
+    private static final String DEFAULT_GLOB = "*.csv";
+
+    /**
+     * @param directory the directory of the CSV files
+     * @param glob the glob pattern of the CSV files (e.g. "20??_D.csv")
+     * @return the time series of the bars of the files (empty if a file cannot be read)
+     */
+    public static TimeSeries load(String directory, String glob) {
+        String name = Paths.get(directory, glob).toString();
+        try {
+            return loadColumns(Paths.get(directory), glob).toTimeSeries(name);
+        } catch (IOException ioe) {
+            Logger.getLogger(MultiFileCsvTicksLoader.class.getName()).log(Level.SEVERE, "Unable to load bars from CSV", ioe);
+        }
+        return new BaseTimeSeries(name);
+    }
+
+    /**
+     * @param directory the directory of the CSV files
+     * @return the time series of the bars of all the CSV files of the directory (empty if a file cannot be read)
+     */
+    public static TimeSeries load(String directory) {
+        return load(directory, DEFAULT_GLOB);
+    }
+
+    /**
+     * Loads the bars of the CSV files of a directory in columns, on the common fork-join pool.
+     * @param directory the directory of the CSV files
+     * @param glob the glob pattern of the CSV files (e.g. "20??_D.csv")
+     * @return the bars of the files sorted by end time (without duplicates), in the system default time zone
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if the bars of a file are not strictly sorted by end time (e.g. duplicated end
+     *         times in a file), or if bars of the same end time differ between files
+     */
+    public static BarColumns loadColumns(Path directory, String glob) throws IOException {
+        return loadColumns(directory, glob, ZoneId.systemDefault(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads the bars of the CSV files of a directory in columns.
+     * @param directory the directory of the CSV files
+     * @param glob the glob pattern of the CSV files (e.g. "20??_D.csv")
+     * @param zoneId the time zone of the bars
+     * @param pool the fork-join pool parsing the files
+     * @return the bars of the files sorted by end time (without duplicates)
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if the bars of a file are not strictly sorted by end time (e.g. duplicated end
+     *         times in a file), or if bars of the same end time differ between files
+     */
+    public static BarColumns loadColumns(Path directory, String glob, ZoneId zoneId, ForkJoinPool pool)
+            throws IOException {
+        return loadColumns(listFiles(directory, glob), zoneId, pool, true);
+    }
+
+    /**
+     * Loads the bars of CSV files in columns.
+     * @param files the CSV files (in priority order for the duplicated bars)
+     * @param zoneId the time zone of the bars
+     * @param pool the fork-join pool parsing the files
+     * @return the bars of the files sorted by end time (without duplicates)
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if the bars of a file are not strictly sorted by end time (e.g. duplicated end
+     *         times in a file)
+     */
+    public static BarColumns loadColumns(List<Path> files, ZoneId zoneId, ForkJoinPool pool) throws IOException {
+        return loadColumns(files, zoneId, pool, false);
+    }
+
+    /**
+     * @param files the CSV files (in priority order for the duplicated bars, unless they must be identical)
+     * @param zoneId the time zone of the bars
+     * @param pool the fork-join pool parsing the files
+     * @param identicalDuplicates true if the duplicated bars must be identical
+     * @return the bars of the files sorted by end time (without duplicates)
+     * @throws IOException if a file cannot be read
+     * @throws IllegalArgumentException if the bars of a file are not strictly sorted by end time, or if duplicated
+     *         bars differ (when they must be identical)
+     */
+    private static BarColumns loadColumns(List<Path> files, ZoneId zoneId, ForkJoinPool pool,
+            boolean identicalDuplicates) throws IOException {
+        if (files.isEmpty()) {
+            return new BarColumns(zoneId);
+        }
+        BarColumns columns;
+        try {
+            columns = pool.invoke(new FilesTask(files, zoneId));
+        } catch (UncheckedIOException uioe) {
+            throw uioe.getCause();
+        }
+        if (identicalDuplicates) {
+            checkDuplicates(columns);
+        }
+        columns.removeDuplicates();
+        return columns;
+    }
+
+    /**
+     * @param directory a directory
+     * @param glob a glob pattern
+     * @return the files of the directory matching the pattern, sorted by name
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<Path> listFiles(Path directory, String glob) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Loads a CSV file and checks the order of its bars (the duplicates are only removed between files, e.g. for
+     * overlapping periods).
+     * @param file the CSV file
+     * @param zoneId the time zone of the bars
+     * @return the bars of the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the bars of the file are not strictly sorted by end time (e.g. duplicated end
+     *         times)
+     */
+    private static BarColumns loadFile(Path file, ZoneId zoneId) throws IOException {
+        BarColumns columns = FastCsvTicksLoader.parse(ByteBuffer.wrap(Files.readAllBytes(file)), zoneId);
+        for (int i = 1; i < columns.size(); i++) {
+            if (columns.getEndTime(i) <= columns.getEndTime(i - 1)) {
+                throw new IllegalArgumentException("Bars are not strictly sorted by end time in " + file + " (bar " + i
+                        + ")");
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Checks that the bars having the same end time are identical.
+     * @param columns the bars sorted by end time
+     * @throws IllegalArgumentException if bars of the same end time differ
+     */
+    private static void checkDuplicates(BarColumns columns) {
+        for (int i = 1; i < columns.size(); i++) {
+            if (columns.getEndTime(i) == columns.getEndTime(i - 1)
+                    && (Double.compare(columns.getOpenPrice(i), columns.getOpenPrice(i - 1)) != 0
+                    || Double.compare(columns.getMaxPrice(i), columns.getMaxPrice(i - 1)) != 0
+                    || Double.compare(columns.getMinPrice(i), columns.getMinPrice(i - 1)) != 0
+                    || Double.compare(columns.getClosePrice(i), columns.getClosePrice(i - 1)) != 0
+                    || Double.compare(columns.getVolume(i), columns.getVolume(i - 1)) != 0)) {
+                throw new IllegalArgumentException("Different bars ending at "
+                        + Instant.ofEpochMilli(columns.getEndTime(i)).atZone(columns.getZoneId()) + " in the files");
+            }
+        }
+    }
+
+    /**
+     * Task loading a list of files.
+     * <p>
+     * Splits the list in halves until a single file is left, then merges the bars of both halves in
+     * end time order (the bars of the first half coming first for equal end times).
+     */
+    private static class FilesTask extends RecursiveTask<BarColumns> {
+
+        private static final long serialVersionUID = 5317498146572103447L;
+
+        /** The files */
+        private final List<Path> files;
+
+        /** The time zone of the bars */
+        private final ZoneId zoneId;
+
+        /**
+         * Constructor.
+         * @param files the files (at least one)
+         * @param zoneId the time zone of the bars
+         */
+        FilesTask(List<Path> files, ZoneId zoneId) {
+            this.files = files;
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        protected BarColumns compute() {
+            if (files.size() == 1) {
+                try {
+                    return loadFile(files.get(0), zoneId);
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+            int middle = files.size() / 2;
+            FilesTask first = new FilesTask(files.subList(0, middle), zoneId);
+            FilesTask second = new FilesTask(files.subList(middle, files.size()), zoneId);
+            first.fork();
+            BarColumns secondColumns = second.compute();
+            return BarColumns.merge(first.join(), secondColumns);
+        }
+    }
+
+    public static void main(String[] args) {
+        TimeSeries dailySeries = load(".", "20??_D.csv");
+        System.out.println("Daily bars of " + dailySeries.getName() + ": " + dailySeries.getBarCount()
+                + " (" + dailySeries.getFirstBar().getEndTime() + " to " + dailySeries.getLastBar().getEndTime() + ")");
+        TimeSeries monthlySeries = load(".", "2020_???_D.csv");
+        System.out.println("Daily bars of " + monthlySeries.getName() + ": " + monthlySeries.getBarCount()
+                + " (" + monthlySeries.getFirstBar().getEndTime() + " to " + monthlySeries.getLastBar().getEndTime() + ")");
+    }
+}
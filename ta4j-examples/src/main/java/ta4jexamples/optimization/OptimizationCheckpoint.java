@@ -0,0 +1,340 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.optimization;
+
+import org.ta4j.core.AnalysisCriterion;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checkpoint of an optimization (or walk-forward) run.
+ * <p></p>
+ * Persists the completed parameter sets and their criterion values to a local file, so that a
+ * restarted run can skip the finished work. The best-so-far parameter set is rebuilt when the
+ * checkpoint is reopened.
+ * <p>
+ * The file is append-only and made of fixed-size binary records:
+ * <ul>
+ *     <li>a header: magic number (int), format version (int), number of parameters (int)
+ *     <li>one record per completed parameter set: the parameters (ints) and the criterion value (double)
+ * </ul>
+ * Records are buffered and written at most every flush interval, so that checkpointing costs a
+ * negligible part of the run. A record truncated by a crash is dropped when the checkpoint is reopened.
+ * For walk-forward runs, the index of the slice can be used as one of the parameters.
+ */
+public class OptimizationCheckpoint implements Closeable {
+
+    /** The magic number of the checkpoint files ("T4JC") */
+    private static final int MAGIC = 0x54344A43;
+
+    /** The version of the file format */
+    private static final int VERSION = 1;
+
+    /** The size of the file header (in bytes) */
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /** The size of the write buffer (in bytes) */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** The number of parameters of each parameter set */
+    private final int parameterCount;
+
+    /** The size of a record (in bytes) */
+    private final int recordSize;
+
+    /** The criterion used to choose the best parameter set */
+    private final AnalysisCriterion criterion;
+
+    /** The minimum delay between two writes to the file (in milliseconds) */
+    private final long flushIntervalMillis;
+
+    /** The checkpoint file channel */
+    private final FileChannel channel;
+
+    /** The records not written yet */
+    private final ByteBuffer buffer;
+
+    /** The criterion values of the completed parameter sets */
+    private final Map<ParameterSet, Double> values = new HashMap<>();
+
+    /** The time of the last write to the file (in milliseconds) */
+    private long lastFlushMillis;
+
+    /** The best parameter set so far */
+    private int[] bestParameters;
+
+    /** The criterion value of the best parameter set so far */
+    private double bestValue = Double.NaN;
+
+    /**
+     * Constructor.
+     * <p>
+     * Creates the checkpoint file, or reloads the completed parameter sets from it.
+     * @param file the checkpoint file
+     * @param parameterCount the number of parameters of each parameter set
+     * @param criterion the criterion used to choose the best parameter set
+     * @param flushIntervalMillis the minimum delay between two writes to the file (in milliseconds)
+     * @throws IOException if the file cannot be read or written
+     */
+    public OptimizationCheckpoint(Path file, int parameterCount, AnalysisCriterion criterion, long flushIntervalMillis)
+            throws IOException {
+        if (parameterCount < 1) {
+            throw new IllegalArgumentException("Parameter count must be strictly positive");
+        }
+        this.parameterCount = parameterCount;
+        this.recordSize = parameterCount * Integer.BYTES + Double.BYTES;
+        this.criterion = criterion;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, recordSize));
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader();
+            } else {
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        lastFlushMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @param parameters a parameter set
+     * @return true if the parameter set has already been completed, false otherwise
+     */
+    public boolean isDone(int... parameters) {
+        return values.containsKey(new ParameterSet(parameters));
+    }
+
+    /**
+     * @param parameters a parameter set
+     * @return the criterion value of the parameter set (NaN if not completed)
+     */
+    public double getValue(int... parameters) {
+        Double value = values.get(new ParameterSet(parameters));
+        return value == null ? Double.NaN : value;
+    }
+
+    /**
+     * Records a completed parameter set.
+     * <p>
+     * The record is written to the file if the flush interval has elapsed since the last write.
+     * @param value the criterion value of the parameter set
+     * @param parameters the parameter set
+     * @throws IOException if the file cannot be written
+     */
+    public void record(double value, int... parameters) throws IOException {
+        if (parameters.length != parameterCount) {
+            throw new IllegalArgumentException("Expected " + parameterCount + " parameters, got " + parameters.length);
+        }
+        int[] copy = parameters.clone();
+        values.put(new ParameterSet(copy), value);
+        updateBest(copy, value);
+
+        if (buffer.remaining() < recordSize) {
+            writeBuffer();
+        }
+        for (int parameter : copy) {
+            buffer.putInt(parameter);
+        }
+        buffer.putDouble(value);
+
+        if (System.currentTimeMillis() - lastFlushMillis >= flushIntervalMillis) {
+            flush();
+        }
+    }
+
+    /**
+     * @return the number of completed parameter sets
+     */
+    public int getCompletedCount() {
+        return values.size();
+    }
+
+    /**
+     * @return the best parameter set so far (null if none)
+     */
+    public int[] getBestParameters() {
+        return bestParameters == null ? null : bestParameters.clone();
+    }
+
+    /**
+     * @return the criterion value of the best parameter set so far (NaN if none)
+     */
+    public double getBestValue() {
+        return bestValue;
+    }
+
+    /**
+     * Writes the pending records to the file and forces them to the storage device.
+     * @throws IOException if the file cannot be written
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        channel.force(false);
+        lastFlushMillis = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the file header.
+     * @throws IOException if the file cannot be written
+     */
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(parameterCount).flip();
+        channel.truncate(0);
+        channel.write(header, 0);
+        channel.position(HEADER_SIZE);
+    }
+
+    /**
+     * Loads the completed parameter sets from the file and drops a truncated last record.
+     * @throws IOException if the file cannot be read
+     */
+    private void load() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a checkpoint file (or unsupported version)");
+        }
+        int fileParameterCount = header.getInt();
+        if (fileParameterCount != parameterCount) {
+            throw new IllegalArgumentException("The checkpoint file contains parameter sets of " + fileParameterCount
+                    + " parameters, expected " + parameterCount);
+        }
+
+        long recordCount = (channel.size() - HEADER_SIZE) / recordSize;
+        long end = HEADER_SIZE + recordCount * recordSize;
+        channel.position(HEADER_SIZE);
+        for (long position = HEADER_SIZE; position < end; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity() / recordSize * recordSize, end - position));
+            readFully(buffer, position);
+            position += buffer.limit();
+            while (buffer.hasRemaining()) {
+                int[] parameters = new int[parameterCount];
+                for (int i = 0; i < parameterCount; i++) {
+                    parameters[i] = buffer.getInt();
+                }
+                double value = buffer.getDouble();
+                values.put(new ParameterSet(parameters), value);
+                updateBest(parameters, value);
+            }
+        }
+        buffer.clear();
+
+        // Dropping the truncated record (if any)
+        channel.truncate(end);
+        channel.position(end);
+    }
+
+    /**
+     * Fills the buffer from the file.
+     * @param target the buffer to be filled (up to its limit)
+     * @param position the position in the file
+     * @throws IOException if the file cannot be read
+     */
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of checkpoint file");
+            }
+            position += read;
+        }
+        target.flip();
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     * @throws IOException if the file cannot be written
+     */
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @param parameters a completed parameter set
+     * @param value the criterion value of the parameter set
+     */
+    private void updateBest(int[] parameters, double value) {
+        if (bestParameters == null || criterion.betterThan(value, bestValue)) {
+            bestParameters = parameters;
+            bestValue = value;
+        }
+    }
+
+    /**
+     * A parameter set, usable as a map key.
+     */
+    private static final class ParameterSet {
+
+        /** The parameters */
+        private final int[] parameters;
+
+        /** The hash code of the parameters */
+        private final int hash;
+
+        /**
+         * Constructor.
+         * @param parameters the parameters
+         */
+        ParameterSet(int[] parameters) {
+            this.parameters = parameters;
+            this.hash = Arrays.hashCode(parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ParameterSet && Arrays.equals(parameters, ((ParameterSet) obj).parameters);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.optimization;
+
+import org.ta4j.core.*;
+import org.ta4j.core.analysis.criteria.TotalProfitCriterion;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.trading.rules.CrossedDownIndicatorRule;
+import org.ta4j.core.trading.rules.CrossedUpIndicatorRule;
+import ta4jexamples.loaders.CsvTicksLoader;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumable parameter sweep example.
+ * <p></p>
+ * Sweeps the periods of a moving averages crossover strategy and records each result in an
+ * {@link OptimizationCheckpoint}. When the run is restarted (e.g. after a crash), the parameter
+ * sets already completed are skipped.<br>
+ * The strategies are run in batches, in a {@link TimeSeriesManager#run(List) single loop over the bars}
+ * per batch, sharing the moving average indicators.
+ */
+public class ParameterSweep {
+
+    /** The shortest period of the sweep */
+    private static final int MIN_PERIOD = 2;
+
+    /** The longest period of the sweep */
+    private static final int MAX_PERIOD = 100;
+
+    /** The number of strategies per batch */
+    private static final int BATCH_SIZE = 64;
+
+    /** The minimum delay between two checkpoint writes (in milliseconds) */
+    private static final long FLUSH_INTERVAL_MILLIS = 5000;
+
+    /**
+     * @param shortSma the short moving average
+     * @param longSma the long moving average
+     * @return a moving averages crossover strategy
+     */
+    public static Strategy buildStrategy(SMAIndicator shortSma, SMAIndicator longSma) {
+        Rule entryRule = new CrossedUpIndicatorRule(shortSma, longSma);
+        Rule exitRule = new CrossedDownIndicatorRule(shortSma, longSma);
+        return new BaseStrategy(entryRule, exitRule);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String seriesFile = args.length > 0 ? args[0] : "2016_H.csv";
+        String checkpointFile = args.length > 1 ? args[1] : "sweep.checkpoint";
+
+        TimeSeries series = CsvTicksLoader.load(seriesFile);
+        TimeSeriesManager manager = new TimeSeriesManager(series);
+        AnalysisCriterion criterion = new TotalProfitCriterion();
+
+        // Building the moving averages once (shared by all the strategies)
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        SMAIndicator[] smas = new SMAIndicator[MAX_PERIOD + 1];
+        for (int period = MIN_PERIOD; period <= MAX_PERIOD; period++) {
+            smas[period] = new SMAIndicator(closePrice, period);
+        }
+
+        try (OptimizationCheckpoint checkpoint = new OptimizationCheckpoint(Paths.get(checkpointFile), 2, criterion,
+                FLUSH_INTERVAL_MILLIS)) {
+            System.out.println("Resuming with " + checkpoint.getCompletedCount() + " completed parameter sets");
+
+            List<int[]> batchParameters = new ArrayList<>(BATCH_SIZE);
+            List<Strategy> batch = new ArrayList<>(BATCH_SIZE);
+            long start = System.currentTimeMillis();
+            for (int shortPeriod = MIN_PERIOD; shortPeriod < MAX_PERIOD; shortPeriod++) {
+                for (int longPeriod = shortPeriod + 1; longPeriod <= MAX_PERIOD; longPeriod++) {
+                    // For each parameter set...
+                    if (checkpoint.isDone(shortPeriod, longPeriod)) {
+                        continue;
+                    }
+                    batchParameters.add(new int[] { shortPeriod, longPeriod });
+                    batch.add(buildStrategy(smas[shortPeriod], smas[longPeriod]));
+                    if (batch.size() == BATCH_SIZE) {
+                        runBatch(manager, criterion, checkpoint, batch, batchParameters);
+                    }
+                }
+            }
+            runBatch(manager, criterion, checkpoint, batch, batchParameters);
+
+            int[] best = checkpoint.getBestParameters();
+            System.out.println("Sweep done in " + (System.currentTimeMillis() - start) + " ms");
+            if (best != null) {
+                System.out.println("Best periods: " + best[0] + "/" + best[1] + " (profit: " + checkpoint.getBestValue() + ")");
+            }
+        }
+    }
+
+    /**
+     * Runs a batch of strategies and records the results.
+     * @param manager the time series manager
+     * @param criterion the analysis criterion
+     * @param checkpoint the checkpoint
+     * @param batch the strategies of the batch (cleared after the run)
+     * @param batchParameters the parameter sets of the strategies (cleared after the run)
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private static void runBatch(TimeSeriesManager manager, AnalysisCriterion criterion, OptimizationCheckpoint checkpoint,
+            List<Strategy> batch, List<int[]> batchParameters) throws IOException {
+        List<TradingRecord> tradingRecords = manager.run(batch);
+        for (int i = 0; i < batch.size(); i++) {
+            double value = criterion.calculate(manager.getTimeSeries(), tradingRecords.get(i));
+            checkpoint.record(value, batchParameters.get(i));
+        }
+        batch.clear();
+        batchParameters.clear();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.indicators;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.indicators.helpers.VolumeIndicator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class IndicatorsExporterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeBinary() throws IOException {
+        // Several blocks of rows, the last one partial
+        TimeSeries series = series(2 * IndicatorsExporter.BLOCK_ROWS + 100);
+        double[][] expected = exporter(series).evaluate(null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (ExecutorService e : new ExecutorService[] { null, executor }) {
+                Path file = folder.newFile().toPath();
+                exporter(series).writeBinary(file, e);
+                assertBinaryFile(series, expected, file);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void writeBinaryEmptySeries() throws IOException {
+        TimeSeries series = new BaseTimeSeries("empty");
+        Path file = folder.newFile().toPath();
+        exporter(series).writeBinary(file, null);
+        assertBinaryFile(series, new double[4][0], file);
+    }
+
+    /**
+     * @param series a series
+     * @return an exporter of indicator columns (sharing the close price) and factory columns
+     */
+    private static IndicatorsExporter exporter(TimeSeries series) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(series);
+        return new IndicatorsExporter(series)
+                .add("close", closePrice)
+                .add("sma", new SMAIndicator(closePrice, 10))
+                .add("ema", s -> new EMAIndicator(new ClosePriceIndicator(s), 20))
+                .add("volume", VolumeIndicator::new);
+    }
+
+    private static void assertBinaryFile(TimeSeries series, double[][] expected, Path file) throws IOException {
+        String[] names = { "close", "sma", "ema", "volume" };
+        int barCount = series.getBarCount();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0x54344A49, buffer.getInt());
+        assertEquals(1, buffer.getShort());
+        assertEquals(names.length, buffer.getShort());
+        assertEquals(barCount, buffer.getInt());
+        for (String name : names) {
+            byte[] bytes = new byte[buffer.getShort()];
+            buffer.get(bytes);
+            assertEquals(name, new String(bytes, StandardCharsets.UTF_8));
+        }
+        buffer.position((buffer.position() + 7) & ~7);
+        assertEquals(buffer.position() + 8L * barCount * (names.length + 1), buffer.capacity());
+        for (int row = 0; row < barCount; row++) {
+            assertEquals(series.getBar(row).getEndEpochMilli(), buffer.getLong());
+        }
+        for (double[] column : expected) {
+            for (double value : column) {
+                assertEquals(value, buffer.getDouble(), 0);
+            }
+        }
+    }
+
+    private static TimeSeries series(int barCount) {
+        TimeSeries series = new BaseTimeSeries("Exported bars");
+        ZonedDateTime time = ZonedDateTime.of(2017, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+        for (int i = 0; i < barCount; i++) {
+            double price = 100 + (i * 7 % 13) * 0.25;
+            series.addBar(new BaseBar(Duration.ofMinutes(1), time.plusMinutes(i), Decimal.valueOf(price),
+                    Decimal.valueOf(price + 1), Decimal.valueOf(price - 0.5), Decimal.valueOf(price + 0.25),
+                    Decimal.valueOf(i % 100)));
+        }
+        return series;
+    }
+}
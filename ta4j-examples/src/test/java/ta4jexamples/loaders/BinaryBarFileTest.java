@@ -0,0 +1,195 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseTimeSeries;
+import org.ta4j.core.Decimal;
+import org.ta4j.core.TimeSeries;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryBarFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        TimeSeries series = series(500);
+        for (boolean compressed : new boolean[] { false, true }) {
+            Path file = folder.newFile().toPath();
+            BinaryBarFile.write(series, file, compressed);
+            TimeSeries loaded = BinaryBarFile.load(file);
+            assertEquals(series.getName(), loaded.getName());
+            assertEquals(series.getBarCount(), loaded.getBarCount());
+            for (int i = 0; i < series.getBarCount(); i++) {
+                assertBarEquals(series.getBar(i), loaded.getBar(i));
+            }
+        }
+    }
+
+    @Test
+    public void emptySeries() throws IOException {
+        Path file = folder.newFile().toPath();
+        BinaryBarFile.write(new BaseTimeSeries("empty"), file, true);
+        TimeSeries loaded = BinaryBarFile.load(file);
+        assertEquals("empty", loaded.getName());
+        assertTrue(loaded.isEmpty());
+    }
+
+    @Test
+    public void liveSeries() throws IOException {
+        TimeSeries series = series(101);
+        Path file = folder.newFile().toPath();
+        BinaryBarFile.write(series.getSubSeries(0, 100), file, false);
+        TimeSeries loaded = BinaryBarFile.load(file);
+        loaded.setMaximumBarCount(50);
+
+        // Replacing the last bar of the columns
+        Bar lastBar = bar(series.getBar(99).getEndTime(), 7.5);
+        loaded.addBar(lastBar, true);
+        assertSame(lastBar, loaded.getBar(99));
+        assertEquals(50, loaded.getBarCount());
+
+        // Appending a bar, then replacing it
+        loaded.addBar(series.getBar(100));
+        Bar newBar = bar(series.getBar(100).getEndTime(), 8.25);
+        loaded.addBar(newBar, true);
+        assertSame(newBar, loaded.getBar(100));
+        assertSame(lastBar, loaded.getBar(99));
+        assertEquals(51, loaded.getRemovedBarsCount());
+        assertBarEquals(series.getBar(51), loaded.getBar(51));
+    }
+
+    @Test
+    public void truncatedFiles() throws IOException {
+        TimeSeries series = series(200);
+        for (boolean compressed : new boolean[] { false, true }) {
+            Path file = folder.newFile().toPath();
+            BinaryBarFile.write(series, file, compressed);
+            byte[] bytes = Files.readAllBytes(file);
+            for (int length : new int[] { 0, 12, 30, bytes.length / 2, bytes.length - 1 }) {
+                Files.write(file, Arrays.copyOf(bytes, length));
+                assertCorrupted(file);
+            }
+        }
+    }
+
+    @Test
+    public void corruptedBarCounts() throws IOException {
+        TimeSeries series = series(10);
+        for (boolean compressed : new boolean[] { false, true }) {
+            Path file = folder.newFile().toPath();
+            BinaryBarFile.write(series, file, compressed);
+            byte[] bytes = Files.readAllBytes(file);
+            // The bar count (offset 8) would overflow the offsets of the columns in int
+            for (int barCount : new int[] { -1, 11, 0x10000000, Integer.MAX_VALUE }) {
+                ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(8, barCount);
+                Files.write(file, bytes);
+                assertCorrupted(file);
+            }
+        }
+    }
+
+    @Test
+    public void corruptedCompressedColumn() throws IOException {
+        Path file = folder.newFile().toPath();
+        BinaryBarFile.write(series(50), file, true);
+        byte[] bytes = Files.readAllBytes(file);
+        // Continuation bit on the last byte of the compressed end times
+        int headerSize = headerSize(bytes);
+        int timesSize = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).getInt(headerSize);
+        bytes[headerSize + 4 + timesSize - 1] |= 0x80;
+        Files.write(file, bytes);
+        assertCorrupted(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void notABinaryBarFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "date,open,high,low,close,volume\n2016-01-01,1,2,0.5,1.5,10\n".getBytes());
+        BinaryBarFile.load(file);
+    }
+
+    private static void assertCorrupted(Path file) throws IOException {
+        try {
+            BinaryBarFile.load(file);
+            fail("Corrupted file loaded");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * @param bytes the bytes of a binary bar file
+     * @return the size of the header (i.e. the position of the columns)
+     */
+    private static int headerSize(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int zoneLength = buffer.getShort(20);
+        int nameLength = buffer.getShort(22 + zoneLength);
+        return (24 + zoneLength + nameLength + 7) & ~7;
+    }
+
+    private static TimeSeries series(int barCount) {
+        TimeSeries series = new BaseTimeSeries("Binary bars");
+        ZonedDateTime time = ZonedDateTime.of(2017, 10, 28, 0, 0, 0, 0, ZoneId.of("Europe/Paris"));
+        for (int i = 0; i < barCount; i++) {
+            series.addBar(bar(time.plusHours(i), 100 + (i * 7 % 13) * 0.25));
+        }
+        return series;
+    }
+
+    private static Bar bar(ZonedDateTime endTime, double price) {
+        return new BaseBar(Duration.ofHours(1), endTime, Decimal.valueOf(price), Decimal.valueOf(price + 1),
+                Decimal.valueOf(price - 0.5), Decimal.valueOf(price + 0.25), Decimal.valueOf(price * 10),
+                Decimal.valueOf(price * 1000), 0);
+    }
+
+    private static void assertBarEquals(Bar expected, Bar actual) {
+        assertEquals(expected.getTimePeriod(), actual.getTimePeriod());
+        assertEquals(expected.getEndTime().toInstant(), actual.getEndTime().toInstant());
+        assertEquals(expected.getEndTime().getZone(), actual.getEndTime().getZone());
+        assertEquals(expected.getOpenPrice().doubleValue(), actual.getOpenPrice().doubleValue(), 0);
+        assertEquals(expected.getMaxPrice().doubleValue(), actual.getMaxPrice().doubleValue(), 0);
+        assertEquals(expected.getMinPrice().doubleValue(), actual.getMinPrice().doubleValue(), 0);
+        assertEquals(expected.getClosePrice().doubleValue(), actual.getClosePrice().doubleValue(), 0);
+        assertEquals(expected.getVolume().doubleValue(), actual.getVolume().doubleValue(), 0);
+        assertEquals(expected.getAmount().doubleValue(), actual.getAmount().doubleValue(), 0);
+    }
+}
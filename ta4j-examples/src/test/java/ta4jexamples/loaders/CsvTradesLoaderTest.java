@@ -0,0 +1,130 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.Bar;
+import org.ta4j.core.bars.BarSampling;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CsvTradesLoaderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private static final BarSampling SAMPLING = BarSampling.time(Duration.ofMinutes(5));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void reverseChronologicalFile() throws IOException {
+        // More than a few blocks of trades
+        List<String> lines = tradeLines(40000);
+        assertTrue(lines.size() * 20 > 4 * CsvTradesLoader.BLOCK_SIZE);
+        Path chronologicalFile = write(lines, "\n");
+        List<String> reversedLines = new ArrayList<>(lines);
+        Collections.reverse(reversedLines);
+        Path reverseFile = write(reversedLines, "\r\n");
+
+        List<Bar> expected;
+        try (BufferedReader reader = Files.newBufferedReader(chronologicalFile)) {
+            reader.readLine();
+            expected = CsvTradesLoader.loadBars(reader, SAMPLING, ZONE);
+        }
+        assertTrue(expected.size() > 10);
+        assertBarsEqual(expected, CsvTradesLoader.loadBars(chronologicalFile, SAMPLING, ZONE));
+        assertBarsEqual(expected, CsvTradesLoader.loadBars(reverseFile, SAMPLING, ZONE));
+    }
+
+    @Test
+    public void singleTradeAndEmptyFiles() throws IOException {
+        List<Bar> bars = CsvTradesLoader.loadBars(write(Collections.singletonList("1385337600,800.5,0.25"), "\n"),
+                SAMPLING, ZONE);
+        assertEquals(1, bars.size());
+        assertEquals(1, bars.get(0).getTrades());
+        assertTrue(CsvTradesLoader.loadBars(write(Collections.<String> emptyList(), "\n"), SAMPLING, ZONE).isEmpty());
+    }
+
+    @Test
+    public void reverseLineReader() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "header\nfirst\r\n\nline longer than a block\nx\nlast\n".getBytes(StandardCharsets.UTF_8));
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            CsvTradesLoader.ReverseLineReader reader = new CsvTradesLoader.ReverseLineReader(channel, 7, 4);
+            String[] expected = { "", "last", "x", "line longer than a block", "", "first" };
+            for (String line : expected) {
+                assertEquals(line, reader.readLine());
+            }
+            assertNull(reader.readLine());
+        }
+    }
+
+    private Path write(List<String> lines, String lineSeparator) throws IOException {
+        StringBuilder content = new StringBuilder("timestamp,price,amount").append(lineSeparator);
+        for (String line : lines) {
+            content.append(line).append(lineSeparator);
+        }
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static List<String> tradeLines(int tradeCount) {
+        List<String> lines = new ArrayList<>(tradeCount);
+        long time = 1385337600;
+        for (int i = 0; i < tradeCount; i++) {
+            // Several trades per second, and gaps
+            time += (i % 5 == 0 ? 1 : 0) + (i % 997 == 0 ? 600 : 0);
+            lines.add(time + "," + (800 + (i * 37 % 101) / 4.0) + "," + (0.125 * (1 + i % 9)));
+        }
+        return lines;
+    }
+
+    private static void assertBarsEqual(List<Bar> expected, List<Bar> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+            assertEquals(expected.get(i).getOpenPrice(), actual.get(i).getOpenPrice());
+            assertEquals(expected.get(i).getMaxPrice(), actual.get(i).getMaxPrice());
+            assertEquals(expected.get(i).getMinPrice(), actual.get(i).getMinPrice());
+            assertEquals(expected.get(i).getClosePrice(), actual.get(i).getClosePrice());
+            assertEquals(expected.get(i).getVolume(), actual.get(i).getVolume());
+            assertEquals(expected.get(i).getTrades(), actual.get(i).getTrades());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.Assert.*;
+
+public class FastCsvTicksLoaderTest {
+
+    private static final ZoneId MADRID = ZoneId.of("Europe/Madrid");
+
+    @Test
+    public void timesInDaylightSavingTimeGap() {
+        // 2017-03-26 02:00 --> 03:00 in Madrid: 02:30 does not exist (moved to 03:30, i.e. 01:30Z)
+        assertEndTimes("2017.03.26;00:30:00", "2017.03.26;01:30:00", "2017.03.26;02:30:00", "2017.03.26;04:00:00",
+                "2017.03.26;05:00:00");
+        assertEquals(ZonedDateTime.parse("2017-03-26T01:30Z").toInstant().toEpochMilli(),
+                parse("2017.03.26;02:30:00").getEndTime(0));
+    }
+
+    @Test
+    public void timesInDaylightSavingTimeOverlap() {
+        // 2017-10-29 03:00 --> 02:00 in Madrid: 02:30 exists twice (the first one kept, i.e. 00:30Z)
+        assertEndTimes("2017.10.29;00:30:00", "2017.10.29;01:30:00", "2017.10.29;02:30:00", "2017.10.29;03:30:00",
+                "2017.10.29;04:30:00");
+        assertEquals(ZonedDateTime.parse("2017-10-29T00:30Z").toInstant().toEpochMilli(),
+                parse("2017.10.29;02:30:00").getEndTime(0));
+    }
+
+    @Test
+    public void timesAcrossTransitions() {
+        // Hourly bars over a year: the cached offsets are renewed at each transition
+        String[] dateTimes = new String[365 * 24];
+        LocalDateTime dateTime = LocalDateTime.of(2016, 12, 31, 23, 0);
+        for (int i = 0; i < dateTimes.length; i++) {
+            do {
+                dateTime = dateTime.plusHours(1);
+                // Skipping the duplicated end times of the gaps (02:xx moved to 03:xx)
+            } while (MADRID.getRules().getTransition(dateTime) != null && MADRID.getRules().getTransition(dateTime).isGap());
+            dateTimes[i] = String.format("%04d.%02d.%02d;%02d:00:00", dateTime.getYear(), dateTime.getMonthValue(),
+                    dateTime.getDayOfMonth(), dateTime.getHour());
+        }
+        assertEndTimes(dateTimes);
+    }
+
+    @Test
+    public void timesBeforeTransitions() {
+        // Times before a transition after the first time of the new offset (unsorted lines)
+        assertEndTimes("2017.03.26;03:00:00", "2017.03.21;03:00:00", "2017.10.29;03:00:00", "2017.10.28;03:00:00");
+    }
+
+    @Test
+    public void linesWithMissingFields() {
+        assertInvalid("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME", "2017.01.02;1.0;2.0");
+        assertInvalid("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME", "2017.01.02;1,05155;1,05245;1,04616;1,04718");
+        // Missing time
+        assertInvalid("DATE;TIME;OPEN;HIGH;LOW;CLOSE;VOLUME", "2017.01.02");
+    }
+
+    @Test
+    public void linesWithEmptyNumbers() {
+        assertInvalid("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME", "2017.01.03;;;;;");
+        assertInvalid("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME", "2017.01.03;1,05155;1,05245;1,04616;1,04718;");
+        assertInvalid("DATE,OPEN,HIGH,LOW,CLOSE,VOLUME,,,,,", "2017.01.03,1,05155,1,05245,,,1,04718,-1,0");
+    }
+
+    @Test
+    public void emptyIgnoredFields() {
+        BarColumns columns = parseLines("<DATE>;<OPEN>;<HIGH>;<LOW>;<CLOSE>;<TICKVOL>;<SPREAD>",
+                "2017.01.02;105100;105275;104480;104519;72920;", "2017.01.03;104524;104898;103399;104044;139335;7");
+        assertEquals(2, columns.size());
+        assertEquals(104519, columns.getClosePrice(0), 0);
+        assertEquals(139335, columns.getVolume(1), 0);
+    }
+
+    private static void assertInvalid(String header, String line) {
+        try {
+            parseLines(header, line);
+            fail("Invalid line parsed: " + line);
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static BarColumns parseLines(String header, String... lines) {
+        StringBuilder csv = new StringBuilder(header).append('\n');
+        for (String line : lines) {
+            csv.append(line).append('\n');
+        }
+        return FastCsvTicksLoader.parse(ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII)), MADRID);
+    }
+
+    /**
+     * Checks the end times of the parsed bars against the ones of {@link ZonedDateTime#of(LocalDateTime, ZoneId)}
+     * (as in {@link CsvTicksLoader}).
+     * @param dateTimes the dates and times of the lines (yyyy.MM.dd;HH:mm:ss)
+     */
+    private static void assertEndTimes(String... dateTimes) {
+        BarColumns columns = parse(dateTimes);
+        assertEquals(dateTimes.length, columns.size());
+        for (int i = 0; i < dateTimes.length; i++) {
+            LocalDateTime dateTime = LocalDateTime.parse(dateTimes[i].replace('.', '-').replace(';', 'T'));
+            assertEquals(dateTimes[i], ZonedDateTime.of(dateTime, MADRID).toInstant().toEpochMilli(),
+                    columns.getEndTime(i));
+        }
+    }
+
+    private static BarColumns parse(String... dateTimes) {
+        StringBuilder csv = new StringBuilder("DATE;TIME;OPEN;HIGH;LOW;CLOSE;VOLUME\n");
+        for (String dateTime : dateTimes) {
+            csv.append(dateTime).append(";1,0931;1,09313;1,09238;1,09262;-1\n");
+        }
+        return FastCsvTicksLoader.parse(ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII)), MADRID);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MappedCsvTicksLoaderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Madrid");
+
+    /** The minimum size of a chunk of the loader */
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    private static ForkJoinPool pool;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void sortedFile() throws IOException {
+        List<String> lines = lines(10000);
+        assertNoLineLostOrDuplicated(write(lines, "\n"));
+        assertNoLineLostOrDuplicated(write(lines, "\r\n"));
+    }
+
+    @Test
+    public void chunksOutOfOrder() throws IOException {
+        // Blocks of lines in reverse order, with unsorted lines inside the blocks
+        List<String> lines = lines(10000);
+        List<String> unsortedLines = new ArrayList<>();
+        for (int blockEnd = lines.size(); blockEnd > 0; blockEnd -= 700) {
+            List<String> block = new ArrayList<>(lines.subList(Math.max(0, blockEnd - 700), blockEnd));
+            Collections.swap(block, 0, block.size() - 1);
+            unsortedLines.addAll(block);
+        }
+        BarColumns columns = assertNoLineLostOrDuplicated(write(unsortedLines, "\n"));
+        assertTrue(columns.isSorted());
+    }
+
+    @Test
+    public void duplicatedEndTimes() throws IOException {
+        // Same end times in different chunks: kept in file order, as by a stable sort
+        List<String> lines = lines(5000);
+        List<String> duplicatedLines = new ArrayList<>(lines);
+        for (String line : lines) {
+            duplicatedLines.add(line.replace(";-1", ";7"));
+        }
+        BarColumns columns = assertNoLineLostOrDuplicated(write(duplicatedLines, "\n"));
+        assertEquals(-1, columns.getVolume(0), 0);
+        assertEquals(7, columns.getVolume(1), 0);
+    }
+
+    /**
+     * Checks that the bars loaded in parallel are the (stably) sorted bars of a sequential parse.
+     * @param file a CSV file, large enough to be split in several chunks
+     * @return the bars loaded in parallel
+     * @throws IOException if the file cannot be read
+     */
+    private static BarColumns assertNoLineLostOrDuplicated(Path file) throws IOException {
+        assertTrue(Files.size(file) > 4 * MIN_CHUNK_SIZE);
+        BarColumns expected = FastCsvTicksLoader.parse(ByteBuffer.wrap(Files.readAllBytes(file)), ZONE);
+        expected.sort();
+        BarColumns actual = MappedCsvTicksLoader.loadColumns(file, ZONE, pool);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getEndTime(i), actual.getEndTime(i));
+            assertEquals(expected.getOpenPrice(i), actual.getOpenPrice(i), 0);
+            assertEquals(expected.getMaxPrice(i), actual.getMaxPrice(i), 0);
+            assertEquals(expected.getMinPrice(i), actual.getMinPrice(i), 0);
+            assertEquals(expected.getClosePrice(i), actual.getClosePrice(i), 0);
+            assertEquals(expected.getVolume(i), actual.getVolume(i), 0);
+        }
+        return actual;
+    }
+
+    private Path write(List<String> lines, String lineSeparator) throws IOException {
+        StringBuilder content = new StringBuilder("DATE;TIME;OPEN;HIGH;LOW;CLOSE;VOLUME").append(lineSeparator);
+        for (String line : lines) {
+            content.append(line).append(lineSeparator);
+        }
+        Path file = folder.newFile().toPath();
+        Files.write(file, content.toString().getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    /**
+     * @param count the number of lines
+     * @return hourly bar lines (in time order), of various lengths
+     */
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        LocalDateTime dateTime = LocalDateTime.of(2017, 1, 2, 0, 0);
+        for (int i = 0; i < count; i++) {
+            String price = "1," + (i * 7919 % 100000);
+            lines.add(String.format("%04d.%02d.%02d;%d:%02d:00;%s;%s;%s;%s;-1", dateTime.getYear(),
+                    dateTime.getMonthValue(), dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(),
+                    price, price, price, price));
+            dateTime = dateTime.plusMinutes(15 + i % 4 * 15);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.loaders;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class MultiFileCsvTicksLoaderTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+
+    private static ForkJoinPool pool;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void duplicatedBarsAcrossFiles() throws IOException {
+        // Yearly file overlapping monthly files, sorted before and after it by name
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve("2020_D.csv"), LocalDate.of(2020, 1, 1), 120, 0);
+        write(directory.resolve("2020_ENE_D.csv"), LocalDate.of(2019, 12, 20), 40, 0);
+        write(directory.resolve("2020_ABR_D.csv"), LocalDate.of(2020, 4, 1), 60, 0);
+
+        BarColumns columns = MultiFileCsvTicksLoader.loadColumns(directory, "2020_*D.csv", ZONE, pool);
+        // From 2019-12-20 to 2020-05-30
+        assertEquals(12 + 151, columns.size());
+        assertTrue(columns.isSorted());
+        for (int i = 0; i < columns.size(); i++) {
+            LocalDate date = LocalDate.of(2019, 12, 20).plusDays(i);
+            assertEquals(date.atStartOfDay(ZONE).toInstant().toEpochMilli(), columns.getEndTime(i));
+            assertEquals(price(date, 0), columns.getClosePrice(i), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void differentDuplicatedBarsInDirectory() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        write(directory.resolve("2020_D.csv"), LocalDate.of(2020, 1, 1), 120, 0);
+        write(directory.resolve("2020_SEP_D.csv"), LocalDate.of(2020, 4, 1), 60, 1);
+        MultiFileCsvTicksLoader.loadColumns(directory, "*.csv", ZONE, pool);
+    }
+
+    @Test
+    public void priorityOfListedFiles() throws IOException {
+        Path yearly = write(folder.newFile().toPath(), LocalDate.of(2020, 1, 1), 120, 0);
+        Path monthly = write(folder.newFile().toPath(), LocalDate.of(2020, 4, 1), 60, 1);
+        for (boolean yearlyFirst : new boolean[] { true, false }) {
+            BarColumns columns = MultiFileCsvTicksLoader.loadColumns(
+                    yearlyFirst ? Arrays.asList(yearly, monthly) : Arrays.asList(monthly, yearly), ZONE, pool);
+            // From 2020-01-01 to 2020-05-30
+            assertEquals(151, columns.size());
+            LocalDate duplicatedDate = LocalDate.of(2020, 4, 10);
+            int index = (int) (duplicatedDate.toEpochDay() - LocalDate.of(2020, 1, 1).toEpochDay());
+            assertEquals(price(duplicatedDate, yearlyFirst ? 0 : 1), columns.getClosePrice(index), 0);
+            assertEquals(price(LocalDate.of(2020, 5, 20), 1), columns.getClosePrice(140), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicatedEndTimeInFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, ("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME\n" + "2020.01.02;1;2;0,5;1,5;10\n"
+                + "2020.01.02;1;2;0,5;1,5;10\n").getBytes(StandardCharsets.US_ASCII));
+        MultiFileCsvTicksLoader.loadColumns(Arrays.asList(file), ZONE, pool);
+    }
+
+    /**
+     * Writes a file of daily bars.
+     * @param file the file
+     * @param firstDate the date of the first bar
+     * @param barCount the number of bars
+     * @param version the version of the prices
+     * @return the file
+     * @throws IOException if the file cannot be written
+     */
+    private static Path write(Path file, LocalDate firstDate, int barCount, int version) throws IOException {
+        StringBuilder csv = new StringBuilder("DATE;OPEN;HIGH;LOW;CLOSE;VOLUME\n");
+        for (int i = 0; i < barCount; i++) {
+            LocalDate date = firstDate.plusDays(i);
+            String price = Double.toString(price(date, version)).replace('.', ',');
+            csv.append(String.format("%04d.%02d.%02d;%s;%s;%s;%s;-1%n", date.getYear(), date.getMonthValue(),
+                    date.getDayOfMonth(), price, price, price, price));
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    private static double price(LocalDate date, int version) {
+        return 1 + (date.toEpochDay() % 97) / 128.0 + version;
+    }
+}
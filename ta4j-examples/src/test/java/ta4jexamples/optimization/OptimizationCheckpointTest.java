@@ -0,0 +1,146 @@
+/*
+  The MIT License (MIT)
+
+  Copyright (c) 2014-2017 Marc de Verdelhan & respective authors (see AUTHORS)
+
+  Permission is hereby granted, free of charge, to any person obtaining a copy of
+  this software and associated documentation files (the "Software"), to deal in
+  the Software without restriction, including without limitation the rights to
+  use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+  the Software, and to permit persons to whom the Software is furnished to do so,
+  subject to the following conditions:
+
+  The above copyright notice and this permission notice shall be included in all
+  copies or substantial portions of the Software.
+
+  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+  FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+  COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+  IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+  CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package ta4jexamples.optimization;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ta4j.core.AnalysisCriterion;
+import org.ta4j.core.analysis.criteria.TotalProfitCriterion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class OptimizationCheckpointTest {
+
+    /** The size of the file header */
+    private static final int HEADER_SIZE = 12;
+
+    /** The size of a record of two parameters */
+    private static final int RECORD_SIZE = 16;
+
+    private final AnalysisCriterion criterion = new TotalProfitCriterion();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void resumeAfterTruncatedRecord() throws IOException {
+        List<int[]> parameterSets = parameterSets();
+        int completedCount = 120;
+        // Within the last completed record, and within the header
+        List<Integer> lengths = new ArrayList<>();
+        for (int cut = 1; cut < RECORD_SIZE; cut++) {
+            lengths.add(HEADER_SIZE + (completedCount - 1) * RECORD_SIZE + cut);
+        }
+        lengths.add(HEADER_SIZE / 2);
+
+        for (int length : lengths) {
+            Path file = folder.newFile().toPath();
+            Files.delete(file);
+            Map<List<Integer>, Integer> evaluations = new HashMap<>();
+            try (OptimizationCheckpoint checkpoint = new OptimizationCheckpoint(file, 2, criterion, 0)) {
+                run(checkpoint, parameterSets.subList(0, completedCount), evaluations);
+            }
+            assertEquals(HEADER_SIZE + completedCount * RECORD_SIZE, Files.size(file));
+
+            // Crash in the middle of a record
+            Files.write(file, Arrays.copyOf(Files.readAllBytes(file), length));
+            int keptCount = Math.max(0, (length - HEADER_SIZE) / RECORD_SIZE);
+            try (OptimizationCheckpoint checkpoint = new OptimizationCheckpoint(file, 2, criterion, 0)) {
+                assertEquals(keptCount, checkpoint.getCompletedCount());
+                assertFalse(checkpoint.isDone(parameterSets.get(keptCount)));
+                run(checkpoint, parameterSets, evaluations);
+            }
+
+            // Only the parameter sets of the dropped records are evaluated again
+            for (int i = 0; i < parameterSets.size(); i++) {
+                int expected = i >= keptCount && i < completedCount ? 2 : 1;
+                assertEquals(expected, (int) evaluations.get(key(parameterSets.get(i))));
+            }
+            // Each parameter set recorded once
+            assertEquals(HEADER_SIZE + parameterSets.size() * RECORD_SIZE, Files.size(file));
+            try (OptimizationCheckpoint checkpoint = new OptimizationCheckpoint(file, 2, criterion, 0)) {
+                assertEquals(parameterSets.size(), checkpoint.getCompletedCount());
+                for (int[] parameters : parameterSets) {
+                    assertEquals(value(parameters), checkpoint.getValue(parameters), 0);
+                }
+                assertArrayEquals(new int[] { 20, 10 }, checkpoint.getBestParameters());
+                assertEquals(value(new int[] { 20, 10 }), checkpoint.getBestValue(), 0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void otherParameterCount() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.delete(file);
+        try (OptimizationCheckpoint checkpoint = new OptimizationCheckpoint(file, 2, criterion, 0)) {
+            checkpoint.record(1.5, 1, 2);
+        }
+        new OptimizationCheckpoint(file, 3, criterion, 0).close();
+    }
+
+    /**
+     * Runs the parameter sets not completed yet.
+     * @param checkpoint the checkpoint
+     * @param parameterSets the parameter sets
+     * @param evaluations the number of evaluations of each parameter set
+     * @throws IOException if the checkpoint cannot be written
+     */
+    private static void run(OptimizationCheckpoint checkpoint, List<int[]> parameterSets,
+            Map<List<Integer>, Integer> evaluations) throws IOException {
+        for (int[] parameters : parameterSets) {
+            if (!checkpoint.isDone(parameters)) {
+                evaluations.merge(key(parameters), 1, Integer::sum);
+                checkpoint.record(value(parameters), parameters);
+            }
+        }
+    }
+
+    private static List<int[]> parameterSets() {
+        List<int[]> parameterSets = new ArrayList<>();
+        for (int longPeriod = 1; longPeriod <= 20; longPeriod++) {
+            for (int shortPeriod = 1; shortPeriod <= 10; shortPeriod++) {
+                parameterSets.add(new int[] { longPeriod, shortPeriod });
+            }
+        }
+        return parameterSets;
+    }
+
+    private static double value(int[] parameters) {
+        return 1 + parameters[0] * 0.01 + parameters[1] * 0.001;
+    }
+
+    private static List<Integer> key(int[] parameters) {
+        return Arrays.asList(parameters[0], parameters[1]);
+    }
+}